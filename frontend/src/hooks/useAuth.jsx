@@ -1,10 +1,12 @@
-import React, { createContext, useContext, useState, useEffect } from 'react';
+import React, { createContext, useContext, useState, useEffect, useRef } from 'react';
 
 const AuthContext = createContext();
 
 export function AuthProvider({ children }) {
     const [user, setUser]       = useState(null);
+    const [bootstrap, setBootstrap] = useState(null);
     const [loading, setLoading] = useState(true);
+    const refreshTimer          = useRef(null);
 
     // On mount: check for stored user (either mock or real)
     useEffect(() => {
@@ -16,51 +18,85 @@ export function AuthProvider({ children }) {
             return;
         }
 
-        // Then check for real credentials
-        const creds = localStorage.getItem('basicAuth');
-        if (creds) {
-            fetch('/admin/profile', {
-                headers: { Authorization: `Basic ${creds}` },
-                credentials: 'include'
-            })
-                .then(res => {
-                    if (!res.ok) throw new Error('Not logged in');
-                    return res.json();
-                })
-                .then(profile => {
-                    setUser(profile);
-                    localStorage.setItem('familyId', profile.familyId);
-                })
-                .catch(() => {
-                    localStorage.removeItem('basicAuth');
-                    localStorage.removeItem('familyId');
-                })
+        // Then check for a stored session: trade the refresh token for a fresh access token
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (refreshToken) {
+            refresh(refreshToken)
+                .then(fetchBootstrap)
+                .then(startSession)
+                .catch(() => clearSession())
                 .finally(() => setLoading(false));
         } else {
             setLoading(false);
         }
     }, []);
 
-    // login via HTTP Basic, using "username" (not email!)
-    const login = ({ username, password }) => {
-        const creds = btoa(`${username}:${password}`);
-        localStorage.setItem('basicAuth', creds);
+    const storeTokens = tokens => {
+        localStorage.setItem('authToken', tokens.accessToken);
+        localStorage.setItem('refreshToken', tokens.refreshToken);
+        // renew shortly before the access token expires
+        clearTimeout(refreshTimer.current);
+        refreshTimer.current = setTimeout(
+            () => refresh(tokens.refreshToken).catch(() => clearSession()),
+            Math.max(tokens.expiresIn - 30, 5) * 1000
+        );
+        return tokens.accessToken;
+    };
+
+    const clearSession = () => {
+        clearTimeout(refreshTimer.current);
+        localStorage.removeItem('authToken');
+        localStorage.removeItem('refreshToken');
+        localStorage.removeItem('familyId');
+    };
 
-        return fetch('/admin/profile', {
-            headers: { Authorization: `Basic ${creds}` },
+    const refresh = refreshToken =>
+        fetch('/token/refresh', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken }),
             credentials: 'include'
         })
             .then(res => {
-                if (!res.ok) throw new Error('Invalid credentials');
+                if (!res.ok) throw new Error('Session expired');
                 return res.json();
             })
-            .then(profile => {
-                setUser(profile);
-                localStorage.setItem('familyId', profile.familyId);
-                return profile;
-            });
+            .then(storeTokens);
+
+    // profile, family, cars and alert counts in one request; the response carries an ETag and is
+    // revalidated on every load, so the browser cache turns an unchanged session into a bodiless 304
+    const fetchBootstrap = token =>
+        fetch('/admin/bootstrap', {
+            headers: { Authorization: `Bearer ${token}` },
+            credentials: 'include'
+        }).then(res => {
+            if (!res.ok) throw new Error('Not logged in');
+            return res.json();
+        });
+
+    const startSession = data => {
+        setBootstrap(data);
+        setUser(data.profile);
+        localStorage.setItem('familyId', data.profile.familyId);
+        return data.profile;
     };
 
+    // login once with username/password (not email!), then use the bearer token
+    const login = ({ username, password }) =>
+        fetch('/login', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ username, password }),
+            credentials: 'include'
+        })
+            .then(res => {
+                if (!res.ok) throw new Error('Invalid credentials');
+                return res.json();
+            })
+            .then(storeTokens)
+            .then(fetchBootstrap)
+            .then(startSession);
+
     // signup → then immediately login with the same username/password
     const signup = ({ familyId, username, email, password, role }) => {
         console.log('Signup data before send:', { familyId, username, email, password, role });
@@ -128,14 +164,14 @@ export function AuthProvider({ children }) {
     };
 
     const logout = () => {
-        localStorage.removeItem('basicAuth');
-        localStorage.removeItem('familyId');
+        clearSession();
         localStorage.removeItem('user'); // Clear mock user too
         setUser(null);
+        setBootstrap(null);
     };
 
     return (
-        <AuthContext.Provider value={{ user, loading, login, signup, logout }}>
+        <AuthContext.Provider value={{ user, bootstrap, loading, login, signup, logout }}>
             {children}
         </AuthContext.Provider>
     );
@@ -0,0 +1,81 @@
+import { useEffect, useRef } from 'react';
+
+// Subscribes to /admin/families/{familyId}/events (Server-Sent Events).
+// EventSource cannot send the bearer token, so the stream is read with fetch. On a dropped connection
+// it reconnects with Last-Event-ID and the server replays what was missed; a RESET event means
+// the gap was too large and the page should re-fetch instead.
+export default function useFamilyEvents(familyId, onEvent) {
+    const handler = useRef(onEvent);
+    handler.current = onEvent;
+
+    useEffect(() => {
+        if (!familyId) return;
+
+        const controller = new AbortController();
+        let lastEventId = null;
+        let retryDelay = 1000;
+
+        const dispatch = (name, data) => {
+            try {
+                handler.current(name, data ? JSON.parse(data) : {});
+            } catch (err) {
+                console.error('Error handling family event:', err);
+            }
+        };
+
+        const connect = async () => {
+            while (!controller.signal.aborted) {
+                try {
+                    const token = localStorage.getItem('authToken');
+                    const response = await fetch(`/admin/families/${familyId}/events`, {
+                        headers: {
+                            Accept: 'text/event-stream',
+                            ...(token && { 'Authorization': `Bearer ${token}` }),
+                            ...(lastEventId && { 'Last-Event-ID': lastEventId }),
+                        },
+                        credentials: 'include',
+                        signal: controller.signal
+                    });
+                    if (!response.ok) throw new Error(`HTTP error: ${response.status}`);
+                    retryDelay = 1000;
+
+                    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                    let buffer = '';
+                    let name = null;
+                    let data = '';
+                    for (;;) {
+                        const { value, done } = await reader.read();
+                        if (done) break;
+                        buffer += value;
+                        let newline;
+                        while ((newline = buffer.indexOf('\n')) >= 0) {
+                            const line = buffer.slice(0, newline).replace(/\r$/, '');
+                            buffer = buffer.slice(newline + 1);
+                            if (line === '') {
+                                if (name) dispatch(name, data);
+                                name = null;
+                                data = '';
+                            } else if (line.startsWith('id:')) {
+                                lastEventId = line.slice(3);
+                            } else if (line.startsWith('event:')) {
+                                name = line.slice(6);
+                            } else if (line.startsWith('data:')) {
+                                data += line.slice(5);
+                            }
+                            // ':' lines are heartbeats
+                        }
+                    }
+                } catch (err) {
+                    if (controller.signal.aborted) return;
+                    console.warn('Family event stream interrupted:', err.message);
+                }
+                // back off while the server is unreachable, up to 30s
+                await new Promise(resolve => setTimeout(resolve, retryDelay));
+                retryDelay = Math.min(retryDelay * 2, 30000);
+            }
+        };
+
+        connect();
+        return () => controller.abort();
+    }, [familyId]);
+}
@@ -55,7 +55,7 @@ export default function AddCar() {
         }
         
         const familyId = user.familyId;
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         
         if (!token) {
             setError('Authentication token not found. Please log in again.');
@@ -75,7 +75,7 @@ export default function AddCar() {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
-                'Authorization': `Basic ${token}`
+                'Authorization': `Bearer ${token}`
             },
             credentials: 'include',
             body: JSON.stringify(carData),
@@ -1,31 +1,37 @@
 import { useState, useEffect } from 'react';
 import useAuth from '../hooks/useAuth';
+import useFamilyEvents from '../hooks/useFamilyEvents';
 import BackgroundOverlay from '../components/BackgroundOverlay';
 
 export default function Alerts() {
     const { user } = useAuth();
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
-    const [cars, setCars] = useState([]);
     const [alerts, setAlerts] = useState([]);
+    const [reloadKey, setReloadKey] = useState(0);
 
-    // Fetch user's cars
+    // Re-fetch when something that can change the list happens (new records, reached due dates, reassignments)
+    useFamilyEvents(user?.familyId, type => {
+        if (type !== 'FUEL_LOG_CREATED') {
+            setReloadKey(key => key + 1);
+        }
+    });
+
+    // One request: the server picks overdue / due-soon / upcoming maintenance and compliance items
     useEffect(() => {
         if (!user) return;
 
-        const familyId = user.familyId;
-        const userId = user.id;
-        const token = localStorage.getItem('basicAuth');
-        
-        // If admin, fetch all family cars, otherwise fetch user's assigned cars
-        const url = user.role === 'ROLE_ADMIN' 
-            ? `/admin/families/${familyId}/cars`
-            : `/admin/users/${userId}/cars`;
-        
+        const token = localStorage.getItem('authToken');
+
+        // If admin, fetch alerts for all family cars, otherwise for the user's assigned cars
+        const url = user.role === 'ROLE_ADMIN'
+            ? `/admin/families/${user.familyId}/alerts`
+            : `/admin/users/${user.id}/alerts`;
+
         fetch(url, {
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -34,111 +40,36 @@ export default function Alerts() {
                 return response.json();
             })
             .then(data => {
-                setCars(data);
+                // Already sorted: overdue (most overdue first), then due soon, then upcoming
+                setAlerts(data.map(toAlertCard));
             })
             .catch(err => {
-                console.error("Error fetching cars:", err);
-                setError(`Failed to load cars: ${err.message || 'Unknown error'}`);
+                console.error("Error fetching alerts:", err);
+                setError(`Failed to load alerts: ${err.message || 'Unknown error'}`);
             })
             .finally(() => setLoading(false));
-    }, [user]);
+    }, [user, reloadKey]);
 
-    // Fetch maintenance records for all cars and generate alerts
-    useEffect(() => {
-        if (!cars.length) return;
-        
-        const token = localStorage.getItem('basicAuth');
-        const fetchPromises = cars.map(car => 
-            fetch(`/admin/cars/${car.id}/maintenance`, {
-                headers: {
-                    'Content-Type': 'application/json',
-                    ...(token && { 'Authorization': `Basic ${token}` }),
-                },
-                credentials: 'include'
-            })
-            .then(res => {
-                if (!res.ok) throw new Error(`Failed to fetch maintenance logs for car ${car.id}`);
-                return res.json();
-            })
-            .then(records => {
-                // Add car info to each record
-                return records.map(record => ({
-                    ...record,
-                    car: {
-                        id: car.id,
-                        brand: car.brand,
-                        model: car.model,
-                        licensePlate: car.licensePlate
-                    }
-                }));
-            })
-            .catch(err => {
-                console.error(`Error fetching maintenance for car ${car.id}:`, err);
-                return []; // Return empty array on error to avoid breaking Promise.all
-            })
-        );
-
-        // Process all records from all cars
-        Promise.all(fetchPromises)
-            .then(allRecords => {
-                // Flatten the array of arrays
-                const flattenedRecords = allRecords.flat();
-                
-                // Generate alerts from maintenance records
-                const generatedAlerts = [];
-                const today = new Date();
-                
-                flattenedRecords.forEach(record => {
-                    if (!record.nextDueDate) return; // Skip records with no due date
-                    
-                    const dueDate = new Date(record.nextDueDate);
-                    const timeDiff = dueDate.getTime() - today.getTime();
-                    const daysDiff = Math.ceil(timeDiff / (1000 * 3600 * 24));
-                    
-                    // Records with due dates in the past (overdue)
-                    if (daysDiff < 0) {
-                        generatedAlerts.push({
-                            id: `maintenance-${record.id}`,
-                            type: 'danger', // Red alert
-                            title: `Overdue: ${getMaintenanceTypeLabel(record.type)} for ${record.car.brand} ${record.car.model}`,
-                            description: record.description || 'Maintenance item is overdue',
-                            car: record.car,
-                            daysOverdue: Math.abs(daysDiff),
-                            icon: getIconForMaintenanceType(record.type)
-                        });
-                    } 
-                    // Records due within 5 days
-                    else if (daysDiff <= 5) {
-                        generatedAlerts.push({
-                            id: `maintenance-${record.id}`,
-                            type: 'warning', // Yellow alert
-                            title: `Due Soon: ${getMaintenanceTypeLabel(record.type)} for ${record.car.brand} ${record.car.model}`,
-                            description: record.description || 'Maintenance item is due soon',
-                            car: record.car,
-                            daysDue: daysDiff,
-                            icon: getIconForMaintenanceType(record.type)
-                        });
-                    }
-                });
-                
-                // Sort alerts: overdue first (most overdue at top), then due soon (closest due date at top)
-                generatedAlerts.sort((a, b) => {
-                    // First sort by type (danger before warning)
-                    if (a.type !== b.type) {
-                        return a.type === 'danger' ? -1 : 1;
-                    }
-                    
-                    // Then sort by days (for overdue: most overdue first, for warnings: soonest first)
-                    if (a.type === 'danger') {
-                        return b.daysOverdue - a.daysOverdue; // Most overdue first
-                    } else {
-                        return a.daysDue - b.daysDue; // Closest due date first
-                    }
-                });
-                
-                setAlerts(generatedAlerts);
-            });
-    }, [cars]);
+    const toAlertCard = (alert) => {
+        const isMaintenance = alert.source === 'MAINTENANCE';
+        const label = isMaintenance ? getMaintenanceTypeLabel(alert.type) : alert.type;
+        const carName = `${alert.car.brand} ${alert.car.model}`;
+        const status = {
+            OVERDUE: { type: 'danger', prefix: 'Overdue' },
+            DUE_SOON: { type: 'warning', prefix: 'Due Soon' },
+            UPCOMING: { type: 'info', prefix: 'Upcoming' }
+        }[alert.severity];
+        return {
+            id: `${alert.source.toLowerCase()}-${alert.recordId}`,
+            type: status.type,
+            title: `${status.prefix}: ${label} for ${carName}`,
+            description: alert.description || (isMaintenance ? 'Maintenance item' : `${alert.type} expires on ${alert.dueDate}`),
+            car: alert.car,
+            daysOverdue: Math.max(0, -alert.daysUntilDue),
+            daysDue: Math.max(0, alert.daysUntilDue),
+            icon: isMaintenance ? getIconForMaintenanceType(alert.type) : 'fa-file-contract'
+        };
+    };
 
     // Helper function to get a human-readable label for maintenance type
     const getMaintenanceTypeLabel = (type) => {
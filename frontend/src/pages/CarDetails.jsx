@@ -50,11 +50,11 @@ export default function CarDetails() {
 
     // Fetch car details
     useEffect(() => {
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         fetch(`/admin/cars/${carId}`, {
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -79,11 +79,11 @@ export default function CarDetails() {
     useEffect(() => {
         if (!carId) return;
         
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         fetch(`/admin/cars/${carId}/maintenance`, {
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -159,7 +159,7 @@ export default function CarDetails() {
 
     const handleSave = () => {
         setLoading(true);
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         
         // Prepare the data - map form fields to backend fields
         const carData = {
@@ -179,7 +179,7 @@ export default function CarDetails() {
             method: 'PUT',
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include',
             body: JSON.stringify(carData),
@@ -239,7 +239,7 @@ export default function CarDetails() {
     };
 
     const saveMaintenanceLog = () => {
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         
         // Convert form values to correct types
         const logData = {
@@ -254,7 +254,7 @@ export default function CarDetails() {
                 method: 'PUT',
                 headers: {
                     'Content-Type': 'application/json',
-                    ...(token && { 'Authorization': `Basic ${token}` }),
+                    ...(token && { 'Authorization': `Bearer ${token}` }),
                 },
                 credentials: 'include',
                 body: JSON.stringify(logData),
@@ -285,7 +285,7 @@ export default function CarDetails() {
                 method: 'POST',
                 headers: {
                     'Content-Type': 'application/json',
-                    ...(token && { 'Authorization': `Basic ${token}` }),
+                    ...(token && { 'Authorization': `Bearer ${token}` }),
                 },
                 credentials: 'include',
                 body: JSON.stringify(logData),
@@ -315,12 +315,12 @@ export default function CarDetails() {
             return;
         }
         
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         fetch(`/admin/maintenance/${id}`, {
             method: 'DELETE',
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -379,7 +379,7 @@ export default function CarDetails() {
                             <div className="w-full max-w-xs md:max-w-sm aspect-[4/3] rounded-xl overflow-hidden bg-[#191922] border border-[#23232f] shadow-xl">
                                 {car.imageUrl ? (
                                     <img 
-                                        src={car.imageUrl} 
+                                        src={car.mediumImageUrl || car.imageUrl} 
                                         alt={`${car.brand} ${car.model}`}
                                         className="w-full h-full object-cover"
                                     />
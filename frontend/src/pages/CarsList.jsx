@@ -1,6 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import useAuth from '../hooks/useAuth';
+import useFamilyEvents from '../hooks/useFamilyEvents';
 import BackgroundOverlay from '../components/BackgroundOverlay';
 
 export default function CarsList() {
@@ -12,9 +13,25 @@ export default function CarsList() {
     const [assignUserModalOpen, setAssignUserModalOpen] = useState(false);
     const [currentCar, setCurrentCar] = useState(null);
     const [selectedUserId, setSelectedUserId] = useState('');
+    const [reloadKey, setReloadKey] = useState(0);
 
     const isAdmin = user?.role === 'ROLE_ADMIN';
 
+    // Assignment changes made elsewhere are patched in place; RESET means events were missed
+    useFamilyEvents(user?.familyId, (type, event) => {
+        if (type === 'RESET') {
+            setReloadKey(key => key + 1);
+        } else if (type === 'CAR_ASSIGNED' || type === 'CAR_UNASSIGNED') {
+            const mine = isAdmin || event.car.assignedUser?.id === user.id;
+            setCars(prev => {
+                if (!mine) return prev.filter(car => car.id !== event.car.id);
+                return prev.some(car => car.id === event.car.id)
+                    ? prev.map(car => car.id === event.car.id ? { ...car, ...event.car } : car)
+                    : [...prev, event.car];
+            });
+        }
+    });
+
     // Fetch appropriate cars based on user role
     useEffect(() => {
         if (!user) {
@@ -25,7 +42,7 @@ export default function CarsList() {
         
         console.log("Fetching cars for user:", user);
         const familyId = user.familyId;
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         setIsLoading(true);
         setError(null);
 
@@ -39,7 +56,7 @@ export default function CarsList() {
         fetch(url, {
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -57,21 +74,21 @@ export default function CarsList() {
                 setError(`Failed to load cars: ${err.message || 'Unknown error'}`);
             })
             .finally(() => setIsLoading(false));
-    }, [user, isAdmin]);
+    }, [user, isAdmin, reloadKey]);
 
     // Fetch family members if user is admin
     useEffect(() => {
         if (!user || !isAdmin) return;
         
         const familyId = user.familyId;
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
 
         console.log("Fetching family members for family ID:", familyId);
 
         fetch(`/admin/families/${familyId}/users`, {
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -105,7 +122,7 @@ export default function CarsList() {
     const assignCar = () => {
         if (!currentCar) return;
         
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         const url = selectedUserId 
             ? `/admin/cars/${currentCar.id}/assign?userId=${selectedUserId}`
             : `/admin/cars/${currentCar.id}/unassign`;
@@ -116,7 +133,7 @@ export default function CarsList() {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -186,7 +203,7 @@ export default function CarsList() {
                                 <div key={car.id} className="bg-[#1A1A1F] rounded-lg overflow-hidden shadow-lg">
                                     <div className="h-48 overflow-hidden">
                                         <img 
-                                            src={car.imageUrl || 'https://via.placeholder.com/400x200?text=No+Image'} 
+                                            src={car.thumbnailUrl || car.imageUrl || 'https://via.placeholder.com/400x200?text=No+Image'} 
                                             alt={`${car.brand} ${car.model}`}
                                             className="w-full h-full object-cover"
                                         />
@@ -41,7 +41,7 @@ export default function Profile() {
             return;
         }
 
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         const payload = {
             ...formData,
             id: user.id,
@@ -57,7 +57,7 @@ export default function Profile() {
             method: 'PUT',
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include',
             body: JSON.stringify(payload)
@@ -17,11 +17,11 @@ export default function Team() {
 
     useEffect(() => {
         if (!user || !user.familyId) return;
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         fetch(`/admin/families/${user.familyId}/users`, {
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -42,12 +42,12 @@ export default function Team() {
     const handleInvite = (e) => {
         e.preventDefault();
         if (!user || !user.familyId) return;
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         fetch(`/admin/users?familyId=${user.familyId}`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include',
             body: JSON.stringify(inviteForm)
@@ -66,12 +66,12 @@ export default function Team() {
 
     const handleRemoveMember = (userId) => {
         if (!window.confirm('Are you sure you want to remove this family member?')) return;
-        const token = localStorage.getItem('basicAuth');
+        const token = localStorage.getItem('authToken');
         fetch(`/admin/users/${userId}`, {
             method: 'DELETE',
             headers: {
                 'Content-Type': 'application/json',
-                ...(token && { 'Authorization': `Basic ${token}` }),
+                ...(token && { 'Authorization': `Bearer ${token}` }),
             },
             credentials: 'include'
         })
@@ -28,6 +28,11 @@ public class DataLoader implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        // The schema now survives restarts, so only seed an empty database
+        if (userRepo.existsByUsername("dad")) {
+            return;
+        }
+
         // 1) Create a Family
         Family smiths = new Family();
         smiths.setFamilyName("The Smiths");
@@ -0,0 +1,72 @@
+package org.example.carpulse_v1.bootstrap;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.services.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * One-off migration: moves Base64 {@code data:} URLs out of {@code cars.image_url} into the {@link ImageStore}.
+ *
+ * Enable with {@code carpulse.images.migrate-inline=true} for a single start-up, then switch it off again.
+ * Each car is converted in its own transaction so only one inline image is held in memory at a time.
+ */
+@Component
+@ConditionalOnProperty(name = "carpulse.images.migrate-inline", havingValue = "true")
+public class InlineImageMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(InlineImageMigration.class);
+
+    private final CarRepository carRepo;
+    private final ImageStore imageStore;
+    private final TransactionTemplate tx;
+
+    public InlineImageMigration(CarRepository carRepo,
+                                ImageStore imageStore,
+                                PlatformTransactionManager transactionManager) {
+        this.carRepo    = carRepo;
+        this.imageStore = imageStore;
+        this.tx         = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> ids = carRepo.findIdsWithInlineImages();
+        logger.info("Migrating {} inline car images to the image store", ids.size());
+
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                tx.executeWithoutResult(status -> migrate(id));
+                migrated++;
+            } catch (RuntimeException e) {
+                logger.error("Could not migrate image of car ID: {}", id, e);
+            }
+        }
+        logger.info("Migrated {} of {} inline car images", migrated, ids.size());
+    }
+
+    private void migrate(Long id) {
+        Car car = carRepo.findById(id).orElse(null);
+        if (car == null || car.getImageUrl() == null || !car.getImageUrl().startsWith("data:")) {
+            return;
+        }
+        try {
+            String key = imageStore.storeDataUrl(car.getImageUrl());
+            car.setImageUrl(ImageStore.urlFor(key));
+            carRepo.save(car);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
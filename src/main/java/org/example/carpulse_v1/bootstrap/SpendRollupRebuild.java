@@ -0,0 +1,57 @@
+package org.example.carpulse_v1.bootstrap;
+
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.services.SpendRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds the spend rollups of every family from the raw fuel logs and maintenance records at start-up.
+ *
+ * {@code carpulse.spend.rebuild-on-startup}: {@code if-empty} (default) backfills the table the first time
+ * the application starts on it, {@code always} rebuilds on every start, {@code never} leaves it to
+ * {@code POST /admin/families/{id}/spend/rebuild}. Each family is rebuilt in its own transaction, and
+ * writes to a family wait only while that family is being rebuilt.
+ */
+@Component
+public class SpendRollupRebuild implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(SpendRollupRebuild.class);
+
+    private final SpendRollupService spendRollupService;
+    private final FamilyRepository familyRepository;
+    private final String mode;
+
+    public SpendRollupRebuild(SpendRollupService spendRollupService,
+                              FamilyRepository familyRepository,
+                              @Value("${carpulse.spend.rebuild-on-startup:if-empty}") String mode) {
+        this.spendRollupService = spendRollupService;
+        this.familyRepository   = familyRepository;
+        this.mode               = mode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mode.equals("never") || (mode.equals("if-empty") && !spendRollupService.isEmpty())) {
+            return;
+        }
+        List<Long> ids = familyRepository.findAllIds();
+        long started = System.nanoTime();
+        int rebuilt = 0;
+        for (Long id : ids) {
+            try {
+                spendRollupService.rebuild(id);
+                rebuilt++;
+            } catch (RuntimeException e) {
+                logger.error("Could not rebuild spend rollups of family ID: {}", id, e);
+            }
+        }
+        logger.info("Rebuilt spend rollups of {} of {} families in {} ms",
+                rebuilt, ids.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.carpulse_v1.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    // injected wherever "today" matters (alerts, reminders) so tests can pin it
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
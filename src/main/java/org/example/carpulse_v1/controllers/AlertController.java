@@ -0,0 +1,33 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.Alert;
+import org.example.carpulse_v1.services.AlertService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Overdue / due-soon / upcoming items, most urgent first. {@code ?days=} sets the look-ahead horizon.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AlertController {
+
+    private final AlertService alertService;
+
+    public AlertController(AlertService alertService) {
+        this.alertService = alertService;
+    }
+
+    @GetMapping("/families/{familyId}/alerts")
+    public List<Alert> familyAlerts(@PathVariable Long familyId,
+                                    @RequestParam(required = false) Integer days) {
+        return alertService.findForFamily(familyId, days);
+    }
+
+    @GetMapping("/users/{userId}/alerts")
+    public List<Alert> userAlerts(@PathVariable Long userId,
+                                  @RequestParam(required = false) Integer days) {
+        return alertService.findForUser(userId, days);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.Bootstrap;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.example.carpulse_v1.services.BootstrapService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Everything the first page after login needs. The version doubles as the ETag: a request with
+ * {@code If-None-Match} set to the current version gets 304 without a body. Responses are private and
+ * always revalidated, so a browser cache turns a reload into a conditional request on its own.
+ */
+@RestController
+@RequestMapping("/admin/bootstrap")
+public class BootstrapController {
+
+    private final BootstrapService bootstrapService;
+
+    public BootstrapController(BootstrapService bootstrapService) {
+        this.bootstrapService = bootstrapService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Bootstrap> bootstrap(@AuthenticationPrincipal AuthenticatedUser currentUser,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
+        Bootstrap bootstrap = bootstrapService.findForUser(currentUser.getId());
+        String etag = "\"" + bootstrap.version() + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(bootstrap);
+    }
+}
@@ -1,16 +1,22 @@
 package org.example.carpulse_v1.controllers;
 
 import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.dto.CursorPage;
 import org.example.carpulse_v1.services.CarService;
+import org.example.carpulse_v1.services.ImageStore;
+import org.example.carpulse_v1.services.KeysetPager;
+import org.example.carpulse_v1.services.ThumbnailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Base64;
+import java.io.InputStream;
 import java.util.List;
 
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
@@ -20,16 +26,20 @@ public class CarController {
     private static final Logger logger = LoggerFactory.getLogger(CarController.class);
 
     private final CarService carService;
+    private final ImageStore imageStore;
+    private final ThumbnailService thumbnailService;
 
-    public CarController(CarService carService) {
+    public CarController(CarService carService, ImageStore imageStore, ThumbnailService thumbnailService) {
         this.carService = carService;
+        this.imageStore = imageStore;
+        this.thumbnailService = thumbnailService;
     }
 
     @GetMapping("/cars")
-    public ResponseEntity<List<Car>> listCarsByFamilyParam(@RequestParam Long familyId) {
+    public ResponseEntity<List<CarSummary>> listCarsByFamilyParam(@RequestParam Long familyId) {
         try {
             logger.info("Fetching cars by family ID (param): {}", familyId);
-            List<Car> cars = carService.findAllByFamily(familyId);
+            List<CarSummary> cars = carService.findSummariesByFamily(familyId);
             logger.info("Found {} cars for family ID: {}", cars.size(), familyId);
             return ResponseEntity.ok(cars);
         } catch (Exception e) {
@@ -39,10 +49,10 @@ public class CarController {
     }
     
     @GetMapping("/families/{familyId}/cars")
-    public ResponseEntity<List<Car>> listCars(@PathVariable Long familyId) {
+    public ResponseEntity<List<CarSummary>> listCars(@PathVariable Long familyId) {
         try {
             logger.info("Fetching cars by family ID (path): {}", familyId);
-            List<Car> cars = carService.findAllByFamily(familyId);
+            List<CarSummary> cars = carService.findSummariesByFamily(familyId);
             logger.info("Found {} cars for family ID: {}", cars.size(), familyId);
             return ResponseEntity.ok(cars);
         } catch (Exception e) {
@@ -51,11 +61,43 @@ public class CarController {
         }
     }
     
+    // ?limit=n[&cursor=...][&sort=asc|desc] on either family list returns one keyset page
+    @GetMapping(value = "/cars", params = "limit")
+    public ResponseEntity<CursorPage<CarSummary>> pageCarsByFamilyParam(@RequestParam Long familyId,
+                                                                        @RequestParam int limit,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) String sort) {
+        return pageCars(familyId, limit, cursor, sort);
+    }
+
+    @GetMapping(value = "/families/{familyId}/cars", params = "limit")
+    public ResponseEntity<CursorPage<CarSummary>> pageCarsByFamily(@PathVariable Long familyId,
+                                                                   @RequestParam int limit,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) String sort) {
+        return pageCars(familyId, limit, cursor, sort);
+    }
+
+    private ResponseEntity<CursorPage<CarSummary>> pageCars(Long familyId, int limit, String cursor, String sort) {
+        try {
+            logger.info("Fetching car page for family ID: {} (limit {}, cursor {})", familyId, limit, cursor);
+            Sort.Direction direction = KeysetPager.direction(sort, Sort.Direction.ASC);
+            CursorPage<CarSummary> page = carService.findSummaryPageByFamily(familyId, cursor, limit, direction);
+            logger.info("Found {} cars for family ID: {}", page.items().size(), familyId);
+            return ResponseEntity.ok(page);
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching car page for family ID: {}", familyId, e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching cars: " + e.getMessage(), e);
+        }
+    }
+
     @GetMapping("/users/{userId}/cars") 
-    public ResponseEntity<List<Car>> listUserCars(@PathVariable Long userId) {
+    public ResponseEntity<List<CarSummary>> listUserCars(@PathVariable Long userId) {
         try {
             logger.info("Fetching cars by user ID: {}", userId);
-            List<Car> cars = carService.findAllByUser(userId);
+            List<CarSummary> cars = carService.findSummariesByUser(userId);
             logger.info("Found {} cars for user ID: {}", cars.size(), userId);
             return ResponseEntity.ok(cars);
         } catch (Exception e) {
@@ -65,10 +107,10 @@ public class CarController {
     }
     
     @GetMapping("/families/{familyId}/unassigned-cars")
-    public ResponseEntity<List<Car>> listUnassignedCars(@PathVariable Long familyId) {
+    public ResponseEntity<List<CarSummary>> listUnassignedCars(@PathVariable Long familyId) {
         try {
             logger.info("Fetching unassigned cars for family ID: {}", familyId);
-            List<Car> cars = carService.findUnassignedCarsByFamily(familyId);
+            List<CarSummary> cars = carService.findUnassignedSummariesByFamily(familyId);
             logger.info("Found {} unassigned cars for family ID: {}", cars.size(), familyId);
             return ResponseEntity.ok(cars);
         } catch (Exception e) {
@@ -164,20 +206,19 @@ public class CarController {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File is empty");
             }
             
-            // Get the car entity
-            Car car = carService.findById(id);
-            
-            // Convert image to Base64 string
-            byte[] imageBytes = file.getBytes();
-            String base64Image = Base64.getEncoder().encodeToString(imageBytes);
-            String imageUrl = "data:" + file.getContentType() + ";base64," + base64Image;
-            
-            // Update car with image URL
-            car.setImageUrl(imageUrl);
-            Car updated = carService.update(id, car);
+            // Stream the upload into the content-addressed store, the car only keeps the link
+            String key;
+            try (InputStream in = file.getInputStream()) {
+                key = imageStore.store(in, file.getContentType());
+            }
+            Car updated = carService.updateImageUrl(id, ImageStore.urlFor(key));
+            // small/medium renditions are produced in the background
+            thumbnailService.submit(key);
             
             logger.info("Image uploaded successfully for car ID: {}", id);
             return ResponseEntity.ok(updated);
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error uploading image for car ID: {}", id, e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error uploading image: " + e.getMessage(), e);
@@ -0,0 +1,24 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.CarDashboard;
+import org.example.carpulse_v1.services.CarDashboardService;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * The car details page in one request: summary, recent maintenance and fuel logs, alerts and fuel stats.
+ */
+@RestController
+@RequestMapping("/admin/cars/{carId}/dashboard")
+public class CarDashboardController {
+
+    private final CarDashboardService dashboardService;
+
+    public CarDashboardController(CarDashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @GetMapping
+    public CarDashboard dashboard(@PathVariable Long carId) {
+        return dashboardService.findForCar(carId);
+    }
+}
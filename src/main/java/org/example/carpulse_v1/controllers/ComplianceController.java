@@ -3,6 +3,9 @@ package org.example.carpulse_v1.controllers;
 
 import org.example.carpulse_v1.domain.ComplianceRecord;
 import org.example.carpulse_v1.services.ComplianceService;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.services.KeysetPager;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,6 +24,15 @@ public class ComplianceController {
         return complianceService.findAllByCar(carId);
     }
 
+    // ?limit=n[&cursor=...][&sort=asc|desc], newest first by default
+    @GetMapping(value = "/admin/cars/{carId}/compliance", params = "limit")
+    public CursorPage<ComplianceRecord> page(@PathVariable Long carId,
+                                             @RequestParam int limit,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) String sort) {
+        return complianceService.findPageByCar(carId, cursor, limit, KeysetPager.direction(sort, Sort.Direction.DESC));
+    }
+
     @PostMapping("/admin/cars/{carId}/compliance")
     public ComplianceRecord create(@PathVariable Long carId,
                                    @RequestBody ComplianceRecord rec) {
@@ -0,0 +1,78 @@
+package org.example.carpulse_v1.controllers;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.carpulse_v1.services.FamilyExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Downloads of a family's full history. The body is written while rows are read from the database,
+ * gzip-compressed on the fly when the client sends {@code Accept-Encoding: gzip}.
+ */
+@RestController
+@RequestMapping("/admin/families/{familyId}/export")
+public class ExportController {
+    private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
+
+    private final FamilyExportService exportService;
+
+    public ExportController(FamilyExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // every dataset in one NDJSON stream, lines tagged with "kind"
+    @GetMapping
+    public void exportAll(@PathVariable Long familyId,
+                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                          HttpServletResponse response) throws IOException {
+        exportService.requireFamily(familyId);
+        FamilyExportService.Format format = FamilyExportService.Format.NDJSON;
+        try (OutputStream out = open(response, familyId, "all", format, acceptEncoding)) {
+            long rows = exportService.exportAll(familyId, out);
+            logger.info("Exported {} rows for family ID: {}", rows, familyId);
+        }
+    }
+
+    // /cars, /maintenance, /fuel-logs or /compliance, ?format=ndjson (default) or csv
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable Long familyId,
+                       @PathVariable String dataset,
+                       @RequestParam(defaultValue = "ndjson") String format,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        FamilyExportService.Dataset ds = FamilyExportService.Dataset.parse(dataset)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown dataset: " + dataset));
+        FamilyExportService.Format fmt = FamilyExportService.Format.parse(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv"));
+        exportService.requireFamily(familyId);
+
+        try (OutputStream out = open(response, familyId, ds.pathName(), fmt, acceptEncoding)) {
+            long rows = exportService.export(familyId, ds, fmt, out);
+            logger.info("Exported {} {} rows for family ID: {}", rows, ds.pathName(), familyId);
+        }
+    }
+
+    private static OutputStream open(HttpServletResponse response,
+                                     Long familyId,
+                                     String name,
+                                     FamilyExportService.Format format,
+                                     String acceptEncoding) throws IOException {
+        response.setContentType(format.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"family-" + familyId + "-" + name + "." + format.getExtension() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        }
+        return response.getOutputStream();
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.services.FamilyEventHub;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live changes for a family as Server-Sent Events: car assignments, new records and reached due dates.
+ * Reconnects send {@code Last-Event-ID} to resume; a {@code RESET} event means re-fetch instead.
+ */
+@RestController
+@RequestMapping("/admin/families/{familyId}/events")
+public class FamilyEventController {
+
+    private final FamilyEventHub eventHub;
+    private final FamilyRepository familyRepository;
+
+    public FamilyEventController(FamilyEventHub eventHub, FamilyRepository familyRepository) {
+        this.eventHub = eventHub;
+        this.familyRepository = familyRepository;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long familyId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (!familyRepository.existsById(familyId)) {
+            throw new ResourceNotFoundException("Family not found: " + familyId);
+        }
+        return eventHub.subscribe(familyId, lastEventId);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.SegmentBenchmark;
+import org.example.carpulse_v1.services.FleetBenchmarkService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Fleet-wide price and economy percentiles per segment, answered from in-memory sketches.
+ * {@code /admin/benchmarks?brand=&model=&fuelType=} (fuelType optional), or the segment of one car.
+ */
+@RestController
+@RequestMapping("/admin")
+public class FleetBenchmarkController {
+
+    private final FleetBenchmarkService benchmarkService;
+
+    public FleetBenchmarkController(FleetBenchmarkService benchmarkService) {
+        this.benchmarkService = benchmarkService;
+    }
+
+    @GetMapping("/benchmarks")
+    public SegmentBenchmark segment(@RequestParam String brand,
+                                    @RequestParam String model,
+                                    @RequestParam(required = false) String fuelType) {
+        return benchmarkService.findForSegment(brand, model, fuelType);
+    }
+
+    @GetMapping("/cars/{carId}/benchmark")
+    public SegmentBenchmark car(@PathVariable Long carId) {
+        return benchmarkService.findForCar(carId);
+    }
+
+    @PostMapping("/benchmarks/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        benchmarkService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
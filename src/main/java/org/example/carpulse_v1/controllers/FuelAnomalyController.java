@@ -0,0 +1,29 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.FuelAnomaly;
+import org.example.carpulse_v1.services.FuelAnomalyDetector;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Fuel log entries flagged (or rejected) as they were written, newest first.
+ */
+@RestController
+@RequestMapping("/admin/cars/{carId}/fuel-anomalies")
+public class FuelAnomalyController {
+
+    private final FuelAnomalyDetector anomalyDetector;
+
+    public FuelAnomalyController(FuelAnomalyDetector anomalyDetector) {
+        this.anomalyDetector = anomalyDetector;
+    }
+
+    @GetMapping
+    public List<FuelAnomaly> list(@PathVariable Long carId) {
+        return anomalyDetector.findForCar(carId);
+    }
+}
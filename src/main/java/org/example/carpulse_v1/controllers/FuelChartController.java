@@ -0,0 +1,48 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.FuelPriceStats;
+import org.example.carpulse_v1.dto.MonthlyFuel;
+import org.example.carpulse_v1.dto.OdometerPoint;
+import org.example.carpulse_v1.services.FuelColumnStore;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Fuel log charts and statistics. {@code ?from=&to=} (yyyy-MM-dd, inclusive) limit the fills considered.
+ */
+@RestController
+@RequestMapping("/admin/cars/{carId}/fuel-charts")
+public class FuelChartController {
+
+    private final FuelColumnStore columnStore;
+
+    public FuelChartController(FuelColumnStore columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    @GetMapping("/price")
+    public FuelPriceStats price(@PathVariable Long carId,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return columnStore.priceStats(carId, from, to);
+    }
+
+    @GetMapping("/monthly")
+    public List<MonthlyFuel> monthly(@PathVariable Long carId,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return columnStore.perMonth(carId, from, to);
+    }
+
+    // ?points= caps the number of readings returned
+    @GetMapping("/odometer")
+    public List<OdometerPoint> odometer(@PathVariable Long carId,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(required = false) Integer points) {
+        return columnStore.odometerCurve(carId, from, to, points);
+    }
+}
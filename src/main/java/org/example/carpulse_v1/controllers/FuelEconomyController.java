@@ -0,0 +1,38 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.FuelEconomy;
+import org.example.carpulse_v1.dto.FuelStatsCheck;
+import org.example.carpulse_v1.services.FuelEconomyService;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Running fuel economy per car. {@code ?window=} sets how many segments the series holds.
+ */
+@RestController
+@RequestMapping("/admin/cars/{carId}/fuel-economy")
+public class FuelEconomyController {
+
+    private final FuelEconomyService fuelEconomyService;
+
+    public FuelEconomyController(FuelEconomyService fuelEconomyService) {
+        this.fuelEconomyService = fuelEconomyService;
+    }
+
+    @GetMapping
+    public FuelEconomy get(@PathVariable Long carId,
+                           @RequestParam(required = false) Integer window) {
+        return fuelEconomyService.findForCar(carId, window);
+    }
+
+    // stored totals against a full recompute; read-only
+    @GetMapping("/check")
+    public FuelStatsCheck check(@PathVariable Long carId) {
+        return fuelEconomyService.check(carId);
+    }
+
+    @PostMapping("/recompute")
+    public FuelEconomy recompute(@PathVariable Long carId,
+                                 @RequestParam(required = false) Integer window) {
+        return fuelEconomyService.recompute(carId, window);
+    }
+}
@@ -4,9 +4,18 @@ package org.example.carpulse_v1.controllers;
 //import lombok.RequiredArgsConstructor;
 import org.example.carpulse_v1.domain.FuelLog;
 import org.example.carpulse_v1.services.FuelLogService;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.dto.ImportReport;
+import org.example.carpulse_v1.services.FuelLogImportService;
+import org.example.carpulse_v1.services.KeysetPager;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,21 +23,50 @@ import java.util.List;
 public class FuelLogController {
 
     private final FuelLogService fuelLogService;
+    private final FuelLogImportService importService;
 
-    public FuelLogController(FuelLogService fuelLogService) {
+    public FuelLogController(FuelLogService fuelLogService, FuelLogImportService importService) {
         this.fuelLogService = fuelLogService;
+        this.importService = importService;
     }
     @GetMapping("/admin/cars/{carId}/fuel-logs")
     public List<FuelLog> list(@PathVariable Long carId) {
         return fuelLogService.findAllByCar(carId);
     }
 
+    // ?limit=n[&cursor=...][&sort=asc|desc], newest first by default
+    @GetMapping(value = "/admin/cars/{carId}/fuel-logs", params = "limit")
+    public CursorPage<FuelLog> page(@PathVariable Long carId,
+                                    @RequestParam int limit,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) String sort) {
+        return fuelLogService.findPageByCar(carId, cursor, limit, KeysetPager.direction(sort, Sort.Direction.DESC));
+    }
+
     @PostMapping("/admin/cars/{carId}/fuel-logs")
     public FuelLog create(@PathVariable Long carId,
                           @RequestBody FuelLog log) {
         return fuelLogService.create(carId, log);
     }
 
+    // raw text/csv (header row first) or application/x-ndjson body, streamed rather than buffered
+    @PostMapping(value = "/admin/cars/{carId}/fuel-logs/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importForCar(@PathVariable Long carId,
+                                     @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                     InputStream body) throws IOException {
+        return importService.importForCar(carId, body,
+                FuelLogImportService.Format.of(MediaType.parseMediaType(contentType)));
+    }
+
+    // same, rows name their car with a licensePlate or carId column
+    @PostMapping(value = "/admin/families/{familyId}/fuel-logs/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importForFamily(@PathVariable Long familyId,
+                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        InputStream body) throws IOException {
+        return importService.importForFamily(familyId, body,
+                FuelLogImportService.Format.of(MediaType.parseMediaType(contentType)));
+    }
+
     @PutMapping("/admin/fuel-logs/{id}")
     public FuelLog update(@PathVariable Long id,
                           @RequestBody FuelLog log) {
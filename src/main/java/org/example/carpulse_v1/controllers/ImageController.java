@@ -0,0 +1,99 @@
+package org.example.carpulse_v1.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.carpulse_v1.services.ImageStore;
+import org.example.carpulse_v1.services.ThumbnailService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves stored car images. Keys are content hashes, so responses are immutable and cacheable forever.
+ * {@code ?size=small|medium} asks for a scaled rendition; while it is still being generated the
+ * original is served with a short-lived cache header instead.
+ */
+@RestController
+public class ImageController {
+    // Tomcat's sendfile hooks: hand the file to the connector and let the kernel copy it
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageStore imageStore;
+    private final ThumbnailService thumbnailService;
+
+    public ImageController(ImageStore imageStore, ThumbnailService thumbnailService) {
+        this.imageStore = imageStore;
+        this.thumbnailService = thumbnailService;
+    }
+
+    @GetMapping("/images/{key}")
+    public void getImage(@PathVariable String key,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path original = imageStore.find(key)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found: " + key));
+
+        if (size != null) {
+            ThumbnailService.Rendition rendition = ThumbnailService.Rendition.parse(size)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown image size: " + size));
+            var scaled = thumbnailService.findOrSchedule(key, rendition);
+            if (scaled.isPresent()) {
+                Path path = scaled.get();
+                String contentType = path.toString().endsWith(".png") ? "image/png" : "image/jpeg";
+                serve(path, contentType, key + "-" + rendition.pathName(), true, request, response);
+                return;
+            }
+            // rendition pending: fall back to the original, but don't let clients pin it
+            serve(original, imageStore.contentType(key), key, false, request, response);
+            return;
+        }
+        serve(original, imageStore.contentType(key), key, true, request, response);
+    }
+
+    private void serve(Path path,
+                       String contentType,
+                       String tag,
+                       boolean immutable,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        String etag = "\"" + tag + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                immutable ? "public, max-age=31536000, immutable" : "public, max-age=30");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = file.size();
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, path.toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += file.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -4,6 +4,9 @@ package org.example.carpulse_v1.controllers;
 //import lombok.RequiredArgsConstructor;
 import org.example.carpulse_v1.domain.MaintenanceRecord;
 import org.example.carpulse_v1.services.MaintenanceService;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.services.KeysetPager;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +27,15 @@ public class MaintenanceController {
         return maintenanceService.findAllByCar(carId);
     }
 
+    // ?limit=n[&cursor=...][&sort=asc|desc], newest first by default
+    @GetMapping(value = "/admin/cars/{carId}/maintenance", params = "limit")
+    public CursorPage<MaintenanceRecord> page(@PathVariable Long carId,
+                                              @RequestParam int limit,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) String sort) {
+        return maintenanceService.findPageByCar(carId, cursor, limit, KeysetPager.direction(sort, Sort.Direction.DESC));
+    }
+
     @PostMapping("/admin/cars/{carId}/maintenance")
     public MaintenanceRecord create(@PathVariable Long carId,
                                     @RequestBody MaintenanceRecord rec) {
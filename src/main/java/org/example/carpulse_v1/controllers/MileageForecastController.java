@@ -0,0 +1,30 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.MileageForecast;
+import org.example.carpulse_v1.services.MileageForecastService;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Projected mileage of a car and predicted due dates of its mileage-based services.
+ */
+@RestController
+@RequestMapping("/admin/cars/{carId}/mileage-forecast")
+public class MileageForecastController {
+
+    private final MileageForecastService forecastService;
+
+    public MileageForecastController(MileageForecastService forecastService) {
+        this.forecastService = forecastService;
+    }
+
+    @GetMapping
+    public MileageForecast get(@PathVariable Long carId) {
+        return forecastService.findForCar(carId);
+    }
+
+    // refits the rate now instead of waiting for the queue or the nightly batch
+    @PostMapping("/refresh")
+    public MileageForecast refresh(@PathVariable Long carId) {
+        return forecastService.refresh(carId);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.SpendDashboard;
+import org.example.carpulse_v1.services.SpendRollupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+/**
+ * Family spend dashboard, answered from the monthly rollups. {@code ?from=2024-01&to=2024-12}, both inclusive
+ * and optional.
+ */
+@RestController
+@RequestMapping("/admin/families/{familyId}/spend")
+public class SpendController {
+
+    private final SpendRollupService spendRollupService;
+
+    public SpendController(SpendRollupService spendRollupService) {
+        this.spendRollupService = spendRollupService;
+    }
+
+    @GetMapping
+    public SpendDashboard dashboard(@PathVariable Long familyId,
+                                    @RequestParam(required = false) YearMonth from,
+                                    @RequestParam(required = false) YearMonth to) {
+        return spendRollupService.findForFamily(familyId, from, to);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(@PathVariable Long familyId) {
+        spendRollupService.rebuild(familyId);
+        return ResponseEntity.noContent().build();
+    }
+}
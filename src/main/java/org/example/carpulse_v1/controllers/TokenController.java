@@ -0,0 +1,91 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.dto.LoginDto;
+import org.example.carpulse_v1.dto.RefreshDto;
+import org.example.carpulse_v1.dto.TokenResponse;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.example.carpulse_v1.security.TokenService;
+import org.example.carpulse_v1.services.UserRepoUserDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@RestController
+public class TokenController {
+    private static final Logger logger = LoggerFactory.getLogger(TokenController.class);
+
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+    private final UserRepoUserDetailsService uds;
+
+    public TokenController(AuthenticationManager authenticationManager,
+                           TokenService tokenService,
+                           UserRepoUserDetailsService uds) {
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+        this.uds = uds;
+    }
+
+    /**
+     * Exchange username/password for an access + refresh token pair.
+     * This is the only request that pays for a BCrypt check.
+     */
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponse> login(@RequestBody LoginDto dto) {
+        try {
+            Authentication auth = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(dto.getUsername(), dto.getPassword()));
+            AuthenticatedUser user = (AuthenticatedUser) auth.getPrincipal();
+            logger.info("Issued tokens for user: {}", user.getUsername());
+            return ResponseEntity.ok(tokensFor(user));
+        } catch (AuthenticationException e) {
+            logger.warn("Login failed for username: {}", dto.getUsername());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header("X-Error-Message", "Invalid credentials")
+                    .build();
+        }
+    }
+
+    /**
+     * Trade a valid refresh token for a fresh token pair.
+     * The principal is re-resolved (from the principal cache, which user updates and deletes
+     * evict) so that deleted users and role changes take effect.
+     * The old refresh token is not revoked: it stays usable until it expires (refresh-ttl),
+     * even after logout or a password change.
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<TokenResponse> refresh(@RequestBody RefreshDto dto) {
+        var claims = tokenService.verify(dto.getRefreshToken(), TokenService.TokenType.REFRESH);
+        if (claims.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header("X-Error-Message", "Invalid or expired refresh token")
+                    .build();
+        }
+        try {
+            AuthenticatedUser user = uds.loadUserByUsername(claims.get().username());
+            if (!user.getId().equals(claims.get().userId())) {
+                throw new UsernameNotFoundException("User id changed for " + user.getUsername());
+            }
+            return ResponseEntity.ok(tokensFor(user));
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header("X-Error-Message", "User no longer exists")
+                    .build();
+        }
+    }
+
+    private TokenResponse tokensFor(AuthenticatedUser user) {
+        return new TokenResponse(
+                tokenService.issueAccessToken(user),
+                tokenService.issueRefreshToken(user),
+                tokenService.getAccessTtl().toSeconds());
+    }
+}
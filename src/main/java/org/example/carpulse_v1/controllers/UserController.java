@@ -2,8 +2,8 @@ package org.example.carpulse_v1.controllers;
 
 
 //import lombok.RequiredArgsConstructor;
+import org.example.carpulse_v1.security.AuthenticatedUser;
 import org.example.carpulse_v1.services.UserService;
-import org.example.carpulse_v1.domain.Role;
 import org.springframework.http.ResponseEntity;
 import org.example.carpulse_v1.domain.User;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -40,15 +40,15 @@ public class UserController {
     @PutMapping("/users/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, 
                                            @RequestBody User userUpdates, 
-                                           @AuthenticationPrincipal User currentUser) {
+                                           @AuthenticationPrincipal AuthenticatedUser currentUser) {
         // Only admins can update user profiles
-        if (!currentUser.getRoles().contains(Role.ROLE_ADMIN)) {
+        if (!currentUser.isAdmin()) {
             return ResponseEntity.status(403).build();
         }
         
         // Validate that the current user is updating their own profile or a user in their family
         if (!id.equals(currentUser.getId()) && 
-            !currentUser.getFamily().getId().equals(userService.findById(id).getFamily().getId())) {
+            !currentUser.getFamilyId().equals(userService.findById(id).getFamily().getId())) {
             return ResponseEntity.status(403).build();
         }
         
@@ -58,15 +58,15 @@ public class UserController {
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id, 
-                                       @AuthenticationPrincipal User currentUser) {
+                                       @AuthenticationPrincipal AuthenticatedUser currentUser) {
         // Only admins can delete users
-        if (!currentUser.getRoles().contains(Role.ROLE_ADMIN)) {
+        if (!currentUser.isAdmin()) {
             return ResponseEntity.status(403).build();
         }
         
         // Validate that the user is in the admin's family
         User userToDelete = userService.findById(id);
-        if (!currentUser.getFamily().getId().equals(userToDelete.getFamily().getId())) {
+        if (!currentUser.getFamilyId().equals(userToDelete.getFamily().getId())) {
             return ResponseEntity.status(403).build();
         }
         
@@ -0,0 +1,34 @@
+package org.example.carpulse_v1.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the cache invalidation feed: the {@code node} that committed a change tells the others to drop
+ * {@code itemKey} from their copy of the {@code topic} cache. Written by {@code ChangeFeedInvalidationBus}.
+ */
+@Entity
+@Table(name = "cache_invalidations")
+@Data
+@NoArgsConstructor
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String node;
+
+    @Column(nullable = false, length = 32)
+    private String topic;
+
+    @Column(nullable = false, length = 200)
+    private String itemKey;
+
+    // only used to prune; polling goes by id
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,12 +1,17 @@
 package org.example.carpulse_v1.domain;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
 @Table(name = "cars")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cars")
 public class Car {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,12 +42,15 @@ public class Car {
     private String fuelType;
 
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL)
+    @JsonIgnore     // ← fetched through their own endpoints
     private List<MaintenanceRecord> maintenanceRecords;
 
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL)
+    @JsonIgnore     // ← fetched through their own endpoints
     private List<FuelLog> fuelLogs;
 
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL)
+    @JsonIgnore     // ← fetched through their own endpoints
     private List<ComplianceRecord> complianceRecords;
 
     public Long getId() {
@@ -116,6 +124,22 @@ public class Car {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    // Scaled renditions for stored images; other URLs (static assets) are used as-is
+    public String getThumbnailUrl() {
+        return renditionUrl("small");
+    }
+
+    public String getMediumImageUrl() {
+        return renditionUrl("medium");
+    }
+
+    private String renditionUrl(String size) {
+        if (imageUrl != null && imageUrl.startsWith("/images/")) {
+            return imageUrl + "?size=" + size;
+        }
+        return imageUrl;
+    }
     
     public String getEngine() {
         return engine;
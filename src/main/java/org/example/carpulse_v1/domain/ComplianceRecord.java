@@ -11,7 +11,7 @@ public class ComplianceRecord {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false)
     @JsonIgnore            // ← don’t serialize the back-pointer to Car
     private Car car;
@@ -3,6 +3,8 @@ package org.example.carpulse_v1.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +13,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "families")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "families")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
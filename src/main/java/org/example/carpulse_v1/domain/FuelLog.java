@@ -5,7 +5,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,8 +18,10 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 public class FuelLog {
+    // pooled sequence instead of IDENTITY so inserts can be JDBC-batched (bulk import)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fuel_log_seq")
+    @SequenceGenerator(name = "fuel_log_seq", sequenceName = "fuel_log_seq", allocationSize = 50)
     private Long id;
 
     public Car getCar() {
@@ -76,8 +80,10 @@ public class FuelLog {
         this.totalCost = totalCost;
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JsonIgnore            // ← don’t serialize the back-pointer to Car
     private Car car;
 
@@ -0,0 +1,45 @@
+package org.example.carpulse_v1.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Running fuel totals for one car, so economy figures never need the car's whole fuel history.
+ * Maintained by {@code FuelEconomyService}; the {@code first*} fields describe the fill at the
+ * lowest odometer reading, whose liters are not counted against the distance driven.
+ */
+@Entity
+@Table(name = "fuel_stats")
+@Data
+@NoArgsConstructor
+public class FuelStats {
+    @Id
+    private Long carId;
+
+    @Column(nullable = false)
+    private int fills;
+
+    @Column(nullable = false)
+    private BigDecimal totalLiters = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal totalCost = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private int odometerFills;
+
+    @Column(nullable = false)
+    private BigDecimal odometerLiters = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal odometerCost = BigDecimal.ZERO;
+
+    private Long firstLogId;
+    private Integer firstOdometer;
+    private BigDecimal firstLiters;
+    private BigDecimal firstCost;
+    private Integer lastOdometer;
+}
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,8 +24,10 @@ public class MaintenanceRecord {
 
     public enum Type { ENGINE, TIRES, BRAKES, OIL_CHANGE, OTHER }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JsonIgnore            // ← don’t serialize the back-pointer to Car
     private Car car;
 
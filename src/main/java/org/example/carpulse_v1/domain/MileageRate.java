@@ -0,0 +1,38 @@
+package org.example.carpulse_v1.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * How fast one car's odometer goes up, fitted by {@code MileageForecastService}. The odometer on a later date
+ * is projected as {@code anchorOdometer + kmPerDay × days since anchorDate}.
+ */
+@Entity
+@Table(name = "mileage_rates")
+@Data
+@NoArgsConstructor
+public class MileageRate {
+    @Id
+    private Long carId;
+
+    @Column(nullable = false)
+    private BigDecimal kmPerDay;
+
+    @Column(nullable = false)
+    private LocalDate anchorDate;
+
+    @Column(nullable = false)
+    private int anchorOdometer;
+
+    // odometer readings the rate was fitted to
+    @Column(nullable = false)
+    private int readings;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,53 @@
+package org.example.carpulse_v1.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for a fired reminder. Written when the due date is reached and marked delivered once
+ * the notifier has accepted it; undelivered rows are retried.
+ */
+@Entity
+@Table(name = "reminder_outbox")
+@Data
+@NoArgsConstructor
+public class Reminder {
+    public enum Source { MAINTENANCE, COMPLIANCE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)     // plain varchar column, not a database enum
+    @Column(nullable = false, length = 32)
+    private Source source;
+
+    // MaintenanceRecord / ComplianceRecord id; no FK so deleting the record keeps its history
+    @Column(nullable = false)
+    private Long recordId;
+
+    @Column(nullable = false)
+    private Long carId;
+
+    // nextDueDate for maintenance, reminderDate for compliance
+    @Column(nullable = false)
+    private LocalDate dueDate;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime deliveredAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+}
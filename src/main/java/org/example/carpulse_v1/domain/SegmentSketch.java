@@ -0,0 +1,57 @@
+package org.example.carpulse_v1.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A serialized quantile sketch of one metric over all fills of one brand/model/fuel type segment. Written by
+ * {@code FleetBenchmarkService}, which merges the fills it saw since its last flush into the stored sketch.
+ */
+@Entity
+@Table(name = "segment_sketches")
+@Data
+@NoArgsConstructor
+public class SegmentSketch {
+    // FuelLog.pricePerLiter, and L/100km over the distance since the car's previous reading
+    public enum Metric { PRICE, ECONOMY }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(length = 100)
+        private String brand;
+
+        @Column(length = 100)
+        private String model;
+
+        // '' when the cars have no fuel type
+        @Column(length = 32)
+        private String fuelType;
+
+        @Enumerated(EnumType.STRING)
+        @JdbcTypeCode(SqlTypes.VARCHAR)     // plain varchar column, not a database enum
+        @Column(length = 16)
+        private Metric metric;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long samples;
+
+    @Column(nullable = false, length = 16384)
+    private byte[] sketch;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package org.example.carpulse_v1.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A car's spend in one category for one month. Maintained by {@code SpendRollupService}; rows are
+ * written with upserts, so this entity is only read.
+ */
+@Entity
+@Table(name = "spend_rollups")
+@Data
+@NoArgsConstructor
+public class SpendRollup {
+    // FuelLog.totalCost and MaintenanceRecord.estimatedCost
+    public enum Category { FUEL, MAINTENANCE }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long familyId;
+
+        // first day of the month
+        private LocalDate monthStart;
+
+        private Long carId;
+
+        @Enumerated(EnumType.STRING)
+        @JdbcTypeCode(SqlTypes.VARCHAR)     // plain varchar column, not a database enum
+        @Column(length = 16)
+        private Category category;
+    }
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private int entries;
+}
@@ -0,0 +1,23 @@
+package org.example.carpulse_v1.dto;
+
+import java.time.LocalDate;
+
+/**
+ * An upcoming or overdue maintenance item or compliance expiry.
+ *
+ * @param daysUntilDue negative once overdue
+ */
+public record Alert(Source source,
+                    Long recordId,
+                    String type,
+                    String description,
+                    LocalDate dueDate,
+                    long daysUntilDue,
+                    Severity severity,
+                    CarSummary car) {
+
+    public enum Source { MAINTENANCE, COMPLIANCE }
+
+    // declaration order is the sort order of the alert list
+    public enum Severity { OVERDUE, DUE_SOON, UPCOMING }
+}
@@ -0,0 +1,42 @@
+package org.example.carpulse_v1.dto;
+
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+
+import java.util.List;
+
+/**
+ * What the first page after login needs, in one response ({@code GET /admin/bootstrap}). Admins get the
+ * family's cars and alerts, other users those of the cars assigned to them.
+ *
+ * @param version a hash of the rest of the response; sent as the ETag, so a client holding the same
+ *                version gets 304 and keeps what it has
+ * @param profile same fields as {@code GET /admin/profile}
+ */
+public record Bootstrap(String version,
+                        Profile profile,
+                        List<Member> members,
+                        List<CarSummary> cars,
+                        AlertCounts alerts) {
+
+    public record Profile(Long id, String username, String email, Long familyId, String role) {
+        public static Profile from(User user) {
+            return new Profile(user.getId(), user.getUsername(), user.getEmail(),
+                    user.getFamily() == null ? null : user.getFamily().getId(), primaryRole(user));
+        }
+    }
+
+    public record Member(Long id, String username, String email, String role) {
+        public static Member from(User user) {
+            return new Member(user.getId(), user.getUsername(), user.getEmail(), primaryRole(user));
+        }
+    }
+
+    public record AlertCounts(int overdue, int dueSoon, int upcoming) {
+    }
+
+    // the first role, users without one are plain users
+    private static String primaryRole(User user) {
+        return (user.getRoles().isEmpty() ? Role.ROLE_USER : user.getRoles().get(0)).name();
+    }
+}
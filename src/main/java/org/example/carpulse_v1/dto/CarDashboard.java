@@ -0,0 +1,27 @@
+package org.example.carpulse_v1.dto;
+
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+
+import java.util.List;
+
+/**
+ * Everything the car details page shows, in one response. Each section is read separately; a section that
+ * failed or did not finish in time is null, and {@code sections} says which and how long each one took.
+ *
+ * @param alerts compliance expiries and maintenance due dates in the alert window, most urgent first
+ * @param stats  fuel totals and L/100km, without the series
+ */
+public record CarDashboard(Long carId,
+                           CarSummary car,
+                           List<MaintenanceRecord> recentMaintenance,
+                           List<FuelLog> recentFuelLogs,
+                           List<Alert> alerts,
+                           FuelEconomy stats,
+                           List<SectionTiming> sections) {
+
+    public enum Status { OK, FAILED, TIMED_OUT }
+
+    public record SectionTiming(String name, Status status, long millis) {
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.carpulse_v1.dto;
+
+import org.example.carpulse_v1.domain.Car;
+
+/**
+ * Card-level view of a car for list pages.
+ *
+ * Built by a single JPQL constructor query (see {@code CarRepository}), so listing a fleet never
+ * initialises the car's child collections or drags an inline image through the JPA layer.
+ */
+public record CarSummary(Long id,
+                         String licensePlate,
+                         String brand,
+                         String model,
+                         Integer year,
+                         Integer mileage,
+                         String engine,
+                         Integer doors,
+                         String fuelType,
+                         AssignedUser assignedUser,
+                         String imageUrl) {
+
+    public record AssignedUser(Long id, String username) {
+    }
+
+    // flat constructor used by the JPQL "select new" projections
+    public CarSummary(Long id, String licensePlate, String brand, String model, Integer year, Integer mileage,
+                      String engine, Integer doors, String fuelType,
+                      Long assignedUserId, String assignedUsername, String imageUrl) {
+        this(id, licensePlate, brand, model, year, mileage, engine, doors, fuelType,
+                assignedUserId == null ? null : new AssignedUser(assignedUserId, assignedUsername),
+                imageUrl);
+    }
+
+    // for a car already loaded with its assigned user, e.g. right after an assignment;
+    // inline data: images are left out as in the CarRepository projections
+    public static CarSummary from(Car car) {
+        return new CarSummary(car.getId(), car.getLicensePlate(), car.getBrand(), car.getModel(), car.getYear(),
+                car.getMileage(), car.getEngine(), car.getDoors(), car.getFuelType(),
+                car.getAssignedUser() == null ? null : car.getAssignedUser().getId(),
+                car.getAssignedUser() == null ? null : car.getAssignedUser().getUsername(),
+                car.getImageUrl() != null && car.getImageUrl().startsWith("data:") ? null : car.getImageUrl());
+    }
+
+    public String getThumbnailUrl() {
+        if (imageUrl != null && imageUrl.startsWith("/images/")) {
+            return imageUrl + "?size=small";
+        }
+        return imageUrl;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.carpulse_v1.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. {@code next} is the opaque cursor for the following page,
+ * or null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String next) {
+}
@@ -0,0 +1,38 @@
+package org.example.carpulse_v1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * A change pushed to a family's event stream ({@code GET /admin/families/{id}/events}).
+ *
+ * Assignment events carry the car's new summary so lists can be patched in place; record and due
+ * events only identify what changed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FamilyEvent(Type type, Long carId, Long recordId, LocalDate dueDate, CarSummary car) {
+
+    public enum Type {
+        CAR_ASSIGNED,
+        CAR_UNASSIGNED,
+        FUEL_LOG_CREATED,
+        MAINTENANCE_CREATED,
+        COMPLIANCE_CREATED,
+        // a nextDueDate / reminderDate was reached (see ReminderScheduler)
+        MAINTENANCE_DUE,
+        COMPLIANCE_DUE
+    }
+
+    public static FamilyEvent carChanged(Type type, CarSummary car) {
+        return new FamilyEvent(type, car.id(), null, null, car);
+    }
+
+    public static FamilyEvent record(Type type, Long carId, Long recordId) {
+        return new FamilyEvent(type, carId, recordId, null, null);
+    }
+
+    public static FamilyEvent due(Type type, Long carId, Long recordId, LocalDate dueDate) {
+        return new FamilyEvent(type, carId, recordId, dueDate, null);
+    }
+}
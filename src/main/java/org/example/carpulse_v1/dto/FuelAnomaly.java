@@ -0,0 +1,31 @@
+package org.example.carpulse_v1.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A fuel log entry that looked wrong when it was written.
+ *
+ * @param fuelLogId null when the write was rejected
+ * @param detail    the offending value next to what was expected, for display
+ */
+public record FuelAnomaly(Long carId,
+                          Long fuelLogId,
+                          LocalDate date,
+                          Kind kind,
+                          String detail,
+                          boolean rejected,
+                          Instant flaggedAt) {
+
+    public enum Kind {
+        // the reading is lower than an earlier one, or higher than a later one
+        ODOMETER_BACKWARDS,
+        // totalCost is not litersFilled × pricePerLiter
+        COST_MISMATCH,
+        // zero, negative or more than any tank holds
+        VOLUME_OUT_OF_RANGE,
+        // far from the car's recent prices or fill volumes
+        PRICE_OUTLIER,
+        VOLUME_OUTLIER
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.carpulse_v1.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Fuel economy of one car. Lifetime figures come from the car's running totals; {@code series} holds the
+ * latest fill-to-fill segments in odometer order. Economy fields are null until two readings are
+ * some distance apart.
+ */
+public record FuelEconomy(Long carId,
+                          int fills,
+                          BigDecimal totalLiters,
+                          BigDecimal totalCost,
+                          Integer lastOdometer,
+                          int distanceKm,
+                          BigDecimal litersPer100Km,
+                          BigDecimal costPerKm,
+                          List<Segment> series) {
+
+    /**
+     * From the previous reading to this fill: the liters put in here were burnt over {@code distanceKm}.
+     * {@code rollingLitersPer100Km} is distance-weighted over this and the preceding segments.
+     */
+    public record Segment(LocalDate date,
+                          int odometer,
+                          int distanceKm,
+                          BigDecimal liters,
+                          BigDecimal litersPer100Km,
+                          BigDecimal rollingLitersPer100Km) {
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.carpulse_v1.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Price per liter over a car's fills between {@code from} and {@code to} (null: unbounded). {@code fills}
+ * counts the fills that have a price; the price fields are null when there are none.
+ */
+public record FuelPriceStats(Long carId,
+                             LocalDate from,
+                             LocalDate to,
+                             int fills,
+                             BigDecimal minPricePerLiter,
+                             BigDecimal maxPricePerLiter,
+                             BigDecimal avgPricePerLiter) {
+}
@@ -0,0 +1,10 @@
+package org.example.carpulse_v1.dto;
+
+import org.example.carpulse_v1.domain.FuelStats;
+
+/**
+ * Stored running totals of a car next to a fresh recompute from its fuel logs.
+ * {@code stored} is null when the car has no totals yet.
+ */
+public record FuelStatsCheck(Long carId, boolean consistent, FuelStats stored, FuelStats recomputed) {
+}
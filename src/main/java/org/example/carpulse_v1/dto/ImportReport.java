@@ -0,0 +1,16 @@
+package org.example.carpulse_v1.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first few rejected rows are listed in {@code errors};
+ * {@code rejected} always holds the full count.
+ */
+public record ImportReport(long imported, long rejected, List<RowError> errors, boolean errorsTruncated) {
+
+    /**
+     * @param line 1-based line number in the uploaded file
+     */
+    public record RowError(long line, String message) {
+    }
+}
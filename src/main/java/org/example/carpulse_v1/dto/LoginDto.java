@@ -0,0 +1,12 @@
+package org.example.carpulse_v1.dto;
+
+public class LoginDto {
+    private String username;
+    private String password;
+
+    // getters / setters
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+}
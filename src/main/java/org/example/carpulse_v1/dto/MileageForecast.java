@@ -0,0 +1,39 @@
+package org.example.carpulse_v1.dto;
+
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A car's projected mileage and when its mileage-based services come due. The rate fields are null while
+ * the car has too few odometer readings; {@code services} is listed either way.
+ *
+ * @param estimatedOdometer projected for {@code asOf}, never below the car's recorded mileage
+ */
+public record MileageForecast(Long carId,
+                              BigDecimal kmPerDay,
+                              Integer estimatedOdometer,
+                              LocalDate asOf,
+                              Integer readings,
+                              LocalDateTime computedAt,
+                              List<DueService> services) {
+
+    /**
+     * The latest service of a type that has a mileage interval.
+     *
+     * @param predictedDueDate when the projected odometer reaches {@code dueMileage}; in the past once it has,
+     *                         null without a rate
+     * @param nextDueDate      the date entered by hand, if any
+     */
+    public record DueService(Long recordId,
+                             MaintenanceRecord.Type type,
+                             LocalDate datePerformed,
+                             int mileageAtService,
+                             int dueMileage,
+                             LocalDate predictedDueDate,
+                             LocalDate nextDueDate) {
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.carpulse_v1.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * One month of a car's fills; months without any are included with zeros so the series charts as-is.
+ */
+public record MonthlyFuel(YearMonth month, int fills, BigDecimal liters, BigDecimal cost) {
+}
@@ -0,0 +1,6 @@
+package org.example.carpulse_v1.dto;
+
+import java.time.LocalDate;
+
+public record OdometerPoint(LocalDate date, int odometer) {
+}
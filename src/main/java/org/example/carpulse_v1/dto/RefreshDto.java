@@ -0,0 +1,9 @@
+package org.example.carpulse_v1.dto;
+
+public class RefreshDto {
+    private String refreshToken;
+
+    // getters / setters
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+}
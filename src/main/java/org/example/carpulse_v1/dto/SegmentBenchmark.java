@@ -0,0 +1,19 @@
+package org.example.carpulse_v1.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * How fills spread across every family's cars of one brand/model/fuel type: p10/p50/p90 of price per liter,
+ * and of L/100km over the distance since each car's previous reading. Brand and model are matched ignoring
+ * case and surrounding spaces; {@code fuelType} is null for cars without one. The quantiles are sketch
+ * estimates and are null when {@code samples} is 0.
+ */
+public record SegmentBenchmark(String brand,
+                               String model,
+                               String fuelType,
+                               Quantiles pricePerLiter,
+                               Quantiles litersPer100Km) {
+
+    public record Quantiles(long samples, BigDecimal p10, BigDecimal p50, BigDecimal p90) {
+    }
+}
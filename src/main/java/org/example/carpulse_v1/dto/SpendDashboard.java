@@ -0,0 +1,26 @@
+package org.example.carpulse_v1.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * A family's fuel and maintenance spend over {@code from}..{@code to} (inclusive), in total, per car
+ * and per month. Months and cars without any spend are left out.
+ */
+public record SpendDashboard(Long familyId,
+                             YearMonth from,
+                             YearMonth to,
+                             Spend total,
+                             List<CarSpend> cars,
+                             List<MonthSpend> months) {
+
+    public record Spend(BigDecimal fuel, BigDecimal maintenance, BigDecimal total) {
+    }
+
+    public record CarSpend(Long carId, Spend spend) {
+    }
+
+    public record MonthSpend(YearMonth month, Spend spend, List<CarSpend> cars) {
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.carpulse_v1.repositories;
+
+import org.example.carpulse_v1.domain.CacheInvalidation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    // the feed past a node's position, oldest first
+    List<CacheInvalidation> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    // where a starting node joins the feed
+    @Query("select coalesce(max(c.id), 0) from CacheInvalidation c")
+    long findMaxId();
+
+    @Modifying
+    @Query("delete from CacheInvalidation c where c.createdAt < :before")
+    int deleteByCreatedAtBefore(LocalDateTime before);
+}
@@ -1,12 +1,84 @@
 package org.example.carpulse_v1.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CarRepository extends JpaRepository<Car, Long> {
+    // Card projection: one query with the assigned user joined in. Inline data: images are left out,
+    // they are only reachable through the full car until InlineImageMigration has run.
+    String SUMMARY_SELECT = "select new org.example.carpulse_v1.dto.CarSummary("
+            + "c.id, c.licensePlate, c.brand, c.model, c.year, c.mileage, c.engine, c.doors, c.fuelType, "
+            + "u.id, u.username, "
+            + "case when c.imageUrl like 'data:%' then null else c.imageUrl end) "
+            + "from Car c left join c.assignedUser u ";
+
+    // rows per round trip when streaming exports
+    String EXPORT_FETCH_SIZE = "500";
+
+    // guards every child-record read and write; answered from the query cache until the cars table changes
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select count(c) > 0 from Car c where c.id = :id")
+    boolean existsById(Long id);
+
+    // routes pushed record events to the family stream; cached like existsById
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c.family.id from Car c where c.id = :carId")
+    Optional<Long> findFamilyIdById(Long carId);
+
     List<Car> findByFamilyId(Long familyId);
     List<Car> findByAssignedUserId(Long userId);
     List<Car> findByFamilyIdAndAssignedUserIdIsNull(Long familyId);
+
+    @Query(SUMMARY_SELECT + "where c.family.id = :familyId order by c.id")
+    List<CarSummary> findSummariesByFamilyId(Long familyId);
+
+    // keyset pages: first page passes afterId = 0 / beforeId = Long.MAX_VALUE
+    @Query(SUMMARY_SELECT + "where c.family.id = :familyId and c.id > :afterId order by c.id asc")
+    List<CarSummary> findSummariesByFamilyIdAfter(Long familyId, Long afterId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where c.family.id = :familyId and c.id < :beforeId order by c.id desc")
+    List<CarSummary> findSummariesByFamilyIdBefore(Long familyId, Long beforeId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where u.id = :userId order by c.id")
+    List<CarSummary> findSummariesByAssignedUserId(Long userId);
+
+    @Query(SUMMARY_SELECT + "where c.family.id = :familyId and u.id is null order by c.id")
+    List<CarSummary> findUnassignedSummariesByFamilyId(Long familyId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(SUMMARY_SELECT + "where c.family.id = :familyId order by c.id")
+    Stream<CarSummary> streamSummariesByFamilyId(Long familyId);
+
+    @Query(SUMMARY_SELECT + "where c.id in :ids")
+    List<CarSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("select c.licensePlate, c.id from Car c where c.family.id = :familyId")
+    List<Object[]> findPlatesAndIdsByFamilyId(Long familyId);
+
+    // mileage forecast batch: keyset pages of all car ids
+    @Query("select c.id from Car c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @Query("select c.mileage from Car c where c.id = :carId")
+    Integer findMileageById(Long carId);
+
+    // fleet benchmarks: one (brand, model, fuelType) row, none when the car is gone; cached like existsById
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c.brand, c.model, c.fuelType from Car c where c.id = :carId")
+    List<Object[]> findSegmentById(Long carId);
+
+    @Query("select c.id from Car c where c.imageUrl like 'data:%'")
+    List<Long> findIdsWithInlineImages();
 }
\ No newline at end of file
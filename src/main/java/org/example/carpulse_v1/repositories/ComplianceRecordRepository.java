@@ -1,10 +1,35 @@
 package org.example.carpulse_v1.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.example.carpulse_v1.domain.ComplianceRecord;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ComplianceRecordRepository extends JpaRepository<ComplianceRecord, Long> {
+public interface ComplianceRecordRepository extends JpaRepository<ComplianceRecord, Long>, JpaSpecificationExecutor<ComplianceRecord> {
     List<ComplianceRecord> findByCarId(Long carId);
-}
\ No newline at end of file
+
+    // export: rows are streamed from the cursor and must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CarRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from ComplianceRecord r where r.car.family.id = :familyId order by r.car.id, r.expiryDate, r.id")
+    Stream<ComplianceRecord> streamByFamilyId(Long familyId);
+
+    // reminder engine: upcoming reminderDate values, soonest first, keyset on (reminderDate, id)
+    @Query("select r.id, r.car.id, r.reminderDate from ComplianceRecord r "
+            + "where r.reminderDate > :afterDate or (r.reminderDate = :afterDate and r.id > :afterId) "
+            + "order by r.reminderDate, r.id")
+    List<Object[]> findReminderDatesAfter(LocalDate afterDate, Long afterId, Limit limit);
+
+    // a fired reminder is only sent if the record still has that date
+    boolean existsByIdAndReminderDate(Long id, LocalDate reminderDate);
+}
@@ -1,7 +1,33 @@
 package org.example.carpulse_v1.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.example.carpulse_v1.domain.Family;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface FamilyRepository extends JpaRepository<Family, Long> {
-}
\ No newline at end of file
+
+    // checked before every car list; answered from the query cache until the families table changes
+    @Override
+    @QueryHints(value = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"), forCounting = true)
+    boolean existsById(Long id);
+
+    @Query("select f.id from Family f order by f.id")
+    List<Long> findAllIds();
+
+    // spend rollup writers share this lock; a rollup rebuild of the family takes it exclusively
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select f from Family f where f.id = :id")
+    Optional<Family> lockShared(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from Family f where f.id = :id")
+    Optional<Family> lockExclusive(Long id);
+}
@@ -1,10 +1,76 @@
 package org.example.carpulse_v1.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.example.carpulse_v1.domain.FuelLog;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface FuelLogRepository extends JpaRepository<FuelLog, Long> {
+public interface FuelLogRepository extends JpaRepository<FuelLog, Long>, JpaSpecificationExecutor<FuelLog> {
     List<FuelLog> findByCarId(Long carId);
-}
\ No newline at end of file
+
+    // car dashboard: the latest fills, walking idx_fuel_logs_car_date backwards
+    List<FuelLog> findByCarIdOrderByDateDescIdDesc(Long carId, Limit limit);
+
+    // one row: fills, liters, cost, then fills / liters / cost of the fills with an odometer reading,
+    // then the highest reading; sums are null when there is nothing to add up
+    @Query("""
+            select count(l), sum(l.litersFilled), sum(l.totalCost),
+                   count(l.odometer),
+                   sum(case when l.odometer is not null then l.litersFilled end),
+                   sum(case when l.odometer is not null then l.totalCost end),
+                   max(l.odometer)
+            from FuelLog l where l.car.id = :carId""")
+    List<Object[]> findTotalsByCarId(Long carId);
+
+    // (id, odometer, liters, cost) of readings, lowest first, walking idx_fuel_logs_car_odometer
+    @Query("select l.id, l.odometer, l.litersFilled, l.totalCost from FuelLog l "
+            + "where l.car.id = :carId and l.odometer is not null order by l.odometer, l.id")
+    List<Object[]> findReadingsAscending(Long carId, Limit limit);
+
+    // (date, odometer, liters) of the latest readings, highest first
+    @Query("select l.date, l.odometer, l.litersFilled from FuelLog l "
+            + "where l.car.id = :carId and l.odometer is not null order by l.odometer desc, l.id desc")
+    List<Object[]> findReadingsDescending(Long carId, Limit limit);
+
+    // (id, date, odometer, liters, price, cost) of all of a car's logs in (date, id) order, for FuelColumnStore
+    @Query("select l.id, l.date, l.odometer, l.litersFilled, l.pricePerLiter, l.totalCost from FuelLog l "
+            + "where l.car.id = :carId order by l.date, l.id")
+    List<Object[]> findColumnsByCarId(Long carId);
+
+    // spend rollup rebuild: (carId, year, month, sum(totalCost), count) per car and month of a family
+    @Query("select l.car.id, extract(year from l.date), extract(month from l.date), sum(l.totalCost), count(l) "
+            + "from FuelLog l where l.car.family.id = :familyId and l.date is not null and l.totalCost is not null "
+            + "group by l.car.id, extract(year from l.date), extract(month from l.date)")
+    List<Object[]> findMonthlySpendByFamilyId(Long familyId);
+
+    // export: rows are streamed from the cursor and must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CarRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select l from FuelLog l where l.car.family.id = :familyId order by l.car.id, l.date, l.id")
+    Stream<FuelLog> streamByFamilyId(Long familyId);
+
+    // mileage forecast: (date, odometer) of a car's latest readings since a date, newest first
+    @Query("select l.date, l.odometer from FuelLog l where l.car.id = :carId and l.date >= :since "
+            + "and l.odometer is not null order by l.date desc, l.id desc")
+    List<Object[]> findOdometerReadings(Long carId, LocalDate since, Limit limit);
+
+    // fleet benchmark rebuild: (carId, brand, model, fuelType, odometer, liters, pricePerLiter) of every fill,
+    // each car's readings lowest first
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CarRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c.id, c.brand, c.model, c.fuelType, l.odometer, l.litersFilled, l.pricePerLiter "
+            + "from FuelLog l join l.car c order by c.id, l.odometer, l.id")
+    Stream<Object[]> streamBenchmarkSamples();
+}
@@ -0,0 +1,28 @@
+package org.example.carpulse_v1.repositories;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.carpulse_v1.domain.FuelStats;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface FuelStatsRepository extends JpaRepository<FuelStats, Long> {
+    // writers to the same car queue up here, so concurrent fuel log writes cannot lose an update
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from FuelStats s where s.carId = :carId")
+    Optional<FuelStats> lockByCarId(Long carId);
+
+    // a concurrent first write for the same car makes this a no-op instead of a duplicate key error.
+    // Naming the table keeps Hibernate from invalidating every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fuel_stats"))
+    @Query(value = "insert ignore into fuel_stats (car_id, fills, total_liters, total_cost, odometer_fills, "
+            + "odometer_liters, odometer_cost) values (:carId, 0, 0, 0, 0, 0, 0)", nativeQuery = true)
+    int insertIfAbsent(Long carId);
+}
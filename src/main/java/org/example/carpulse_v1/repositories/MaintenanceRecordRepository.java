@@ -1,10 +1,59 @@
 package org.example.carpulse_v1.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface MaintenanceRecordRepository extends JpaRepository<MaintenanceRecord, Long> {
+public interface MaintenanceRecordRepository extends JpaRepository<MaintenanceRecord, Long>, JpaSpecificationExecutor<MaintenanceRecord> {
     List<MaintenanceRecord> findByCarId(Long carId);
-}
\ No newline at end of file
+
+    // car dashboard: the latest services, walking idx_maintenance_car_performed backwards
+    List<MaintenanceRecord> findByCarIdOrderByDatePerformedDescIdDesc(Long carId, Limit limit);
+
+    // export: rows are streamed from the cursor and must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = CarRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from MaintenanceRecord m where m.car.family.id = :familyId order by m.car.id, m.datePerformed, m.id")
+    Stream<MaintenanceRecord> streamByFamilyId(Long familyId);
+
+    // reminder engine: upcoming nextDueDate values, soonest first, keyset on (nextDueDate, id)
+    @Query("select m.id, m.car.id, m.nextDueDate from MaintenanceRecord m "
+            + "where m.nextDueDate > :afterDate or (m.nextDueDate = :afterDate and m.id > :afterId) "
+            + "order by m.nextDueDate, m.id")
+    List<Object[]> findNextDueDatesAfter(LocalDate afterDate, Long afterId, Limit limit);
+
+    // a fired reminder is only sent if the record still has that date
+    boolean existsByIdAndNextDueDate(Long id, LocalDate nextDueDate);
+
+    // spend rollup rebuild: (carId, year, month, sum(estimatedCost), count) per car and month of a family
+    @Query("select m.car.id, extract(year from m.datePerformed), extract(month from m.datePerformed), "
+            + "sum(m.estimatedCost), count(m) from MaintenanceRecord m where m.car.family.id = :familyId "
+            + "and m.datePerformed is not null and m.estimatedCost is not null "
+            + "group by m.car.id, extract(year from m.datePerformed), extract(month from m.datePerformed)")
+    List<Object[]> findMonthlySpendByFamilyId(Long familyId);
+
+    // mileage forecast: (date, odometer) of a car's services since a date, newest first
+    @Query("select m.datePerformed, m.mileageAtService from MaintenanceRecord m where m.car.id = :carId "
+            + "and m.datePerformed >= :since and m.mileageAtService is not null order by m.datePerformed desc, m.id desc")
+    List<Object[]> findOdometerReadings(Long carId, LocalDate since, Limit limit);
+
+    // mileage forecast: (id, type, datePerformed, mileageAtService, nextDueDate) of the latest service of each
+    // type, where it has a mileage; superseded the same way as in AlertService
+    @Query("select m.id, m.type, m.datePerformed, m.mileageAtService, m.nextDueDate from MaintenanceRecord m "
+            + "where m.car.id = :carId and m.mileageAtService is not null "
+            + "and not exists (select 1 from MaintenanceRecord n "
+            + "where n.car = m.car and n.type = m.type and n.datePerformed > m.datePerformed) "
+            + "order by m.type, m.id desc")
+    List<Object[]> findLatestMileageServices(Long carId);
+}
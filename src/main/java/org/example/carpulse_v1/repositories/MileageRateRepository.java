@@ -0,0 +1,29 @@
+package org.example.carpulse_v1.repositories;
+
+import jakarta.persistence.QueryHint;
+import org.example.carpulse_v1.domain.MileageRate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface MileageRateRepository extends JpaRepository<MileageRate, Long> {
+    // the batch and a queued refit can fit the same car at once; both land and the last one wins
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "mileage_rates"))
+    @Query(value = "insert into mileage_rates (car_id, km_per_day, anchor_date, anchor_odometer, readings, computed_at) "
+            + "values (:carId, :kmPerDay, :anchorDate, :anchorOdometer, :readings, :computedAt) "
+            + "on duplicate key update km_per_day = :kmPerDay, anchor_date = :anchorDate, "
+            + "anchor_odometer = :anchorOdometer, readings = :readings, computed_at = :computedAt", nativeQuery = true)
+    int upsert(Long carId, BigDecimal kmPerDay, LocalDate anchorDate, int anchorOdometer, int readings,
+               LocalDateTime computedAt);
+
+    @Modifying
+    @Query("delete from MileageRate r where r.carId = :carId")
+    int deleteByCarId(Long carId);
+}
@@ -0,0 +1,15 @@
+package org.example.carpulse_v1.repositories;
+
+import org.example.carpulse_v1.domain.Reminder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReminderRepository extends JpaRepository<Reminder, Long> {
+    boolean existsBySourceAndRecordIdAndDueDate(Reminder.Source source, Long recordId, LocalDate dueDate);
+
+    // undelivered rows that still have attempts left, oldest first
+    List<Reminder> findByDeliveredAtIsNullAndAttemptsLessThanOrderById(int maxAttempts, Limit limit);
+}
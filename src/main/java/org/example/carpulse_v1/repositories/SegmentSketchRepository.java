@@ -0,0 +1,33 @@
+package org.example.carpulse_v1.repositories;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.carpulse_v1.domain.SegmentSketch;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface SegmentSketchRepository extends JpaRepository<SegmentSketch, SegmentSketch.Key> {
+    // flushes from several instances merge into the same row one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SegmentSketch s where s.id = :id")
+    Optional<SegmentSketch> lockById(SegmentSketch.Key id);
+
+    // the first flush of a segment; lockById then finds the row whichever instance inserted it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "segment_sketches"))
+    @Query(value = "insert ignore into segment_sketches (brand, model, fuel_type, metric, samples, sketch, updated_at) "
+            + "values (:brand, :model, :fuelType, :metric, 0, :sketch, :updatedAt)", nativeQuery = true)
+    int insertIfAbsent(String brand, String model, String fuelType, String metric, byte[] sketch,
+                       LocalDateTime updatedAt);
+
+    // sketches merged by other instances since the last reload
+    List<SegmentSketch> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+}
@@ -0,0 +1,45 @@
+package org.example.carpulse_v1.repositories;
+
+import jakarta.persistence.QueryHint;
+import org.example.carpulse_v1.domain.SpendRollup;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SpendRollupRepository extends JpaRepository<SpendRollup, SpendRollup.Key> {
+
+    // (monthStart, carId, category, amount): one range of the primary key, whatever the number of records behind it
+    @Query("select r.id.monthStart, r.id.carId, r.id.category, r.amount from SpendRollup r "
+            + "where r.id.familyId = :familyId and r.id.monthStart between :from and :to")
+    List<Object[]> findByFamilyIdAndMonths(Long familyId, LocalDate from, LocalDate to);
+
+    @Query("select r.id.familyId from SpendRollup r")
+    List<Long> findFamilyIds(Limit limit);
+
+    // adds to the month's row, creating it on the first record; negative for removed records.
+    // Naming the table keeps Hibernate from invalidating every second-level cache region on each write
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "spend_rollups"))
+    @Query(value = "insert into spend_rollups (family_id, month_start, car_id, category, amount, entries) "
+            + "values (:familyId, :monthStart, :carId, :category, :amount, :entries) "
+            + "on duplicate key update amount = amount + :amount, entries = entries + :entries", nativeQuery = true)
+    int addTo(Long familyId, LocalDate monthStart, Long carId, String category, BigDecimal amount, int entries);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "spend_rollups"))
+    @Query(value = "delete from spend_rollups where family_id = :familyId and month_start = :monthStart "
+            + "and car_id = :carId and category = :category and entries = 0", nativeQuery = true)
+    int deleteIfEmpty(Long familyId, LocalDate monthStart, Long carId, String category);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "spend_rollups"))
+    @Query(value = "delete from spend_rollups where family_id = :familyId", nativeQuery = true)
+    int deleteByFamilyId(Long familyId);
+}
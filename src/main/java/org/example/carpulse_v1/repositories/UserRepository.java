@@ -1,16 +1,24 @@
 package org.example.carpulse_v1.repositories;
 
+import jakarta.persistence.QueryHint;
 import org.example.carpulse_v1.domain.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     User findByUsername(String username);
     List<User> findByFamilyId(Long familyId);
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Override
+    @QueryHints(value = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"), forCounting = true)
+    boolean existsById(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package org.example.carpulse_v1.security;
+
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable security principal.
+ *
+ * Holds only what authentication and authorization need, so it can be cached and
+ * read outside of a persistence context (unlike the {@link User} entity with its lazy associations).
+ */
+public final class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;   // BCrypt hash, null for token-authenticated principals
+    private final Long familyId;
+    private final Set<Role> roles;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, String password, Long familyId, Collection<Role> roles) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.familyId = familyId;
+        this.roles = roles.isEmpty() ? Set.of() : Set.copyOf(EnumSet.copyOf(roles));
+        this.authorities = this.roles.stream()
+                .map(r -> (GrantedAuthority) new SimpleGrantedAuthority(r.name()))
+                .toList();
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getFamily() != null ? user.getFamily().getId() : null,
+                user.getRoles() == null ? List.of() : user.getRoles());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFamilyId() {
+        return familyId;
+    }
+
+    public Set<Role> getRoles() {
+        return roles;
+    }
+
+    public boolean isAdmin() {
+        return roles.contains(Role.ROLE_ADMIN);
+    }
+
+    // --- UserDetails methods ---
+
+    @Override public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+    @Override public String getUsername()            { return username; }
+    @Override public String getPassword()            { return password; }
+    @Override public boolean isAccountNonExpired()   { return true; }
+    @Override public boolean isAccountNonLocked()    { return true; }
+    @Override public boolean isCredentialsNonExpired(){ return true; }
+    @Override public boolean isEnabled()             { return true; }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", username=" + username + ", familyId=" + familyId + ", roles=" + roles + "}";
+    }
+}
@@ -1,21 +1,27 @@
 package org.example.carpulse_v1.security;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.carpulse_v1.services.UserRepoUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -34,27 +40,46 @@ public class SecurityConfig {
 
 
     private final UserRepoUserDetailsService uds;
+    private final TokenService tokenService;
 
-    public SecurityConfig(UserRepoUserDetailsService uds) {
+    // HTTP Basic costs a user lookup + BCrypt per request, so it is opt-in; bearer tokens are the default
+    @Value("${carpulse.security.basic-auth.enabled:false}")
+    private boolean basicAuthEnabled;
+
+    public SecurityConfig(UserRepoUserDetailsService uds, TokenService tokenService) {
         this.uds = uds;
+        this.tokenService = tokenService;
     }
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(daoAuthProvider())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // completion of an already authorised async request (event streams); tokens are not re-sent
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, "/signup").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/login", "/token/refresh").permitAll()
+                        // content-addressed, unguessable keys; <img> tags cannot send bearer tokens
+                        .requestMatchers(HttpMethod.GET, "/images/**").permitAll()
                         .requestMatchers("/admin/**").hasAnyRole("USER","ADMIN")
                         .anyRequest().authenticated()
                 )
-                // Re-enable BasicAuth *but* swap in HttpStatusEntryPoint so NO WWW-Authenticate header
-                .httpBasic(basic -> basic
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+                // HttpStatusEntryPoint so NO WWW-Authenticate header
+                .exceptionHandling(ex -> ex
                         .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
                 );
 
+        if (basicAuthEnabled) {
+            http.httpBasic(basic -> basic
+                    .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            );
+        }
+
         return http.build();
     }
 
@@ -83,6 +108,12 @@ public class SecurityConfig {
         return provider;
     }
 
+    // used by /login to check the password once before handing out tokens
+    @Bean
+    public AuthenticationManager authenticationManager() {
+        return new ProviderManager(daoAuthProvider());
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -0,0 +1,169 @@
+package org.example.carpulse_v1.security;
+
+import org.example.carpulse_v1.domain.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies the signed bearer tokens used by the API.
+ *
+ * A token is {@code base64url(payload) + "." + base64url(HMAC-SHA256(payload))}.
+ * Everything the request path needs (user id, family id, roles) travels in the
+ * payload, so verification is a single HMAC and never touches the database or BCrypt.
+ */
+@Service
+public class TokenService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public enum TokenType { ACCESS, REFRESH }
+
+    /**
+     * Claims carried by a verified token.
+     */
+    public record TokenClaims(TokenType type,
+                              Long userId,
+                              String username,
+                              Long familyId,
+                              List<Role> roles,
+                              Instant expiresAt) {
+    }
+
+    private final SecretKeySpec key;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+
+    // Mac instances are not thread-safe, keep one per thread
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(@Value("${carpulse.security.token.secret:}") String secret,
+                        @Value("${carpulse.security.token.access-ttl:PT15M}") Duration accessTtl,
+                        @Value("${carpulse.security.token.refresh-ttl:P7D}") Duration refreshTtl) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            logger.warn("No carpulse.security.token.secret configured, using a random key; tokens will not survive a restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public Duration getAccessTtl() {
+        return accessTtl;
+    }
+
+    public String issueAccessToken(AuthenticatedUser user) {
+        return issue(TokenType.ACCESS, user, accessTtl);
+    }
+
+    public String issueRefreshToken(AuthenticatedUser user) {
+        return issue(TokenType.REFRESH, user, refreshTtl);
+    }
+
+    /**
+     * Verify signature, type and expiry of a token.
+     *
+     * @return the claims, or empty if the token is malformed, forged, expired or of the wrong type
+     */
+    public Optional<TokenClaims> verify(String token, TokenType expectedType) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            TokenClaims claims = parse(new String(payload, StandardCharsets.UTF_8));
+            if (claims.type() != expectedType || !Instant.now().isBefore(claims.expiresAt())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Rejecting malformed token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String issue(TokenType type, AuthenticatedUser user, Duration ttl) {
+        Long familyId = user.getFamilyId();
+        String roles = user.getRoles().stream()
+                .map(Role::name)
+                .collect(Collectors.joining(","));
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+
+        // username goes last so it may contain the separator
+        String payload = String.join("|",
+                type.name(),
+                Long.toString(expiresAt),
+                String.valueOf(user.getId()),
+                familyId == null ? "" : familyId.toString(),
+                roles,
+                user.getUsername());
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes));
+    }
+
+    private TokenClaims parse(String payload) {
+        String[] parts = payload.split("\\|", 6);
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("Unexpected token payload");
+        }
+        List<Role> roles = new ArrayList<>();
+        if (!parts[4].isEmpty()) {
+            for (String role : parts[4].split(",")) {
+                roles.add(Role.valueOf(role));
+            }
+        }
+        return new TokenClaims(
+                TokenType.valueOf(parts[0]),
+                Long.valueOf(parts[2]),
+                parts[5],
+                parts[3].isEmpty() ? null : Long.valueOf(parts[3]),
+                List.copyOf(roles),
+                Instant.ofEpochSecond(Long.parseLong(parts[1])));
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + HMAC_ALGORITHM, e);
+        }
+    }
+}
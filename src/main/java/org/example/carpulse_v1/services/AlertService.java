@@ -0,0 +1,179 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManager;
+import org.example.carpulse_v1.dto.Alert;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Overdue and upcoming maintenance and compliance items for a family or a user's cars.
+ *
+ * One query reads both due dates through the per-car due-date indexes, bounded to the window
+ * [today - overdue lookback, today + horizon]; a compliance item whose reminder date has passed is read as
+ * well, however far off its expiry. A record only counts while it is the latest of its type for the car
+ * (by date, a missing date counting as oldest, then id for two on the same day), since a newer service or
+ * renewal supersedes it. The cost
+ * follows the number of alerts in the window, not how much history the cars have.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AlertService {
+
+    // %1$s is the scope predicate on c (family or assigned user)
+    private static final String ALERT_ROWS = """
+            select 'MAINTENANCE', m.id, c.id, cast(m.type as String), m.description, m.nextDueDate, cast(null as LocalDate)
+            from MaintenanceRecord m join m.car c
+            where %1$s and m.nextDueDate between :from and :to
+              and not exists (select 1 from MaintenanceRecord n
+                              where n.car = m.car and n.type = m.type
+                                and (coalesce(n.datePerformed, :oldest) > coalesce(m.datePerformed, :oldest)
+                                     or (coalesce(n.datePerformed, :oldest) = coalesce(m.datePerformed, :oldest)
+                                         and n.id > m.id)))
+            union all
+            select 'COMPLIANCE', r.id, c.id, r.type, r.notes, r.expiryDate, r.reminderDate
+            from ComplianceRecord r join r.car c
+            where %1$s and (r.expiryDate between :from and :to or r.reminderDate between :from and :today)
+              and not exists (select 1 from ComplianceRecord n
+                              where n.car = r.car and n.type = r.type
+                                and (coalesce(n.expiryDate, :oldest) > coalesce(r.expiryDate, :oldest)
+                                     or (coalesce(n.expiryDate, :oldest) = coalesce(r.expiryDate, :oldest)
+                                         and n.id > r.id)))
+            """;
+    private static final String FAMILY_ALERTS = ALERT_ROWS.formatted("c.family.id = :scopeId");
+    private static final String USER_ALERTS = ALERT_ROWS.formatted("c.assignedUser.id = :scopeId");
+    private static final String CAR_ALERTS = ALERT_ROWS.formatted("c.id = :scopeId");
+
+    // stands in for a missing performed or expiry date, so such a record is superseded by any dated one
+    private static final LocalDate OLDEST = LocalDate.of(1000, 1, 1);
+
+    private static final Comparator<Alert> BY_SEVERITY = Comparator.comparing(Alert::severity)
+            .thenComparing(Alert::dueDate)
+            .thenComparing(a -> a.car().id())
+            .thenComparing(Alert::recordId);
+
+    private final EntityManager entityManager;
+    private final CarRepository carRepository;
+    private final FamilyRepository familyRepository;
+    private final UserRepository userRepository;
+    private final Clock clock;
+    private final int defaultHorizonDays;
+    private final int maxHorizonDays;
+    private final int dueSoonDays;
+    private final int overdueLookbackDays;
+
+    public AlertService(EntityManager entityManager,
+                        CarRepository carRepository,
+                        FamilyRepository familyRepository,
+                        UserRepository userRepository,
+                        Clock clock,
+                        @Value("${carpulse.alerts.horizon-days:30}") int defaultHorizonDays,
+                        @Value("${carpulse.alerts.max-horizon-days:365}") int maxHorizonDays,
+                        @Value("${carpulse.alerts.due-soon-days:5}") int dueSoonDays,
+                        @Value("${carpulse.alerts.overdue-lookback-days:365}") int overdueLookbackDays) {
+        this.entityManager = entityManager;
+        this.carRepository = carRepository;
+        this.familyRepository = familyRepository;
+        this.userRepository = userRepository;
+        this.clock = clock;
+        this.defaultHorizonDays = defaultHorizonDays;
+        this.maxHorizonDays = maxHorizonDays;
+        this.dueSoonDays = dueSoonDays;
+        this.overdueLookbackDays = overdueLookbackDays;
+    }
+
+    /**
+     * @param horizonDays how far ahead to look, {@code carpulse.alerts.horizon-days} when null
+     */
+    public List<Alert> findForFamily(Long familyId, Integer horizonDays) {
+        if (!familyRepository.existsById(familyId)) {
+            throw new ResourceNotFoundException("Family not found: " + familyId);
+        }
+        return find(FAMILY_ALERTS, familyId, horizonDays);
+    }
+
+    /**
+     * Same as {@link #findForFamily}, limited to the cars assigned to the user.
+     */
+    public List<Alert> findForUser(Long userId, Integer horizonDays) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        return find(USER_ALERTS, userId, horizonDays);
+    }
+
+    /**
+     * Same as {@link #findForFamily}, for one car.
+     */
+    public List<Alert> findForCar(Long carId, Integer horizonDays) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        return find(CAR_ALERTS, carId, horizonDays);
+    }
+
+    private List<Alert> find(String query, Long scopeId, Integer horizonDays) {
+        int horizon = horizonDays == null ? defaultHorizonDays : horizonDays;
+        if (horizon < 0 || horizon > maxHorizonDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "days must be between 0 and " + maxHorizonDays);
+        }
+        LocalDate today = LocalDate.now(clock);
+        List<Object[]> rows = entityManager.createQuery(query, Object[].class)
+                .setParameter("scopeId", scopeId)
+                .setParameter("from", today.minusDays(overdueLookbackDays))
+                .setParameter("to", today.plusDays(horizon))
+                .setParameter("today", today)
+                .setParameter("oldest", OLDEST)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, CarSummary> cars = carRepository.findSummariesByIdIn(
+                        rows.stream().map(row -> (Long) row[2]).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(CarSummary::id, Function.identity()));
+        List<Alert> alerts = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDate expiry = (LocalDate) row[5];
+            LocalDate reminder = (LocalDate) row[6];
+            // a compliance item without an expiry is only read for its passed reminder, and is due on that
+            LocalDate due = expiry != null ? expiry : reminder;
+            long days = ChronoUnit.DAYS.between(today, due);
+            Alert.Severity severity = expiry != null ? severity(days, reminder, today) : Alert.Severity.DUE_SOON;
+            alerts.add(new Alert(Alert.Source.valueOf((String) row[0]), (Long) row[1], (String) row[3],
+                    (String) row[4], due, days, severity, cars.get((Long) row[2])));
+        }
+        alerts.sort(BY_SEVERITY);
+        return alerts;
+    }
+
+    private Alert.Severity severity(long daysUntilDue, LocalDate reminderDate, LocalDate today) {
+        if (daysUntilDue < 0) {
+            return Alert.Severity.OVERDUE;
+        }
+        // a compliance reminder date that has passed brings the item forward regardless of the threshold
+        if (daysUntilDue <= dueSoonDays || (reminderDate != null && !reminderDate.isAfter(today))) {
+            return Alert.Severity.DUE_SOON;
+        }
+        return Alert.Severity.UPCOMING;
+    }
+}
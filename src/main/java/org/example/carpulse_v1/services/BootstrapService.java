@@ -0,0 +1,84 @@
+package org.example.carpulse_v1.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.dto.Alert;
+import org.example.carpulse_v1.dto.Bootstrap;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Profile, family members, car summaries and alert counts for the signed-in user. Not transactional: the
+ * member and car lists come from {@link FamilyReadCache}, which only fills from reads outside a transaction.
+ *
+ * The version is a hash of the serialized content rather than a counter: car, member and record changes
+ * come from many writers, and alerts also move when the date does. Every request still assembles the
+ * response, mostly from caches, but an unchanged one goes back as a bodiless 304.
+ */
+@Service
+public class BootstrapService {
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final CarService carService;
+    private final AlertService alertService;
+    private final ObjectMapper objectMapper;
+
+    public BootstrapService(UserRepository userRepository,
+                            UserService userService,
+                            CarService carService,
+                            AlertService alertService,
+                            ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.carService = carService;
+        this.alertService = alertService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Bootstrap findForUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+        Long familyId = user.getFamily() == null ? null : user.getFamily().getId();
+        boolean admin = user.getRoles().contains(Role.ROLE_ADMIN);
+
+        Bootstrap.Profile profile = Bootstrap.Profile.from(user);
+        List<User> family = familyId == null ? List.of(user) : userService.listByFamily(familyId);
+        List<Bootstrap.Member> members = family.stream().map(Bootstrap.Member::from).toList();
+        List<CarSummary> cars;
+        List<Alert> alerts;
+        if (admin && familyId != null) {
+            cars = carService.findSummariesByFamily(familyId);
+            alerts = alertService.findForFamily(familyId, null);
+        } else {
+            cars = carService.findSummariesByUser(userId);
+            alerts = alertService.findForUser(userId, null);
+        }
+        int[] counts = new int[Alert.Severity.values().length];
+        alerts.forEach(alert -> counts[alert.severity().ordinal()]++);
+        Bootstrap.AlertCounts alertCounts = new Bootstrap.AlertCounts(counts[Alert.Severity.OVERDUE.ordinal()],
+                counts[Alert.Severity.DUE_SOON.ordinal()], counts[Alert.Severity.UPCOMING.ordinal()]);
+
+        Bootstrap content = new Bootstrap(null, profile, members, cars, alertCounts);
+        return new Bootstrap(version(content), profile, members, cars, alertCounts);
+    }
+
+    // 128 bits of SHA-256 over the JSON the client would receive
+    private String version(Bootstrap content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(content));
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, 16));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.dto.Alert;
+import org.example.carpulse_v1.dto.CarDashboard;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.dto.FuelEconomy;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The car details page in one round trip.
+ *
+ * The sections do not depend on each other, so each runs on a small shared pool, in its own read-only
+ * repository transaction. The request waits for all of them up to {@code carpulse.dashboard.timeout} from
+ * the start; a section still running then is cancelled and comes back null, as does one that failed, and
+ * the rest of the page is served. When the pool's queue is full a section runs in the request thread
+ * instead, so under load the page degrades to the sequential reads rather than failing.
+ */
+@Service
+public class CarDashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(CarDashboardService.class);
+
+    private final CarRepository carRepository;
+    private final MaintenanceRecordRepository maintenanceRepository;
+    private final FuelLogRepository fuelLogRepository;
+    private final AlertService alertService;
+    private final FuelEconomyService fuelEconomyService;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int recent;
+    private final ThreadPoolExecutor executor;
+
+    public CarDashboardService(CarRepository carRepository,
+                               MaintenanceRecordRepository maintenanceRepository,
+                               FuelLogRepository fuelLogRepository,
+                               AlertService alertService,
+                               FuelEconomyService fuelEconomyService,
+                               MeterRegistry meterRegistry,
+                               @Value("${carpulse.dashboard.timeout:PT2S}") Duration timeout,
+                               @Value("${carpulse.dashboard.recent:5}") int recent,
+                               @Value("${carpulse.dashboard.threads:8}") int threads,
+                               @Value("${carpulse.dashboard.queue-capacity:200}") int queueCapacity) {
+        this.carRepository = carRepository;
+        this.maintenanceRepository = maintenanceRepository;
+        this.fuelLogRepository = fuelLogRepository;
+        this.alertService = alertService;
+        this.fuelEconomyService = fuelEconomyService;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.recent = recent;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread t = new Thread(r, "car-dashboard-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("carpulse.dashboard.queue.depth", queue, BlockingQueue::size)
+                .description("Dashboard sections waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public CarDashboard findForCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Section<List<CarSummary>> car = submit("car", () -> carRepository.findSummariesByIdIn(List.of(carId)));
+        Section<List<MaintenanceRecord>> maintenance = submit("maintenance",
+                () -> maintenanceRepository.findByCarIdOrderByDatePerformedDescIdDesc(carId, Limit.of(recent)));
+        Section<List<FuelLog>> fuelLogs = submit("fuelLogs",
+                () -> fuelLogRepository.findByCarIdOrderByDateDescIdDesc(carId, Limit.of(recent)));
+        Section<List<Alert>> alerts = submit("alerts", () -> alertService.findForCar(carId, null));
+        Section<FuelEconomy> stats = submit("stats", () -> fuelEconomyService.findForCar(carId, 0));
+
+        List<CarSummary> summary = car.await(deadline);
+        return new CarDashboard(carId,
+                summary == null || summary.isEmpty() ? null : summary.get(0),
+                maintenance.await(deadline),
+                fuelLogs.await(deadline),
+                alerts.await(deadline),
+                stats.await(deadline),
+                List.of(car.timing(), maintenance.timing(), fuelLogs.timing(), alerts.timing(), stats.timing()));
+    }
+
+    private <T> Section<T> submit(String name, Callable<T> read) {
+        Section<T> section = new Section<>(name, read);
+        try {
+            executor.execute(section.task);
+        } catch (RejectedExecutionException e) {
+            section.task.run();
+        }
+        return section;
+    }
+
+    /**
+     * One read and how long it took, from submission to its result (or to the deadline when it timed out).
+     */
+    private final class Section<T> {
+        private final String name;
+        private final long submitted = System.nanoTime();
+        private final FutureTask<T> task;
+        private volatile long finished;
+        private CarDashboard.Status status;
+        private long millis;
+
+        Section(String name, Callable<T> read) {
+            this.name = name;
+            this.task = new FutureTask<>(() -> {
+                try {
+                    return read.call();
+                } finally {
+                    finished = System.nanoTime();
+                }
+            });
+        }
+
+        T await(long deadline) {
+            T result = null;
+            try {
+                result = task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                status = CarDashboard.Status.OK;
+            } catch (TimeoutException e) {
+                task.cancel(true);
+                status = CarDashboard.Status.TIMED_OUT;
+                logger.warn("Car dashboard section {} timed out after {}", name, timeout);
+            } catch (ExecutionException e) {
+                status = CarDashboard.Status.FAILED;
+                logger.error("Car dashboard section {} failed", name, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.cancel(true);
+                status = CarDashboard.Status.TIMED_OUT;
+            }
+            long end = status == CarDashboard.Status.TIMED_OUT ? System.nanoTime() : finished;
+            millis = TimeUnit.NANOSECONDS.toMillis(end - submitted);
+            Timer.builder("carpulse.dashboard.section")
+                    .description("Time to read one section of the car dashboard")
+                    .tag("section", name)
+                    .tag("status", status.name())
+                    .register(meterRegistry)
+                    .record(end - submitted, TimeUnit.NANOSECONDS);
+            return result;
+        }
+
+        CarDashboard.SectionTiming timing() {
+            return new CarDashboard.SectionTiming(name, status, millis);
+        }
+    }
+}
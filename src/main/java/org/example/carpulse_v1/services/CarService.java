@@ -4,11 +4,17 @@ import lombok.RequiredArgsConstructor;
 import org.example.carpulse_v1.domain.Car;
 import org.example.carpulse_v1.domain.Family;
 import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.dto.FamilyEvent;
 import org.example.carpulse_v1.exception.ResourceNotFoundException;
 import org.example.carpulse_v1.repositories.CarRepository;
 import org.example.carpulse_v1.repositories.FamilyRepository;
 import org.example.carpulse_v1.repositories.UserRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
@@ -20,11 +26,28 @@ public class CarService {
     private final CarRepository carRepository;
     private final FamilyRepository familyRepository;
     private final UserRepository userRepository;
+    private final KeysetPager pager;
+    private final FamilyEventHub events;
+    private final FleetBenchmarkService benchmarks;
+    private final FamilyReadCache readCache;
+    private final SecondLevelCacheInvalidation entityCaches;
 
-    public CarService(CarRepository carRepository, FamilyRepository familyRepository, UserRepository userRepository) {
+    public CarService(CarRepository carRepository,
+                      FamilyRepository familyRepository,
+                      UserRepository userRepository,
+                      KeysetPager pager,
+                      FamilyEventHub events,
+                      FleetBenchmarkService benchmarks,
+                      FamilyReadCache readCache,
+                      SecondLevelCacheInvalidation entityCaches) {
         this.carRepository = carRepository;
         this.familyRepository = familyRepository;
         this.userRepository = userRepository;
+        this.pager = pager;
+        this.events = events;
+        this.benchmarks = benchmarks;
+        this.readCache = readCache;
+        this.entityCaches = entityCaches;
     }
 
     public List<Car> findAllByFamily(Long familyId) {
@@ -48,6 +71,46 @@ public class CarService {
         return carRepository.findByFamilyIdAndAssignedUserIdIsNull(familyId);
     }
 
+    // the summary lists are served from FamilyReadCache, which only fills from reads outside a transaction
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CarSummary> findSummariesByFamily(Long familyId) {
+        List<CarSummary> cars = readCache.cars(FamilyReadCache.Scope.FAMILY_CARS, familyId,
+                () -> familyRepository.existsById(familyId) ? carRepository.findSummariesByFamilyId(familyId) : null);
+        return cars == null ? Collections.emptyList() : cars;
+    }
+
+    /**
+     * One page of a family's cars ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CarSummary> findSummaryPageByFamily(Long familyId, String cursor, int limit, Sort.Direction direction) {
+        if (!familyRepository.existsById(familyId)) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        int size = pager.clamp(limit);
+        KeysetPager.Cursor after = KeysetPager.decode(cursor);
+        Limit probe = Limit.of(size + 1);
+        List<CarSummary> rows = direction.isAscending()
+                ? carRepository.findSummariesByFamilyIdAfter(familyId, after == null ? 0L : after.id(), probe)
+                : carRepository.findSummariesByFamilyIdBefore(familyId, after == null ? Long.MAX_VALUE : after.id(), probe);
+        return pager.toPage(rows, size, last -> KeysetPager.encode(new KeysetPager.Cursor(null, last.id())));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CarSummary> findSummariesByUser(Long userId) {
+        List<CarSummary> cars = readCache.cars(FamilyReadCache.Scope.USER_CARS, userId,
+                () -> userRepository.existsById(userId) ? carRepository.findSummariesByAssignedUserId(userId) : null);
+        return cars == null ? Collections.emptyList() : cars;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CarSummary> findUnassignedSummariesByFamily(Long familyId) {
+        List<CarSummary> cars = readCache.cars(FamilyReadCache.Scope.UNASSIGNED_CARS, familyId,
+                () -> familyRepository.existsById(familyId)
+                        ? carRepository.findUnassignedSummariesByFamilyId(familyId) : null);
+        return cars == null ? Collections.emptyList() : cars;
+    }
+
     public Car findById(Long id) {
         return carRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + id));
@@ -57,7 +120,11 @@ public class CarService {
         Family fam = familyRepository.findById(familyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Family not found: " + familyId));
         car.setFamily(fam);
-        return carRepository.save(car);
+        Car saved = carRepository.save(car);
+        // other nodes drop cached car queries before the lists built from them
+        entityCaches.carChanged(saved.getId());
+        readCache.evictCar(saved);
+        return saved;
     }
     
     public Car assignToUser(Long carId, Long userId) {
@@ -70,14 +137,29 @@ public class CarService {
             throw new IllegalArgumentException("Cannot assign car to user from a different family");
         }
         
-        car.setAssignedUser(user);
-        return carRepository.save(car);
+        // assigning again changes nothing, so there is nothing to tell the other nodes
+        if (car.getAssignedUser() == null || !car.getAssignedUser().getId().equals(userId)) {
+            entityCaches.carChanged(carId);
+            readCache.evictCar(car);
+            car.setAssignedUser(user);
+            readCache.evictCar(car);
+        }
+        Car saved = carRepository.save(car);
+        events.publish(saved.getFamily().getId(),
+                FamilyEvent.carChanged(FamilyEvent.Type.CAR_ASSIGNED, CarSummary.from(saved)));
+        return saved;
     }
     
     public Car unassignFromUser(Long carId) {
         Car car = findById(carId);
+        entityCaches.carChanged(carId);
+        readCache.evictCar(car);
         car.setAssignedUser(null);
-        return carRepository.save(car);
+        readCache.evictCar(car);
+        Car saved = carRepository.save(car);
+        events.publish(saved.getFamily().getId(),
+                FamilyEvent.carChanged(FamilyEvent.Type.CAR_UNASSIGNED, CarSummary.from(saved)));
+        return saved;
     }
 
     public Car update(Long id, Car details) {
@@ -94,13 +176,24 @@ public class CarService {
         
         // Don't update the assignment here as it's handled by assignToUser method
         
+        benchmarks.carChanged(id);
+        entityCaches.carChanged(id);
+        readCache.evictCar(car);
+        return carRepository.save(car);
+    }
+
+    public Car updateImageUrl(Long id, String imageUrl) {
+        Car car = findById(id);
+        car.setImageUrl(imageUrl);
+        entityCaches.carChanged(id);
+        readCache.evictCar(car);
         return carRepository.save(car);
     }
 
     public void delete(Long id) {
-        if (!carRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Car not found: " + id);
-        }
+        Car car = findById(id);
+        entityCaches.carChanged(id);
+        readCache.evictCar(car);
         carRepository.deleteById(id);
     }
 }
\ No newline at end of file
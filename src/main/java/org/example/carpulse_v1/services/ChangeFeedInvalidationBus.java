@@ -0,0 +1,203 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.domain.CacheInvalidation;
+import org.example.carpulse_v1.repositories.CacheInvalidationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The default {@link InvalidationBus}: the {@code cache_invalidations} table as a change feed.
+ *
+ * Publishing inserts a row in the writer's transaction, so it becomes visible exactly when the change does,
+ * and not at all on a rollback. Every node polls for rows past the highest id it has seen, one indexed range
+ * read per {@code poll-interval}, which bounds how long other nodes serve the old entry.
+ *
+ * Ids are handed out at insert but become visible at commit, so a row can show up after a higher one. The ids
+ * skipped on the way up are remembered as gaps and fetched by id on later polls, until they turn up or have
+ * been missing longer than {@code max-transaction} (an insert that was rolled back never fills its gap). A
+ * starting node joins at the current end of the feed: its caches are empty. Rows older than {@code retention}
+ * are deleted.
+ */
+@Service
+@ConditionalOnProperty(name = "carpulse.invalidation.transport", havingValue = "change-feed", matchIfMissing = true)
+public class ChangeFeedInvalidationBus implements InvalidationBus {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedInvalidationBus.class);
+
+    private final CacheInvalidationRepository repository;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final long maxTransactionNanos;
+    private final Duration retention;
+    private final String node = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService poller;
+
+    // only touched by poll()
+    private long position = -1;
+    private final Map<Long, Long> gaps = new HashMap<>();   // id -> System.nanoTime() when first skipped
+
+    public ChangeFeedInvalidationBus(CacheInvalidationRepository repository,
+                                     PlatformTransactionManager transactionManager,
+                                     Clock clock,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${carpulse.invalidation.enabled:true}") boolean enabled,
+                                     @Value("${carpulse.invalidation.poll-interval:PT1S}") Duration pollInterval,
+                                     @Value("${carpulse.invalidation.batch-size:500}") int batchSize,
+                                     @Value("${carpulse.invalidation.max-transaction:PT1M}") Duration maxTransaction,
+                                     @Value("${carpulse.invalidation.retention:PT1H}") Duration retention) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.maxTransactionNanos = maxTransaction.toNanos();
+        this.retention = retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-invalidation-poll");
+            t.setDaemon(true);
+            return t;
+        });
+        poller = scheduler;
+        long interval = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                logger.error("Could not read the cache invalidation feed", e);
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+        long pruneInterval = retention.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                prune();
+            } catch (RuntimeException e) {
+                logger.warn("Could not prune the cache invalidation feed", e);
+            }
+        }, pruneInterval, pruneInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ScheduledExecutorService scheduler = poller;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void publish(String topic, String key) {
+        CacheInvalidation row = new CacheInvalidation();
+        row.setNode(node);
+        row.setTopic(topic);
+        row.setItemKey(key);
+        row.setCreatedAt(LocalDateTime.now(clock));
+        repository.save(row);
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+        listeners.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Hands rows committed since the last poll to the listeners, in id order per read; returns how many
+     * came from other nodes.
+     */
+    synchronized int poll() {
+        if (position < 0) {
+            // join at the end
+            position = repository.findMaxId();
+            return 0;
+        }
+        long now = System.nanoTime();
+        gaps.values().removeIf(skipped -> now - skipped > maxTransactionNanos);
+        List<CacheInvalidation> rows = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            rows.addAll(repository.findAllById(gaps.keySet()));
+            rows.sort(Comparator.comparing(CacheInvalidation::getId));
+        }
+        rows.addAll(repository.findByIdGreaterThanOrderById(position, Limit.of(batchSize)));
+
+        int delivered = 0;
+        for (CacheInvalidation row : rows) {
+            long id = row.getId();
+            if (id > position) {
+                // a jump wider than a batch is the sequence moving on (restart, cluster offsets), not open transactions
+                if (id - position <= batchSize) {
+                    for (long skipped = position + 1; skipped < id; skipped++) {
+                        gaps.put(skipped, now);
+                    }
+                }
+                position = id;
+            } else {
+                gaps.remove(id);
+            }
+            if (!node.equals(row.getNode())) {
+                deliver(row.getTopic(), row.getItemKey());
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    int prune() {
+        LocalDateTime before = LocalDateTime.now(clock).minus(retention);
+        Integer deleted = tx.execute(status -> repository.deleteByCreatedAtBefore(before));
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void deliver(String topic, String key) {
+        Counter.builder("carpulse.invalidation.received")
+                .description("Cache evictions received from other nodes")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .increment();
+        for (Consumer<String> listener : listeners.getOrDefault(topic, List.of())) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                logger.error("Cache invalidation {} {} failed", topic, key, e);
+            }
+        }
+    }
+}
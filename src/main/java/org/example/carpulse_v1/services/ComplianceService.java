@@ -2,11 +2,15 @@ package org.example.carpulse_v1.services;
 
 
 import lombok.RequiredArgsConstructor;
-import org.example.carpulse_v1.domain.Car;
 import org.example.carpulse_v1.domain.ComplianceRecord;
+import org.example.carpulse_v1.domain.Reminder;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.dto.FamilyEvent;
 import org.example.carpulse_v1.exception.ResourceNotFoundException;
 import org.example.carpulse_v1.repositories.CarRepository;
 import org.example.carpulse_v1.repositories.ComplianceRecordRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,27 +23,46 @@ import java.util.List;
 public class ComplianceService {
     private final ComplianceRecordRepository repo;
     private final CarRepository carRepository;
+    private final KeysetPager pager;
+    private final ReminderScheduler reminders;
+    private final FamilyEventHub events;
 
-    public ComplianceService(ComplianceRecordRepository repo, CarRepository carRepository) {
+    public ComplianceService(ComplianceRecordRepository repo, CarRepository carRepository, KeysetPager pager,
+                             ReminderScheduler reminders, FamilyEventHub events) {
         this.repo = repo;
         this.carRepository = carRepository;
+        this.pager = pager;
+        this.reminders = reminders;
+        this.events = events;
     }
     public List<ComplianceRecord> findAllByCar(Long carId) {
-        carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
+        requireCar(carId);
         return repo.findByCarId(carId);
     }
 
+    /**
+     * One page of a car's records ordered by (expiryDate, id).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ComplianceRecord> findPageByCar(Long carId, String cursor, int limit, Sort.Direction direction) {
+        requireCar(carId);
+        Specification<ComplianceRecord> ofCar = (root, query, cb) -> cb.equal(root.get("car").get("id"), carId);
+        return pager.page(repo, ofCar, "expiryDate", ComplianceRecord::getExpiryDate, ComplianceRecord::getId, cursor, limit, direction);
+    }
+
     public ComplianceRecord findById(Long id) {
         return repo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ComplianceRecord not found: " + id));
     }
 
     public ComplianceRecord create(Long carId, ComplianceRecord rec) {
-        Car car = carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
-        rec.setCar(car);
-        return repo.save(rec);
+        requireCar(carId);
+        // only the FK is written, so a reference will do; the car row (and its image) is never read
+        rec.setCar(carRepository.getReferenceById(carId));
+        ComplianceRecord saved = repo.save(rec);
+        reminders.track(Reminder.Source.COMPLIANCE, saved.getId(), carId, saved.getReminderDate());
+        events.publishForCar(carId, FamilyEvent.record(FamilyEvent.Type.COMPLIANCE_CREATED, carId, saved.getId()));
+        return saved;
     }
 
     public ComplianceRecord update(Long id, ComplianceRecord detail) {
@@ -48,7 +71,9 @@ public class ComplianceService {
         rec.setExpiryDate(detail.getExpiryDate());
         rec.setReminderDate(detail.getReminderDate());
         rec.setNotes(detail.getNotes());
-        return repo.save(rec);
+        ComplianceRecord saved = repo.save(rec);
+        reminders.track(Reminder.Source.COMPLIANCE, saved.getId(), saved.getCar().getId(), saved.getReminderDate());
+        return saved;
     }
 
     public void delete(Long id) {
@@ -56,5 +81,12 @@ public class ComplianceService {
             throw new ResourceNotFoundException("ComplianceRecord not found: " + id);
         }
         repo.deleteById(id);
+        reminders.untrack(Reminder.Source.COMPLIANCE, id);
+    }
+
+    private void requireCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
     }
-}
\ No newline at end of file
+}
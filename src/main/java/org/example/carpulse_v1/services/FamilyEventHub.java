@@ -0,0 +1,415 @@
+package org.example.carpulse_v1.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.dto.FamilyEvent;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-family Server-Sent Events fan-out.
+ *
+ * An idle subscriber is an async request parked in the container plus a small buffer here; no thread
+ * waits on it. Events are serialised once and queued per subscriber (at most {@code buffer-size}).
+ * A small sender pool writes the queues out. A subscriber whose queue is full is disconnected, so one
+ * slow client never holds up the rest or grows the heap. Its browser reconnects with
+ * {@code Last-Event-ID} and gets the missed events from the family's replay ring. If the ring no longer
+ * covers them, or the id is from before a restart, the client gets {@code RESET} and re-fetches.
+ *
+ * A family only has a channel (and a ring) on a node while someone follows it there: events for other
+ * families are not kept. A channel whose last subscriber left more than {@code replay-window} ago is
+ * dropped by the heartbeat task; a later reconnect gets a new channel, which answers any earlier id with
+ * {@code RESET}.
+ */
+@Service
+public class FamilyEventHub {
+    private static final Logger logger = LoggerFactory.getLogger(FamilyEventHub.class);
+
+    static final String RESET = "RESET";
+
+    private record Stored(long seq, String name, String json) {
+    }
+
+    private static final Stored HEARTBEAT = new Stored(-1, null, null);
+
+    private static final class Channel {
+        final ArrayDeque<Stored> recent = new ArrayDeque<>();
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        long evictedUpTo;   // seq of the newest event no longer in recent, or not kept before the channel existed
+        long idleSince;     // System.nanoTime() when the last subscriber left
+        boolean removed;    // dropped from channels; subscribe takes a new one
+
+        Channel(long createdAt) {
+            this.evictedUpTo = createdAt;
+            this.idleSince = System.nanoTime();
+        }
+    }
+
+    private final CarRepository carRepository;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int replaySize;
+    private final long timeoutMillis;
+    private final long replayWindowNanos;
+    private final int maxSubscribers;
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService heartbeat;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong seq = new AtomicLong();
+    // ids look like "<epoch>-<seq>"; an id from another epoch was handed out before a restart
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Counter dropped;
+
+    public FamilyEventHub(CarRepository carRepository,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${carpulse.events.buffer-size:64}") int bufferSize,
+                          @Value("${carpulse.events.replay-size:100}") int replaySize,
+                          @Value("${carpulse.events.heartbeat:PT15S}") Duration heartbeatInterval,
+                          @Value("${carpulse.events.timeout:PT30M}") Duration timeout,
+                          @Value("${carpulse.events.replay-window:PT5M}") Duration replayWindow,
+                          @Value("${carpulse.events.max-subscribers:10000}") int maxSubscribers,
+                          @Value("${carpulse.events.sender-threads:2}") int senderThreads) {
+        this.carRepository = carRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.timeoutMillis = timeout.toMillis();
+        this.replayWindowNanos = replayWindow.toNanos();
+        this.maxSubscribers = maxSubscribers;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // at most one queued drain per subscriber, so the task queue is bounded by max-subscribers
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "family-events-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "family-events-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(() -> {
+            sendHeartbeats();
+            dropIdleChannels();
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("carpulse.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open family event streams on this node")
+                .register(meterRegistry);
+        Gauge.builder("carpulse.events.channels", channels, Map::size)
+                .description("Families with a replay ring on this node")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("carpulse.events.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for a family. With {@code lastEventId} (the {@code Last-Event-ID} header of a
+     * reconnect) the events published since are sent first.
+     */
+    public SseEmitter subscribe(Long familyId, String lastEventId) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event streams, retry later");
+        }
+        Subscriber sub = new Subscriber(familyId, new SseEmitter(timeoutMillis));
+        sub.emitter.onCompletion(() -> remove(sub));
+        sub.emitter.onTimeout(() -> remove(sub));
+        sub.emitter.onError(e -> remove(sub));
+
+        while (true) {
+            Channel channel = channels.computeIfAbsent(familyId, id -> new Channel(seq.get()));
+            synchronized (channel) {
+                if (channel.removed) {
+                    continue;   // dropped as idle just now
+                }
+                if (lastEventId != null) {
+                    replay(channel, sub, lastEventId);
+                }
+                channel.subscribers.add(sub);
+                subscriberCount.incrementAndGet();
+            }
+            return sub.emitter;
+        }
+    }
+
+    /**
+     * Push an event to a family's subscribers once the current transaction commits.
+     */
+    public void publish(Long familyId, FamilyEvent event) {
+        AfterCommit.run(() -> send(familyId, event));
+    }
+
+    /**
+     * As {@link #publish}, for callers that only hold the car id. The car's family is only looked up while
+     * this node has a channel open; with none there is nobody to send the event to.
+     */
+    public void publishForCar(Long carId, FamilyEvent event) {
+        if (channels.isEmpty()) {
+            return;
+        }
+        carRepository.findFamilyIdById(carId).ifPresent(familyId -> publish(familyId, event));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Families with a channel on this node: followed now, or within the replay window.
+     */
+    public int channelCount() {
+        return channels.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    private void send(Long familyId, FamilyEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialise {} for family {}", event.type(), familyId, e);
+            return;
+        }
+        long taken = 0;
+        Channel channel = channels.get(familyId);
+        if (channel == null) {
+            // nobody follows this family here. The event is still numbered, so a channel opened later starts
+            // past it and answers a resume from before it with RESET
+            taken = seq.incrementAndGet();
+            channel = channels.get(familyId);
+            if (channel == null) {
+                return;
+            }
+        }
+        List<Subscriber> full = new ArrayList<>();
+        synchronized (channel) {
+            long eventSeq = taken != 0 ? taken : seq.incrementAndGet();
+            if (channel.removed) {
+                return;
+            }
+            Stored stored = new Stored(eventSeq, event.type().name(), json);
+            channel.recent.addLast(stored);
+            if (channel.recent.size() > replaySize) {
+                channel.evictedUpTo = channel.recent.removeFirst().seq();
+            }
+            for (Subscriber sub : channel.subscribers) {
+                if (!sub.offer(stored)) {
+                    full.add(sub);
+                }
+            }
+        }
+        full.forEach(this::drop);
+    }
+
+    // called with the channel locked, before the subscriber is visible to publishers
+    private void replay(Channel channel, Subscriber sub, String lastEventId) {
+        long after = parseSeq(lastEventId);
+        List<Stored> missed = new ArrayList<>();
+        if (after >= channel.evictedUpTo && after <= seq.get()) {
+            for (Stored stored : channel.recent) {
+                if (stored.seq() > after) {
+                    missed.add(stored);
+                }
+            }
+            if (missed.size() < bufferSize) {
+                missed.forEach(sub::offer);
+                return;
+            }
+        }
+        sub.offer(new Stored(seq.get(), RESET, "{}"));
+    }
+
+    private long parseSeq(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void sendHeartbeats() {
+        List<Subscriber> full = new ArrayList<>();
+        for (Channel channel : channels.values()) {
+            for (Subscriber sub : channel.subscribers) {
+                if (!sub.offer(HEARTBEAT)) {
+                    full.add(sub);
+                }
+            }
+        }
+        full.forEach(this::drop);
+    }
+
+    private void dropIdleChannels() {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty() && now - channel.idleSince > replayWindowNanos) {
+                    channel.removed = true;
+                    channels.remove(entry.getKey(), channel);
+                }
+            }
+        }
+    }
+
+
+    private void drop(Subscriber sub) {
+        if (remove(sub)) {
+            dropped.increment();
+            logger.info("Event subscriber for family {} fell {} events behind, disconnecting", sub.familyId, bufferSize);
+        }
+        sub.close();
+    }
+
+    private boolean remove(Subscriber sub) {
+        Channel channel = channels.get(sub.familyId);
+        if (channel == null) {
+            return false;
+        }
+        synchronized (channel) {
+            if (!channel.subscribers.remove(sub)) {
+                return false;
+            }
+            if (channel.subscribers.isEmpty()) {
+                channel.idleSince = System.nanoTime();
+            }
+        }
+        subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    private SseEmitter.SseEventBuilder toSse(Stored stored) {
+        if (stored == HEARTBEAT) {
+            return SseEmitter.event().comment("");
+        }
+        return SseEmitter.event()
+                .id(epoch + "-" + stored.seq())
+                .name(stored.name())
+                .data(stored.json(), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * One open stream. Its buffer is drained by at most one sender task at a time, so events go out in order.
+     */
+    private final class Subscriber {
+        final Long familyId;
+        final SseEmitter emitter;
+        private final ArrayDeque<Stored> buffer = new ArrayDeque<>(4);
+        private boolean scheduled;
+        private boolean closed;
+
+        Subscriber(Long familyId, SseEmitter emitter) {
+            this.familyId = familyId;
+            this.emitter = emitter;
+        }
+
+        // false when the buffer is full
+        boolean offer(Stored stored) {
+            synchronized (this) {
+                if (closed) {
+                    return true;
+                }
+                if (buffer.size() >= bufferSize) {
+                    return false;
+                }
+                buffer.addLast(stored);
+                if (scheduled) {
+                    return true;
+                }
+                scheduled = true;
+            }
+            sender.execute(this::drain);
+            return true;
+        }
+
+        // completing takes the emitter's lock, which a blocked send may hold, so it happens on the sender
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Stored next;
+                boolean complete;
+                synchronized (this) {
+                    complete = closed;
+                    next = complete ? null : buffer.pollFirst();
+                    if (next == null) {
+                        scheduled = false;
+                    }
+                }
+                if (complete) {
+                    emitter.complete();
+                    return;
+                }
+                if (next == null) {
+                    return;
+                }
+                try {
+                    emitter.send(toSse(next));
+                } catch (IOException | IllegalStateException e) {
+                    // client went away; the container reports it through onError/onCompletion as well
+                    remove(this);
+                    synchronized (this) {
+                        closed = true;
+                        buffer.clear();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
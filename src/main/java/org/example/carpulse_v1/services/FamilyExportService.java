@@ -0,0 +1,320 @@
+package org.example.carpulse_v1.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.example.carpulse_v1.domain.ComplianceRecord;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.ComplianceRecordRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams a family's cars, maintenance, fuel logs and compliance records as NDJSON or CSV.
+ *
+ * Rows come from repository {@code Stream} queries with a JDBC fetch size. Each row is written to
+ * the output as soon as it is read, then detached, so the persistence context never grows.
+ * Heap use does not depend on how much history a family has.
+ */
+@Service
+public class FamilyExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Optional<Format> parse(String value) {
+            for (Format f : values()) {
+                if (f.extension.equalsIgnoreCase(value)) {
+                    return Optional.of(f);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    public enum Dataset {
+        CARS, MAINTENANCE, FUEL_LOGS, COMPLIANCE;
+
+        public String pathName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        public static Optional<Dataset> parse(String value) {
+            for (Dataset d : values()) {
+                if (d.pathName().equalsIgnoreCase(value)) {
+                    return Optional.of(d);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private record Table<T>(String kind, boolean entities, List<Column<T>> columns) {
+    }
+
+    private static final Table<CarSummary> CARS = new Table<>("car", false, List.of(
+            new Column<>("id", CarSummary::id),
+            new Column<>("licensePlate", CarSummary::licensePlate),
+            new Column<>("brand", CarSummary::brand),
+            new Column<>("model", CarSummary::model),
+            new Column<>("year", CarSummary::year),
+            new Column<>("mileage", CarSummary::mileage),
+            new Column<>("engine", CarSummary::engine),
+            new Column<>("doors", CarSummary::doors),
+            new Column<>("fuelType", CarSummary::fuelType),
+            new Column<>("assignedUserId", c -> c.assignedUser() == null ? null : c.assignedUser().id()),
+            new Column<>("imageUrl", CarSummary::imageUrl)));
+
+    private static final Table<MaintenanceRecord> MAINTENANCE = new Table<>("maintenance", true, List.of(
+            new Column<>("id", MaintenanceRecord::getId),
+            new Column<>("carId", m -> m.getCar().getId()),
+            new Column<>("type", MaintenanceRecord::getType),
+            new Column<>("description", MaintenanceRecord::getDescription),
+            new Column<>("datePerformed", MaintenanceRecord::getDatePerformed),
+            new Column<>("nextDueDate", MaintenanceRecord::getNextDueDate),
+            new Column<>("mileageAtService", MaintenanceRecord::getMileageAtService),
+            new Column<>("estimatedCost", MaintenanceRecord::getEstimatedCost)));
+
+    private static final Table<FuelLog> FUEL_LOGS = new Table<>("fuelLog", true, List.of(
+            new Column<>("id", FuelLog::getId),
+            new Column<>("carId", l -> l.getCar().getId()),
+            new Column<>("date", FuelLog::getDate),
+            new Column<>("litersFilled", FuelLog::getLitersFilled),
+            new Column<>("pricePerLiter", FuelLog::getPricePerLiter),
+            new Column<>("odometer", FuelLog::getOdometer),
+            new Column<>("totalCost", FuelLog::getTotalCost)));
+
+    private static final Table<ComplianceRecord> COMPLIANCE = new Table<>("compliance", true, List.of(
+            new Column<>("id", ComplianceRecord::getId),
+            new Column<>("carId", r -> r.getCar().getId()),
+            new Column<>("type", ComplianceRecord::getType),
+            new Column<>("expiryDate", ComplianceRecord::getExpiryDate),
+            new Column<>("reminderDate", ComplianceRecord::getReminderDate),
+            new Column<>("notes", ComplianceRecord::getNotes)));
+
+    private final FamilyRepository familyRepository;
+    private final CarRepository carRepository;
+    private final MaintenanceRecordRepository maintenanceRepository;
+    private final FuelLogRepository fuelLogRepository;
+    private final ComplianceRecordRepository complianceRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public FamilyExportService(FamilyRepository familyRepository,
+                               CarRepository carRepository,
+                               MaintenanceRecordRepository maintenanceRepository,
+                               FuelLogRepository fuelLogRepository,
+                               ComplianceRecordRepository complianceRepository,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper) {
+        this.familyRepository = familyRepository;
+        this.carRepository = carRepository;
+        this.maintenanceRepository = maintenanceRepository;
+        this.fuelLogRepository = fuelLogRepository;
+        this.complianceRepository = complianceRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Fail before anything is written, while the response can still carry an error status.
+     */
+    public void requireFamily(Long familyId) {
+        if (!familyRepository.existsById(familyId)) {
+            throw new ResourceNotFoundException("Family not found: " + familyId);
+        }
+    }
+
+    /**
+     * Write one dataset. The caller owns (and closes) {@code out}.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long familyId, Dataset dataset, Format format, OutputStream out) throws IOException {
+        RowSink sink = format == Format.CSV ? new CsvSink(out) : new NdjsonSink(out, false);
+        long rows = write(familyId, dataset, sink);
+        sink.finish();
+        return rows;
+    }
+
+    /**
+     * Write every dataset as one NDJSON stream, each line tagged with a {@code kind} field.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(Long familyId, OutputStream out) throws IOException {
+        RowSink sink = new NdjsonSink(out, true);
+        long rows = 0;
+        for (Dataset dataset : Dataset.values()) {
+            rows += write(familyId, dataset, sink);
+        }
+        sink.finish();
+        return rows;
+    }
+
+    private long write(Long familyId, Dataset dataset, RowSink sink) throws IOException {
+        return switch (dataset) {
+            case CARS -> drain(carRepository.streamSummariesByFamilyId(familyId), CARS, sink);
+            case MAINTENANCE -> drain(maintenanceRepository.streamByFamilyId(familyId), MAINTENANCE, sink);
+            case FUEL_LOGS -> drain(fuelLogRepository.streamByFamilyId(familyId), FUEL_LOGS, sink);
+            case COMPLIANCE -> drain(complianceRepository.streamByFamilyId(familyId), COMPLIANCE, sink);
+        };
+    }
+
+    private <T> long drain(Stream<T> stream, Table<T> table, RowSink sink) throws IOException {
+        long count = 0;
+        try (stream) {
+            sink.begin(table);
+            Iterator<T> rows = stream.iterator();
+            while (rows.hasNext()) {
+                T row = rows.next();
+                sink.row(table, row);
+                if (table.entities()) {
+                    entityManager.detach(row);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private interface RowSink {
+        <T> void begin(Table<T> table) throws IOException;
+
+        <T> void row(Table<T> table, T row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator json;
+        private final boolean tagged;
+
+        NdjsonSink(OutputStream out, boolean tagged) throws IOException {
+            this.json = objectMapper.createGenerator(out);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);
+            this.tagged = tagged;
+        }
+
+        @Override
+        public <T> void begin(Table<T> table) {
+        }
+
+        @Override
+        public <T> void row(Table<T> table, T row) throws IOException {
+            json.writeStartObject();
+            if (tagged) {
+                json.writeStringField("kind", table.kind());
+            }
+            for (Column<T> column : table.columns()) {
+                json.writeFieldName(column.name());
+                Object value = column.value().apply(row);
+                if (value instanceof BigDecimal decimal) {
+                    json.writeNumber(decimal);
+                } else {
+                    json.writeObject(value);
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer out;
+
+        CsvSink(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public <T> void begin(Table<T> table) throws IOException {
+            List<Column<T>> columns = table.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(columns.get(i).name());
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public <T> void row(Table<T> table, T row) throws IOException {
+            List<Column<T>> columns = table.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeField(columns.get(i).value().apply(row));
+            }
+            out.write('\n');
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                out.write(text);
+                return;
+            }
+            out.write('"');
+            out.write(text.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.carpulse_v1.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The car lists and member lists of families and users, which stay the same until somebody changes a car or
+ * a user. Caffeine bounds it by entry count and evicts by W-TinyLFU, so a burst of one-off lookups does not
+ * push out the families that are read all the time.
+ *
+ * Writers name the lists they change and those keys are invalidated once the transaction commits. Two
+ * rules keep a list from going stale:
+ * <ul>
+ *   <li>Only reads outside a transaction fill the cache. Each of their queries starts a fresh snapshot inside
+ *   the load, and invalidating a key waits for a load of that key already running, so a load that started
+ *   before the commit is dropped right after it. A read inside a transaction may use an entry but never
+ *   stores one, since its snapshot can predate a commit whose invalidation has already run.</li>
+ *   <li>A transaction that has changed something reads around the cache, so it sees its own writes and
+ *   does not store them before they are committed.</li>
+ * </ul>
+ * Other nodes hear of each key through the {@link InvalidationBus} and drop it once the feed reaches them.
+ *
+ * Misses go through a {@link SingleFlight}: concurrent readers of a missing list wait for one load, up to
+ * {@code wait-timeout}, and a failed load fails them all instead of each retrying it in turn. An invalidated
+ * key is dropped from the cache first, which waits out a load already running, and then from the flights.
+ * Writes that bypass the services (DataLoader, migrations, manual fixes) show up after {@code ttl}.
+ */
+@Service
+public class FamilyReadCache {
+    static final String TOPIC = "familyReads";
+
+    public enum Scope { FAMILY_CARS, USER_CARS, UNASSIGNED_CARS, FAMILY_MEMBERS }
+
+    record Key(Scope scope, Long id) {
+    }
+
+    // values are immutable lists: CarSummary records, or detached User copies that are copied again on a hit
+    private final Cache<Key, List<?>> lists;
+    private final SingleFlight<Key, List<?>> flights;
+    private final InvalidationBus bus;
+
+    public FamilyReadCache(InvalidationBus bus,
+                           MeterRegistry meterRegistry,
+                           @Value("${carpulse.family-cache.max-size:10000}") long maxSize,
+                           @Value("${carpulse.family-cache.ttl:PT10M}") Duration ttl,
+                           @Value("${carpulse.family-cache.wait-timeout:PT5S}") Duration waitTimeout) {
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, TOPIC);
+        this.flights = new SingleFlight<>(TOPIC, waitTimeout, meterRegistry);
+        this.bus = bus;
+        // a write committed on another node
+        bus.subscribe(TOPIC, key -> {
+            int colon = key.indexOf(':');
+            invalidate(new Key(Scope.valueOf(key.substring(0, colon)), Long.valueOf(key.substring(colon + 1))));
+        });
+    }
+
+    /**
+     * A car list, loaded by {@code loader} on a miss; a null from the loader (no such family or user) is
+     * passed through and not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public List<CarSummary> cars(Scope scope, Long id, Supplier<List<CarSummary>> loader) {
+        return (List<CarSummary>) get(new Key(scope, id), () -> {
+            List<CarSummary> cars = loader.get();
+            return cars == null ? null : List.copyOf(cars);
+        });
+    }
+
+    /**
+     * The members of a family, as copies the caller is free to change; they are not attached to any
+     * persistence context.
+     */
+    @SuppressWarnings("unchecked")
+    public List<User> members(Long familyId, Supplier<List<User>> loader) {
+        List<User> members = (List<User>) get(new Key(Scope.FAMILY_MEMBERS, familyId), () -> {
+            List<User> users = loader.get();
+            return users == null ? null : users.stream().map(FamilyReadCache::copy).toList();
+        });
+        return members == null ? null : members.stream().map(FamilyReadCache::copy).toList();
+    }
+
+    /**
+     * The lists {@code car} is on in its current state: its family's cars, and the unassigned cars or the
+     * assigned user's cars. Call it before and after changing the family or the assignment.
+     */
+    public void evictCar(Car car) {
+        Long familyId = car.getFamily() == null ? null : car.getFamily().getId();
+        evict(Scope.FAMILY_CARS, familyId);
+        if (car.getAssignedUser() == null) {
+            evict(Scope.UNASSIGNED_CARS, familyId);
+        } else {
+            evict(Scope.USER_CARS, car.getAssignedUser().getId());
+        }
+    }
+
+    /**
+     * Invalidates one list when the surrounding transaction commits, or now outside a transaction, here and on
+     * the other nodes.
+     */
+    public void evict(Scope scope, Long id) {
+        if (id == null) {
+            return;
+        }
+        Key key = new Key(scope, id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(key);
+            bus.publish(TOPIC, scope + ":" + id);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Key> pending = (Set<Key>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Key> keys = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.forEach(FamilyReadCache.this::invalidate);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(FamilyReadCache.this);
+                }
+            });
+            pending = keys;
+        }
+        if (pending.add(key)) {
+            bus.publish(TOPIC, scope + ":" + id);
+        }
+    }
+
+    public CacheStats stats() {
+        return lists.stats();
+    }
+
+    private List<?> get(Key key, Supplier<List<?>> loader) {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return loader.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<?> cached = lists.getIfPresent(key);
+            return cached != null ? cached : loader.get();
+        }
+        return flights.run(key, () -> lists.get(key, k -> loader.get()));
+    }
+
+    private void invalidate(Key key) {
+        lists.invalidate(key);
+        flights.forget(key);
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setPassword(user.getPassword());
+        copy.setEmail(user.getEmail());
+        copy.setName(user.getName());
+        copy.setRoles(new ArrayList<>(user.getRoles()));
+        copy.setFamily(user.getFamily());
+        return copy;
+    }
+}
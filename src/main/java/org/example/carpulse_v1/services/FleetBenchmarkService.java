@@ -0,0 +1,396 @@
+package org.example.carpulse_v1.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tdunning.math.stats.MergingDigest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.SegmentSketch;
+import org.example.carpulse_v1.dto.SegmentBenchmark;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.SegmentSketchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * p10/p50/p90 of price per liter and of L/100km across all cars of a brand/model/fuel type.
+ *
+ * Exact percentiles would sort every fill of the segment on each request. Instead each segment keeps a
+ * t-digest per metric ({@link SegmentSketches}) in memory: fuel log writes add their fill after commit, and
+ * a read costs O(centroids) whatever the segment's size. Economy samples are per fill: its liters over the km
+ * since the car's previous highest reading, as {@link FuelEconomyService} sees it when the fill is added.
+ *
+ * Every {@code persist-interval} the samples added since the last flush are merged into {@code segment_sketches}
+ * under a row lock, and rows other instances have merged into are reloaded. Sketches only grow: an edited or
+ * deleted fill stays counted until {@link #rebuild} re-reads every fuel log, which also runs at start-up
+ * per {@code rebuild-on-startup}. Fills committed while a rebuild runs may be missed until the next one.
+ */
+@Service
+public class FleetBenchmarkService {
+    private static final Logger logger = LoggerFactory.getLogger(FleetBenchmarkService.class);
+    private static final SegmentSketch.Metric[] METRICS = SegmentSketch.Metric.values();
+
+    /**
+     * Normalized segment key: trimmed, lower-cased and cut to the column sizes; '' for a missing value.
+     */
+    record Segment(String brand, String model, String fuelType) {
+        static Segment of(String brand, String model, String fuelType) {
+            return new Segment(normalize(brand, 100), normalize(model, 100), normalize(fuelType, 32));
+        }
+
+        // cars without a brand or model are not compared with anything
+        boolean benchmarked() {
+            return !brand.isEmpty() && !model.isEmpty();
+        }
+
+        SegmentSketch.Key key(SegmentSketch.Metric metric) {
+            return new SegmentSketch.Key(brand, model, fuelType, metric);
+        }
+
+        private static String normalize(String value, int length) {
+            String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+            return normalized.length() <= length ? normalized : normalized.substring(0, length);
+        }
+    }
+
+    private final SegmentSketchRepository sketchRepository;
+    private final CarRepository carRepository;
+    private final FuelLogRepository fuelLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Clock clock;
+    private final boolean enabled;
+    private final String rebuildOnStartup;
+    private final Duration persistInterval;
+    private final double compression;
+    private final double maxLitersPer100Km;
+    private final Map<Segment, SegmentSketches> segments = new ConcurrentHashMap<>();
+    private final Cache<Long, Segment> carSegments;
+    private volatile LocalDateTime lastReload;
+    private volatile ScheduledExecutorService flushes;
+
+    public FleetBenchmarkService(SegmentSketchRepository sketchRepository,
+                                 CarRepository carRepository,
+                                 FuelLogRepository fuelLogRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 Clock clock,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${carpulse.benchmarks.enabled:true}") boolean enabled,
+                                 @Value("${carpulse.benchmarks.rebuild-on-startup:if-empty}") String rebuildOnStartup,
+                                 @Value("${carpulse.benchmarks.persist-interval:PT5M}") Duration persistInterval,
+                                 @Value("${carpulse.benchmarks.compression:100}") double compression,
+                                 @Value("${carpulse.benchmarks.max-liters-per-100km:100}") double maxLitersPer100Km,
+                                 @Value("${carpulse.benchmarks.max-cars:100000}") long maxCars) {
+        this.sketchRepository = sketchRepository;
+        this.carRepository = carRepository;
+        this.fuelLogRepository = fuelLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.persistInterval = persistInterval;
+        this.compression = compression;
+        this.maxLitersPer100Km = maxLitersPer100Km;
+        this.carSegments = Caffeine.newBuilder()
+                .maximumSize(maxCars)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, carSegments, "benchmarkSegments");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        reload();
+        if (rebuildOnStartup.equals("always") || (rebuildOnStartup.equals("if-empty") && segments.isEmpty())) {
+            rebuild();
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fleet-benchmark-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flushes = scheduler;
+        long interval = persistInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+                reload();
+            } catch (RuntimeException e) {
+                logger.error("Fleet benchmark flush failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // samples added since the last flush would otherwise only come back with a rebuild
+    @PreDestroy
+    void stop() {
+        ScheduledExecutorService scheduler = flushes;
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush fleet benchmarks on shutdown", e);
+        }
+    }
+
+    /**
+     * @throws ResponseStatusException 400 when brand or model is blank
+     */
+    public SegmentBenchmark findForSegment(String brand, String model, String fuelType) {
+        Segment segment = Segment.of(brand, model, fuelType);
+        if (!segment.benchmarked()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "brand and model are required");
+        }
+        return toBenchmark(segment);
+    }
+
+    /**
+     * The benchmark of the car's segment; empty for a car without a brand or model.
+     */
+    public SegmentBenchmark findForCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        return toBenchmark(segmentOf(carId));
+    }
+
+    /**
+     * Replace every segment's sketches with ones built from all fuel logs, in memory and in the table.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        Map<Segment, SegmentSketches> rebuilt = new HashMap<>();
+        readOnlyTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = fuelLogRepository.streamBenchmarkSamples()) {
+                Long carId = null;
+                Integer lastOdometer = null;
+                SegmentSketches sketches = null;
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    if (!row[0].equals(carId)) {
+                        carId = (Long) row[0];
+                        lastOdometer = null;
+                        Segment segment = Segment.of((String) row[1], (String) row[2], (String) row[3]);
+                        sketches = !segment.benchmarked() ? null
+                                : rebuilt.computeIfAbsent(segment, s -> new SegmentSketches(compression));
+                    }
+                    Integer odometer = (Integer) row[4];
+                    int distance = 0;
+                    if (odometer != null && (lastOdometer == null || odometer > lastOdometer)) {
+                        distance = lastOdometer == null ? 0 : odometer - lastOdometer;
+                        lastOdometer = odometer;
+                    }
+                    if (sketches != null) {
+                        sample(sketches, (BigDecimal) row[6], (BigDecimal) row[5], distance);
+                    }
+                }
+            }
+        });
+
+        // a rebuilt segment's pending samples are exactly what goes into its row
+        LocalDateTime now = LocalDateTime.now(clock);
+        transactionTemplate.executeWithoutResult(status -> {
+            sketchRepository.deleteAllInBatch();
+            List<SegmentSketch> rows = new ArrayList<>();
+            rebuilt.forEach((segment, sketches) -> {
+                for (SegmentSketch.Metric metric : METRICS) {
+                    MergingDigest digest = sketches.takeDelta(metric);
+                    if (digest != null) {
+                        rows.add(row(segment.key(metric), digest, now));
+                    }
+                }
+            });
+            sketchRepository.saveAll(rows);
+        });
+        segments.clear();
+        segments.putAll(rebuilt);
+        logger.info("Rebuilt fleet benchmarks of {} segments in {} ms",
+                rebuilt.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // called by the fuel log writers with the km each fill extends its car's highest reading by (0: none)
+
+    void added(Long carId, FuelLog log, int distanceKm) {
+        added(carId, List.of(log), new int[]{distanceKm});
+    }
+
+    void added(Long carId, List<FuelLog> logs, int[] distancesKm) {
+        BigDecimal[] prices = new BigDecimal[logs.size()];
+        BigDecimal[] liters = new BigDecimal[logs.size()];
+        for (int i = 0; i < logs.size(); i++) {
+            prices[i] = logs.get(i).getPricePerLiter();
+            liters[i] = logs.get(i).getLitersFilled();
+        }
+        AfterCommit.run(() -> {
+            Segment segment = segmentOf(carId);
+            if (!segment.benchmarked()) {
+                return;
+            }
+            SegmentSketches sketches = sketches(segment);
+            for (int i = 0; i < prices.length; i++) {
+                sample(sketches, prices[i], liters[i], distancesKm[i]);
+            }
+        });
+    }
+
+    // brand, model or fuel type may have changed
+    void carChanged(Long carId) {
+        AfterCommit.run(() -> carSegments.invalidate(carId));
+    }
+
+    /**
+     * Merge the samples added since the last flush into the stored sketches.
+     *
+     * @return rows written
+     */
+    int flush() {
+        int written = 0;
+        for (Map.Entry<Segment, SegmentSketches> entry : segments.entrySet()) {
+            for (SegmentSketch.Metric metric : METRICS) {
+                MergingDigest delta = entry.getValue().takeDelta(metric);
+                if (delta == null) {
+                    continue;
+                }
+                try {
+                    MergingDigest stored = transactionTemplate.execute(status -> merge(entry.getKey().key(metric), delta));
+                    entry.getValue().stored(metric, stored);
+                    written++;
+                } catch (RuntimeException e) {
+                    entry.getValue().restore(metric, delta);
+                    logger.warn("Could not flush {} sketch of segment {}", metric, entry.getKey(), e);
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Pick up the stored sketches: all of them the first time, then those merged into since the last reload
+     * (with one interval of overlap for clock skew between instances; reloading a row twice is harmless).
+     */
+    void reload() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime since = lastReload;
+        List<SegmentSketch> rows = since == null
+                ? sketchRepository.findAll()
+                : sketchRepository.findByUpdatedAtGreaterThanEqual(since.minus(persistInterval));
+        for (SegmentSketch row : rows) {
+            SegmentSketch.Key key = row.getId();
+            sketches(new Segment(key.getBrand(), key.getModel(), key.getFuelType()))
+                    .stored(key.getMetric(), SegmentSketches.decode(row.getSketch()));
+        }
+        lastReload = now;
+    }
+
+    private MergingDigest merge(SegmentSketch.Key key, MergingDigest delta) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        sketchRepository.insertIfAbsent(key.getBrand(), key.getModel(), key.getFuelType(), key.getMetric().name(),
+                SegmentSketches.encode(new MergingDigest(compression)), now);
+        SegmentSketch row = sketchRepository.lockById(key).orElseThrow();
+        MergingDigest stored = SegmentSketches.decode(row.getSketch());
+        stored.add(delta);
+        row.setSketch(SegmentSketches.encode(stored));
+        row.setSamples(stored.size());
+        row.setUpdatedAt(now);
+        return stored;
+    }
+
+    private void sample(SegmentSketches sketches, BigDecimal pricePerLiter, BigDecimal liters, int distanceKm) {
+        if (pricePerLiter != null && pricePerLiter.signum() > 0) {
+            sketches.add(SegmentSketch.Metric.PRICE, pricePerLiter.doubleValue());
+        }
+        double economy = economy(liters, distanceKm);
+        if (!Double.isNaN(economy)) {
+            sketches.add(SegmentSketch.Metric.ECONOMY, economy);
+        }
+    }
+
+    // NaN when there is nothing to measure, or a reading so close to the last one that it is likely mistyped
+    private double economy(BigDecimal liters, int distanceKm) {
+        if (liters == null || liters.signum() <= 0 || distanceKm <= 0) {
+            return Double.NaN;
+        }
+        double litersPer100Km = liters.doubleValue() * 100 / distanceKm;
+        return litersPer100Km <= maxLitersPer100Km ? litersPer100Km : Double.NaN;
+    }
+
+    private SegmentBenchmark toBenchmark(Segment segment) {
+        SegmentSketches sketches = segment.benchmarked() ? segments.get(segment) : null;
+        return new SegmentBenchmark(segment.brand(), segment.model(),
+                segment.fuelType().isEmpty() ? null : segment.fuelType(),
+                quantiles(sketches, SegmentSketch.Metric.PRICE, 3),
+                quantiles(sketches, SegmentSketch.Metric.ECONOMY, 2));
+    }
+
+    private static SegmentBenchmark.Quantiles quantiles(SegmentSketches sketches, SegmentSketch.Metric metric, int scale) {
+        if (sketches == null) {
+            return new SegmentBenchmark.Quantiles(0, null, null, null);
+        }
+        SegmentSketches.Snapshot snapshot = sketches.snapshot(metric);
+        if (snapshot.samples() == 0) {
+            return new SegmentBenchmark.Quantiles(0, null, null, null);
+        }
+        return new SegmentBenchmark.Quantiles(snapshot.samples(), round(snapshot.p10(), scale),
+                round(snapshot.p50(), scale), round(snapshot.p90(), scale));
+    }
+
+    private static BigDecimal round(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private Segment segmentOf(Long carId) {
+        return carSegments.get(carId, id -> {
+            List<Object[]> rows = carRepository.findSegmentById(id);
+            Object[] row = rows.isEmpty() ? new Object[3] : rows.get(0);
+            return Segment.of((String) row[0], (String) row[1], (String) row[2]);
+        });
+    }
+
+    private SegmentSketches sketches(Segment segment) {
+        return segments.computeIfAbsent(segment, s -> new SegmentSketches(compression));
+    }
+
+    private static SegmentSketch row(SegmentSketch.Key key, MergingDigest digest, LocalDateTime now) {
+        SegmentSketch row = new SegmentSketch();
+        row.setId(key);
+        row.setSamples(digest.size());
+        row.setSketch(SegmentSketches.encode(digest));
+        row.setUpdatedAt(now);
+        return row;
+    }
+}
@@ -0,0 +1,332 @@
+package org.example.carpulse_v1.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.dto.FuelAnomaly;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks fuel log writes as they arrive and keeps the entries that look wrong.
+ *
+ * Hard rules: {@code totalCost} must match {@code litersFilled × pricePerLiter}, the volume must fit a tank,
+ * and the odometer must not go backwards against the car's latest reading. Statistical rules: price and volume
+ * are compared with an exponentially weighted mean and variance of the car's recent fills. Kinds listed in
+ * {@code carpulse.fuel-anomalies.reject} fail the write with 400; anything else is saved and flagged.
+ *
+ * All state is per car and in memory (latest reading, the two running moments, the last flags), so a check
+ * reads no rows. A car's model starts from its {@link FuelColumnStore} columns when those are loaded, else
+ * from its next writes. Flags are lost on restart or when the car drops out of the cache.
+ */
+@Service
+public class FuelAnomalyDetector {
+    // a cost this close always passes, whatever the relative tolerance
+    private static final BigDecimal MIN_COST_TOLERANCE = new BigDecimal("0.05");
+
+    private static final class CarState {
+        boolean seeded;
+        Long readingId;         // latest odometer reading by (date, id); null when unknown
+        int readingDay;
+        int readingOdometer;
+        final Moments prices = new Moments();
+        final Moments volumes = new Moments();
+        final ArrayDeque<FuelAnomaly> flags = new ArrayDeque<>();
+    }
+
+    /**
+     * Exponentially weighted mean and variance. The first {@code span} values are weighted equally.
+     */
+    static final class Moments {
+        int n;
+        double mean;
+        double variance;
+
+        // standard deviation, never below minSpread of the mean
+        double spread(double minSpread) {
+            return Math.max(Math.sqrt(variance), Math.abs(mean) * minSpread);
+        }
+
+        // a value beyond clampAt spreads is pulled in first, so one outlier cannot drag the mean (0: no clamp)
+        void add(double x, int span, double clampAt, double minSpread) {
+            if (n > 0 && clampAt > 0) {
+                double limit = clampAt * spread(minSpread);
+                x = Math.max(mean - limit, Math.min(mean + limit, x));
+            }
+            n++;
+            double alpha = Math.max(1.0 / n, 2.0 / (span + 1));
+            double diff = x - mean;
+            double step = alpha * diff;
+            mean += step;
+            variance = (1 - alpha) * (variance + diff * step);
+        }
+    }
+
+    private final CarRepository carRepository;
+    private final FuelColumnStore columnStore;
+    private final Clock clock;
+    private final Cache<Long, CarState> states;
+    private final Set<FuelAnomaly.Kind> reject;
+    private final BigDecimal maxLiters;
+    private final BigDecimal costTolerance;
+    private final double zScore;
+    private final double minSpread;
+    private final int span;
+    private final int warmup;
+    private final int flagsPerCar;
+
+    public FuelAnomalyDetector(CarRepository carRepository,
+                               FuelColumnStore columnStore,
+                               Clock clock,
+                               MeterRegistry meterRegistry,
+                               @Value("${carpulse.fuel-anomalies.reject:COST_MISMATCH,VOLUME_OUT_OF_RANGE}") Set<FuelAnomaly.Kind> reject,
+                               @Value("${carpulse.fuel-anomalies.max-liters:200}") BigDecimal maxLiters,
+                               @Value("${carpulse.fuel-anomalies.cost-tolerance:0.02}") BigDecimal costTolerance,
+                               @Value("${carpulse.fuel-anomalies.z-score:4}") double zScore,
+                               @Value("${carpulse.fuel-anomalies.min-spread:0.03}") double minSpread,
+                               @Value("${carpulse.fuel-anomalies.span:20}") int span,
+                               @Value("${carpulse.fuel-anomalies.warmup:5}") int warmup,
+                               @Value("${carpulse.fuel-anomalies.max-cars:10000}") long maxCars,
+                               @Value("${carpulse.fuel-anomalies.flags-per-car:100}") int flagsPerCar) {
+        this.carRepository = carRepository;
+        this.columnStore = columnStore;
+        this.clock = clock;
+        this.reject = Set.copyOf(reject);
+        this.maxLiters = maxLiters;
+        this.costTolerance = costTolerance;
+        this.zScore = zScore;
+        this.minSpread = minSpread;
+        this.span = span;
+        this.warmup = warmup;
+        this.flagsPerCar = flagsPerCar;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxCars)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "fuelAnomalies");
+    }
+
+    /**
+     * The car's flagged entries, newest first.
+     */
+    public List<FuelAnomaly> findForCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        CarState state = states.getIfPresent(carId);
+        if (state == null) {
+            return List.of();
+        }
+        synchronized (state) {
+            return List.copyOf(state.flags);
+        }
+    }
+
+    // called by FuelLogService inside the write transaction; the model and flags change once it commits
+
+    /**
+     * Checks a log that was just created or edited. Throws 400 if it breaks a rejecting rule, which rolls
+     * the write back.
+     */
+    void inspect(Long carId, FuelLog log, boolean created) {
+        Long id = log.getId();
+        LocalDate date = log.getDate();
+        Integer odometer = log.getOdometer();
+        BigDecimal liters = log.getLitersFilled();
+        BigDecimal price = log.getPricePerLiter();
+        List<FuelAnomaly> found = new ArrayList<>(2);
+
+        boolean volumeInRange = liters == null || (liters.signum() > 0 && liters.compareTo(maxLiters) <= 0);
+        if (!volumeInRange) {
+            found.add(flag(carId, id, date, FuelAnomaly.Kind.VOLUME_OUT_OF_RANGE,
+                    "litersFilled " + liters.toPlainString() + ", expected above 0 and at most " + maxLiters.toPlainString()));
+        }
+        if (liters != null && price != null && log.getTotalCost() != null) {
+            BigDecimal expected = liters.multiply(price).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal tolerance = expected.abs().multiply(costTolerance).max(MIN_COST_TOLERANCE);
+            if (log.getTotalCost().subtract(expected).abs().compareTo(tolerance) > 0) {
+                found.add(flag(carId, id, date, FuelAnomaly.Kind.COST_MISMATCH,
+                        "totalCost " + log.getTotalCost().toPlainString() + ", expected " + expected.toPlainString()));
+            }
+        }
+
+        CarState state = states.get(carId, key -> new CarState());
+        synchronized (state) {
+            seed(carId, state);
+            if (date != null && odometer != null && state.readingId != null && !state.readingId.equals(id)) {
+                int day = (int) date.toEpochDay();
+                boolean later = day > state.readingDay || (day == state.readingDay && id > state.readingId);
+                if (later ? odometer < state.readingOdometer : odometer > state.readingOdometer) {
+                    found.add(flag(carId, id, date, FuelAnomaly.Kind.ODOMETER_BACKWARDS,
+                            "odometer " + odometer + " on " + date + ", latest reading " + state.readingOdometer
+                                    + " on " + LocalDate.ofEpochDay(state.readingDay)));
+                }
+            }
+            if (price != null && outlier(state.prices, price.doubleValue())) {
+                found.add(flag(carId, id, date, FuelAnomaly.Kind.PRICE_OUTLIER,
+                        "pricePerLiter " + price.toPlainString() + ", recent " + describe(state.prices)));
+            }
+            if (liters != null && volumeInRange && outlier(state.volumes, liters.doubleValue())) {
+                found.add(flag(carId, id, date, FuelAnomaly.Kind.VOLUME_OUTLIER,
+                        "litersFilled " + liters.toPlainString() + ", recent " + describe(state.volumes)));
+            }
+        }
+
+        List<FuelAnomaly> rejected = found.stream().filter(anomaly -> reject.contains(anomaly.kind())).toList();
+        if (!rejected.isEmpty()) {
+            // the write is rolled back, so these are recorded now and without the new id
+            Long flaggedId = created ? null : id;
+            record(carId, rejected.stream()
+                    .map(anomaly -> new FuelAnomaly(carId, flaggedId, date, anomaly.kind(), anomaly.detail(), true,
+                            anomaly.flaggedAt()))
+                    .toList());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fuel log rejected: " + rejected.stream()
+                    .map(anomaly -> anomaly.kind() + " (" + anomaly.detail() + ")")
+                    .collect(Collectors.joining("; ")));
+        }
+        AfterCommit.run(() -> accepted(carId, state, id, date, odometer, created ? price : null,
+                created && volumeInRange ? liters : null, found));
+    }
+
+    void deleted(Long carId, Long logId) {
+        AfterCommit.run(() -> {
+            CarState state = states.getIfPresent(carId);
+            if (state == null) {
+                return;
+            }
+            synchronized (state) {
+                state.flags.removeIf(anomaly -> logId.equals(anomaly.fuelLogId()));
+                // the reading before it is not known here; the next one takes its place
+                if (logId.equals(state.readingId)) {
+                    state.readingId = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the car's model after a bulk import, keeping its flags; it is rebuilt from the columns or the next writes.
+     */
+    void reset(Long carId) {
+        AfterCommit.run(() -> {
+            CarState state = states.getIfPresent(carId);
+            if (state == null) {
+                return;
+            }
+            synchronized (state) {
+                state.seeded = false;
+                state.readingId = null;
+                state.prices.n = 0;
+                state.prices.mean = state.prices.variance = 0;
+                state.volumes.n = 0;
+                state.volumes.mean = state.volumes.variance = 0;
+            }
+        });
+    }
+
+    private void accepted(Long carId, CarState state, Long id, LocalDate date, Integer odometer,
+                          BigDecimal price, BigDecimal liters, List<FuelAnomaly> found) {
+        synchronized (state) {
+            if (states.getIfPresent(carId) != state) {
+                return;     // evicted meanwhile
+            }
+            if (id.equals(state.readingId)) {
+                state.readingId = null;
+            }
+            if (date != null && odometer != null) {
+                int day = (int) date.toEpochDay();
+                if (state.readingId == null || day > state.readingDay
+                        || (day == state.readingDay && id > state.readingId)) {
+                    state.readingId = id;
+                    state.readingDay = day;
+                    state.readingOdometer = odometer;
+                }
+            }
+            if (price != null) {
+                state.prices.add(price.doubleValue(), span, clampAt(state.prices), minSpread);
+            }
+            if (liters != null) {
+                state.volumes.add(liters.doubleValue(), span, clampAt(state.volumes), minSpread);
+            }
+            state.flags.removeIf(anomaly -> id.equals(anomaly.fuelLogId()));
+            found.forEach(state.flags::addFirst);
+            trim(state);
+        }
+    }
+
+    private void record(Long carId, List<FuelAnomaly> anomalies) {
+        CarState state = states.get(carId, key -> new CarState());
+        synchronized (state) {
+            anomalies.forEach(state.flags::addFirst);
+            trim(state);
+        }
+    }
+
+    // the last fills from the car's columns, if the chart store has them in memory; never queries
+    private void seed(Long carId, CarState state) {
+        if (state.seeded) {
+            return;
+        }
+        state.seeded = true;
+        FuelColumns columns = columnStore.loaded(carId);
+        if (columns == null) {
+            return;
+        }
+        for (int i = columns.size() - 1; i >= 0; i--) {
+            if (columns.odometers[i] != FuelColumns.NO_ODOMETER) {
+                state.readingId = columns.ids[i];
+                state.readingDay = columns.days[i];
+                state.readingOdometer = columns.odometers[i];
+                break;
+            }
+        }
+        // older fills carry next to no weight in the moving moments
+        for (int i = Math.max(0, columns.size() - 4 * span); i < columns.size(); i++) {
+            if (columns.prices[i] != FuelColumns.NONE) {
+                state.prices.add(columns.prices[i] / 1e6, span, clampAt(state.prices), minSpread);
+            }
+            if (columns.liters[i] != FuelColumns.NONE) {
+                state.volumes.add(columns.liters[i] / 1e6, span, clampAt(state.volumes), minSpread);
+            }
+        }
+    }
+
+    private boolean outlier(Moments moments, double x) {
+        return moments.n >= warmup && Math.abs(x - moments.mean) > zScore * moments.spread(minSpread);
+    }
+
+    private double clampAt(Moments moments) {
+        return moments.n >= warmup ? zScore : 0;
+    }
+
+    private String describe(Moments moments) {
+        return String.format(Locale.ROOT, "%.2f ± %.2f", moments.mean, moments.spread(minSpread));
+    }
+
+    private FuelAnomaly flag(Long carId, Long id, LocalDate date, FuelAnomaly.Kind kind, String detail) {
+        return new FuelAnomaly(carId, id, date, kind, detail, false, clock.instant());
+    }
+
+    private void trim(CarState state) {
+        while (state.flags.size() > flagsPerCar) {
+            state.flags.removeLast();
+        }
+    }
+}
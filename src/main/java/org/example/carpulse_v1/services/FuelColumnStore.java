@@ -0,0 +1,203 @@
+package org.example.carpulse_v1.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.dto.FuelPriceStats;
+import org.example.carpulse_v1.dto.MonthlyFuel;
+import org.example.carpulse_v1.dto.OdometerPoint;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fuel log charts and statistics, computed over a per-car column snapshot ({@link FuelColumns}) instead
+ * of {@code FuelLog} entities, so a scan over years of fills allocates no per-row objects.
+ *
+ * A car's columns are loaded from {@link FuelLogRepository} on its first read and kept in a bounded cache.
+ * Once a fuel log write commits, the new snapshot replaces the old one. Bulk imports drop the car's columns
+ * instead; a deleted car's columns are never served and age out. Loads and write-backs for one car are
+ * serialised on its shard, so a load that races a commit cannot install a snapshot without that write.
+ * Write-backs are idempotent.
+ */
+@Service
+public class FuelColumnStore {
+
+    private static final class Shard {
+        FuelColumns columns;    // null until loaded; guarded by the shard
+    }
+
+    private final FuelLogRepository fuelLogRepository;
+    private final CarRepository carRepository;
+    private final Cache<Long, Shard> shards;
+    private final int defaultPoints;
+    private final int maxPoints;
+
+    public FuelColumnStore(FuelLogRepository fuelLogRepository,
+                           CarRepository carRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${carpulse.fuel-columns.max-cars:10000}") long maxCars,
+                           @Value("${carpulse.fuel-columns.points:500}") int defaultPoints,
+                           @Value("${carpulse.fuel-columns.max-points:5000}") int maxPoints) {
+        this.fuelLogRepository = fuelLogRepository;
+        this.carRepository = carRepository;
+        this.defaultPoints = defaultPoints;
+        this.maxPoints = maxPoints;
+        this.shards = Caffeine.newBuilder()
+                .maximumSize(maxCars)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, shards, "fuelColumns");
+    }
+
+    public FuelPriceStats priceStats(Long carId, LocalDate from, LocalDate to) {
+        return priceStats(carId, columns(carId, from, to), from, to);
+    }
+
+    /**
+     * Fills, liters and cost per month from the first fill in range to the last.
+     */
+    public List<MonthlyFuel> perMonth(Long carId, LocalDate from, LocalDate to) {
+        return perMonth(columns(carId, from, to), from, to);
+    }
+
+    /**
+     * Odometer readings over time, thinned to at most {@code points} (default {@code carpulse.fuel-columns.points}).
+     */
+    public List<OdometerPoint> odometerCurve(Long carId, LocalDate from, LocalDate to, Integer points) {
+        int max = points == null ? defaultPoints : points;
+        if (max < 2 || max > maxPoints) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "points must be between 2 and " + maxPoints);
+        }
+        FuelColumns columns = columns(carId, from, to);
+        int lo = lowerBound(columns, from);
+        int hi = upperBound(columns, to);
+        int[] days = new int[Math.min(max, Math.max(hi - lo, 0))];
+        int[] odometers = new int[days.length];
+        int n = columns.odometerCurve(lo, hi, days, odometers);
+
+        List<OdometerPoint> curve = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            curve.add(new OdometerPoint(LocalDate.ofEpochDay(days[i]), odometers[i]));
+        }
+        return curve;
+    }
+
+    // called by the fuel log writers; applied once the transaction commits
+
+    void saved(Long carId, FuelLog log) {
+        long id = log.getId();
+        LocalDate date = log.getDate();
+        Integer odometer = log.getOdometer();
+        BigDecimal liters = log.getLitersFilled();
+        BigDecimal price = log.getPricePerLiter();
+        BigDecimal cost = log.getTotalCost();
+        AfterCommit.run(() -> update(carId, columns -> columns.with(id, date, odometer, liters, price, cost)));
+    }
+
+    void deleted(Long carId, Long logId) {
+        AfterCommit.run(() -> update(carId, columns -> columns.without(logId)));
+    }
+
+    void evict(Long carId) {
+        AfterCommit.run(() -> shards.invalidate(carId));
+    }
+
+    /**
+     * The car's columns if they are already in memory, else null; never loads.
+     */
+    FuelColumns loaded(Long carId) {
+        Shard shard = shards.getIfPresent(carId);
+        if (shard == null) {
+            return null;
+        }
+        synchronized (shard) {
+            return shard.columns;
+        }
+    }
+
+    private void update(Long carId, UnaryOperator<FuelColumns> change) {
+        Shard shard = shards.getIfPresent(carId);
+        if (shard == null) {
+            return;
+        }
+        synchronized (shard) {
+            // not loaded yet: the load will read the committed row
+            if (shard.columns != null) {
+                shard.columns = change.apply(shard.columns);
+            }
+        }
+    }
+
+    private FuelColumns columns(Long carId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        Shard shard = shards.get(carId, id -> new Shard());
+        synchronized (shard) {
+            if (shard.columns == null) {
+                shard.columns = FuelColumns.of(fuelLogRepository.findColumnsByCarId(carId));
+            }
+            return shard.columns;
+        }
+    }
+
+    static FuelPriceStats priceStats(Long carId, FuelColumns columns, LocalDate from, LocalDate to) {
+        long[] stats = new long[4];
+        columns.priceStats(lowerBound(columns, from), upperBound(columns, to), stats);
+        long count = stats[FuelColumns.COUNT];
+        if (count == 0) {
+            return new FuelPriceStats(carId, from, to, 0, null, null, null);
+        }
+        return new FuelPriceStats(carId, from, to, (int) count,
+                FuelColumns.fromMicros(stats[FuelColumns.MIN], 2),
+                FuelColumns.fromMicros(stats[FuelColumns.MAX], 2),
+                FuelColumns.fromMicros(Math.round((double) stats[FuelColumns.SUM] / count), 3));
+    }
+
+    static List<MonthlyFuel> perMonth(FuelColumns columns, LocalDate from, LocalDate to) {
+        int lo = lowerBound(columns, from);
+        int hi = upperBound(columns, to);
+        if (lo >= hi) {
+            return List.of();
+        }
+        int firstMonth = FuelColumns.monthIndex(columns.days[lo]);
+        int months = FuelColumns.monthIndex(columns.days[hi - 1]) - firstMonth + 1;
+        int[] fills = new int[months];
+        long[] liters = new long[months];
+        long[] costs = new long[months];
+        columns.perMonth(lo, hi, firstMonth, fills, liters, costs);
+
+        List<MonthlyFuel> series = new ArrayList<>(months);
+        for (int i = 0; i < months; i++) {
+            int month = firstMonth + i;
+            series.add(new MonthlyFuel(YearMonth.of(month / 12, month % 12 + 1), fills[i],
+                    FuelColumns.fromMicros(liters[i], 2), FuelColumns.fromMicros(costs[i], 2)));
+        }
+        return series;
+    }
+
+    private static int lowerBound(FuelColumns columns, LocalDate from) {
+        return from == null ? 0 : columns.lowerBound((int) from.toEpochDay());
+    }
+
+    private static int upperBound(FuelColumns columns, LocalDate to) {
+        return to == null ? columns.size() : columns.lowerBound((int) to.toEpochDay() + 1);
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.carpulse_v1.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One car's fuel logs as primitive columns, ordered by (date, id). Amounts are fixed-point micro-units
+ * ({@code 1.5} liters is {@code 1_500_000}), dates are epoch days. A missing amount is {@link #NONE},
+ * a missing odometer {@link #NO_ODOMETER}; logs without a date are not held.
+ *
+ * Instances are immutable: a write builds a new snapshot, so scans never lock and never see a half-applied
+ * change. The scans below read the arrays in order and allocate nothing; results go into arrays the caller
+ * passes in.
+ */
+final class FuelColumns {
+    static final long NONE = Long.MIN_VALUE;
+    static final int NO_ODOMETER = Integer.MIN_VALUE;
+    static final FuelColumns EMPTY = new FuelColumns(new long[0], new int[0], new int[0], new long[0], new long[0], new long[0]);
+
+    // indexes into the priceStats result
+    static final int COUNT = 0, MIN = 1, MAX = 2, SUM = 3;
+
+    final long[] ids;
+    final int[] days;
+    final int[] odometers;
+    final long[] liters;
+    final long[] prices;
+    final long[] costs;
+
+    private FuelColumns(long[] ids, int[] days, int[] odometers, long[] liters, long[] prices, long[] costs) {
+        this.ids = ids;
+        this.days = days;
+        this.odometers = odometers;
+        this.liters = liters;
+        this.prices = prices;
+        this.costs = costs;
+    }
+
+    /**
+     * @param rows (id, date, odometer, litersFilled, pricePerLiter, totalCost), ordered by (date, id)
+     */
+    static FuelColumns of(List<Object[]> rows) {
+        int n = 0;
+        FuelColumns columns = new FuelColumns(new long[rows.size()], new int[rows.size()], new int[rows.size()],
+                new long[rows.size()], new long[rows.size()], new long[rows.size()]);
+        for (Object[] row : rows) {
+            if (row[1] == null) {
+                continue;
+            }
+            columns.set(n++, (Long) row[0], (LocalDate) row[1], (Integer) row[2],
+                    (BigDecimal) row[3], (BigDecimal) row[4], (BigDecimal) row[5]);
+        }
+        return n == rows.size() ? columns : columns.copy(n, -1, 0);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * This snapshot with the log added, or replaced if its id is already held; removed when {@code date} is null.
+     */
+    FuelColumns with(long id, LocalDate date, Integer odometer, BigDecimal liters, BigDecimal price, BigDecimal cost) {
+        FuelColumns base = without(id);
+        if (date == null) {
+            return base;
+        }
+        int day = (int) date.toEpochDay();
+        int at = base.lowerBound(day);
+        while (at < base.size() && base.days[at] == day && base.ids[at] < id) {
+            at++;
+        }
+        FuelColumns next = base.copy(base.size() + 1, at, 1);
+        next.set(at, id, date, odometer, liters, price, cost);
+        return next;
+    }
+
+    FuelColumns without(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return copy(ids.length - 1, i, -1);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * First index with a date on or after {@code day}.
+     */
+    int lowerBound(int day) {
+        int lo = 0;
+        int hi = days.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Count, min, max and sum of the price per liter over [lo, hi), into {@code out} at {@link #COUNT} etc.
+     */
+    void priceStats(int lo, int hi, long[] out) {
+        long count = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long sum = 0;
+        for (int i = lo; i < hi; i++) {
+            long price = prices[i];
+            if (price == NONE) {
+                continue;
+            }
+            count++;
+            sum += price;
+            if (price < min) {
+                min = price;
+            }
+            if (price > max) {
+                max = price;
+            }
+        }
+        out[COUNT] = count;
+        out[MIN] = min;
+        out[MAX] = max;
+        out[SUM] = sum;
+    }
+
+    /**
+     * Fills, liters and cost per month over [lo, hi), added into the arrays at {@code monthIndex(day) - firstMonth}.
+     */
+    void perMonth(int lo, int hi, int firstMonth, int[] fillsOut, long[] litersOut, long[] costsOut) {
+        for (int i = lo; i < hi; i++) {
+            int month = monthIndex(days[i]) - firstMonth;
+            fillsOut[month]++;
+            if (liters[i] != NONE) {
+                litersOut[month] += liters[i];
+            }
+            if (costs[i] != NONE) {
+                costsOut[month] += costs[i];
+            }
+        }
+    }
+
+    /**
+     * Odometer readings over [lo, hi), at most {@code daysOut.length} of them: every k-th reading plus the
+     * last one. Returns the number written.
+     */
+    int odometerCurve(int lo, int hi, int[] daysOut, int[] odometersOut) {
+        int readings = 0;
+        for (int i = lo; i < hi; i++) {
+            if (odometers[i] != NO_ODOMETER) {
+                readings++;
+            }
+        }
+        int max = daysOut.length;
+        if (readings == 0 || max == 0) {
+            return 0;
+        }
+        int stride = (readings + max - 1) / max;
+        int n = 0;
+        int seen = 0;
+        int last = -1;
+        for (int i = lo; i < hi; i++) {
+            if (odometers[i] == NO_ODOMETER) {
+                continue;
+            }
+            last = i;
+            if (seen++ % stride == 0) {
+                daysOut[n] = days[i];
+                odometersOut[n++] = odometers[i];
+            }
+        }
+        if (days[last] != daysOut[n - 1] || odometers[last] != odometersOut[n - 1]) {
+            if (n == max) {
+                n--;
+            }
+            daysOut[n] = days[last];
+            odometersOut[n++] = odometers[last];
+        }
+        return n;
+    }
+
+    /**
+     * {@code year * 12 + month - 1} of an epoch day, without going through {@link LocalDate}
+     * (civil-from-days, proleptic Gregorian).
+     */
+    static int monthIndex(int epochDay) {
+        int z = epochDay + 719_468;
+        int era = Math.floorDiv(z, 146_097);
+        int dayOfEra = z - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    static long toMicros(BigDecimal value) {
+        return value == null ? NONE : value.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    static BigDecimal fromMicros(long micros, int scale) {
+        return micros == NONE ? null : BigDecimal.valueOf(micros, 6).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private void set(int i, long id, LocalDate date, Integer odometer, BigDecimal liters, BigDecimal price, BigDecimal cost) {
+        ids[i] = id;
+        days[i] = (int) date.toEpochDay();
+        odometers[i] = odometer == null ? NO_ODOMETER : odometer;
+        this.liters[i] = toMicros(liters);
+        prices[i] = toMicros(price);
+        costs[i] = toMicros(cost);
+    }
+
+    // a copy of length size: the first size entries when at < 0, else with a gap opened (delta 1)
+    // or the entry removed (delta -1) at index at
+    private FuelColumns copy(int size, int at, int delta) {
+        FuelColumns next = new FuelColumns(new long[size], new int[size], new int[size],
+                new long[size], new long[size], new long[size]);
+        if (at < 0) {
+            System.arraycopy(ids, 0, next.ids, 0, size);
+            System.arraycopy(days, 0, next.days, 0, size);
+            System.arraycopy(odometers, 0, next.odometers, 0, size);
+            System.arraycopy(liters, 0, next.liters, 0, size);
+            System.arraycopy(prices, 0, next.prices, 0, size);
+            System.arraycopy(costs, 0, next.costs, 0, size);
+            return next;
+        }
+        int tail = at + Math.max(delta, 0);
+        int from = at + Math.max(-delta, 0);
+        int rest = ids.length - from;
+        copyAround(ids, next.ids, at, from, tail, rest);
+        copyAround(days, next.days, at, from, tail, rest);
+        copyAround(odometers, next.odometers, at, from, tail, rest);
+        copyAround(liters, next.liters, at, from, tail, rest);
+        copyAround(prices, next.prices, at, from, tail, rest);
+        copyAround(costs, next.costs, at, from, tail, rest);
+        return next;
+    }
+
+    private static void copyAround(Object src, Object dest, int head, int from, int to, int rest) {
+        System.arraycopy(src, 0, dest, 0, head);
+        System.arraycopy(src, from, dest, to, rest);
+    }
+}
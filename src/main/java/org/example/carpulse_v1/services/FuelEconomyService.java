@@ -0,0 +1,297 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.FuelStats;
+import org.example.carpulse_v1.dto.FuelEconomy;
+import org.example.carpulse_v1.dto.FuelStatsCheck;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.FuelStatsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * L/100km, cost per km and a windowed efficiency series per car, from running totals in {@code fuel_stats}.
+ *
+ * Every fuel log write locks the car's totals row and applies the change in place. Economy is measured
+ * from the lowest odometer reading to the highest, so a change only needs a recompute when it moves one
+ * of those ends. Deleting or editing the lowest or highest fill is the out-of-order case: the totals are
+ * rebuilt with two indexed aggregate queries over the car's logs. A car without a row gets one built the
+ * same way on its first write or read. The series reads only the latest {@code window} readings.
+ */
+@Service
+@Transactional
+public class FuelEconomyService {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * The parts of a fuel log the totals depend on, captured before an update or delete.
+     */
+    record Fill(Long id, Integer odometer, BigDecimal liters, BigDecimal cost) {
+        static Fill of(FuelLog log) {
+            return new Fill(log.getId(), log.getOdometer(), orZero(log.getLitersFilled()), orZero(log.getTotalCost()));
+        }
+    }
+
+    private final FuelStatsRepository statsRepository;
+    private final FuelLogRepository fuelLogRepository;
+    private final CarRepository carRepository;
+    private final int defaultWindow;
+    private final int maxWindow;
+    private final int rollingSegments;
+
+    public FuelEconomyService(FuelStatsRepository statsRepository,
+                              FuelLogRepository fuelLogRepository,
+                              CarRepository carRepository,
+                              @Value("${carpulse.fuel-economy.window:20}") int defaultWindow,
+                              @Value("${carpulse.fuel-economy.max-window:200}") int maxWindow,
+                              @Value("${carpulse.fuel-economy.rolling-segments:5}") int rollingSegments) {
+        this.statsRepository = statsRepository;
+        this.fuelLogRepository = fuelLogRepository;
+        this.carRepository = carRepository;
+        this.defaultWindow = defaultWindow;
+        this.maxWindow = maxWindow;
+        this.rollingSegments = rollingSegments;
+    }
+
+    /**
+     * @param window number of segments in the series, {@code carpulse.fuel-economy.window} when null
+     */
+    public FuelEconomy findForCar(Long carId, Integer window) {
+        requireCar(carId);
+        int size = window == null ? defaultWindow : window;
+        if (size < 0 || size > maxWindow) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be between 0 and " + maxWindow);
+        }
+        FuelStats stats = statsRepository.findById(carId).orElseGet(() -> createFor(carId));
+
+        int distance = distance(stats);
+        BigDecimal litersPer100Km = null;
+        BigDecimal costPerKm = null;
+        if (distance > 0) {
+            BigDecimal liters = stats.getOdometerLiters().subtract(orZero(stats.getFirstLiters()));
+            BigDecimal cost = stats.getOdometerCost().subtract(orZero(stats.getFirstCost()));
+            litersPer100Km = per100Km(liters, distance);
+            costPerKm = cost.divide(BigDecimal.valueOf(distance), 3, RoundingMode.HALF_UP);
+        }
+        return new FuelEconomy(carId, stats.getFills(), stats.getTotalLiters(), stats.getTotalCost(),
+                stats.getLastOdometer(), distance, litersPer100Km, costPerKm, series(carId, size));
+    }
+
+    /**
+     * Compare the stored totals with a recompute from the car's fuel logs, without changing anything.
+     */
+    @Transactional(readOnly = true)
+    public FuelStatsCheck check(Long carId) {
+        requireCar(carId);
+        FuelStats recomputed = new FuelStats();
+        recomputed.setCarId(carId);
+        recompute(recomputed);
+        Optional<FuelStats> stored = statsRepository.findById(carId);
+        return new FuelStatsCheck(carId, stored.map(s -> sameTotals(s, recomputed)).orElse(true),
+                stored.orElse(null), recomputed);
+    }
+
+    /**
+     * Rebuild the car's totals from its fuel logs.
+     */
+    public FuelEconomy recompute(Long carId, Integer window) {
+        requireCar(carId);
+        statsRepository.lockByCarId(carId).ifPresentOrElse(this::recompute, () -> createFor(carId));
+        return findForCar(carId, window);
+    }
+
+    // called by the writers below after the log change has been handed to the persistence context
+
+    // the km the log extends the car's highest reading by, 0 when it does not (or the totals were just built)
+    int added(Long carId, FuelLog log) {
+        return added(carId, List.of(log))[0];
+    }
+
+    int[] added(Long carId, List<FuelLog> logs) {
+        int[] distances = new int[logs.size()];
+        apply(carId, stats -> {
+            for (int i = 0; i < logs.size(); i++) {
+                Integer last = stats.getLastOdometer();
+                Fill fill = Fill.of(logs.get(i));
+                add(stats, fill);
+                if (last != null && fill.odometer() != null && fill.odometer() > last) {
+                    distances[i] = fill.odometer() - last;
+                }
+            }
+            return true;
+        });
+        return distances;
+    }
+
+    void changed(Long carId, Fill before, FuelLog after) {
+        apply(carId, stats -> remove(stats, before) && add(stats, Fill.of(after)));
+    }
+
+    void removed(Long carId, Fill before) {
+        apply(carId, stats -> remove(stats, before));
+    }
+
+    // a change that returns false was not applied and the totals are rebuilt instead. Rebuilding (and
+    // creating) reads the logs after the pending change is flushed, so the change is already included.
+    private void apply(Long carId, Predicate<FuelStats> change) {
+        Optional<FuelStats> locked = statsRepository.lockByCarId(carId);
+        if (locked.isEmpty()) {
+            createFor(carId);
+        } else if (!change.test(locked.get())) {
+            recompute(locked.get());
+        }
+    }
+
+    private FuelStats createFor(Long carId) {
+        statsRepository.insertIfAbsent(carId);
+        FuelStats stats = statsRepository.lockByCarId(carId).orElseThrow();
+        recompute(stats);
+        return stats;
+    }
+
+    private static boolean add(FuelStats stats, Fill fill) {
+        stats.setFills(stats.getFills() + 1);
+        stats.setTotalLiters(stats.getTotalLiters().add(fill.liters()));
+        stats.setTotalCost(stats.getTotalCost().add(fill.cost()));
+        if (fill.odometer() == null) {
+            return true;
+        }
+        stats.setOdometerFills(stats.getOdometerFills() + 1);
+        stats.setOdometerLiters(stats.getOdometerLiters().add(fill.liters()));
+        stats.setOdometerCost(stats.getOdometerCost().add(fill.cost()));
+        if (stats.getFirstOdometer() == null || fill.odometer() < stats.getFirstOdometer()
+                || (fill.odometer().equals(stats.getFirstOdometer()) && fill.id() < stats.getFirstLogId())) {
+            stats.setFirstLogId(fill.id());
+            stats.setFirstOdometer(fill.odometer());
+            stats.setFirstLiters(fill.liters());
+            stats.setFirstCost(fill.cost());
+        }
+        if (stats.getLastOdometer() == null || fill.odometer() > stats.getLastOdometer()) {
+            stats.setLastOdometer(fill.odometer());
+        }
+        return true;
+    }
+
+    // the next-lowest or next-highest reading is not known here, so removing either end is not incremental
+    private static boolean remove(FuelStats stats, Fill fill) {
+        if (fill.odometer() != null
+                && (fill.id().equals(stats.getFirstLogId()) || fill.odometer().equals(stats.getLastOdometer()))) {
+            return false;
+        }
+        stats.setFills(stats.getFills() - 1);
+        stats.setTotalLiters(stats.getTotalLiters().subtract(fill.liters()));
+        stats.setTotalCost(stats.getTotalCost().subtract(fill.cost()));
+        if (fill.odometer() != null) {
+            stats.setOdometerFills(stats.getOdometerFills() - 1);
+            stats.setOdometerLiters(stats.getOdometerLiters().subtract(fill.liters()));
+            stats.setOdometerCost(stats.getOdometerCost().subtract(fill.cost()));
+        }
+        return true;
+    }
+
+    private void recompute(FuelStats stats) {
+        Object[] totals = fuelLogRepository.findTotalsByCarId(stats.getCarId()).get(0);
+        stats.setFills(((Long) totals[0]).intValue());
+        stats.setTotalLiters(orZero((BigDecimal) totals[1]));
+        stats.setTotalCost(orZero((BigDecimal) totals[2]));
+        stats.setOdometerFills(((Long) totals[3]).intValue());
+        stats.setOdometerLiters(orZero((BigDecimal) totals[4]));
+        stats.setOdometerCost(orZero((BigDecimal) totals[5]));
+        stats.setLastOdometer((Integer) totals[6]);
+
+        List<Object[]> first = fuelLogRepository.findReadingsAscending(stats.getCarId(), Limit.of(1));
+        Object[] row = first.isEmpty() ? new Object[4] : first.get(0);
+        stats.setFirstLogId((Long) row[0]);
+        stats.setFirstOdometer((Integer) row[1]);
+        stats.setFirstLiters(row[0] == null ? null : orZero((BigDecimal) row[2]));
+        stats.setFirstCost(row[0] == null ? null : orZero((BigDecimal) row[3]));
+    }
+
+    private List<FuelEconomy.Segment> series(Long carId, int window) {
+        if (window == 0) {
+            return List.of();
+        }
+        // one extra reading to start the first segment, and enough before it to fill its rolling average
+        List<Object[]> readings = new ArrayList<>(
+                fuelLogRepository.findReadingsDescending(carId, Limit.of(window + rollingSegments)));
+        Collections.reverse(readings);
+
+        List<FuelEconomy.Segment> segments = new ArrayList<>();
+        ArrayDeque<FuelEconomy.Segment> rolling = new ArrayDeque<>();
+        long rollingDistance = 0;
+        BigDecimal rollingLiters = BigDecimal.ZERO;
+        for (int i = 1; i < readings.size(); i++) {
+            int odometer = (Integer) readings.get(i)[1];
+            int distance = odometer - (Integer) readings.get(i - 1)[1];
+            BigDecimal liters = orZero((BigDecimal) readings.get(i)[2]);
+            rollingDistance += distance;
+            rollingLiters = rollingLiters.add(liters);
+            if (rolling.size() == rollingSegments) {
+                FuelEconomy.Segment dropped = rolling.removeFirst();
+                rollingDistance -= dropped.distanceKm();
+                rollingLiters = rollingLiters.subtract(dropped.liters());
+            }
+            FuelEconomy.Segment segment = new FuelEconomy.Segment((LocalDate) readings.get(i)[0], odometer,
+                    distance, liters,
+                    distance > 0 ? per100Km(liters, distance) : null,
+                    rollingDistance > 0 ? per100Km(rollingLiters, rollingDistance) : null);
+            rolling.addLast(segment);
+            segments.add(segment);
+        }
+        return segments.size() <= window ? segments : segments.subList(segments.size() - window, segments.size());
+    }
+
+    private static int distance(FuelStats stats) {
+        return stats.getFirstOdometer() == null ? 0 : stats.getLastOdometer() - stats.getFirstOdometer();
+    }
+
+    private static BigDecimal per100Km(BigDecimal liters, long distance) {
+        return liters.multiply(HUNDRED).divide(BigDecimal.valueOf(distance), 2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean sameTotals(FuelStats a, FuelStats b) {
+        return a.getFills() == b.getFills()
+                && sameAmount(a.getTotalLiters(), b.getTotalLiters())
+                && sameAmount(a.getTotalCost(), b.getTotalCost())
+                && a.getOdometerFills() == b.getOdometerFills()
+                && sameAmount(a.getOdometerLiters(), b.getOdometerLiters())
+                && sameAmount(a.getOdometerCost(), b.getOdometerCost())
+                && Objects.equals(a.getFirstLogId(), b.getFirstLogId())
+                && Objects.equals(a.getFirstOdometer(), b.getFirstOdometer())
+                && sameAmount(a.getFirstLiters(), b.getFirstLiters())
+                && sameAmount(a.getFirstCost(), b.getFirstCost())
+                && Objects.equals(a.getLastOdometer(), b.getLastOdometer());
+    }
+
+    // 10.5 and 10.50 are the same amount
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private void requireCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package org.example.carpulse_v1.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.SpendRollup;
+import org.example.carpulse_v1.dto.ImportReport;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk import of fuel logs from CSV or NDJSON.
+ *
+ * The upload is read line by line and written in chunks, each chunk in its own transaction.
+ * Hibernate JDBC-batches the inserts and the persistence context is cleared after every chunk.
+ * Memory stays flat whatever the file size. A chunk the database rejects is replayed row by row
+ * so that only the offending rows are reported.
+ */
+@Service
+public class FuelLogImportService {
+    private static final Logger logger = LoggerFactory.getLogger(FuelLogImportService.class);
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(MediaType contentType) {
+            return TEXT_CSV.isCompatibleWith(contentType) ? CSV : NDJSON;
+        }
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CarRepository carRepository;
+    private final FamilyRepository familyRepository;
+    private final FuelEconomyService fuelEconomy;
+    private final SpendRollupService spendRollups;
+    private final FuelColumnStore columnStore;
+    private final FuelAnomalyDetector anomalies;
+    private final MileageForecastService forecasts;
+    private final FleetBenchmarkService benchmarks;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public FuelLogImportService(EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                CarRepository carRepository,
+                                FamilyRepository familyRepository,
+                                FuelEconomyService fuelEconomy,
+                                SpendRollupService spendRollups,
+                                FuelColumnStore columnStore,
+                                FuelAnomalyDetector anomalies,
+                                MileageForecastService forecasts,
+                                FleetBenchmarkService benchmarks,
+                                ObjectMapper objectMapper,
+                                @Value("${carpulse.import.chunk-size:1000}") int chunkSize,
+                                @Value("${carpulse.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.carRepository = carRepository;
+        this.familyRepository = familyRepository;
+        this.fuelEconomy = fuelEconomy;
+        this.spendRollups = spendRollups;
+        this.columnStore = columnStore;
+        this.anomalies = anomalies;
+        this.forecasts = forecasts;
+        this.benchmarks = benchmarks;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import rows for a single car; any carId/licensePlate column is ignored.
+     */
+    public ImportReport importForCar(Long carId, InputStream in, Format format) throws IOException {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        return run(in, format, fields -> carId);
+    }
+
+    /**
+     * Import rows for any car of a family. Every row names its car by {@code licensePlate} or {@code carId}.
+     */
+    public ImportReport importForFamily(Long familyId, InputStream in, Format format) throws IOException {
+        if (!familyRepository.existsById(familyId)) {
+            throw new ResourceNotFoundException("Family not found: " + familyId);
+        }
+        Map<String, Long> byPlate = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (Object[] row : carRepository.findPlatesAndIdsByFamilyId(familyId)) {
+            byPlate.put(((String) row[0]).toUpperCase(Locale.ROOT), (Long) row[1]);
+            ids.add((Long) row[1]);
+        }
+
+        return run(in, format, fields -> {
+            String plate = fields.get("licenseplate");
+            if (plate != null && !plate.isBlank()) {
+                Long id = byPlate.get(plate.trim().toUpperCase(Locale.ROOT));
+                if (id == null) {
+                    throw new IllegalArgumentException("No car with license plate '" + plate + "' in this family");
+                }
+                return id;
+            }
+            String carId = fields.get("carid");
+            if (carId == null || carId.isBlank()) {
+                throw new IllegalArgumentException("Missing licensePlate or carId");
+            }
+            Long id = parseLong(carId, "carId");
+            if (!ids.contains(id)) {
+                throw new IllegalArgumentException("Car " + id + " does not belong to this family");
+            }
+            return id;
+        });
+    }
+
+    private ImportReport run(InputStream in, Format format, Function<Map<String, String>, Long> carOf) throws IOException {
+        Report report = new Report(maxReportedErrors);
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        long started = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Map<String, String> fields;
+                    if (format == Format.CSV) {
+                        if (header == null) {
+                            header = parseHeader(line);
+                            continue;
+                        }
+                        fields = csvFields(header, line);
+                    } else {
+                        fields = jsonFields(line);
+                    }
+                    Long carId = carOf.apply(fields);
+                    chunk.add(new Pending(lineNo, carId, toFuelLog(fields)));
+                } catch (IllegalArgumentException e) {
+                    report.reject(lineNo, e.getMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    write(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, report);
+        }
+
+        logger.info("Fuel log import finished: {} imported, {} rejected in {} ms",
+                report.imported, report.rejected, (System.nanoTime() - started) / 1_000_000);
+        return report.build();
+    }
+
+    private void write(List<Pending> chunk, Report report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(chunk));
+            report.imported += chunk.size();
+        } catch (DataAccessException | PersistenceException e) {
+            logger.warn("Import chunk rejected by the database, retrying its {} rows one by one", chunk.size());
+            for (Pending row : chunk) {
+                row.log().setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    report.imported++;
+                } catch (DataAccessException | PersistenceException rowError) {
+                    report.reject(row.line(), "Rejected by the database: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<Pending> rows) {
+        // cars in id order, so two imports touching the same cars lock their totals and rollups in the same order
+        Map<Long, List<FuelLog>> byCar = new TreeMap<>();
+        for (Pending row : rows) {
+            // reference only, the Car row itself is never loaded
+            row.log().setCar(entityManager.getReference(Car.class, row.carId()));
+            entityManager.persist(row.log());
+            byCar.computeIfAbsent(row.carId(), id -> new ArrayList<>()).add(row.log());
+        }
+        byCar.forEach((carId, logs) -> {
+            int[] distances = fuelEconomy.added(carId, logs);
+            spendRollups.added(carId, SpendRollup.Category.FUEL, logs.stream().map(SpendRollupService.Spend::of).toList());
+            benchmarks.added(carId, logs, distances);
+            // reloaded on the next chart read rather than patched one row at a time
+            columnStore.evict(carId);
+            // imported rows are not checked, but they can move the latest reading
+            anomalies.reset(carId);
+            // queued once per car and chunk, and coalesced while the refit is still waiting
+            forecasts.readingsChanged(carId);
+        });
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private FuelLog toFuelLog(Map<String, String> fields) {
+        FuelLog log = new FuelLog();
+        String date = required(fields, "date");
+        try {
+            log.setDate(LocalDate.parse(date.trim()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date '" + date + "', expected yyyy-MM-dd");
+        }
+
+        BigDecimal liters = decimal(required(fields, "litersfilled"), "litersFilled");
+        if (liters.signum() <= 0) {
+            throw new IllegalArgumentException("litersFilled must be positive");
+        }
+        log.setLitersFilled(liters);
+        log.setPricePerLiter(nonNegative(fields.get("priceperliter"), "pricePerLiter"));
+        log.setTotalCost(nonNegative(fields.get("totalcost"), "totalCost"));
+
+        String odometer = fields.get("odometer");
+        if (odometer != null && !odometer.isBlank()) {
+            long value = parseLong(odometer, "odometer");
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("odometer out of range: " + odometer);
+            }
+            log.setOdometer((int) value);
+        }
+        return log;
+    }
+
+    private Map<String, String> jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object per line");
+        }
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(e ->
+                fields.put(normalize(e.getKey()), e.getValue().isNull() ? null : e.getValue().asText()));
+        return fields;
+    }
+
+    private static List<String> parseHeader(String line) {
+        // a UTF-8 BOM is common in spreadsheet exports
+        String clean = line.startsWith("\uFEFF") ? line.substring(1) : line;
+        List<String> header = new ArrayList<>();
+        for (String column : splitCsv(clean)) {
+            header.add(normalize(column));
+        }
+        return header;
+    }
+
+    private static Map<String, String> csvFields(List<String> header, String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns, found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    // RFC 4180 fields within one line: comma separated, optionally quoted, "" escapes a quote
+    static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        out.add(current.toString().trim());
+        return out;
+    }
+
+    // "pricePerLiter", "price_per_liter" and "Price Per Liter" all map to "priceperliter"
+    private static String normalize(String column) {
+        StringBuilder sb = new StringBuilder(column.length());
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String required(Map<String, String> fields, String key) {
+        String value = fields.get(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + key);
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(String value, String name) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    private static BigDecimal nonNegative(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        BigDecimal parsed = decimal(value, name);
+        if (parsed.signum() < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return parsed;
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    private record Pending(long line, Long carId, FuelLog log) {
+    }
+
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        ImportReport build() {
+            return new ImportReport(imported, rejected, List.copyOf(errors), rejected > errors.size());
+        }
+    }
+}
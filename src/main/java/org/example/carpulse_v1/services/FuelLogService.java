@@ -2,11 +2,15 @@ package org.example.carpulse_v1.services;
 
 
 import lombok.RequiredArgsConstructor;
-import org.example.carpulse_v1.domain.Car;
 import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.SpendRollup;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.dto.FamilyEvent;
 import org.example.carpulse_v1.exception.ResourceNotFoundException;
 import org.example.carpulse_v1.repositories.CarRepository;
 import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,44 +23,106 @@ import java.util.List;
 public class FuelLogService {
     private final FuelLogRepository repo;
     private final CarRepository carRepository;
+    private final KeysetPager pager;
+    private final FamilyEventHub events;
+    private final FuelEconomyService fuelEconomy;
+    private final SpendRollupService spendRollups;
+    private final FuelColumnStore columnStore;
+    private final FuelAnomalyDetector anomalies;
+    private final MileageForecastService forecasts;
+    private final FleetBenchmarkService benchmarks;
 
-    public FuelLogService(FuelLogRepository repo, CarRepository carRepository) {
+    public FuelLogService(FuelLogRepository repo, CarRepository carRepository, KeysetPager pager,
+                          FamilyEventHub events, FuelEconomyService fuelEconomy, SpendRollupService spendRollups,
+                          FuelColumnStore columnStore, FuelAnomalyDetector anomalies, MileageForecastService forecasts,
+                          FleetBenchmarkService benchmarks) {
         this.repo = repo;
         this.carRepository = carRepository;
+        this.pager = pager;
+        this.events = events;
+        this.fuelEconomy = fuelEconomy;
+        this.spendRollups = spendRollups;
+        this.columnStore = columnStore;
+        this.anomalies = anomalies;
+        this.forecasts = forecasts;
+        this.benchmarks = benchmarks;
     }
 
     public List<FuelLog> findAllByCar(Long carId) {
-        carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
+        requireCar(carId);
         return repo.findByCarId(carId);
     }
 
+    /**
+     * One page of a car's records ordered by (date, id).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<FuelLog> findPageByCar(Long carId, String cursor, int limit, Sort.Direction direction) {
+        requireCar(carId);
+        Specification<FuelLog> ofCar = (root, query, cb) -> cb.equal(root.get("car").get("id"), carId);
+        return pager.page(repo, ofCar, "date", FuelLog::getDate, FuelLog::getId, cursor, limit, direction);
+    }
+
     public FuelLog findById(Long id) {
         return repo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FuelLog not found: " + id));
     }
 
     public FuelLog create(Long carId, FuelLog log) {
-        Car car = carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
-        log.setCar(car);
-        return repo.save(log);
+        requireCar(carId);
+        // only the FK is written, so a reference will do; the car row (and its image) is never read
+        log.setCar(carRepository.getReferenceById(carId));
+        FuelLog saved = repo.save(log);
+        // before the other write-backs: a rejected log throws and rolls the insert back
+        anomalies.inspect(carId, saved, true);
+        int distance = fuelEconomy.added(carId, saved);
+        spendRollups.changed(carId, SpendRollup.Category.FUEL, null, SpendRollupService.Spend.of(saved));
+        benchmarks.added(carId, saved, distance);
+        columnStore.saved(carId, saved);
+        if (saved.getOdometer() != null) {
+            forecasts.readingsChanged(carId);
+        }
+        events.publishForCar(carId, FamilyEvent.record(FamilyEvent.Type.FUEL_LOG_CREATED, carId, saved.getId()));
+        return saved;
     }
 
     public FuelLog update(Long id, FuelLog detail) {
         FuelLog log = findById(id);
+        FuelEconomyService.Fill before = FuelEconomyService.Fill.of(log);
+        SpendRollupService.Spend spentBefore = SpendRollupService.Spend.of(log);
         log.setDate(detail.getDate());
         log.setLitersFilled(detail.getLitersFilled());
         log.setPricePerLiter(detail.getPricePerLiter());
         log.setOdometer(detail.getOdometer());
         log.setTotalCost(detail.getTotalCost());
-        return repo.save(log);
+        FuelLog saved = repo.save(log);
+        anomalies.inspect(saved.getCar().getId(), saved, false);
+        fuelEconomy.changed(saved.getCar().getId(), before, saved);
+        spendRollups.changed(saved.getCar().getId(), SpendRollup.Category.FUEL, spentBefore,
+                SpendRollupService.Spend.of(saved));
+        columnStore.saved(saved.getCar().getId(), saved);
+        if (before.odometer() != null || saved.getOdometer() != null) {
+            forecasts.readingsChanged(saved.getCar().getId());
+        }
+        return saved;
     }
 
     public void delete(Long id) {
-        if (!repo.existsById(id)) {
-            throw new ResourceNotFoundException("FuelLog not found: " + id);
+        FuelLog log = findById(id);
+        Long carId = log.getCar().getId();
+        repo.delete(log);
+        fuelEconomy.removed(carId, FuelEconomyService.Fill.of(log));
+        spendRollups.changed(carId, SpendRollup.Category.FUEL, SpendRollupService.Spend.of(log), null);
+        columnStore.deleted(carId, id);
+        anomalies.deleted(carId, id);
+        if (log.getOdometer() != null) {
+            forecasts.readingsChanged(carId);
+        }
+    }
+
+    private void requireCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
         }
-        repo.deleteById(id);
     }
-}
\ No newline at end of file
+}
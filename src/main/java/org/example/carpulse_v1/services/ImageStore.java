@@ -0,0 +1,226 @@
+package org.example.carpulse_v1.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Filesystem blob store for car images, keyed by the SHA-256 of the content.
+ *
+ * Blobs live under {@code <root>/<2 hex>/<sha256>.<ext>}. Identical uploads map to the same key
+ * and are stored once. Uploads are streamed to a temp file while hashing, never buffered whole.
+ */
+@Service
+public class ImageStore {
+    private static final Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    public static final String URL_PREFIX = "/images/";
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}\\.(png|jpg|gif|webp)");
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/png", "png",
+            "image/jpeg", "jpg",
+            "image/gif", "gif",
+            "image/webp", "webp");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "png", "image/png",
+            "jpg", "image/jpeg",
+            "gif", "image/gif",
+            "webp", "image/webp");
+
+    private final Path root;
+    private final Path tmp;
+    private final long maxBytes;
+
+    public ImageStore(@Value("${carpulse.images.dir:data/images}") Path root,
+                      @Value("${carpulse.images.max-size:10MB}") DataSize maxSize) throws IOException {
+        this.root = root.toAbsolutePath();
+        this.tmp = this.root.resolve("tmp");
+        this.maxBytes = maxSize.toBytes();
+        Files.createDirectories(tmp);
+    }
+
+    /**
+     * Stream an image into the store.
+     *
+     * @return the content key, e.g. {@code 9f86d0...0f00a08.png}
+     */
+    public String store(InputStream in, String contentType) throws IOException {
+        String ext = contentType == null ? null : EXTENSIONS.get(contentType.toLowerCase());
+        if (ext == null) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported image type: " + contentType);
+        }
+
+        MessageDigest digest = sha256();
+        Path part = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long total = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(part)) {
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    total += n;
+                    if (total > maxBytes) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "Image exceeds " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest()) + "." + ext;
+            Path target = pathFor(key);
+            if (Files.exists(target)) {
+                logger.debug("Image {} already stored, deduplicated", key);
+                return key;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                moveIntoPlace(part, target);
+            } catch (FileAlreadyExistsException e) {
+                // a concurrent upload of the same bytes won the race
+                logger.debug("Image {} stored concurrently, deduplicated", key);
+                return key;
+            }
+            logger.info("Stored image {} ({} bytes)", key, total);
+            return key;
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Store an image held in a {@code data:<type>;base64,<payload>} URL.
+     */
+    public String storeDataUrl(String dataUrl) throws IOException {
+        int comma = dataUrl.indexOf(',');
+        int semicolon = dataUrl.indexOf(';');
+        if (!dataUrl.startsWith("data:") || comma < 0 || semicolon < 0 || semicolon > comma) {
+            throw new IllegalArgumentException("Not a base64 data URL");
+        }
+        String contentType = dataUrl.substring("data:".length(), semicolon);
+        // decode lazily from the string instead of materialising the byte[] first
+        InputStream encoded = new CharSequenceInputStream(dataUrl, comma + 1);
+        try (InputStream in = Base64.getDecoder().wrap(encoded)) {
+            return store(in, contentType);
+        }
+    }
+
+    /**
+     * Resolve a key to its blob, or empty if the key is malformed or unknown.
+     */
+    public Optional<Path> find(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathFor(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public String contentType(String key) {
+        return CONTENT_TYPES.getOrDefault(key.substring(key.lastIndexOf('.') + 1), "application/octet-stream");
+    }
+
+    /**
+     * Where the scaled rendition of an image lives, e.g. {@code <root>/renditions/small/9f/9f86...08.jpg}.
+     * Renditions keep PNG for sources that may carry transparency and use JPEG otherwise.
+     */
+    public Path renditionPath(String key, String rendition) {
+        String sha = key.substring(0, key.lastIndexOf('.'));
+        String ext = key.endsWith(".png") || key.endsWith(".gif") ? "png" : "jpg";
+        return root.resolve("renditions").resolve(rendition).resolve(key.substring(0, 2)).resolve(sha + "." + ext);
+    }
+
+    public Optional<Path> findRendition(String key, String rendition) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = renditionPath(key, rendition);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public Path tempFile(String prefix) throws IOException {
+        return Files.createTempFile(tmp, prefix, ".part");
+    }
+
+    public static String urlFor(String key) {
+        return URL_PREFIX + key;
+    }
+
+    public static boolean isStoreUrl(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    // Without atomic rename the plain move refuses an existing target; the caller treats that the same as
+    // an atomic rename over it, since both files hold the same bytes
+    private static void moveIntoPlace(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, target);
+        }
+    }
+
+        private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * ASCII view of a string suffix as an InputStream, without copying it into a byte[].
+     */
+    private static final class CharSequenceInputStream extends InputStream {
+        private final CharSequence chars;
+        private int pos;
+
+        CharSequenceInputStream(CharSequence chars, int start) {
+            this.chars = chars;
+            this.pos = start;
+        }
+
+        @Override
+        public int read() {
+            return pos < chars.length() ? chars.charAt(pos++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos >= chars.length()) {
+                return -1;
+            }
+            int n = Math.min(len, chars.length() - pos);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) chars.charAt(pos++);
+            }
+            return n;
+        }
+    }
+}
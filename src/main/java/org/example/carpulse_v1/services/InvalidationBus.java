@@ -0,0 +1,22 @@
+package org.example.carpulse_v1.services;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache evictions to the other application nodes. A node evicts its own caches itself; the bus tells
+ * the rest, which call the listeners subscribed to the topic with the key. Keys of one transaction reach the
+ * other nodes in the order they were published, so publish entity changes before the lists built from them.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Tell the other nodes to drop {@code key} from their {@code topic} cache, once the surrounding transaction
+     * commits (right away outside a transaction).
+     */
+    void publish(String topic, String key);
+
+    /**
+     * Receive the keys other nodes publish on {@code topic}, on a bus thread.
+     */
+    void subscribe(String topic, Consumer<String> listener);
+}
@@ -0,0 +1,124 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.dto.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination over {@code (date, id)} or {@code (id)}.
+ *
+ * Pages are read with {@code WHERE (date, id) past cursor ORDER BY date, id LIMIT n + 1}, so the cost of a
+ * page does not depend on how deep into the list it is. Null dates sort lowest, matching MariaDB and H2.
+ * Cursors are opaque base64url strings of {@code "<date>|<id>"}.
+ */
+@Component
+public class KeysetPager {
+
+    public record Cursor(LocalDate date, Long id) {
+    }
+
+    private final int maxPageSize;
+
+    public KeysetPager(@Value("${carpulse.pagination.max-page-size:200}") int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Read one page ordered by {@code dateField} then {@code id}.
+     */
+    public <T> CursorPage<T> page(JpaSpecificationExecutor<T> repo,
+                                  Specification<T> filter,
+                                  String dateField,
+                                  Function<T, LocalDate> dateOf,
+                                  Function<T, Long> idOf,
+                                  String cursor,
+                                  int limit,
+                                  Sort.Direction direction) {
+        int size = clamp(limit);
+        Specification<T> spec = filter.and(after(dateField, decode(cursor), direction));
+        Sort sort = Sort.by(direction, dateField).and(Sort.by(direction, "id"));
+        List<T> rows = repo.findBy(spec, q -> q.sortBy(sort).limit(size + 1).all());
+        return toPage(rows, size, last -> encode(new Cursor(dateOf.apply(last), idOf.apply(last))));
+    }
+
+    /**
+     * Trim the {@code size + 1} probe row and derive the next cursor from the last row kept.
+     */
+    public <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+
+    public int clamp(int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    public static Sort.Direction direction(String sort, Sort.Direction fallback) {
+        if (sort == null || sort.isBlank()) {
+            return fallback;
+        }
+        return Sort.Direction.fromOptionalString(sort)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be asc or desc"));
+    }
+
+    public static String encode(Cursor cursor) {
+        String raw = (cursor.date() == null ? "" : cursor.date().toString()) + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            LocalDate date = bar == 0 ? null : LocalDate.parse(raw.substring(0, bar));
+            return new Cursor(date, Long.valueOf(raw.substring(bar + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    // Rows strictly past the cursor in (date, id) order, null dates being the lowest value
+    private static <T> Specification<T> after(String dateField, Cursor cursor, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            var date = root.<LocalDate>get(dateField);
+            var id = root.<Long>get("id");
+            boolean asc = direction.isAscending();
+            var idPast = asc ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+
+            if (cursor.date() == null) {
+                return asc
+                        ? cb.or(cb.isNotNull(date), cb.and(cb.isNull(date), idPast))
+                        : cb.and(cb.isNull(date), idPast);
+            }
+            var datePast = asc ? cb.greaterThan(date, cursor.date()) : cb.lessThan(date, cursor.date());
+            var sameDate = cb.and(cb.equal(date, cursor.date()), idPast);
+            return asc
+                    ? cb.or(datePast, sameDate)
+                    : cb.or(datePast, sameDate, cb.isNull(date));
+        };
+    }
+}
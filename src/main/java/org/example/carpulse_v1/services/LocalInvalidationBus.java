@@ -0,0 +1,22 @@
+package org.example.carpulse_v1.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Consumer;
+
+/**
+ * For a single node: there is nobody to tell.
+ */
+@Service
+@ConditionalOnProperty(name = "carpulse.invalidation.transport", havingValue = "none")
+public class LocalInvalidationBus implements InvalidationBus {
+
+    @Override
+    public void publish(String topic, String key) {
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+    }
+}
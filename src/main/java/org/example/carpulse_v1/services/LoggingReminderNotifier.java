@@ -0,0 +1,20 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Reminder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in notifier until a real channel exists: writes each reminder to the log.
+ */
+@Component
+public class LoggingReminderNotifier implements ReminderNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingReminderNotifier.class);
+
+    @Override
+    public void send(Reminder reminder) {
+        logger.info("Reminder: {} record {} for car {} is due on {}",
+                reminder.getSource(), reminder.getRecordId(), reminder.getCarId(), reminder.getDueDate());
+    }
+}
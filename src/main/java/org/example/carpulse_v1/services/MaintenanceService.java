@@ -2,11 +2,16 @@ package org.example.carpulse_v1.services;
 
 
 import lombok.RequiredArgsConstructor;
-import org.example.carpulse_v1.domain.Car;
 import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.domain.Reminder;
+import org.example.carpulse_v1.domain.SpendRollup;
+import org.example.carpulse_v1.dto.CursorPage;
+import org.example.carpulse_v1.dto.FamilyEvent;
 import org.example.carpulse_v1.exception.ResourceNotFoundException;
 import org.example.carpulse_v1.repositories.CarRepository;
 import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,45 +24,92 @@ import java.util.List;
 public class MaintenanceService {
     private final MaintenanceRecordRepository repo;
     private final CarRepository carRepository;
+    private final KeysetPager pager;
+    private final ReminderScheduler reminders;
+    private final FamilyEventHub events;
+    private final SpendRollupService spendRollups;
+    private final MileageForecastService forecasts;
 
-    public MaintenanceService(MaintenanceRecordRepository repo, CarRepository carRepository) {
+    public MaintenanceService(MaintenanceRecordRepository repo, CarRepository carRepository, KeysetPager pager,
+                              ReminderScheduler reminders, FamilyEventHub events, SpendRollupService spendRollups,
+                              MileageForecastService forecasts) {
         this.repo = repo;
         this.carRepository = carRepository;
+        this.pager = pager;
+        this.reminders = reminders;
+        this.events = events;
+        this.spendRollups = spendRollups;
+        this.forecasts = forecasts;
     }
 
     public List<MaintenanceRecord> findAllByCar(Long carId) {
-        carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
+        requireCar(carId);
         return repo.findByCarId(carId);
     }
 
+    /**
+     * One page of a car's records ordered by (datePerformed, id).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceRecord> findPageByCar(Long carId, String cursor, int limit, Sort.Direction direction) {
+        requireCar(carId);
+        Specification<MaintenanceRecord> ofCar = (root, query, cb) -> cb.equal(root.get("car").get("id"), carId);
+        return pager.page(repo, ofCar, "datePerformed", MaintenanceRecord::getDatePerformed, MaintenanceRecord::getId, cursor, limit, direction);
+    }
+
     public MaintenanceRecord findById(Long id) {
         return repo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MaintenanceRecord not found: " + id));
     }
 
     public MaintenanceRecord create(Long carId, MaintenanceRecord rec) {
-        Car car = carRepository.findById(carId)
-                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
-        rec.setCar(car);
-        return repo.save(rec);
+        requireCar(carId);
+        // only the FK is written, so a reference will do; the car row (and its image) is never read
+        rec.setCar(carRepository.getReferenceById(carId));
+        MaintenanceRecord saved = repo.save(rec);
+        spendRollups.changed(carId, SpendRollup.Category.MAINTENANCE, null, SpendRollupService.Spend.of(saved));
+        reminders.track(Reminder.Source.MAINTENANCE, saved.getId(), carId, saved.getNextDueDate());
+        if (saved.getMileageAtService() != null) {
+            forecasts.readingsChanged(carId);
+        }
+        events.publishForCar(carId, FamilyEvent.record(FamilyEvent.Type.MAINTENANCE_CREATED, carId, saved.getId()));
+        return saved;
     }
 
     public MaintenanceRecord update(Long id, MaintenanceRecord detail) {
         MaintenanceRecord rec = findById(id);
+        SpendRollupService.Spend spentBefore = SpendRollupService.Spend.of(rec);
+        boolean hadReading = rec.getMileageAtService() != null;
         rec.setType(detail.getType());
         rec.setDescription(detail.getDescription());
         rec.setDatePerformed(detail.getDatePerformed());
         rec.setNextDueDate(detail.getNextDueDate());
         rec.setMileageAtService(detail.getMileageAtService());
         rec.setEstimatedCost(detail.getEstimatedCost());
-        return repo.save(rec);
+        MaintenanceRecord saved = repo.save(rec);
+        spendRollups.changed(saved.getCar().getId(), SpendRollup.Category.MAINTENANCE, spentBefore,
+                SpendRollupService.Spend.of(saved));
+        reminders.track(Reminder.Source.MAINTENANCE, saved.getId(), saved.getCar().getId(), saved.getNextDueDate());
+        if (hadReading || saved.getMileageAtService() != null) {
+            forecasts.readingsChanged(saved.getCar().getId());
+        }
+        return saved;
     }
 
     public void delete(Long id) {
-        if (!repo.existsById(id)) {
-            throw new ResourceNotFoundException("MaintenanceRecord not found: " + id);
+        MaintenanceRecord rec = findById(id);
+        Long carId = rec.getCar().getId();
+        repo.delete(rec);
+        spendRollups.changed(carId, SpendRollup.Category.MAINTENANCE, SpendRollupService.Spend.of(rec), null);
+        reminders.untrack(Reminder.Source.MAINTENANCE, id);
+        if (rec.getMileageAtService() != null) {
+            forecasts.readingsChanged(carId);
+        }
+    }
+
+    private void requireCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
         }
-        repo.deleteById(id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,385 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.domain.MileageRate;
+import org.example.carpulse_v1.dto.MileageForecast;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.example.carpulse_v1.repositories.MileageRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Daily km rate per car, and the dates its mileage-based services are projected to come due.
+ *
+ * The rate is a Theil–Sen fit (the median of the slopes between every pair of readings) over the car's
+ * odometer readings from the last {@code lookback-days}: fuel logs and services with a mileage. One mistyped
+ * reading drags a least-squares line but barely moves a median. {@code Car.mileage} has no date, so it only
+ * serves as a floor for the projected odometer.
+ *
+ * Rates are stored in {@code mileage_rates} and refreshed in two ways. A batch over all cars runs at start-up
+ * and daily at {@code run-at}: keyset pages of car ids, each car fitted in its own transaction on a small pool.
+ * A write that adds or changes a car's reading queues a refresh of that car alone. That queue is bounded; a
+ * dropped refresh is picked up by the next batch.
+ */
+@Service
+public class MileageForecastService {
+    private static final Logger logger = LoggerFactory.getLogger(MileageForecastService.class);
+
+    private final CarRepository carRepository;
+    private final FuelLogRepository fuelLogRepository;
+    private final MaintenanceRecordRepository maintenanceRepository;
+    private final MileageRateRepository rateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final boolean enabled;
+    private final LocalTime runAt;
+    private final int batchSize;
+    private final int lookbackDays;
+    private final int maxReadings;
+    private final int minReadings;
+    private final int minSpanDays;
+    private final Map<MaintenanceRecord.Type, Integer> intervals;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private volatile ScheduledExecutorService batches;
+
+    public MileageForecastService(CarRepository carRepository,
+                                  FuelLogRepository fuelLogRepository,
+                                  MaintenanceRecordRepository maintenanceRepository,
+                                  MileageRateRepository rateRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  Clock clock,
+                                  @Value("${carpulse.forecast.enabled:true}") boolean enabled,
+                                  @Value("${carpulse.forecast.run-at:03:00}") LocalTime runAt,
+                                  @Value("${carpulse.forecast.threads:2}") int threads,
+                                  @Value("${carpulse.forecast.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${carpulse.forecast.batch-size:500}") int batchSize,
+                                  @Value("${carpulse.forecast.lookback-days:365}") int lookbackDays,
+                                  @Value("${carpulse.forecast.max-readings:100}") int maxReadings,
+                                  @Value("${carpulse.forecast.min-readings:3}") int minReadings,
+                                  @Value("${carpulse.forecast.min-span-days:14}") int minSpanDays,
+                                  @Value("${carpulse.forecast.intervals:OIL_CHANGE:15000,TIRES:40000,BRAKES:30000,ENGINE:60000}")
+                                  String intervals) {
+        this.carRepository = carRepository;
+        this.fuelLogRepository = fuelLogRepository;
+        this.maintenanceRepository = maintenanceRepository;
+        this.rateRepository = rateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.runAt = runAt;
+        this.batchSize = batchSize;
+        this.lookbackDays = lookbackDays;
+        this.maxReadings = maxReadings;
+        this.minReadings = minReadings;
+        this.minSpanDays = minSpanDays;
+        this.intervals = parseIntervals(intervals);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "mileage-forecast-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mileage-forecast-batch");
+            t.setDaemon(true);
+            return t;
+        });
+        batches = scheduler;
+        scheduler.execute(this::runBatch);
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime next = now.with(runAt).isAfter(now) ? now.with(runAt) : now.plusDays(1).with(runAt);
+        scheduler.scheduleAtFixedRate(this::runBatch, Duration.between(now, next).toMillis(),
+                TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ScheduledExecutorService scheduler = batches;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * The car's current rate, projected odometer and the latest service of each type with a mileage interval.
+     */
+    @Transactional(readOnly = true)
+    public MileageForecast findForCar(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        LocalDate today = LocalDate.now(clock);
+        MileageRate rate = rateRepository.findById(carId).orElse(null);
+        Integer mileage = carRepository.findMileageById(carId);
+        Integer estimated = mileage;
+        if (rate != null) {
+            long days = ChronoUnit.DAYS.between(rate.getAnchorDate(), today);
+            int projected = (int) Math.round(rate.getAnchorOdometer() + rate.getKmPerDay().doubleValue() * days);
+            estimated = mileage == null ? projected : Math.max(projected, mileage);
+        }
+
+        List<MileageForecast.DueService> services = new ArrayList<>();
+        Set<MaintenanceRecord.Type> seen = EnumSet.noneOf(MaintenanceRecord.Type.class);
+        for (Object[] row : maintenanceRepository.findLatestMileageServices(carId)) {
+            MaintenanceRecord.Type type = (MaintenanceRecord.Type) row[1];
+            Integer interval = intervals.get(type);
+            // several services of a type on the same day: the last one entered counts
+            if (interval == null || !seen.add(type)) {
+                continue;
+            }
+            int dueMileage = (Integer) row[3] + interval;
+            services.add(new MileageForecast.DueService((Long) row[0], type, (LocalDate) row[2], (Integer) row[3],
+                    dueMileage, rate == null ? null : predict(rate, estimated, dueMileage, today), (LocalDate) row[4]));
+        }
+        return rate == null
+                ? new MileageForecast(carId, null, estimated, today, null, null, services)
+                : new MileageForecast(carId, rate.getKmPerDay(), estimated, today, rate.getReadings(),
+                rate.getComputedAt(), services);
+    }
+
+    /**
+     * Refits the car's rate now, in the caller's thread.
+     */
+    public MileageForecast refresh(Long carId) {
+        if (!carRepository.existsById(carId)) {
+            throw new ResourceNotFoundException("Car not found: " + carId);
+        }
+        refreshCar(carId);
+        return findForCar(carId);
+    }
+
+    /**
+     * Refits every car, {@code threads} at a time, and returns how many have a rate.
+     */
+    public int refreshAll() {
+        long started = System.nanoTime();
+        AtomicInteger fitted = new AtomicInteger();
+        int cars = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> page = carRepository.findIdsAfter(afterId, Limit.of(batchSize));
+            List<CompletableFuture<Void>> running = new ArrayList<>(page.size());
+            for (Long carId : page) {
+                running.add(submitToBatch(carId, fitted));
+            }
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+            cars += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+            afterId = page.get(page.size() - 1);
+        }
+        logger.info("Fitted mileage rates of {} of {} cars in {} ms",
+                fitted.get(), cars, (System.nanoTime() - started) / 1_000_000);
+        return fitted.get();
+    }
+
+    /**
+     * Queues a refit of the car once the current transaction commits. Called by the writers of fuel logs
+     * and maintenance records when a reading is added, changed or removed.
+     */
+    void readingsChanged(Long carId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            if (!pending.add(carId)) {
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    // a reading committed from here on queues another refit
+                    pending.remove(carId);
+                    refreshQuietly(carId);
+                });
+            } catch (RejectedExecutionException e) {
+                pending.remove(carId);
+                logger.debug("Mileage forecast queue full, car {} waits for the next batch", carId);
+            }
+        });
+    }
+
+    private void runBatch() {
+        try {
+            refreshAll();
+        } catch (RuntimeException e) {
+            logger.error("Mileage forecast batch failed", e);
+        }
+    }
+
+    // on the pool, or in the batch thread itself while the pool's queue is full
+    private CompletableFuture<Void> submitToBatch(Long carId, AtomicInteger fitted) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                if (refreshQuietly(carId)) {
+                    fitted.incrementAndGet();
+                }
+            } finally {
+                done.complete(null);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+        return done;
+    }
+
+    private boolean refreshQuietly(Long carId) {
+        try {
+            return refreshCar(carId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not fit the mileage rate of car ID: {}", carId, e);
+            return false;
+        }
+    }
+
+    // true if the car has enough readings for a rate; otherwise any stored rate is removed
+    private boolean refreshCar(Long carId) {
+        LocalDate since = LocalDate.now(clock).minusDays(lookbackDays);
+        Boolean fitted = transactionTemplate.execute(status -> {
+            List<Object[]> readings = new ArrayList<>(
+                    fuelLogRepository.findOdometerReadings(carId, since, Limit.of(maxReadings)));
+            readings.addAll(maintenanceRepository.findOdometerReadings(carId, since, Limit.of(maxReadings)));
+            MileageRate rate = fit(readings);
+            if (rate == null) {
+                rateRepository.deleteByCarId(carId);
+                return false;
+            }
+            rateRepository.upsert(carId, rate.getKmPerDay(), rate.getAnchorDate(), rate.getAnchorOdometer(),
+                    rate.getReadings(), LocalDateTime.now(clock));
+            return true;
+        });
+        return Boolean.TRUE.equals(fitted);
+    }
+
+    // rows of (date, odometer); null with fewer than min-readings or spread over less than min-span-days
+    private MileageRate fit(List<Object[]> readings) {
+        int n = readings.size();
+        if (n < Math.max(minReadings, 2)) {
+            return null;
+        }
+        LocalDate anchor = readings.stream().map(row -> (LocalDate) row[0]).max(LocalDate::compareTo).orElseThrow();
+        int[] days = new int[n];
+        int[] odometers = new int[n];
+        int earliest = 0;
+        for (int i = 0; i < n; i++) {
+            // days before the latest reading, so the intercept is the odometer at the anchor
+            days[i] = (int) ChronoUnit.DAYS.between(anchor, (LocalDate) readings.get(i)[0]);
+            odometers[i] = (Integer) readings.get(i)[1];
+            earliest = Math.min(earliest, days[i]);
+        }
+        if (-earliest < minSpanDays) {
+            return null;
+        }
+        double[] line = theilSen(days, odometers);
+        MileageRate rate = new MileageRate();
+        rate.setKmPerDay(BigDecimal.valueOf(Math.max(line[0], 0)).setScale(3, RoundingMode.HALF_UP));
+        rate.setAnchorDate(anchor);
+        rate.setAnchorOdometer((int) Math.max(Math.round(line[1]), 0));
+        rate.setReadings(n);
+        return rate;
+    }
+
+    /**
+     * {slope, intercept} of the Theil–Sen line: the median slope over all pairs with different x, then the
+     * median of {@code y - slope × x}. Needs at least two distinct x values.
+     */
+    static double[] theilSen(int[] x, int[] y) {
+        int n = x.length;
+        double[] slopes = new double[n * (n - 1) / 2];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (x[i] != x[j]) {
+                    slopes[k++] = (double) (y[j] - y[i]) / (x[j] - x[i]);
+                }
+            }
+        }
+        double slope = median(slopes, k);
+        double[] intercepts = new double[n];
+        for (int i = 0; i < n; i++) {
+            intercepts[i] = y[i] - slope * x[i];
+        }
+        return new double[]{slope, median(intercepts, n)};
+    }
+
+    private static double median(double[] values, int length) {
+        Arrays.sort(values, 0, length);
+        return length % 2 == 1 ? values[length / 2] : (values[length / 2 - 1] + values[length / 2]) / 2;
+    }
+
+    // past once the projected odometer has gone beyond dueMileage; null when the car is not being driven
+    private static LocalDate predict(MileageRate rate, int estimated, int dueMileage, LocalDate today) {
+        double kmPerDay = rate.getKmPerDay().doubleValue();
+        if (kmPerDay <= 0) {
+            return estimated >= dueMileage ? today : null;
+        }
+        return today.plusDays((long) Math.ceil((dueMileage - estimated) / kmPerDay));
+    }
+
+    // "OIL_CHANGE:15000,TIRES:40000"; types left out have no mileage interval
+    private static Map<MaintenanceRecord.Type, Integer> parseIntervals(String spec) {
+        Map<MaintenanceRecord.Type, Integer> intervals = new EnumMap<>(MaintenanceRecord.Type.class);
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            intervals.put(MaintenanceRecord.Type.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return intervals;
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.domain.Reminder;
+import org.example.carpulse_v1.dto.FamilyEvent;
+import org.example.carpulse_v1.repositories.ComplianceRecordRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.example.carpulse_v1.repositories.ReminderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a reached due date into an outbox row, then hands undelivered rows to the {@link ReminderNotifier}.
+ *
+ * The row is committed before delivery is attempted, so a crash or a failing notifier never loses a
+ * reminder. The unique (source, record, due date) key means it is written once however often it fires.
+ * Delivery runs on one thread, so rows are sent one at a time and in order.
+ */
+@Service
+public class ReminderDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderDispatcher.class);
+
+    private final ReminderRepository reminderRepository;
+    private final MaintenanceRecordRepository maintenanceRepository;
+    private final ComplianceRecordRepository complianceRepository;
+    private final ReminderNotifier notifier;
+    private final FamilyEventHub events;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final ScheduledExecutorService delivery = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "reminder-delivery");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean retryScheduled;
+
+    public ReminderDispatcher(ReminderRepository reminderRepository,
+                              MaintenanceRecordRepository maintenanceRepository,
+                              ComplianceRecordRepository complianceRepository,
+                              ReminderNotifier notifier,
+                              FamilyEventHub events,
+                              PlatformTransactionManager transactionManager,
+                              Clock clock,
+                              @Value("${carpulse.reminders.delivery-batch-size:100}") int batchSize,
+                              @Value("${carpulse.reminders.max-attempts:5}") int maxAttempts,
+                              @Value("${carpulse.reminders.retry-delay:PT1M}") Duration retryDelay) {
+        this.reminderRepository = reminderRepository;
+        this.maintenanceRepository = maintenanceRepository;
+        this.complianceRepository = complianceRepository;
+        this.notifier = notifier;
+        this.events = events;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * A due date has been reached: record it in the outbox, unless the record has since been changed
+     * or deleted, or the reminder was already written (by an earlier run or another node).
+     */
+    public void fire(Reminder.Source source, Long recordId, Long carId, LocalDate dueDate) {
+        boolean written;
+        try {
+            written = Boolean.TRUE.equals(tx.execute(status -> {
+                boolean current = source == Reminder.Source.MAINTENANCE
+                        ? maintenanceRepository.existsByIdAndNextDueDate(recordId, dueDate)
+                        : complianceRepository.existsByIdAndReminderDate(recordId, dueDate);
+                if (!current || reminderRepository.existsBySourceAndRecordIdAndDueDate(source, recordId, dueDate)) {
+                    return false;
+                }
+                Reminder reminder = new Reminder();
+                reminder.setSource(source);
+                reminder.setRecordId(recordId);
+                reminder.setCarId(carId);
+                reminder.setDueDate(dueDate);
+                reminder.setCreatedAt(LocalDateTime.now(clock));
+                reminderRepository.save(reminder);
+                events.publishForCar(carId, FamilyEvent.due(source == Reminder.Source.MAINTENANCE
+                        ? FamilyEvent.Type.MAINTENANCE_DUE
+                        : FamilyEvent.Type.COMPLIANCE_DUE, carId, recordId, dueDate));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // lost the race on the unique key to another node
+            written = false;
+        }
+        if (written) {
+            deliverPending();
+        }
+    }
+
+    /**
+     * Queue a delivery pass over undelivered rows.
+     */
+    public void deliverPending() {
+        delivery.execute(this::deliverBatch);
+    }
+
+    private void deliverBatch() {
+        List<Reminder> pending;
+        try {
+            pending = reminderRepository.findByDeliveredAtIsNullAndAttemptsLessThanOrderById(maxAttempts, Limit.of(batchSize));
+        } catch (RuntimeException e) {
+            logger.error("Could not read the reminder outbox, retrying in {}", retryDelay, e);
+            scheduleRetry();
+            return;
+        }
+
+        boolean failed = false;
+        for (Reminder reminder : pending) {
+            reminder.setAttempts(reminder.getAttempts() + 1);
+            try {
+                notifier.send(reminder);
+                reminder.setDeliveredAt(LocalDateTime.now(clock));
+                reminder.setLastError(null);
+            } catch (Exception e) {
+                failed = true;
+                String message = String.valueOf(e.getMessage());
+                reminder.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                logger.warn("Reminder {} not delivered (attempt {} of {}): {}",
+                        reminder.getId(), reminder.getAttempts(), maxAttempts, message);
+            }
+            try {
+                reminderRepository.save(reminder);
+            } catch (RuntimeException e) {
+                // the row stays undelivered and goes out again on the retry (at least once, as with any outbox)
+                logger.error("Could not record the delivery of reminder {}, retrying in {}",
+                        reminder.getId(), retryDelay, e);
+                scheduleRetry();
+                return;
+            }
+        }
+
+        if (failed) {
+            scheduleRetry();
+        } else if (pending.size() == batchSize) {
+            delivery.execute(this::deliverBatch);
+        }
+    }
+
+    // only touched on the delivery thread
+    private void scheduleRetry() {
+        if (retryScheduled) {
+            return;
+        }
+        retryScheduled = true;
+        delivery.schedule(() -> {
+            retryScheduled = false;
+            deliverBatch();
+        }, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        delivery.shutdownNow();
+    }
+}
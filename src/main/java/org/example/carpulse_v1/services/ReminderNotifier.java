@@ -0,0 +1,10 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Reminder;
+
+/**
+ * Delivers a fired reminder (e-mail, push, ...). Throwing leaves the outbox row undelivered so it is retried.
+ */
+public interface ReminderNotifier {
+    void send(Reminder reminder) throws Exception;
+}
@@ -0,0 +1,218 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.annotation.PreDestroy;
+import org.example.carpulse_v1.domain.Reminder;
+import org.example.carpulse_v1.repositories.ComplianceRecordRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process reminder engine for {@code MaintenanceRecord.nextDueDate} and {@code ComplianceRecord.reminderDate}.
+ *
+ * Upcoming due dates sit in a {@link DelayQueue} (a binary heap ordered by fire time). One thread blocks
+ * on it and wakes exactly when the earliest reminder is due, so the tables are never polled. At startup
+ * the queue is filled soonest-first in keyset pages, off the startup path. After that the record services
+ * keep it current through {@link #track} and {@link #untrack} once their transaction commits.
+ *
+ * Dates up to {@code catch-up-days} in the past are loaded and tracked as well and fire straight away, so
+ * reminders that came due while the node was down are still sent. The dispatcher writes each (source,
+ * record, due date) once, so the ones that were already sent are skipped.
+ *
+ * Changed or deleted records are not searched for in the heap. {@code current} holds the live entry
+ * per record and a superseded entry is dropped when it reaches the head. The dispatcher also re-checks
+ * the record before writing the outbox row.
+ */
+@Component
+public class ReminderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    record Key(Reminder.Source source, Long recordId) {
+    }
+
+    private final class Entry implements Delayed {
+        final Key key;
+        final Long carId;
+        final LocalDate dueDate;
+        final Instant fireAt;
+
+        Entry(Key key, Long carId, LocalDate dueDate) {
+            this.key = key;
+            this.carId = carId;
+            this.dueDate = dueDate;
+            this.fireAt = dueDate.atTime(fireTime).atZone(clock.getZone()).toInstant();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(clock.instant(), fireAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return fireAt.compareTo(((Entry) other).fireAt);
+        }
+    }
+
+    private final MaintenanceRecordRepository maintenanceRepository;
+    private final ComplianceRecordRepository complianceRepository;
+    private final ReminderDispatcher dispatcher;
+    private final Clock clock;
+    private final boolean enabled;
+    private final LocalTime fireTime;
+    private final int loadBatchSize;
+    private final int catchUpDays;
+    private final DelayQueue<Entry> queue = new DelayQueue<>();
+    private final Map<Key, Entry> current = new ConcurrentHashMap<>();
+    private volatile Thread worker;
+
+    public ReminderScheduler(MaintenanceRecordRepository maintenanceRepository,
+                             ComplianceRecordRepository complianceRepository,
+                             ReminderDispatcher dispatcher,
+                             Clock clock,
+                             @Value("${carpulse.reminders.enabled:true}") boolean enabled,
+                             @Value("${carpulse.reminders.fire-time:08:00}") LocalTime fireTime,
+                             @Value("${carpulse.reminders.load-batch-size:500}") int loadBatchSize,
+                             @Value("${carpulse.reminders.catch-up-days:7}") int catchUpDays) {
+        this.maintenanceRepository = maintenanceRepository;
+        this.complianceRepository = complianceRepository;
+        this.dispatcher = dispatcher;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.fireTime = fireTime;
+        this.loadBatchSize = loadBatchSize;
+        this.catchUpDays = catchUpDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "reminder-scheduler");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * (Re)schedule a record's reminder once the current transaction commits; a date within the catch-up window
+     * fires at once, a null or older date cancels it.
+     */
+    public void track(Reminder.Source source, Long recordId, Long carId, LocalDate dueDate) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            Key key = new Key(source, recordId);
+            if (dueDate == null || dueDate.isBefore(oldestDueDate())) {
+                current.remove(key);
+                return;
+            }
+            Entry entry = new Entry(key, carId, dueDate);
+            current.put(key, entry);
+            queue.add(entry);
+        });
+    }
+
+    public void untrack(Reminder.Source source, Long recordId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> current.remove(new Key(source, recordId)));
+    }
+
+    /**
+     * Reminders waiting to fire, superseded heap entries excluded.
+     */
+    public int pendingCount() {
+        return current.size();
+    }
+
+    private void run() {
+        try {
+            loadDueDates();
+            logger.info("Reminder scheduler started with {} pending reminders", current.size());
+        } catch (RuntimeException e) {
+            logger.error("Loading due dates failed; only reminders tracked from now on will fire", e);
+        }
+        // anything fired but not delivered before the last shutdown
+        dispatcher.deliverPending();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            Entry entry;
+            try {
+                entry = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!current.remove(entry.key, entry)) {
+                continue;   // superseded by a later track/untrack
+            }
+            try {
+                dispatcher.fire(entry.key.source(), entry.key.recordId(), entry.carId, entry.dueDate);
+            } catch (RuntimeException e) {
+                logger.error("Reminder for {} {} due {} could not be recorded",
+                        entry.key.source(), entry.key.recordId(), entry.dueDate, e);
+            }
+        }
+    }
+
+    void loadDueDates() {
+        load(Reminder.Source.MAINTENANCE);
+        load(Reminder.Source.COMPLIANCE);
+    }
+
+    // keyset pages of (id, carId, dueDate) from the start of the catch-up window, soonest first
+    private void load(Reminder.Source source) {
+        LocalDate afterDate = oldestDueDate().minusDays(1);
+        Long afterId = Long.MAX_VALUE;
+        while (true) {
+            List<Object[]> page = source == Reminder.Source.MAINTENANCE
+                    ? maintenanceRepository.findNextDueDatesAfter(afterDate, afterId, Limit.of(loadBatchSize))
+                    : complianceRepository.findReminderDatesAfter(afterDate, afterId, Limit.of(loadBatchSize));
+            for (Object[] row : page) {
+                Entry entry = new Entry(new Key(source, (Long) row[0]), (Long) row[1], (LocalDate) row[2]);
+                // a track() that raced the load has the newer date
+                if (current.putIfAbsent(entry.key, entry) == null) {
+                    queue.add(entry);
+                }
+            }
+            if (page.size() < loadBatchSize) {
+                return;
+            }
+            Object[] last = page.get(page.size() - 1);
+            afterDate = (LocalDate) last[2];
+            afterId = (Long) last[0];
+        }
+    }
+
+    private LocalDate oldestDueDate() {
+        return LocalDate.now(clock).minusDays(catchUpDays);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.User;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the Hibernate second-level and query caches of the other nodes in step with car and user writes.
+ *
+ * Locally Hibernate does this itself. A node hearing of a remote write drops the entity (and a user's roles)
+ * and marks the tables as written now in its update-timestamps region, which makes every cached query result
+ * over them stale, including results of queries still running. That is what the query cache does for local
+ * writes as well.
+ */
+@Component
+public class SecondLevelCacheInvalidation {
+    static final String TOPIC = "entities";
+
+    private final InvalidationBus bus;
+    private final SessionFactoryImplementor sessionFactory;
+
+    public SecondLevelCacheInvalidation(InvalidationBus bus, EntityManagerFactory entityManagerFactory) {
+        this.bus = bus;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        bus.subscribe(TOPIC, this::evict);
+    }
+
+    public void carChanged(Long carId) {
+        bus.publish(TOPIC, "Car:" + carId);
+    }
+
+    public void userChanged(Long userId) {
+        bus.publish(TOPIC, "User:" + userId);
+    }
+
+    private void evict(String key) {
+        int colon = key.indexOf(':');
+        Long id = Long.valueOf(key.substring(colon + 1));
+        switch (key.substring(0, colon)) {
+            case "Car" -> {
+                sessionFactory.getCache().evictEntityData(Car.class, id);
+                invalidateQueries("cars");
+            }
+            case "User" -> {
+                sessionFactory.getCache().evictEntityData(User.class, id);
+                sessionFactory.getCache().evictCollectionData(User.class.getName() + ".roles", id);
+                invalidateQueries("users", "user_roles");
+            }
+            default -> throw new IllegalArgumentException("Unknown entity invalidation: " + key);
+        }
+    }
+
+    private void invalidateQueries(String... tables) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            sessionFactory.getCache().getTimestampsCache()
+                    .invalidate(tables, (SharedSessionContractImplementor) session);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.carpulse_v1.services;
+
+import com.tdunning.math.stats.MergingDigest;
+import org.example.carpulse_v1.domain.SegmentSketch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The price and economy t-digests of one fleet benchmark segment.
+ *
+ * For each metric, {@code view} answers reads: the stored sketch as last loaded plus every sample added here
+ * since. {@code delta} holds only the samples not yet merged into the stored row. A t-digest merges with
+ * another without going back to the samples, so a flush adds the delta to whatever the row holds by then,
+ * including other instances' flushes. Quantiles cost O(centroids), which the compression bounds no matter
+ * how many fills went in. Every method locks the segment; digests are not thread-safe, not even for reads.
+ */
+final class SegmentSketches {
+    private static final int METRICS = SegmentSketch.Metric.values().length;
+
+    /**
+     * {@code samples} added to a metric and the p10/p50/p90 estimates, which are NaN when there are none.
+     */
+    record Snapshot(long samples, double p10, double p50, double p90) {
+    }
+
+    private final double compression;
+    private final MergingDigest[] view = new MergingDigest[METRICS];
+    private final MergingDigest[] delta = new MergingDigest[METRICS];
+
+    SegmentSketches(double compression) {
+        this.compression = compression;
+        for (int i = 0; i < METRICS; i++) {
+            view[i] = new MergingDigest(compression);
+            delta[i] = new MergingDigest(compression);
+        }
+    }
+
+    synchronized void add(SegmentSketch.Metric metric, double value) {
+        view[metric.ordinal()].add(value);
+        delta[metric.ordinal()].add(value);
+    }
+
+    synchronized Snapshot snapshot(SegmentSketch.Metric metric) {
+        MergingDigest digest = view[metric.ordinal()];
+        if (digest.size() == 0) {
+            return new Snapshot(0, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return new Snapshot(digest.size(), digest.quantile(0.1), digest.quantile(0.5), digest.quantile(0.9));
+    }
+
+    /**
+     * The samples added since the last call, or null when there are none. A failed flush hands them back
+     * with {@link #restore}.
+     */
+    synchronized MergingDigest takeDelta(SegmentSketch.Metric metric) {
+        MergingDigest taken = delta[metric.ordinal()];
+        if (taken.size() == 0) {
+            return null;
+        }
+        delta[metric.ordinal()] = new MergingDigest(compression);
+        return taken;
+    }
+
+    synchronized void restore(SegmentSketch.Metric metric, MergingDigest taken) {
+        delta[metric.ordinal()].add(taken);
+    }
+
+    /**
+     * Reads start from {@code stored} plus the samples that are not in it yet.
+     */
+    synchronized void stored(SegmentSketch.Metric metric, MergingDigest stored) {
+        MergingDigest merged = decode(encode(stored));
+        merged.add(delta[metric.ordinal()]);
+        view[metric.ordinal()] = merged;
+    }
+
+    static byte[] encode(MergingDigest digest) {
+        digest.compress();
+        ByteBuffer buffer = ByteBuffer.allocate(digest.smallByteSize());
+        digest.asSmallBytes(buffer);
+        return buffer.array();
+    }
+
+    static MergingDigest decode(byte[] bytes) {
+        return MergingDigest.fromBytes(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent calls for the same key share one load: the first caller runs it in its own thread, callers
+ * arriving while it runs wait for its result, and the next call after it finishes starts a new one. Nothing
+ * is kept once a load is done; put a cache inside the load for that.
+ *
+ * A failed load fails every caller that waited on it with the same exception. A waiter gives up after
+ * {@code timeout} with 503 rather than queueing more work behind a load that is stuck; the load itself
+ * carries on for its own caller. Callers inside a transaction always load for themselves, since they may
+ * have written something the shared load cannot see.
+ *
+ * A writer calls {@link #forget} once its change is committed, so callers arriving after that start a new
+ * load instead of joining one that may have read the old rows.
+ */
+public class SingleFlight<K, V> {
+    private final String name;
+    private final Duration timeout;
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final Counter shared;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeout = timeout;
+        this.shared = Counter.builder("carpulse.single-flight.shared")
+                .description("Calls answered by a load another caller had already started")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("carpulse.single-flight.timeouts")
+                .description("Calls that gave up waiting for a load another caller had started")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V run(K key, Supplier<V> load) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return load.get();
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            shared.increment();
+            return await(key, running);
+        }
+        try {
+            V value = load.get();
+            flights.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Detaches the load running for {@code key}, if any: its callers still get its result, later ones do not.
+     */
+    public void forget(K key) {
+        flights.remove(key);
+    }
+
+    private V await(K key, CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Still loading " + name + " " + key + " after " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Interrupted loading " + name + " " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.domain.SpendRollup;
+import org.example.carpulse_v1.dto.SpendDashboard;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.example.carpulse_v1.repositories.SpendRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Monthly fuel and maintenance spend per car, pre-aggregated in {@code spend_rollups}.
+ *
+ * The record services report every cost they write, and the month's row is adjusted with an upsert in
+ * the same transaction, so the rollups commit or roll back with the records. The dashboard reads only
+ * rollup rows: one primary-key range per request, sized by months × cars rather than by records.
+ *
+ * {@link #rebuild} recomputes a family from its raw records. It holds the family row exclusively while
+ * writers hold it shared, so a rebuild never misses or double-counts a concurrent write.
+ */
+@Service
+@Transactional
+public class SpendRollupService {
+
+    /**
+     * A cost as it was or is now on a record; either field may be null, and then it is not counted.
+     */
+    record Spend(LocalDate date, BigDecimal amount) {
+        static Spend of(FuelLog log) {
+            return new Spend(log.getDate(), log.getTotalCost());
+        }
+
+        static Spend of(MaintenanceRecord rec) {
+            return new Spend(rec.getDatePerformed(), rec.getEstimatedCost());
+        }
+    }
+
+    private record Delta(BigDecimal amount, int entries) {
+        Delta plus(Delta other) {
+            return new Delta(amount.add(other.amount), entries + other.entries);
+        }
+
+        boolean isZero() {
+            return entries == 0 && amount.signum() == 0;
+        }
+    }
+
+    private final SpendRollupRepository rollupRepository;
+    private final FamilyRepository familyRepository;
+    private final CarRepository carRepository;
+    private final FuelLogRepository fuelLogRepository;
+    private final MaintenanceRecordRepository maintenanceRepository;
+    private final Clock clock;
+    private final int defaultMonths;
+
+    public SpendRollupService(SpendRollupRepository rollupRepository,
+                              FamilyRepository familyRepository,
+                              CarRepository carRepository,
+                              FuelLogRepository fuelLogRepository,
+                              MaintenanceRecordRepository maintenanceRepository,
+                              Clock clock,
+                              @Value("${carpulse.spend.default-months:12}") int defaultMonths) {
+        this.rollupRepository = rollupRepository;
+        this.familyRepository = familyRepository;
+        this.carRepository = carRepository;
+        this.fuelLogRepository = fuelLogRepository;
+        this.maintenanceRepository = maintenanceRepository;
+        this.clock = clock;
+        this.defaultMonths = defaultMonths;
+    }
+
+    /**
+     * @param from first month, {@code carpulse.spend.default-months} before {@code to} when null
+     * @param to   last month, the current one when null
+     */
+    @Transactional(readOnly = true)
+    public SpendDashboard findForFamily(Long familyId, YearMonth from, YearMonth to) {
+        if (!familyRepository.existsById(familyId)) {
+            throw new ResourceNotFoundException("Family not found: " + familyId);
+        }
+        YearMonth last = to != null ? to : YearMonth.now(clock);
+        YearMonth first = from != null ? from : last.minusMonths(defaultMonths - 1);
+        if (first.isAfter(last)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+
+        Totals total = new Totals();
+        Map<Long, Totals> byCar = new TreeMap<>();
+        Map<YearMonth, Map<Long, Totals>> byMonth = new TreeMap<>();
+        for (Object[] row : rollupRepository.findByFamilyIdAndMonths(familyId, first.atDay(1), last.atDay(1))) {
+            YearMonth month = YearMonth.from((LocalDate) row[0]);
+            Long carId = (Long) row[1];
+            SpendRollup.Category category = (SpendRollup.Category) row[2];
+            BigDecimal amount = (BigDecimal) row[3];
+            total.add(category, amount);
+            byCar.computeIfAbsent(carId, id -> new Totals()).add(category, amount);
+            byMonth.computeIfAbsent(month, m -> new TreeMap<>())
+                    .computeIfAbsent(carId, id -> new Totals()).add(category, amount);
+        }
+
+        List<SpendDashboard.MonthSpend> months = new ArrayList<>(byMonth.size());
+        byMonth.forEach((month, cars) -> {
+            Totals monthTotal = new Totals();
+            cars.values().forEach(monthTotal::add);
+            months.add(new SpendDashboard.MonthSpend(month, monthTotal.toSpend(), carSpends(cars)));
+        });
+        return new SpendDashboard(familyId, first, last, total.toSpend(), carSpends(byCar), months);
+    }
+
+    /**
+     * Replace a family's rollups with sums over its fuel logs and maintenance records.
+     */
+    public void rebuild(Long familyId) {
+        // first statement of the transaction: the aggregates below must see every write committed before it
+        familyRepository.lockExclusive(familyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Family not found: " + familyId));
+        rollupRepository.deleteByFamilyId(familyId);
+        insert(familyId, SpendRollup.Category.FUEL, fuelLogRepository.findMonthlySpendByFamilyId(familyId));
+        insert(familyId, SpendRollup.Category.MAINTENANCE, maintenanceRepository.findMonthlySpendByFamilyId(familyId));
+    }
+
+    /**
+     * Whether any rollup row exists yet; the start-up rebuild fills an empty table.
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rollupRepository.findFamilyIds(Limit.of(1)).isEmpty();
+    }
+
+    // called by the record services with the cost before and after a write; null for a create or delete
+
+    void added(Long carId, SpendRollup.Category category, List<Spend> spends) {
+        Map<LocalDate, Delta> deltas = new TreeMap<>();
+        spends.forEach(spend -> collect(deltas, spend, 1));
+        apply(carId, category, deltas);
+    }
+
+    void changed(Long carId, SpendRollup.Category category, Spend before, Spend after) {
+        Map<LocalDate, Delta> deltas = new TreeMap<>();
+        collect(deltas, before, -1);
+        collect(deltas, after, 1);
+        apply(carId, category, deltas);
+    }
+
+    private static void collect(Map<LocalDate, Delta> deltas, Spend spend, int sign) {
+        if (spend == null || spend.date() == null || spend.amount() == null) {
+            return;
+        }
+        Delta delta = new Delta(sign < 0 ? spend.amount().negate() : spend.amount(), sign);
+        deltas.merge(spend.date().withDayOfMonth(1), delta, Delta::plus);
+    }
+
+    // months in order, so two writers to the same car take the row locks in the same order
+    private void apply(Long carId, SpendRollup.Category category, Map<LocalDate, Delta> deltas) {
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Long familyId = carRepository.findFamilyIdById(carId)
+                .orElseThrow(() -> new ResourceNotFoundException("Car not found: " + carId));
+        familyRepository.lockShared(familyId);
+        deltas.forEach((month, delta) -> {
+            rollupRepository.addTo(familyId, month, carId, category.name(), delta.amount(), delta.entries());
+            if (delta.entries() < 0) {
+                rollupRepository.deleteIfEmpty(familyId, month, carId, category.name());
+            }
+        });
+    }
+
+    private void insert(Long familyId, SpendRollup.Category category, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            LocalDate month = LocalDate.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue(), 1);
+            rollupRepository.addTo(familyId, month, (Long) row[0], category.name(),
+                    (BigDecimal) row[3], ((Long) row[4]).intValue());
+        }
+    }
+
+    private static List<SpendDashboard.CarSpend> carSpends(Map<Long, Totals> byCar) {
+        List<SpendDashboard.CarSpend> cars = new ArrayList<>(byCar.size());
+        byCar.forEach((carId, totals) -> cars.add(new SpendDashboard.CarSpend(carId, totals.toSpend())));
+        return cars;
+    }
+
+    private static final class Totals {
+        BigDecimal fuel = BigDecimal.ZERO;
+        BigDecimal maintenance = BigDecimal.ZERO;
+
+        void add(SpendRollup.Category category, BigDecimal amount) {
+            if (category == SpendRollup.Category.FUEL) {
+                fuel = fuel.add(amount);
+            } else {
+                maintenance = maintenance.add(amount);
+            }
+        }
+
+        void add(Totals other) {
+            fuel = fuel.add(other.fuel);
+            maintenance = maintenance.add(other.maintenance);
+        }
+
+        SpendDashboard.Spend toSpend() {
+            return new SpendDashboard.Spend(fuel, maintenance, fuel.add(maintenance));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.carpulse_v1.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background generation of scaled car image renditions.
+ *
+ * Work runs on a fixed-size pool with a bounded queue; when the queue is full the request is dropped
+ * and the image is regenerated the next time a rendition is asked for. Until a rendition exists
+ * callers serve the original.
+ *
+ * An image that could not be rendered (no ImageIO reader, as for webp, or a corrupt file) is remembered
+ * for {@code failed-retry-after} and not scheduled again meanwhile; its original is served. Keys are
+ * content hashes, so the same bytes would only fail the same way.
+ */
+@Service
+public class ThumbnailService {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    public enum Rendition {
+        SMALL(160),
+        MEDIUM(640);
+
+        private final int maxEdge;
+
+        Rendition(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+
+        public int getMaxEdge() {
+            return maxEdge;
+        }
+
+        public String pathName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Optional<Rendition> parse(String value) {
+            for (Rendition r : values()) {
+                if (r.pathName().equalsIgnoreCase(value)) {
+                    return Optional.of(r);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Cache<String, Boolean> failed;
+    private final Timer processingTimer;
+    private final Counter failures;
+    private final Counter dropped;
+
+    public ThumbnailService(ImageStore imageStore,
+                            MeterRegistry meterRegistry,
+                            @Value("${carpulse.images.thumbnails.threads:2}") int threads,
+                            @Value("${carpulse.images.thumbnails.queue-capacity:100}") int queueCapacity,
+                            @Value("${carpulse.images.thumbnails.failed-max-size:10000}") long failedMaxSize,
+                            @Value("${carpulse.images.thumbnails.failed-retry-after:PT1H}") Duration failedRetryAfter) {
+        this.imageStore = imageStore;
+        this.failed = Caffeine.newBuilder()
+                .maximumSize(failedMaxSize)
+                .expireAfterWrite(failedRetryAfter)
+                .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread t = new Thread(r, "thumbnail-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("carpulse.thumbnails.queue.depth", queue, BlockingQueue::size)
+                .description("Images waiting for rendition generation")
+                .register(meterRegistry);
+        Gauge.builder("carpulse.thumbnails.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("carpulse.thumbnails.processing")
+                .description("Time to generate all renditions of one image")
+                .register(meterRegistry);
+        this.failures = Counter.builder("carpulse.thumbnails.failures").register(meterRegistry);
+        this.dropped = Counter.builder("carpulse.thumbnails.dropped").register(meterRegistry);
+        Gauge.builder("carpulse.thumbnails.failed", failed, Cache::estimatedSize)
+                .description("Images remembered as not renderable, served as originals")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue rendition generation for a stored image. Returns immediately.
+     */
+    public void submit(String key) {
+        if (hasFailed(key) || !pending.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(key);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            dropped.increment();
+            logger.warn("Thumbnail queue full, skipping image {} for now", key);
+        }
+    }
+
+    /**
+     * The rendition if it has been generated; otherwise schedules it, unless the image could not be
+     * rendered lately, and returns empty.
+     */
+    public Optional<Path> findOrSchedule(String key, Rendition rendition) {
+        Optional<Path> path = imageStore.findRendition(key, rendition.pathName());
+        if (path.isEmpty() && !hasFailed(key) && imageStore.find(key).isPresent()) {
+            submit(key);
+        }
+        return path;
+    }
+
+    public boolean isPending(String key) {
+        return pending.contains(key);
+    }
+
+    public boolean hasFailed(String key) {
+        return failed.getIfPresent(key) != null;
+    }
+
+    /**
+     * Generate every missing rendition of an image on the calling thread.
+     */
+    void generate(String key) {
+        Optional<Path> original = imageStore.find(key);
+        if (original.isEmpty()) {
+            return;
+        }
+        processingTimer.record(() -> {
+            BufferedImage source;
+            try {
+                source = read(original.get(), Rendition.MEDIUM.getMaxEdge());
+            } catch (IOException | RuntimeException e) {
+                failures.increment();
+                failed.put(key, Boolean.TRUE);
+                logger.warn("Could not decode image {}, originals will be served: {}", key, e.toString());
+                return;
+            }
+            if (source == null) {
+                failed.put(key, Boolean.TRUE);
+                logger.info("No ImageIO reader for image {}, originals will be served", key);
+                return;
+            }
+            try {
+                for (Rendition rendition : Rendition.values()) {
+                    Path target = imageStore.renditionPath(key, rendition.pathName());
+                    if (!Files.exists(target)) {
+                        write(scale(source, rendition.getMaxEdge()), target);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                failures.increment();
+                failed.put(key, Boolean.TRUE);
+                logger.error("Could not generate renditions for image {}", key, e);
+            }
+        });
+    }
+
+    // Decode with source subsampling so huge photos are never fully materialised in memory
+    private static BufferedImage read(Path path, int targetEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (targetEdge * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double factor = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int w = Math.max(1, (int) Math.round(width * factor));
+        int h = Math.max(1, (int) Math.round(height * factor));
+
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(w, h, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        String format = target.toString().endsWith(".png") ? "png" : "jpg";
+        BufferedImage output = image;
+        if ("jpg".equals(format) && image.getColorModel().hasAlpha()) {
+            output = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = output.createGraphics();
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path part = imageStore.tempFile("rendition-");
+        try {
+            if (!ImageIO.write(output, format, part.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            try {
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,28 +1,94 @@
 package org.example.carpulse_v1.services;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.example.carpulse_v1.domain.User;
 import org.example.carpulse_v1.repositories.UserRepository;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 
 @Service
 public class UserRepoUserDetailsService implements UserDetailsService {
+    static final String TOPIC = "principals";
+
     private final UserRepository users;
+    private final InvalidationBus bus;
+
+    // username -> principal; bounded and expiring so stale entries age out even without an explicit evict
+    private final Cache<String, AuthenticatedUser> principals;
 
-    public UserRepoUserDetailsService(UserRepository users) {
+    public UserRepoUserDetailsService(UserRepository users,
+                                      InvalidationBus bus,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${carpulse.security.principal-cache.max-size:10000}") long maxSize,
+                                      @Value("${carpulse.security.principal-cache.ttl:PT10M}") Duration ttl) {
         this.users = users;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+        this.bus = bus;
+        // updated or deleted on another node; the id finds the principal under any name
+        bus.subscribe(TOPIC, userId -> doEvict(Long.valueOf(userId), null));
     }
 
     @Override
-    public UserDetails loadUserByUsername(String username)
+    public AuthenticatedUser loadUserByUsername(String username)
             throws UsernameNotFoundException {
-        User u = users.findByUsername(username);
-        if (u != null) {
-            return u;   // our User implements UserDetails
+        AuthenticatedUser principal = principals.get(username, this::load);
+        if (principal != null) {
+            return principal;
         }
         throw new UsernameNotFoundException("User " + username + " not found");
     }
-}
\ No newline at end of file
+
+    /**
+     * Drop the cached principal of a user once the surrounding transaction commits, here and on the other nodes.
+     */
+    public void evict(Long userId, String username) {
+        if (userId != null) {
+            bus.publish(TOPIC, userId.toString());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(userId, username);
+                }
+            });
+        }
+        // evict now as well so a reload inside the transaction window is not kept past commit
+        doEvict(userId, username);
+    }
+
+    public CacheStats stats() {
+        return principals.stats();
+    }
+
+    private void doEvict(Long userId, String username) {
+        if (username != null) {
+            principals.invalidate(username);
+        }
+        if (userId != null) {
+            principals.asMap().values().removeIf(p -> userId.equals(p.getId()));
+        }
+    }
+
+    private AuthenticatedUser load(String username) {
+        User u = users.findByUsername(username);
+        return u == null ? null : AuthenticatedUser.from(u);
+    }
+}
@@ -1,20 +1,25 @@
 package org.example.carpulse_v1.services;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.example.carpulse_v1.domain.Family;
 import org.example.carpulse_v1.domain.User;
 
 import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.dto.Bootstrap;
 
 import org.example.carpulse_v1.repositories.FamilyRepository;
 import org.example.carpulse_v1.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.time.Duration;
 import java.util.List;
 
 @Service
@@ -24,12 +29,23 @@ public class UserService {
     private final UserRepository userRepository;
     private final FamilyRepository familyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserRepoUserDetailsService userDetailsService;
+    private final FamilyReadCache readCache;
+    private final SecondLevelCacheInvalidation entityCaches;
+    // username -> profile lookups in flight
+    private final SingleFlight<String, Bootstrap.Profile> profiles;
 
-    public UserService(UserRepository userRepository, FamilyRepository familyRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, FamilyRepository familyRepository, PasswordEncoder passwordEncoder,
+                       UserRepoUserDetailsService userDetailsService, FamilyReadCache readCache,
+                       SecondLevelCacheInvalidation entityCaches, MeterRegistry meterRegistry,
+                       @Value("${carpulse.profile.wait-timeout:PT2S}") Duration profileWaitTimeout) {
         this.userRepository = userRepository;
         this.familyRepository = familyRepository;
         this.passwordEncoder = passwordEncoder;
-
+        this.userDetailsService = userDetailsService;
+        this.readCache = readCache;
+        this.entityCaches = entityCaches;
+        this.profiles = new SingleFlight<>("profiles", profileWaitTimeout, meterRegistry);
     }
     /**
      * Check if a user exists with the given username
@@ -45,16 +61,30 @@ public class UserService {
         return userRepository.existsByEmail(email);
     }
     /**
-     * List all users in a given family.
+     * List all users in a given family, served from {@link FamilyReadCache} as detached copies.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<User> listByFamily(Long familyId) {
-        // verify family exists
-        familyRepository.findById(familyId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Family not found: " + familyId));
-        return userRepository.findByFamilyId(familyId);
+        List<User> members = readCache.members(familyId,
+                () -> familyRepository.existsById(familyId) ? userRepository.findByFamilyId(familyId) : null);
+        if (members == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Family not found: " + familyId);
+        }
+        return members;
     }
     
+    /**
+     * The signed-in user's profile, or null if there is no such user. Concurrent requests for the same username
+     * (several devices opening the app at once) share one lookup.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Bootstrap.Profile findProfile(String username) {
+        return profiles.run(username, () -> {
+            User user = userRepository.findByUsername(username);
+            return user == null ? null : Bootstrap.Profile.from(user);
+        });
+    }
+
     /**
      * Find a user by their ID
      */
@@ -87,8 +117,12 @@ public class UserService {
         // Encode password and set family
         newUser.setPassword(passwordEncoder.encode(newUser.getPassword()));
         newUser.setFamily(family);
+        User saved = userRepository.save(newUser);
+        // other nodes drop cached user queries before the member lists built from them
+        entityCaches.userChanged(saved.getId());
+        readCache.evict(FamilyReadCache.Scope.FAMILY_MEMBERS, familyId);
         
-        return userRepository.save(newUser);
+        return saved;
     }
     
     /**
@@ -96,6 +130,10 @@ public class UserService {
      */
     public User updateUser(Long id, User userUpdates) {
         User existingUser = findById(id);
+        // username or password may change, drop the cached principal under its current name
+        userDetailsService.evict(id, existingUser.getUsername());
+        entityCaches.userChanged(id);
+        forgetProfile(existingUser.getUsername());
         
         // Update fields that are allowed to be changed
         if (userUpdates.getUsername() != null && !userUpdates.getUsername().equals(existingUser.getUsername())) {
@@ -105,6 +143,8 @@ public class UserService {
                         HttpStatus.BAD_REQUEST, "Username already exists: " + userUpdates.getUsername());
             }
             existingUser.setUsername(userUpdates.getUsername());
+            // car lists show the assigned user's name
+            evictCarLists(existingUser);
         }
         
         if (userUpdates.getEmail() != null && !userUpdates.getEmail().equals(existingUser.getEmail())) {
@@ -125,6 +165,7 @@ public class UserService {
         if (userUpdates.getName() != null) {
             existingUser.setName(userUpdates.getName());
         }
+        readCache.evict(FamilyReadCache.Scope.FAMILY_MEMBERS, familyIdOf(existingUser));
         
         return userRepository.save(existingUser);
     }
@@ -133,17 +174,41 @@ public class UserService {
      * Delete a user
      */
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResponseStatusException(
-                    HttpStatus.NOT_FOUND, "User not found: " + id);
-        }
+        User user = findById(id);
+        entityCaches.userChanged(id);
+        forgetProfile(user.getUsername());
+        readCache.evict(FamilyReadCache.Scope.FAMILY_MEMBERS, familyIdOf(user));
+        evictCarLists(user);
         userRepository.deleteById(id);
+        userDetailsService.evict(id, null);
     }
     
     /**
      * Save a user
      */
     public User save(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        entityCaches.userChanged(saved.getId());
+        forgetProfile(saved.getUsername());
+        readCache.evict(FamilyReadCache.Scope.FAMILY_MEMBERS, familyIdOf(saved));
+        return saved;
+    }
+
+    // the user's own car list, and the family's if the user has cars (a user with cars cannot be deleted:
+    // the assignment is a plain foreign key, so that transaction rolls back and evicts nothing)
+    private void evictCarLists(User user) {
+        readCache.evict(FamilyReadCache.Scope.USER_CARS, user.getId());
+        if (user.getAssignedCars() != null && !user.getAssignedCars().isEmpty()) {
+            readCache.evict(FamilyReadCache.Scope.FAMILY_CARS, familyIdOf(user));
+        }
+    }
+
+    // a lookup started before the commit may have read the old row
+    private void forgetProfile(String username) {
+        AfterCommit.run(() -> profiles.forget(username));
+    }
+
+    private static Long familyIdOf(User user) {
+        return user.getFamily() == null ? null : user.getFamily().getId();
     }
 }
\ No newline at end of file
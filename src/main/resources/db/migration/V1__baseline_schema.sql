@@ -0,0 +1,108 @@
+-- Baseline schema, matching the entity mappings (spring.jpa.hibernate.ddl-auto=validate checks it at startup).
+-- Written in the MariaDB dialect; the test profile runs the same script on H2 in MySQL mode.
+
+create sequence fuel_log_seq start with 1 increment by 50;
+
+create table families (
+    id bigint not null auto_increment,
+    family_name varchar(255),
+    primary key (id)
+);
+
+create table users (
+    id bigint not null auto_increment,
+    family_id bigint,
+    email varchar(255) not null,
+    name varchar(255),
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id),
+    constraint uk_users_email unique (email),
+    constraint uk_users_username unique (username)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role enum ('ROLE_ADMIN','ROLE_USER')
+);
+
+create table cars (
+    id bigint not null auto_increment,
+    family_id bigint not null,
+    assigned_user_id bigint,
+    license_plate varchar(255) not null,
+    brand varchar(255),
+    model varchar(255),
+    year integer,
+    mileage integer,
+    engine varchar(255),
+    doors integer,
+    fuel_type varchar(255),
+    image_url LONGTEXT,
+    primary key (id),
+    constraint uk_cars_license_plate unique (license_plate)
+);
+
+-- ids come from fuel_log_seq so inserts can be JDBC-batched
+create table fuel_logs (
+    id bigint not null,
+    car_id bigint not null,
+    date date,
+    liters_filled decimal(38,2),
+    price_per_liter decimal(38,2),
+    odometer integer,
+    total_cost decimal(38,2),
+    primary key (id)
+);
+
+create table maintenance_records (
+    id bigint not null auto_increment,
+    car_id bigint not null,
+    type enum ('BRAKES','ENGINE','OIL_CHANGE','OTHER','TIRES'),
+    description TEXT,
+    date_performed date,
+    next_due_date date,
+    mileage_at_service integer,
+    estimated_cost decimal(38,2),
+    primary key (id)
+);
+
+create table compliance_records (
+    id bigint not null auto_increment,
+    car_id bigint not null,
+    type varchar(255),
+    expiry_date date,
+    reminder_date date,
+    notes varchar(255),
+    primary key (id)
+);
+
+-- One index per repository finder. Created before the foreign keys so those reuse them
+-- instead of getting single-column indexes of their own.
+
+-- UserRepository.findByFamilyId
+create index idx_users_family on users (family_id);
+-- User.roles element collection
+create index idx_user_roles_user on user_roles (user_id);
+-- CarRepository.findByFamilyId, family summaries (order by id), keyset pages and exports
+create index idx_cars_family on cars (family_id, id);
+-- CarRepository.findByFamilyIdAndAssignedUserIdIsNull / findUnassignedSummariesByFamilyId
+create index idx_cars_family_unassigned on cars (family_id, assigned_user_id);
+-- CarRepository.findByAssignedUserId / findSummariesByAssignedUserId
+create index idx_cars_assigned_user on cars (assigned_user_id);
+-- FuelLogRepository.findByCarId, keyset pages on (date, id) and exports
+create index idx_fuel_logs_car_date on fuel_logs (car_id, date, id);
+-- MaintenanceRecordRepository.findByCarId, keyset pages on (datePerformed, id) and exports
+create index idx_maintenance_car_performed on maintenance_records (car_id, date_performed, id);
+-- upcoming-service lookups on nextDueDate
+create index idx_maintenance_car_next_due on maintenance_records (car_id, next_due_date);
+-- ComplianceRecordRepository.findByCarId, keyset pages on (expiryDate, id) and exports
+create index idx_compliance_car_expiry on compliance_records (car_id, expiry_date, id);
+
+alter table users add constraint fk_users_family foreign key (family_id) references families (id);
+alter table user_roles add constraint fk_user_roles_user foreign key (user_id) references users (id);
+alter table cars add constraint fk_cars_family foreign key (family_id) references families (id);
+alter table cars add constraint fk_cars_assigned_user foreign key (assigned_user_id) references users (id);
+alter table fuel_logs add constraint fk_fuel_logs_car foreign key (car_id) references cars (id);
+alter table maintenance_records add constraint fk_maintenance_records_car foreign key (car_id) references cars (id);
+alter table compliance_records add constraint fk_compliance_records_car foreign key (car_id) references cars (id);
@@ -0,0 +1,23 @@
+-- Reminder engine: due dates are loaded soonest-first at startup, fired reminders go through an outbox.
+
+-- startup load of upcoming due dates, keyset on (date, id)
+create index idx_maintenance_next_due on maintenance_records (next_due_date, id);
+create index idx_compliance_reminder on compliance_records (reminder_date, id);
+
+create table reminder_outbox (
+    id bigint not null auto_increment,
+    source varchar(32) not null,
+    record_id bigint not null,
+    car_id bigint not null,
+    due_date date not null,
+    created_at datetime(6) not null,
+    delivered_at datetime(6),
+    attempts integer not null,
+    last_error varchar(500),
+    primary key (id),
+    -- one reminder per record and due date, however many nodes fire it
+    constraint uk_reminder_outbox_record unique (source, record_id, due_date)
+);
+
+-- undelivered rows, oldest first
+create index idx_reminder_outbox_pending on reminder_outbox (delivered_at, id);
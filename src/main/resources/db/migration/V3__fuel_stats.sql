@@ -0,0 +1,25 @@
+-- Running fuel aggregates per car, kept current by FuelLogService and the bulk import (FuelEconomyService).
+-- Rows are created on a car's first fuel log write or economy read, from a recompute over its logs.
+
+create table fuel_stats (
+    car_id bigint not null,
+    fills integer not null,
+    total_liters decimal(38,2) not null,
+    total_cost decimal(38,2) not null,
+    -- fills with an odometer reading; economy is measured from the lowest reading to the highest
+    odometer_fills integer not null,
+    odometer_liters decimal(38,2) not null,
+    odometer_cost decimal(38,2) not null,
+    -- the fill at the lowest reading (lowest id on ties); its fuel was burnt before tracking started
+    first_log_id bigint,
+    first_odometer integer,
+    first_liters decimal(38,2),
+    first_cost decimal(38,2),
+    last_odometer integer,
+    primary key (car_id)
+);
+
+alter table fuel_stats add constraint fk_fuel_stats_car foreign key (car_id) references cars (id) on delete cascade;
+
+-- economy series and recomputes walk a car's fills in odometer order
+create index idx_fuel_logs_car_odometer on fuel_logs (car_id, odometer, id);
@@ -0,0 +1,18 @@
+-- Monthly spend per car and category, kept current by the fuel log and maintenance services (SpendRollupService).
+-- The family dashboard reads only these rows; SpendRollupRebuild fills the table from the raw records.
+
+create table spend_rollups (
+    family_id bigint not null,
+    -- first day of the month
+    month_start date not null,
+    car_id bigint not null,
+    category varchar(16) not null,
+    amount decimal(38,2) not null,
+    -- records with a cost that make up the amount; a row is deleted when this reaches 0
+    entries integer not null,
+    -- family first: a dashboard date range is one range of the primary key
+    primary key (family_id, month_start, car_id, category)
+);
+
+alter table spend_rollups add constraint fk_spend_rollups_family foreign key (family_id) references families (id) on delete cascade;
+alter table spend_rollups add constraint fk_spend_rollups_car foreign key (car_id) references cars (id) on delete cascade;
@@ -0,0 +1,15 @@
+-- Daily km rate per car, fitted to its recent odometer readings by MileageForecastService.
+-- Refreshed by a nightly batch over all cars and after each write that adds or changes a reading.
+
+create table mileage_rates (
+    car_id bigint not null,
+    km_per_day decimal(10,3) not null,
+    -- the fitted odometer at the latest reading; projections start from here
+    anchor_date date not null,
+    anchor_odometer integer not null,
+    readings integer not null,
+    computed_at datetime(6) not null,
+    primary key (car_id)
+);
+
+alter table mileage_rates add constraint fk_mileage_rates_car foreign key (car_id) references cars (id) on delete cascade;
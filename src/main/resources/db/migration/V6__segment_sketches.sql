@@ -0,0 +1,18 @@
+-- Fleet benchmarks: one t-digest per brand/model/fuel type segment and metric, over the fills of every family's
+-- cars in the segment. FleetBenchmarkService adds new fills in memory and merges them into these rows periodically.
+
+create table segment_sketches (
+    -- trimmed and lower-cased; fuel_type is '' for cars without one
+    brand varchar(100) not null,
+    model varchar(100) not null,
+    fuel_type varchar(32) not null,
+    -- PRICE (per liter) or ECONOMY (L/100km)
+    metric varchar(16) not null,
+    samples bigint not null,
+    -- serialized MergingDigest (small encoding)
+    sketch varbinary(16384) not null,
+    updated_at datetime(6) not null,
+    primary key (brand, model, fuel_type, metric)
+);
+
+create index idx_segment_sketches_updated_at on segment_sketches (updated_at);
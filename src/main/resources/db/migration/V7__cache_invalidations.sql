@@ -0,0 +1,16 @@
+-- Change feed for in-process caches across nodes: a write inserts one row per cache entry it makes stale, in its
+-- own transaction, and every node polls for rows past the last id it has seen and drops those entries.
+
+create table cache_invalidations (
+    id bigint not null auto_increment,
+    -- the node that wrote the row and has already evicted locally
+    node varchar(36) not null,
+    -- which cache (familyReads, principals, entities) and which entry in it
+    topic varchar(32) not null,
+    item_key varchar(200) not null,
+    created_at datetime(6) not null,
+    primary key (id)
+);
+
+-- pruning of rows every node has read
+create index idx_cache_invalidations_created_at on cache_invalidations (created_at);
@@ -0,0 +1,211 @@
+package org.example.carpulse_v1.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.repositories.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AlertControllerTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Autowired
+    private ComplianceRecordRepository complianceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate today = LocalDate.now();
+    private Family family;
+    private User driver;
+    private Car assigned;
+    private Car spare;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQ.incrementAndGet();
+        family = new Family();
+        family.setFamilyName("Alert family " + n);
+        family = familyRepository.save(family);
+
+        driver = new User();
+        driver.setUsername("alert-driver-" + n);
+        driver.setEmail("alert-driver-" + n + "@example.com");
+        driver.setPassword("password");
+        driver.setRoles(List.of(Role.ROLE_USER));
+        driver.setFamily(family);
+        driver = userRepository.save(driver);
+
+        assigned = car("ALR-" + n + "-A", driver);
+        spare = car("ALR-" + n + "-S", null);
+
+        // superseded: a newer oil change was done since
+        maintenance(assigned, MaintenanceRecord.Type.OIL_CHANGE, today.minusDays(400), today.minusDays(20));
+        maintenance(assigned, MaintenanceRecord.Type.OIL_CHANGE, today.minusDays(10), today.plusDays(20));
+        maintenance(assigned, MaintenanceRecord.Type.BRAKES, today.minusDays(200), today.minusDays(3));
+        // beyond the default 30 day horizon
+        maintenance(assigned, MaintenanceRecord.Type.TIRES, today.minusDays(30), today.plusDays(90));
+        // overdue for longer than the lookback
+        maintenance(spare, MaintenanceRecord.Type.ENGINE, today.minusDays(900), today.minusDays(800));
+        maintenance(spare, MaintenanceRecord.Type.OTHER, today.minusDays(5), today.plusDays(2));
+        // reminder date already passed, so due soon although the expiry is weeks away
+        compliance(spare, "RCA", today.plusDays(25), today.minusDays(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void familyAlertsAreSortedBySeverityThenDueDate() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "OTHER", "RCA", "OIL_CHANGE")))
+                .andExpect(jsonPath("$[*].severity", contains("OVERDUE", "DUE_SOON", "DUE_SOON", "UPCOMING")))
+                .andExpect(jsonPath("$[0].daysUntilDue").value(-3))
+                .andExpect(jsonPath("$[0].car.licensePlate").value(assigned.getLicensePlate()))
+                .andExpect(jsonPath("$[2].source").value("COMPLIANCE"));
+
+        // the alert rows and the car summaries; existsById comes from the query cache or adds one more
+        assertEquals(true, statistics.getPrepareStatementCount() <= 3,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void aPassedReminderDateShowsTheItemBeyondTheHorizon() throws Exception {
+        compliance(spare, "ITP", today.plusDays(45), today.minusDays(2));
+
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "OTHER", "RCA", "ITP", "OIL_CHANGE")))
+                .andExpect(jsonPath("$[3].severity").value("DUE_SOON"))
+                .andExpect(jsonPath("$[3].daysUntilDue").value(45));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void ofTwoServicesOnTheSameDayTheLaterEntryCounts() throws Exception {
+        maintenance(spare, MaintenanceRecord.Type.TIRES, today.minusDays(1), today.plusDays(10));
+        maintenance(spare, MaintenanceRecord.Type.TIRES, today.minusDays(1), today.plusDays(12));
+
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "OTHER", "RCA", "TIRES", "OIL_CHANGE")))
+                .andExpect(jsonPath("$[3].daysUntilDue").value(12));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void aServiceWithoutADateIsSupersededByADatedOne() throws Exception {
+        maintenance(spare, MaintenanceRecord.Type.TIRES, null, today.plusDays(5));
+        maintenance(spare, MaintenanceRecord.Type.TIRES, today.minusDays(1), today.plusDays(12));
+
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "OTHER", "RCA", "TIRES", "OIL_CHANGE")))
+                .andExpect(jsonPath("$[3].daysUntilDue").value(12));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void aReminderWithoutAnExpiryShowsUntilRenewed() throws Exception {
+        compliance(spare, "ITP", null, today.minusDays(2));
+
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "ITP", "OTHER", "RCA", "OIL_CHANGE")))
+                .andExpect(jsonPath("$[1].severity").value("DUE_SOON"))
+                .andExpect(jsonPath("$[1].dueDate").value(today.minusDays(2).toString()));
+
+        compliance(spare, "ITP", today.plusDays(300), null);
+
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "OTHER", "RCA", "OIL_CHANGE")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void userAlertsOnlyCoverAssignedCarsAndHonourTheHorizon() throws Exception {
+        mockMvc.perform(get("/admin/users/" + driver.getId() + "/alerts").param("days", "120"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].type", contains("BRAKES", "OIL_CHANGE", "TIRES")))
+                .andExpect(jsonPath("$[2].severity").value("UPCOMING"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void rejectsHorizonOutsideTheAllowedRange() throws Exception {
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts").param("days", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/alerts").param("days", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Car car(String plate, User user) {
+        Car car = new Car();
+        car.setFamily(family);
+        car.setAssignedUser(user);
+        car.setLicensePlate(plate);
+        car.setBrand("Dacia");
+        car.setModel("Logan");
+        return carRepository.save(car);
+    }
+
+    private void maintenance(Car car, MaintenanceRecord.Type type, LocalDate performed, LocalDate nextDue) {
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setCar(car);
+        rec.setType(type);
+        rec.setDatePerformed(performed);
+        rec.setNextDueDate(nextDue);
+        maintenanceRepository.save(rec);
+    }
+
+    private void compliance(Car car, String type, LocalDate expiry, LocalDate reminder) {
+        ComplianceRecord rec = new ComplianceRecord();
+        rec.setCar(car);
+        rec.setType(type);
+        rec.setExpiryDate(expiry);
+        rec.setReminderDate(reminder);
+        complianceRepository.save(rec);
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.carpulse_v1.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Time to first render of the home page for a scripted client, with and without GET /admin/bootstrap.
+ *
+ * Without it the client logs in, loads its profile and then, in parallel like the pages do, the cars, the
+ * family members and the alerts. With it the client logs in and makes one request; a returning client sends
+ * the version it holds and gets 304. Every request pays a simulated round trip of -Drtt milliseconds.
+ * Run with: mvn test -Dtest=BootstrapBenchmarkTest -Dbenchmark=true [-Drtt=50]
+ */
+@SpringBootTest(properties = "spring.jpa.open-in-view=true")  // the car list still serializes lazy collections
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BootstrapBenchmarkTest {
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+    private static final String LOGIN = "{\"username\":\"dad\",\"password\":\"123\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final long rtt = Long.getLong("rtt", 50);
+    private final ExecutorService browser = Executors.newFixedThreadPool(6);
+
+    @Test
+    void separateRequestsVersusBootstrap() throws Exception {
+        // "dad" / "123" is seeded by DataLoader
+        User dad = userRepository.findByUsername("dad");
+        Long familyId = dad.getFamily().getId();
+        List<String> pageReads = List.of(
+                "/admin/families/" + familyId + "/cars",
+                "/admin/families/" + familyId + "/users",
+                "/admin/families/" + familyId + "/alerts");
+
+        long[] separate = run(() -> {
+            String bearer = login();
+            request(get("/admin/profile"), bearer);
+            CompletableFuture.allOf(pageReads.stream()
+                    .map(url -> CompletableFuture.runAsync(() -> request(get(url), bearer), browser))
+                    .toArray(CompletableFuture[]::new)).join();
+        });
+        long[] bootstrap = run(() -> request(get("/admin/bootstrap"), login()));
+        String bearer = login();
+        String etag = request(get("/admin/bootstrap"), bearer).getHeader(HttpHeaders.ETAG);
+        long[] revalidated = run(() -> request(get("/admin/bootstrap").header(HttpHeaders.IF_NONE_MATCH, etag),
+                login()));
+        browser.shutdown();
+
+        System.out.printf("time to first render, rtt %d ms  separate: %s  bootstrap: %s  bootstrap 304: %s%n",
+                rtt, percentiles(separate), percentiles(bootstrap), percentiles(revalidated));
+    }
+
+    private long[] run(Runnable session) {
+        for (int i = 0; i < WARMUP; i++) {
+            session.run();
+        }
+        long[] millis = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            session.run();
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        return millis;
+    }
+
+    private String login() {
+        try {
+            String body = request(post("/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN), null)
+                    .getContentAsString();
+            return "Bearer " + objectMapper.readTree(body).get("accessToken").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse request(MockHttpServletRequestBuilder request, String authorization) {
+        try {
+            Thread.sleep(rtt);
+            if (authorization != null) {
+                request.header(HttpHeaders.AUTHORIZATION, authorization);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+            if (response.getStatus() >= 400) {
+                throw new IllegalStateException("HTTP " + response.getStatus());
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String percentiles(long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return String.format("p50 %d ms, p90 %d ms", sorted[sorted.length / 2], sorted[sorted.length * 9 / 10]);
+    }
+}
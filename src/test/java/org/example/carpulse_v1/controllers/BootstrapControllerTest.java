@@ -0,0 +1,160 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.repositories.*;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.example.carpulse_v1.services.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BootstrapControllerTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Autowired
+    private CarService carService;
+
+    private final LocalDate today = LocalDate.now();
+    private Family family;
+    private User parent;
+    private User driver;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQ.incrementAndGet();
+        family = new Family();
+        family.setFamilyName("Bootstrap family " + n);
+        family = familyRepository.save(family);
+
+        parent = member("boot-parent-" + n, Role.ROLE_ADMIN);
+        driver = member("boot-driver-" + n, Role.ROLE_USER);
+
+        Car assigned = car("BOOT-" + n + "-A", driver);
+        Car spare = car("BOOT-" + n + "-S", null);
+        maintenance(assigned, MaintenanceRecord.Type.BRAKES, today.minusDays(3));
+        maintenance(assigned, MaintenanceRecord.Type.OIL_CHANGE, today.plusDays(20));
+        maintenance(spare, MaintenanceRecord.Type.OTHER, today.plusDays(2));
+    }
+
+    @Test
+    void adminSeesTheFamilyAndDriverTheirOwnCars() throws Exception {
+        mockMvc.perform(bootstrap(parent))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.profile.username").value(parent.getUsername()))
+                .andExpect(jsonPath("$.profile.familyId").value(family.getId()))
+                .andExpect(jsonPath("$.profile.role").value("ROLE_ADMIN"))
+                .andExpect(jsonPath("$.members[*].username",
+                        containsInAnyOrder(parent.getUsername(), driver.getUsername())))
+                .andExpect(jsonPath("$.cars", hasSize(2)))
+                .andExpect(jsonPath("$.alerts.overdue").value(1))
+                .andExpect(jsonPath("$.alerts.dueSoon").value(1))
+                .andExpect(jsonPath("$.alerts.upcoming").value(1));
+
+        mockMvc.perform(bootstrap(driver))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.profile.role").value("ROLE_USER"))
+                .andExpect(jsonPath("$.members", hasSize(2)))
+                .andExpect(jsonPath("$.cars", hasSize(1)))
+                .andExpect(jsonPath("$.alerts.overdue").value(1))
+                .andExpect(jsonPath("$.alerts.dueSoon").value(0))
+                .andExpect(jsonPath("$.alerts.upcoming").value(1));
+    }
+
+    @Test
+    void unchangedVersionIsNotModified() throws Exception {
+        String etag = mockMvc.perform(bootstrap(parent))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"[0-9a-f]{32}\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(bootstrap(parent))
+                .andExpect(jsonPath("$.version").value(etag.substring(1, etag.length() - 1)));
+
+        mockMvc.perform(bootstrap(parent)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // through the service, which evicts the cached family car list
+        Car added = new Car();
+        added.setLicensePlate("BOOT-" + SEQ.incrementAndGet() + "-N");
+        carService.create(family.getId(), added);
+
+        String changed = mockMvc.perform(bootstrap(parent)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars", hasSize(3)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    private MockHttpServletRequestBuilder bootstrap(User as) {
+        return get("/admin/bootstrap").with(user(AuthenticatedUser.from(as)));
+    }
+
+    private User member(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setRoles(List.of(role));
+        user.setFamily(family);
+        return userRepository.save(user);
+    }
+
+    private Car car(String plate, User user) {
+        Car car = new Car();
+        car.setFamily(family);
+        car.setAssignedUser(user);
+        car.setLicensePlate(plate);
+        car.setBrand("Skoda");
+        car.setModel("Fabia");
+        return carRepository.save(car);
+    }
+
+    private void maintenance(Car car, MaintenanceRecord.Type type, LocalDate nextDue) {
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setCar(car);
+        rec.setType(type);
+        rec.setDatePerformed(today.minusDays(30));
+        rec.setNextDueDate(nextDue);
+        maintenanceRepository.save(rec);
+    }
+}
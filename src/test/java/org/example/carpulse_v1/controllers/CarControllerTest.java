@@ -4,8 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.carpulse_v1.domain.Car;
 import org.example.carpulse_v1.domain.Family;
 import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.dto.CarSummary;
 import org.example.carpulse_v1.exception.ResourceNotFoundException;
 import org.example.carpulse_v1.services.CarService;
+import org.example.carpulse_v1.services.ImageStore;
+import org.example.carpulse_v1.services.ThumbnailService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +45,12 @@ public class CarControllerTest {
     @MockBean
     private CarService carService;
 
+    @MockBean
+    private ImageStore imageStore;
+
+    @MockBean
+    private ThumbnailService thumbnailService;
+
     private Car testCar;
     private Family testFamily;
     private User testUser;
@@ -98,8 +107,9 @@ public class CarControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void listCarsShouldReturnCarsList() throws Exception {
-        List<Car> cars = Arrays.asList(testCar);
-        when(carService.findAllByFamily(1L)).thenReturn(cars);
+        List<CarSummary> cars = Arrays.asList(new CarSummary(1L, "ABC123", "Toyota", "Corolla", 2020, 50000,
+                "2.0L", 4, "Petrol", 1L, "testuser", "/images/abc.jpg"));
+        when(carService.findSummariesByFamily(1L)).thenReturn(cars);
 
         mockMvc.perform(get("/admin/families/1/cars")
                 .with(csrf())
@@ -107,7 +117,9 @@ public class CarControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].brand", is("Toyota")))
-                .andExpect(jsonPath("$[0].model", is("Corolla")));
+                .andExpect(jsonPath("$[0].model", is("Corolla")))
+                .andExpect(jsonPath("$[0].assignedUser.username", is("testuser")))
+                .andExpect(jsonPath("$[0].thumbnailUrl", is("/images/abc.jpg?size=small")));
     }
 
     @Test
@@ -198,8 +210,8 @@ public class CarControllerTest {
                 "test image content".getBytes()
         );
 
-        when(carService.findById(1L)).thenReturn(testCar);
-        when(carService.update(eq(1L), any(Car.class))).thenReturn(testCar);
+        when(imageStore.store(any(), eq(MediaType.IMAGE_JPEG_VALUE))).thenReturn("abc.jpg");
+        when(carService.updateImageUrl(1L, "/images/abc.jpg")).thenReturn(testCar);
 
         mockMvc.perform(MockMvcRequestBuilders.multipart("/admin/cars/1/image")
                 .file(file)
@@ -207,5 +219,7 @@ public class CarControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.brand", is("Toyota")))
                 .andExpect(jsonPath("$.model", is("Corolla")));
+
+        verify(thumbnailService).submit("abc.jpg");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,144 @@
+package org.example.carpulse_v1.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.repositories.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The car list endpoints must issue the same number of SQL statements whatever the fleet size.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class CarListQueryCountTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Autowired
+    private FuelLogRepository fuelLogRepository;
+
+    @Autowired
+    private ComplianceRecordRepository complianceRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void familyCarListUsesConstantStatementCount() throws Exception {
+        Family small = fleet(2);
+        Family large = fleet(25);
+
+        long smallCount = statementsFor("/admin/families/" + small.getId() + "/cars", 2);
+        long largeCount = statementsFor("/admin/families/" + large.getId() + "/cars", 25);
+
+        assertEquals(smallCount, largeCount);
+        assertEquals(2, largeCount); // family exists check + summary query
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void userCarListUsesConstantStatementCount() throws Exception {
+        Family small = fleet(2);
+        Family large = fleet(25);
+        Long smallUser = userRepository.findByFamilyId(small.getId()).get(0).getId();
+        Long largeUser = userRepository.findByFamilyId(large.getId()).get(0).getId();
+
+        assertEquals(statementsFor("/admin/users/" + smallUser + "/cars", 2),
+                statementsFor("/admin/users/" + largeUser + "/cars", 25));
+    }
+
+    private long statementsFor(String url, int expectedCars) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(expectedCars)));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Family fleet(int cars) {
+        int n = SEQ.incrementAndGet();
+        Family family = new Family();
+        family.setFamilyName("Query count family " + n);
+        family = familyRepository.save(family);
+
+        User driver = new User();
+        driver.setUsername("qc-driver-" + n);
+        driver.setEmail("qc-driver-" + n + "@example.com");
+        driver.setPassword("password");
+        driver.setRoles(List.of(Role.ROLE_USER));
+        driver.setFamily(family);
+        driver = userRepository.save(driver);
+
+        for (int i = 0; i < cars; i++) {
+            Car car = new Car();
+            car.setFamily(family);
+            car.setAssignedUser(driver);
+            car.setLicensePlate("QC-" + n + "-" + i);
+            car.setBrand("Brand");
+            car.setModel("Model");
+            car = carRepository.save(car);
+
+            MaintenanceRecord rec = new MaintenanceRecord();
+            rec.setCar(car);
+            rec.setType(MaintenanceRecord.Type.OIL_CHANGE);
+            rec.setDatePerformed(LocalDate.now());
+            maintenanceRepository.save(rec);
+
+            FuelLog log = new FuelLog();
+            log.setCar(car);
+            log.setDate(LocalDate.now());
+            log.setLitersFilled(BigDecimal.TEN);
+            fuelLogRepository.save(log);
+
+            ComplianceRecord compliance = new ComplianceRecord();
+            compliance.setCar(car);
+            compliance.setType("INSURANCE");
+            compliance.setExpiryDate(LocalDate.now().plusMonths(6));
+            complianceRepository.save(compliance);
+        }
+        return family;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.carpulse_v1.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.repositories.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ExportControllerTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FuelLogRepository fuelLogRepository;
+
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Autowired
+    private ComplianceRecordRepository complianceRepository;
+
+    private Family family;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQ.incrementAndGet();
+        family = new Family();
+        family.setFamilyName("Export family " + n);
+        family = familyRepository.save(family);
+
+        car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("EXP-" + n);
+        car.setBrand("Ford");
+        car.setModel("Focus, \"ST\"");
+        car = carRepository.save(car);
+
+        for (int i = 0; i < 3; i++) {
+            FuelLog log = new FuelLog();
+            log.setCar(car);
+            log.setDate(LocalDate.of(2024, 5, 1 + i));
+            log.setLitersFilled(new BigDecimal("40.00"));
+            log.setTotalCost(new BigDecimal("290.50"));
+            fuelLogRepository.save(log);
+        }
+
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setCar(car);
+        rec.setType(MaintenanceRecord.Type.OIL_CHANGE);
+        rec.setDatePerformed(LocalDate.of(2024, 4, 1));
+        maintenanceRepository.save(rec);
+
+        ComplianceRecord compliance = new ComplianceRecord();
+        compliance.setCar(car);
+        compliance.setType("ITP");
+        compliance.setExpiryDate(LocalDate.of(2025, 4, 1));
+        compliance.setNotes("line one\nline two");
+        complianceRepository.save(compliance);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportsFuelLogsAsCsv() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/families/" + family.getId() + "/export/fuel-logs")
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"family-" + family.getId() + "-fuel-logs.csv\""))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,carId,date,litersFilled,pricePerLiter,odometer,totalCost", lines[0]);
+        assertEquals(4, lines.length);
+        assertEquals(car.getId() + ",2024-05-01,40.00,,,290.50", lines[1].substring(lines[1].indexOf(',') + 1));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void quotesCsvFieldsThatNeedIt() throws Exception {
+        String cars = mockMvc.perform(get("/admin/families/" + family.getId() + "/export/cars").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(true, cars.contains(",\"Focus, \"\"ST\"\"\","));
+
+        String compliance = mockMvc.perform(get("/admin/families/" + family.getId() + "/export/compliance").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(true, compliance.contains(",\"line one\nline two\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportsEverythingAsGzippedNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/families/" + family.getId() + "/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : gunzip(result.getResponse().getContentAsByteArray()).split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertEquals(List.of("car", "maintenance", "fuelLog", "fuelLog", "fuelLog", "compliance"),
+                rows.stream().map(r -> r.get("kind").asText()).toList());
+        assertEquals("2024-05-01", rows.get(2).get("date").asText());
+        assertEquals(car.getId(), rows.get(2).get("carId").asLong());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void rejectsUnknownDatasetAndFormat() throws Exception {
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/export/passwords"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/admin/families/" + family.getId() + "/export/cars").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
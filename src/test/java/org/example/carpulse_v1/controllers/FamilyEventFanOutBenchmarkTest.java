@@ -0,0 +1,157 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.dto.FamilyEvent;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.example.carpulse_v1.security.TokenService;
+import org.example.carpulse_v1.services.FamilyEventHub;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thousands of idle event streams on one node. Subscribers are spread over 100 families and opened
+ * from plain sockets, so the client side adds next to nothing to the heap that is measured. Reports
+ * retained heap and threads per open stream, then pushes one event to every family and times how long
+ * it takes to reach all of them. Tomcat is held to 20 request threads to show that an open stream does
+ * not keep one. Nearly all of the heap per stream is Tomcat's per-connection request/response and socket
+ * buffers (about 110 KB with the defaults); the hub's own share is a subscriber object and an empty buffer.
+ * Run with: mvn test -Dtest=FamilyEventFanOutBenchmarkTest -Dbenchmark=true [-Dsubscribers=5000]
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "carpulse.events.heartbeat=PT1H",
+        "server.tomcat.threads.max=20"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FamilyEventFanOutBenchmarkTest {
+    private static final int FAMILIES = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private FamilyEventHub eventHub;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Test
+    void idleSubscribers() throws Exception {
+        int subscribers = Integer.getInteger("subscribers", 5_000);
+        List<Long> familyIds = new ArrayList<>();
+        for (int i = 0; i < FAMILIES; i++) {
+            Family family = new Family();
+            family.setFamilyName("Fan-out " + i);
+            familyIds.add(familyRepository.save(family).getId());
+        }
+        String token = tokenService.issueAccessToken(
+                new AuthenticatedUser(1L, "fan-out", null, familyIds.get(0), List.of(Role.ROLE_ADMIN)));
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int baseSubscribers = eventHub.subscriberCount();
+        // one warm-up stream so lazily created container and MVC infrastructure is not billed to the rest
+        List<Socket> sockets = new ArrayList<>();
+        sockets.add(open(familyIds.get(0), token));
+        awaitSubscribers(baseSubscribers + 1);
+        long heapBefore = usedHeap(memory);
+        int threadsBefore = Thread.activeCount();
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 1; i < subscribers; i++) {
+                sockets.add(open(familyIds.get(i % FAMILIES), token));
+            }
+            awaitSubscribers(baseSubscribers + subscribers);
+            double openSeconds = (System.nanoTime() - start) / 1e9;
+            long heapAfter = usedHeap(memory);
+            int threadsAfter = Thread.activeCount();
+
+            long perStream = (heapAfter - heapBefore) / (subscribers - 1);
+            System.out.printf("%d idle streams opened in %.1fs: %d KB heap retained in total, %.1f KB per stream, "
+                            + "%d -> %d threads%n",
+                    subscribers, openSeconds, (heapAfter - heapBefore) >> 10, perStream / 1024.0,
+                    threadsBefore, threadsAfter);
+
+            start = System.nanoTime();
+            for (Long familyId : familyIds) {
+                eventHub.publish(familyId, FamilyEvent.record(FamilyEvent.Type.FUEL_LOG_CREATED, 1L, familyId));
+            }
+            for (Socket socket : sockets) {
+                awaitText(socket, "event:FUEL_LOG_CREATED");
+            }
+            System.out.printf("one event per family reached all %d streams in %.0f ms%n",
+                    subscribers, (System.nanoTime() - start) / 1e6);
+
+            // no thread per subscriber
+            assertTrue(threadsAfter - threadsBefore < 50, "threads grew from " + threadsBefore + " to " + threadsAfter);
+            assertTrue(perStream < 160 * 1024, "per-stream heap: " + perStream);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private Socket open(Long familyId, String token) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress("localhost", port));
+        socket.setSoTimeout(10_000);
+        socket.getOutputStream().write(("GET /admin/families/" + familyId + "/events HTTP/1.1\r\n"
+                + "Host: localhost\r\nAccept: text/event-stream\r\nAuthorization: Bearer " + token + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    // headers (and chunk framing) come first; scan the raw bytes for the event
+    private static void awaitText(Socket socket, String text) throws IOException {
+        InputStream in = socket.getInputStream();
+        StringBuilder seen = new StringBuilder();
+        byte[] buf = new byte[4096];
+        while (seen.indexOf(text) < 0) {
+            int n = in.read(buf);
+            assertTrue(n > 0, "stream closed before " + text);
+            seen.append(new String(buf, 0, n, StandardCharsets.US_ASCII));
+        }
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (eventHub.subscriberCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "subscribers: " + eventHub.subscriberCount());
+            Thread.sleep(20);
+        }
+        assertEquals(count, eventHub.subscriberCount());
+    }
+
+    private static long usedHeap(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,331 @@
+package org.example.carpulse_v1.controllers;
+
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.dto.FamilyEvent;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.example.carpulse_v1.security.TokenService;
+import org.example.carpulse_v1.services.CarService;
+import org.example.carpulse_v1.services.FamilyEventHub;
+import org.example.carpulse_v1.services.FuelLogService;
+import org.example.carpulse_v1.services.MaintenanceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "carpulse.events.buffer-size=8",
+        "carpulse.events.replay-size=5",
+        "carpulse.events.heartbeat=PT0.3S",
+        "carpulse.events.replay-window=PT1S"
+})
+@ActiveProfiles("test")
+public class FamilyEventStreamTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private FamilyEventHub eventHub;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<AutoCloseable> open = new ArrayList<>();
+    private Family family;
+    private User driver;
+    private Car car;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQ.incrementAndGet();
+        family = new Family();
+        family.setFamilyName("Event family " + n);
+        family = familyRepository.save(family);
+
+        driver = new User();
+        driver.setUsername("event-driver-" + n);
+        driver.setEmail("event-driver-" + n + "@example.com");
+        driver.setPassword("password");
+        driver.setRoles(List.of(Role.ROLE_USER));
+        driver.setFamily(family);
+        driver = userRepository.save(driver);
+
+        car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("EVT-" + n);
+        car = carRepository.save(car);
+
+        token = tokenService.issueAccessToken(
+                new AuthenticatedUser(driver.getId(), driver.getUsername(), null, family.getId(), List.of(Role.ROLE_ADMIN)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable c : open) {
+            c.close();
+        }
+    }
+
+    @Test
+    void pushesAssignmentsAndNewRecordsInOrder() throws Exception {
+        EventStream stream = connect(null);
+
+        carService.assignToUser(car.getId(), driver.getId());
+        FuelLog log = fuelLogService.create(car.getId(), fuelLog());
+        MaintenanceRecord rec = maintenanceService.create(car.getId(), maintenance());
+
+        Event assigned = stream.next();
+        assertEquals("CAR_ASSIGNED", assigned.name());
+        assertTrue(assigned.data().contains("\"username\":\"" + driver.getUsername() + "\""), assigned.data());
+        Event fuel = stream.next();
+        assertEquals("FUEL_LOG_CREATED", fuel.name());
+        assertTrue(fuel.data().contains("\"recordId\":" + log.getId()), fuel.data());
+        Event maintenance = stream.next();
+        assertEquals("MAINTENANCE_CREATED", maintenance.name());
+        assertTrue(maintenance.data().contains("\"recordId\":" + rec.getId()), maintenance.data());
+    }
+
+    @Test
+    void idleStreamsGetHeartbeats() throws Exception {
+        EventStream stream = connect(null);
+        assertTrue(stream.awaitHeartbeat(), "no heartbeat on an idle stream");
+    }
+
+    @Test
+    void reconnectWithLastEventIdReplaysWhatWasMissed() throws Exception {
+        EventStream first = connect(null);
+        carService.assignToUser(car.getId(), driver.getId());
+        String lastSeen = first.next().id();
+        first.close();
+
+        FuelLog log = fuelLogService.create(car.getId(), fuelLog());
+        carService.unassignFromUser(car.getId());
+
+        EventStream resumed = connect(lastSeen);
+        Event fuel = resumed.next();
+        assertEquals("FUEL_LOG_CREATED", fuel.name());
+        assertTrue(fuel.data().contains("\"recordId\":" + log.getId()));
+        assertEquals("CAR_UNASSIGNED", resumed.next().name());
+    }
+
+    @Test
+    void unknownOrTooOldLastEventIdGetsAReset() throws Exception {
+        assertEquals("RESET", connect("from-before-a-restart-7").next().name());
+
+        EventStream first = connect(null);
+        carService.assignToUser(car.getId(), driver.getId());
+        String lastSeen = first.next().id();
+        first.close();
+        // more than the replay ring keeps
+        for (int i = 0; i < 6; i++) {
+            fuelLogService.create(car.getId(), fuelLog());
+        }
+        assertEquals("RESET", connect(lastSeen).next().name());
+    }
+
+    @Test
+    void eventsForFamiliesNobodyFollowsAreNotKept() {
+        int before = eventHub.channelCount();
+        for (int i = 0; i < 3; i++) {
+            fuelLogService.create(car.getId(), fuelLog());
+        }
+        carService.assignToUser(car.getId(), driver.getId());
+        // others' channels may expire meanwhile, none is added
+        assertTrue(eventHub.channelCount() <= before);
+    }
+
+    @Test
+    void aChannelIsDroppedOnceIdlePastTheReplayWindow() throws Exception {
+        EventStream first = connect(null);
+        carService.assignToUser(car.getId(), driver.getId());
+        String lastSeen = first.next().id();
+        first.close();
+
+        // the server notices the closed stream on the next heartbeat, then waits out the replay window
+        Thread.sleep(2500);
+        carService.unassignFromUser(car.getId());
+        assertEquals("RESET", connect(lastSeen).next().name());
+    }
+
+    @Test
+    void aSubscriberThatStopsReadingIsDisconnectedWithoutStallingOthers() throws Exception {
+        EventStream reader = connect(null);
+        int before = eventHub.subscriberCount();
+
+        // never reads; the small receive window makes the server's writes back up quickly
+        Socket stalled = new Socket();
+        open.add(stalled);
+        stalled.setReceiveBufferSize(4096);
+        stalled.connect(new java.net.InetSocketAddress("localhost", port));
+        OutputStream out = stalled.getOutputStream();
+        out.write(("GET /admin/families/" + family.getId() + "/events HTTP/1.1\r\n"
+                + "Host: localhost\r\nAccept: text/event-stream\r\nAuthorization: Bearer " + token + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        awaitSubscribers(before + 1);
+
+        CarSummary big = new CarSummary(car.getId(), car.getLicensePlate(), null, null, null, null, null, null, null,
+                (Long) null, null, "/images/" + "x".repeat(64 * 1024));
+        int sent = 0;
+        while (eventHub.subscriberCount() > before) {
+            assertTrue(sent < 1_000, "stalled subscriber was never disconnected");
+            eventHub.publish(family.getId(), FamilyEvent.carChanged(FamilyEvent.Type.CAR_ASSIGNED, big));
+            sent++;
+            // the reading subscriber keeps up event for event
+            assertEquals("CAR_ASSIGNED", reader.next().name());
+        }
+        assertEquals(before, eventHub.subscriberCount());
+
+        eventHub.publish(family.getId(), FamilyEvent.record(FamilyEvent.Type.FUEL_LOG_CREATED, car.getId(), 1L));
+        assertEquals("FUEL_LOG_CREATED", reader.next().name());
+    }
+
+    private EventStream connect(String lastEventId) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/admin/families/" + family.getId() + "/events"))
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + token);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        EventStream stream = new EventStream(response.body());
+        open.add(stream);
+        return stream;
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (eventHub.subscriberCount() != count) {
+            assertTrue(System.nanoTime() < deadline, "subscribers: " + eventHub.subscriberCount());
+            Thread.sleep(10);
+        }
+    }
+
+    private record Event(String id, String name, String data) {
+    }
+
+    // parses the text/event-stream body on its own thread; heartbeats are counted, not queued
+    private static final class EventStream implements AutoCloseable {
+        private final InputStream body;
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Boolean> heartbeats = new LinkedBlockingQueue<>();
+
+        EventStream(InputStream body) {
+            this.body = body;
+            Thread reader = new Thread(this::read, "event-stream-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        Event next() throws InterruptedException {
+            Event event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event within 5s");
+            return event;
+        }
+
+        boolean awaitHeartbeat() throws InterruptedException {
+            return heartbeats.poll(5, TimeUnit.SECONDS) != null;
+        }
+
+        private void read() {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                String id = null;
+                String name = null;
+                StringBuilder data = new StringBuilder();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        if (name != null) {
+                            events.add(new Event(id, name, data.toString()));
+                        }
+                        id = null;
+                        name = null;
+                        data.setLength(0);
+                    } else if (line.startsWith(":")) {
+                        heartbeats.add(Boolean.TRUE);
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        data.append(line.substring(5));
+                    }
+                }
+            } catch (IOException e) {
+                // closed by the test
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    private static FuelLog fuelLog() {
+        FuelLog log = new FuelLog();
+        log.setDate(LocalDate.of(2024, 6, 1));
+        log.setLitersFilled(new BigDecimal("35.00"));
+        return log;
+    }
+
+    private static MaintenanceRecord maintenance() {
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setType(MaintenanceRecord.Type.OIL_CHANGE);
+        rec.setDatePerformed(LocalDate.of(2024, 6, 1));
+        return rec;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.carpulse_v1.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.services.FuelLogImportService;
+import org.example.carpulse_v1.services.FuelLogService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class FuelChartControllerTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long carId;
+
+    @BeforeEach
+    void setUp() {
+        Family family = new Family();
+        family.setFamilyName("Chart family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("CHART-" + SEQ.incrementAndGet());
+        carId = carRepository.save(car).getId();
+
+        fuelLogService.create(carId, log(LocalDate.of(2024, 1, 5), 10_000, "40.00", "7.10"));
+        fuelLogService.create(carId, log(LocalDate.of(2024, 1, 20), 10_600, "38.50", "7.30"));
+        fuelLogService.create(carId, log(LocalDate.of(2024, 3, 2), null, "20.00", null));
+        fuelLogService.create(carId, log(LocalDate.of(2024, 3, 28), 11_500, "41.00", "6.90"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void priceStatsCoverFillsInRange() throws Exception {
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fills").value(3))
+                .andExpect(jsonPath("$.minPricePerLiter").value(6.90))
+                .andExpect(jsonPath("$.maxPricePerLiter").value(7.30))
+                .andExpect(jsonPath("$.avgPricePerLiter").value(7.1));
+
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/price").param("from", "2024-01-06").param("to", "2024-03-27"))
+                .andExpect(jsonPath("$.fills").value(1))
+                .andExpect(jsonPath("$.minPricePerLiter").value(7.30));
+
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/price").param("from", "2024-03-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void monthlySeriesIncludesEmptyMonths() throws Exception {
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/monthly"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].month", contains("2024-01", "2024-02", "2024-03")))
+                .andExpect(jsonPath("$[*].fills", contains(2, 0, 2)))
+                .andExpect(jsonPath("$[0].liters").value(78.50))
+                .andExpect(jsonPath("$[1].liters").value(0))
+                .andExpect(jsonPath("$[2].liters").value(61.00));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void writesAreVisibleWithoutReloadingTheCar() throws Exception {
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/odometer"))
+                .andExpect(jsonPath("$[*].odometer", contains(10_000, 10_600, 11_500)));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        FuelLog added = fuelLogService.create(carId, log(LocalDate.of(2024, 2, 10), 11_000, "30.00", "7.00"));
+        fuelLogService.update(added.getId(), log(LocalDate.of(2024, 2, 11), 11_100, "30.00", "7.00"));
+        statistics.clear();
+
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/odometer"))
+                .andExpect(jsonPath("$[*].odometer", contains(10_000, 10_600, 11_100, 11_500)))
+                .andExpect(jsonPath("$[2].date").value("2024-02-11"));
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/odometer").param("points", "2"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].odometer").value(11_500));
+        // the car check comes from the query cache and the columns are already in memory
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        fuelLogService.delete(added.getId());
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/odometer"))
+                .andExpect(jsonPath("$[*].odometer", contains(10_000, 10_600, 11_500)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importedLogsAreLoadedOnTheNextRead() throws Exception {
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/monthly"))
+                .andExpect(jsonPath("$", hasSize(3)));
+        String csv = """
+                date,litersFilled,pricePerLiter,odometer
+                2024-04-15,35,7.50,12000
+                """;
+        importService.importForCar(carId, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                FuelLogImportService.Format.CSV);
+
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/monthly"))
+                .andExpect(jsonPath("$[*].month", contains("2024-01", "2024-02", "2024-03", "2024-04")));
+        mockMvc.perform(get("/admin/cars/" + carId + "/fuel-charts/price"))
+                .andExpect(jsonPath("$.maxPricePerLiter").value(7.50));
+    }
+
+    private static FuelLog log(LocalDate date, Integer odometer, String liters, String price) {
+        FuelLog log = new FuelLog();
+        log.setDate(date);
+        log.setOdometer(odometer);
+        log.setLitersFilled(new BigDecimal(liters));
+        if (price != null) {
+            log.setPricePerLiter(new BigDecimal(price));
+            log.setTotalCost(log.getLitersFilled().multiply(log.getPricePerLiter()));
+        }
+        return log;
+    }
+}
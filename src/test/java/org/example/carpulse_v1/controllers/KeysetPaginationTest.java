@@ -0,0 +1,151 @@
+package org.example.carpulse_v1.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walking every page must visit each row exactly once, in (date, id) order, with ties and null dates.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class KeysetPaginationTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FuelLogRepository fuelLogRepository;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void fuelLogPagesCoverEveryRowNewestFirst() throws Exception {
+        Car car = car(newFamily());
+        List<FuelLog> logs = new ArrayList<>();
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 23; i++) {
+            FuelLog log = new FuelLog();
+            log.setCar(car);
+            // every date appears three times and two rows have no date
+            log.setDate(i < 2 ? null : base.plusDays(i / 3));
+            logs.add(fuelLogRepository.save(log));
+        }
+
+        Comparator<FuelLog> order = Comparator
+                .comparing(FuelLog::getDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+                .thenComparing(FuelLog::getId);
+        List<Long> expectedDesc = logs.stream().sorted(order.reversed()).map(FuelLog::getId).toList();
+        List<Long> expectedAsc = logs.stream().sorted(order).map(FuelLog::getId).toList();
+
+        String url = "/admin/cars/" + car.getId() + "/fuel-logs";
+        assertEquals(expectedDesc, walk(url, 5, null));
+        assertEquals(expectedAsc, walk(url, 4, "asc"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void carPagesFollowIdOrder() throws Exception {
+        Family family = newFamily();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(car(family).getId());
+        }
+
+        String url = "/admin/families/" + family.getId() + "/cars";
+        assertEquals(ids, walk(url, 3, null));
+        List<Long> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+        assertEquals(reversed, walk(url, 3, "desc"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void listWithoutLimitKeepsArrayShape() throws Exception {
+        Car car = car(newFamily());
+        mockMvc.perform(get("/admin/cars/" + car.getId() + "/fuel-logs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void rejectsTamperedCursor() throws Exception {
+        Car car = car(newFamily());
+        mockMvc.perform(get("/admin/cars/" + car.getId() + "/fuel-logs")
+                        .param("limit", "5")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> walk(String url, int limit, String sort) throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get(url).param("limit", String.valueOf(limit));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            if (sort != null) {
+                request.param("sort", sort);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private Family newFamily() {
+        Family family = new Family();
+        family.setFamilyName("Paging family " + SEQ.incrementAndGet());
+        return familyRepository.save(family);
+    }
+
+    private Car car(Family family) {
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("PG-" + SEQ.incrementAndGet());
+        car.setBrand("Brand");
+        car.setModel("Model");
+        return carRepository.save(car);
+    }
+}
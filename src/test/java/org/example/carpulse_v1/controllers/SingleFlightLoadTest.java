@@ -0,0 +1,183 @@
+package org.example.carpulse_v1.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.repositories.*;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.example.carpulse_v1.services.CarService;
+import org.example.carpulse_v1.services.FamilyReadCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * SQL statements behind a burst of identical GET /admin/families/{id}/cars and GET /admin/profile requests, as
+ * when a family opens the app on several devices at once, against the same number of plain repository reads.
+ * Caches are cleared before each burst, so every burst starts from a miss; each statement takes -Ddb-latency
+ * milliseconds, so the requests of a burst overlap.
+ * Run with: mvn test -Dtest=SingleFlightLoadTest -Dbenchmark=true [-Ddb-latency=20]
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.example.carpulse_v1.controllers.SingleFlightLoadTest$SlowStatements")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SingleFlightLoadTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+    private static final int[] CONCURRENCY = {1, 4, 16, 64};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private FamilyReadCache readCache;
+
+    @Test
+    void statementCountStaysFlatAsIdenticalRequestsRise() throws Exception {
+        int n = SEQ.incrementAndGet();
+        Family family = new Family();
+        family.setFamilyName("Burst family " + n);
+        family = familyRepository.save(family);
+        User parent = new User();
+        parent.setUsername("burst-parent-" + n);
+        parent.setEmail("burst-parent-" + n + "@example.com");
+        parent.setPassword("password");
+        parent.setRoles(List.of(Role.ROLE_ADMIN));
+        parent.setFamily(family);
+        parent = userRepository.save(parent);
+        for (int i = 0; i < 10; i++) {
+            Car car = new Car();
+            car.setLicensePlate("BURST-" + n + "-" + i);
+            car.setBrand("Toyota");
+            car.setModel("Yaris");
+            carService.create(family.getId(), car);
+        }
+        AuthenticatedUser principal = AuthenticatedUser.from(parent);
+        Long familyId = family.getId();
+        String username = parent.getUsername();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ExecutorService devices = Executors.newFixedThreadPool(CONCURRENCY[CONCURRENCY.length - 1]);
+        long[] coalesced = new long[CONCURRENCY.length];
+        long[] plain = new long[CONCURRENCY.length];
+        try {
+            for (int i = 0; i < CONCURRENCY.length; i++) {
+                int burst = CONCURRENCY[i];
+                clearCaches(familyId);
+                statistics.clear();
+                long start = System.nanoTime();
+                run(devices, burst, () -> {
+                    perform(get("/admin/families/" + familyId + "/cars").with(user(principal)));
+                    perform(get("/admin/profile").with(user(principal)));
+                });
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                coalesced[i] = statistics.getPrepareStatementCount();
+
+                clearCaches(familyId);
+                statistics.clear();
+                run(devices, burst, () -> {
+                    carRepository.findSummariesByFamilyId(familyId);
+                    userRepository.findByUsername(username);
+                });
+                plain[i] = statistics.getPrepareStatementCount();
+
+                System.out.printf("%3d identical requests: %3d statements in %4d ms (uncoalesced reads: %3d)%n",
+                        burst, coalesced[i], millis, plain[i]);
+            }
+        } finally {
+            devices.shutdownNow();
+        }
+
+        for (int i = 1; i < CONCURRENCY.length; i++) {
+            // a request can miss the running load by a hair and start the next one
+            assertTrue(coalesced[i] <= 2 * coalesced[0],
+                    CONCURRENCY[i] + " requests took " + coalesced[i] + " statements, one took " + coalesced[0]);
+            assertTrue(plain[i] > plain[0]);
+        }
+    }
+
+    private void clearCaches(Long familyId) {
+        readCache.evict(FamilyReadCache.Scope.FAMILY_CARS, familyId);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private static void run(ExecutorService devices, int burst, Runnable device) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int i = 0; i < burst; i++) {
+            done.add(devices.submit(() -> {
+                start.await();
+                device.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private void perform(RequestBuilder request) {
+        try {
+            int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+            if (status >= 400) {
+                throw new IllegalStateException("HTTP " + status);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Every statement waits -Ddb-latency milliseconds before it is prepared, standing in for a remote database.
+     */
+    public static class SlowStatements implements StatementInspector {
+        private final long latency = Long.getLong("db-latency", 20);
+
+        @Override
+        public String inspect(String sql) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.carpulse_v1.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Captures EXPLAIN plans for the SQL behind each repository finder and checks that the matching
+ * index from the Flyway migrations is picked. Runs on H2 by default. H2 gives every foreign key its
+ * own single-column index (InnoDB reuses the composite one instead), so where a query only constrains
+ * the foreign key column that index is accepted too. To check MariaDB, point the
+ * test at it with -Dspring.datasource.url=jdbc:mariadb://... -Dspring.datasource.driver-class-name=org.mariadb.jdbc.Driver
+ * -Dspring.jpa.database=mysql -Dspring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MariaDBDialect
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class IndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void carFindersUseFamilyAndAssignedUserIndexes() {
+        assertUsesIndex("select * from cars where family_id = 1 order by id", "idx_cars_family", "fk_cars_family");
+        assertUsesIndex("select * from cars where family_id = 1 and id > 10 order by id limit 21", "idx_cars_family");
+        assertUsesIndex("select * from cars where family_id = 1 and assigned_user_id is null", "idx_cars_family_unassigned");
+        assertUsesIndex("select * from cars where assigned_user_id = 1", "idx_cars_assigned_user");
+    }
+
+    @Test
+    void userFindersUseFamilyAndUniqueIndexes() {
+        assertUsesIndex("select * from users where family_id = 1", "idx_users_family");
+        assertUsesIndex("select * from users where username = 'dad'", "uk_users_username");
+        assertUsesIndex("select * from users where email = 'dad@example.com'", "uk_users_email");
+        assertUsesIndex("select role from user_roles where user_id = 1", "idx_user_roles_user");
+    }
+
+    @Test
+    void childListsAndKeysetPagesUseCarDateIndexes() {
+        assertUsesIndex("select * from fuel_logs where car_id = 1", "idx_fuel_logs_car_date", "fk_fuel_logs_car");
+        assertUsesIndex("select * from fuel_logs where car_id = 1 and (date < '2024-01-01' or (date = '2024-01-01' and id < 100))"
+                + " order by date desc, id desc limit 21", "idx_fuel_logs_car_date", "fk_fuel_logs_car");
+        assertUsesIndex("select * from maintenance_records where car_id = 1",
+                "idx_maintenance_car_performed", "fk_maintenance_records_car");
+        assertUsesIndex("select * from maintenance_records where car_id = 1 and date_performed < '2024-01-01'"
+                + " order by date_performed desc, id desc limit 21", "idx_maintenance_car_performed");
+        assertUsesIndex("select * from maintenance_records where car_id = 1 and next_due_date <= '2024-01-01'",
+                "idx_maintenance_car_next_due");
+        assertUsesIndex("select * from compliance_records where car_id = 1",
+                "idx_compliance_car_expiry", "fk_compliance_records_car");
+        assertUsesIndex("select * from compliance_records where car_id = 1 and expiry_date > '2024-01-01'"
+                + " order by expiry_date, id limit 21", "idx_compliance_car_expiry");
+    }
+
+    @Test
+    void fuelEconomyReadingsUseCarOdometerIndex() {
+        assertUsesIndex("select id, odometer, liters_filled, total_cost from fuel_logs where car_id = 1"
+                + " and odometer is not null order by odometer, id limit 1", "idx_fuel_logs_car_odometer", "fk_fuel_logs_car");
+        assertUsesIndex("select date, odometer, liters_filled from fuel_logs where car_id = 1"
+                + " and odometer is not null order by odometer desc, id desc limit 25", "idx_fuel_logs_car_odometer", "fk_fuel_logs_car");
+    }
+
+    @Test
+    void mileageForecastReadingsUseCarDateIndexes() {
+        assertUsesIndex("select date, odometer from fuel_logs where car_id = 1 and date >= '2024-01-01'"
+                + " and odometer is not null order by date desc, id desc limit 100", "idx_fuel_logs_car_date", "fk_fuel_logs_car");
+        assertUsesIndex("select date_performed, mileage_at_service from maintenance_records where car_id = 1"
+                + " and date_performed >= '2024-01-01' and mileage_at_service is not null"
+                + " order by date_performed desc, id desc limit 100", "idx_maintenance_car_performed", "fk_maintenance_records_car");
+        assertUsesIndex("select id from cars where id > 500 order by id limit 500", "primary");
+    }
+
+    @Test
+    void spendDashboardReadsOnePrimaryKeyRange() {
+        // MariaDB names the primary key index "primary", H2 "primary_key_..."
+        assertUsesIndex("select month_start, car_id, category, amount from spend_rollups where family_id = 1"
+                + " and month_start between '2024-01-01' and '2024-12-01'", "primary", "fk_spend_rollups_family");
+    }
+
+    @Test
+    void familyExportsJoinThroughIndexes() {
+        String plan = assertUsesIndex("select l.* from fuel_logs l join cars c on c.id = l.car_id where c.family_id = 1"
+                + " order by c.id, l.date, l.id", "idx_cars_family", "fk_cars_family");
+        assertTrue(plan.contains("idx_fuel_logs_car_date") || plan.contains("fk_fuel_logs_car"), plan);
+        assertFalse(plan.contains("tablescan"), plan);
+    }
+
+    @Test
+    void alertWindowsUseDueDateIndexes() {
+        assertUsesIndex("select m.id from maintenance_records m join cars c on c.id = m.car_id where c.family_id = 1"
+                + " and m.next_due_date between '2024-01-01' and '2024-03-01'", "idx_maintenance_car_next_due");
+        assertUsesIndex("select r.id from compliance_records r join cars c on c.id = r.car_id where c.assigned_user_id = 1"
+                + " and r.expiry_date between '2024-01-01' and '2024-03-01'", "idx_compliance_car_expiry");
+    }
+
+    private String assertUsesIndex(String sql, String... indexes) {
+        // H2 returns the plan as one text row, MariaDB as a table with a "key" column; flatten either
+        String plan = jdbcTemplate.queryForList("explain " + sql).stream()
+                .map(Map::values)
+                .map(values -> values.stream().map(String::valueOf).collect(Collectors.joining(" ")))
+                .collect(Collectors.joining("\n"))
+                .toLowerCase(Locale.ROOT);
+        assertTrue(Arrays.stream(indexes).anyMatch(plan::contains),
+                "expected one of " + Arrays.toString(indexes) + " in plan for: " + sql + "\n" + plan);
+        return plan;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.carpulse_v1.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * What the first start of a Flyway build meets: a database the old ddl-auto=create left behind is refused
+ * until it is dropped (README, Upgrading), an empty one gets every migration. Each case has its own
+ * in-memory database, configured the way application.properties configures Flyway.
+ */
+public class SchemaUpgradeTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Test
+    void aSchemaCreatedByHibernateIsRefused() throws Exception {
+        String url = database();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table cars (id bigint primary key, license_plate varchar(255))");
+        }
+
+        FlywayException e = assertThrows(FlywayException.class, () -> flyway(url).migrate());
+        assertTrue(e.getMessage().contains("non-empty schema"), e.getMessage());
+    }
+
+    @Test
+    void anEmptySchemaGetsEveryMigration() {
+        String url = database();
+
+        assertTrue(flyway(url).migrate().migrationsExecuted > 0);
+        assertEquals(0, flyway(url).info().pending().length);
+    }
+
+    private static String database() {
+        return "jdbc:h2:mem:upgrade" + SEQ.incrementAndGet() + ";DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=YEAR";
+    }
+
+    private static Flyway flyway(String url) {
+        return Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(false)
+                .load();
+    }
+}
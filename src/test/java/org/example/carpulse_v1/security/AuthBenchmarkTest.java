@@ -0,0 +1,79 @@
+package org.example.carpulse_v1.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares throughput of HTTP Basic and bearer token auth on GET /admin/families/{id}/cars.
+ * Run with: mvn test -Dtest=AuthBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest(properties = {
+        "carpulse.security.basic-auth.enabled=true",
+        "spring.jpa.open-in-view=true"  // the car list still serializes lazy collections
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AuthBenchmarkTest {
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void basicVersusToken() throws Exception {
+        // "dad" / "123" is seeded by DataLoader
+        User dad = userRepository.findByUsername("dad");
+        String url = "/admin/families/" + dad.getFamily().getId() + "/cars";
+
+        String basic = "Basic " + Base64.getEncoder().encodeToString("dad:123".getBytes());
+        String body = mockMvc.perform(post("/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"dad\",\"password\":\"123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String bearer = "Bearer " + objectMapper.readTree(body).get("accessToken").asText();
+
+        double basicRps = run(url, basic);
+        double tokenRps = run(url, bearer);
+
+        System.out.printf("GET %s  basic: %.0f req/s  token: %.0f req/s  (%.1fx)%n",
+                url, basicRps, tokenRps, tokenRps / basicRps);
+    }
+
+    private double run(String url, String authorization) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, authorization))
+                    .andExpect(status().isOk());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mockMvc.perform(get(url).header(HttpHeaders.AUTHORIZATION, authorization))
+                    .andExpect(status().isOk());
+        }
+        return ITERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+}
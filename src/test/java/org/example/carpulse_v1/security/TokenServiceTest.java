@@ -0,0 +1,68 @@
+package org.example.carpulse_v1.security;
+
+import org.example.carpulse_v1.domain.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenServiceTest {
+
+    private TokenService tokenService;
+    private AuthenticatedUser user;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService("test-secret", Duration.ofMinutes(15), Duration.ofDays(7));
+
+        user = new AuthenticatedUser(3L, "pipe|user", null, 7L, List.of(Role.ROLE_ADMIN, Role.ROLE_USER));
+    }
+
+    @Test
+    void accessTokenRoundTripsClaims() {
+        String token = tokenService.issueAccessToken(user);
+
+        var claims = tokenService.verify(token, TokenService.TokenType.ACCESS).orElseThrow();
+
+        assertEquals(3L, claims.userId());
+        assertEquals("pipe|user", claims.username());
+        assertEquals(7L, claims.familyId());
+        assertEquals(Set.of(Role.ROLE_ADMIN, Role.ROLE_USER), Set.copyOf(claims.roles()));
+    }
+
+    @Test
+    void refreshTokenIsNotAcceptedAsAccessToken() {
+        String refresh = tokenService.issueRefreshToken(user);
+
+        assertTrue(tokenService.verify(refresh, TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(tokenService.verify(refresh, TokenService.TokenType.REFRESH).isPresent());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = tokenService.issueAccessToken(user);
+        String forged = (token.charAt(0) == 'A' ? 'B' : 'A') + token.substring(1);
+
+        assertTrue(tokenService.verify(forged, TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(tokenService.verify("garbage", TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(tokenService.verify(null, TokenService.TokenType.ACCESS).isEmpty());
+    }
+
+    @Test
+    void tokenSignedWithOtherKeyIsRejected() {
+        TokenService other = new TokenService("other-secret", Duration.ofMinutes(15), Duration.ofDays(7));
+
+        assertTrue(tokenService.verify(other.issueAccessToken(user), TokenService.TokenType.ACCESS).isEmpty());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        TokenService expired = new TokenService("test-secret", Duration.ofSeconds(-1), Duration.ofDays(7));
+
+        assertTrue(tokenService.verify(expired.issueAccessToken(user), TokenService.TokenType.ACCESS).isEmpty());
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.dto.CarDashboard;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.dto.FuelEconomy;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CarDashboardServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Mock
+    private FuelLogRepository fuelLogRepository;
+
+    @Mock
+    private AlertService alertService;
+
+    @Mock
+    private FuelEconomyService fuelEconomyService;
+
+    private CarDashboardService dashboardService;
+    private final CarSummary summary = new CarSummary(1L, "ABC123", "Toyota", "Corolla", 2020, 50_000,
+            "2.0L", 4, "Petrol", null, null, null);
+    private final FuelEconomy economy = new FuelEconomy(1L, 3, new BigDecimal("120"), new BigDecimal("850"),
+            12_000, 1_000, new BigDecimal("8.00"), new BigDecimal("0.600"), List.of());
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(carRepository.existsById(1L)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dashboardService != null) {
+            dashboardService.stop();
+        }
+    }
+
+    @Test
+    void sectionsAreReadConcurrently() {
+        dashboardService = service(Duration.ofSeconds(5), 8, 10);
+        when(carRepository.findSummariesByIdIn(List.of(1L))).then(slow(300, List.of(summary)));
+        when(maintenanceRepository.findByCarIdOrderByDatePerformedDescIdDesc(eq(1L), any()))
+                .then(slow(300, List.of(new MaintenanceRecord())));
+        when(fuelLogRepository.findByCarIdOrderByDateDescIdDesc(eq(1L), any()))
+                .then(slow(300, List.of(new FuelLog(), new FuelLog())));
+        when(alertService.findForCar(eq(1L), isNull())).then(slow(300, List.of()));
+        when(fuelEconomyService.findForCar(1L, 0)).then(slow(300, economy));
+
+        long started = System.nanoTime();
+        CarDashboard dashboard = dashboardService.findForCar(1L);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // five sequential reads would take 1.5 s
+        assertTrue(millis < 1_000, "took " + millis + " ms");
+        assertEquals(summary, dashboard.car());
+        assertEquals(1, dashboard.recentMaintenance().size());
+        assertEquals(2, dashboard.recentFuelLogs().size());
+        assertEquals(List.of(), dashboard.alerts());
+        assertEquals(economy, dashboard.stats());
+        assertEquals(List.of("car", "maintenance", "fuelLogs", "alerts", "stats"),
+                dashboard.sections().stream().map(CarDashboard.SectionTiming::name).toList());
+        for (CarDashboard.SectionTiming section : dashboard.sections()) {
+            assertEquals(CarDashboard.Status.OK, section.status());
+            assertTrue(section.millis() >= 300 && section.millis() < 1_000, section.toString());
+        }
+    }
+
+    @Test
+    void slowAndFailingSectionsAreLeftOut() throws InterruptedException {
+        dashboardService = service(Duration.ofMillis(300), 8, 10);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(carRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary));
+        when(maintenanceRepository.findByCarIdOrderByDatePerformedDescIdDesc(eq(1L), any())).thenReturn(List.of());
+        when(fuelLogRepository.findByCarIdOrderByDateDescIdDesc(eq(1L), any())).thenReturn(List.of());
+        when(alertService.findForCar(eq(1L), isNull())).thenThrow(new IllegalStateException("alerts down"));
+        when(fuelEconomyService.findForCar(1L, 0)).then(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return economy;
+        });
+
+        long started = System.nanoTime();
+        CarDashboard dashboard = dashboardService.findForCar(1L);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(millis < 1_000, "took " + millis + " ms");
+        assertEquals(summary, dashboard.car());
+        assertEquals(List.of(), dashboard.recentFuelLogs());
+        assertNull(dashboard.alerts());
+        assertNull(dashboard.stats());
+        assertEquals(List.of(CarDashboard.Status.OK, CarDashboard.Status.OK, CarDashboard.Status.OK,
+                        CarDashboard.Status.FAILED, CarDashboard.Status.TIMED_OUT),
+                dashboard.sections().stream().map(CarDashboard.SectionTiming::status).toList());
+        assertTrue(dashboard.sections().get(4).millis() >= 250, dashboard.sections().toString());
+        // the timed-out read does not keep a pool thread
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void sectionsRunInTheCallerWhenThePoolIsFull() {
+        dashboardService = service(Duration.ofSeconds(5), 1, 1);
+        when(carRepository.findSummariesByIdIn(List.of(1L))).then(slow(100, List.of(summary)));
+        when(maintenanceRepository.findByCarIdOrderByDatePerformedDescIdDesc(eq(1L), any())).thenReturn(List.of());
+        when(fuelLogRepository.findByCarIdOrderByDateDescIdDesc(eq(1L), any())).thenReturn(List.of());
+        when(alertService.findForCar(eq(1L), isNull())).thenReturn(List.of());
+        when(fuelEconomyService.findForCar(1L, 0)).thenReturn(economy);
+
+        CarDashboard dashboard = dashboardService.findForCar(1L);
+
+        assertEquals(summary, dashboard.car());
+        assertEquals(economy, dashboard.stats());
+        assertTrue(dashboard.sections().stream().allMatch(s -> s.status() == CarDashboard.Status.OK));
+    }
+
+    @Test
+    void unknownCarIsNotFound() {
+        dashboardService = service(Duration.ofSeconds(5), 8, 10);
+        when(carRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> dashboardService.findForCar(2L));
+        verify(fuelLogRepository, never()).findByCarIdOrderByDateDescIdDesc(anyLong(), any());
+    }
+
+    private CarDashboardService service(Duration timeout, int threads, int queueCapacity) {
+        return new CarDashboardService(carRepository, maintenanceRepository, fuelLogRepository, alertService,
+                fuelEconomyService, new SimpleMeterRegistry(), timeout, 5, threads, queueCapacity);
+    }
+
+    private static <T> Answer<T> slow(long millis, T result) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return result;
+        };
+    }
+}
@@ -35,6 +35,18 @@ public class CarServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private FamilyEventHub events;
+
+    @Mock
+    private FleetBenchmarkService benchmarks;
+
+    @Mock
+    private FamilyReadCache readCache;
+
+    @Mock
+    private SecondLevelCacheInvalidation entityCaches;
+
     @InjectMocks
     private CarService carService;
 
@@ -164,7 +176,7 @@ public class CarServiceTest {
     @Test
     void deleteShouldRemoveCar() {
         // Arrange
-        when(carRepository.existsById(1L)).thenReturn(true);
+        when(carRepository.findById(1L)).thenReturn(Optional.of(testCar));
         doNothing().when(carRepository).deleteById(1L);
 
         // Act
@@ -177,7 +189,7 @@ public class CarServiceTest {
     @Test
     void deleteShouldThrowExceptionWhenCarNotFound() {
         // Arrange
-        when(carRepository.existsById(999L)).thenReturn(false);
+        when(carRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> carService.delete(999L));
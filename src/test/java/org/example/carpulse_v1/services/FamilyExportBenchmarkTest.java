@@ -0,0 +1,126 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exports 1M fuel logs (gzip'd NDJSON) and reports throughput and the live heap after GC.
+ * H2 runs file-backed with lazy query execution so the result set is not materialised by the database either.
+ * Run with: mvn test -Dtest=FamilyExportBenchmarkTest -Dbenchmark=true -DargLine=-Xmx128m
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/carpulse-export-bench;MODE=MySQL;NON_KEYWORDS=YEAR;LAZY_QUERY_EXECUTION=1",
+        "spring.jpa.show-sql=false",
+        "spring.flyway.clean-disabled=false"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FamilyExportBenchmarkTest {
+    private static final int ROWS = 1_000_000;
+
+    // the database file outlives the run; start every run from a freshly migrated schema
+    @TestConfiguration
+    static class FreshSchema {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private FamilyExportService exportService;
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Test
+    void exportOneMillionFuelLogs() throws Exception {
+        Family family = new Family();
+        family.setFamilyName("Export benchmark");
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("BENCH-EXPORT");
+        car = carRepository.save(car);
+        importService.importForCar(car.getId(), new FuelLogImportBenchmarkTest.GeneratedCsv(ROWS),
+                FuelLogImportService.Format.CSV);
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .toList();
+        System.gc();
+        long baseline = heapPools.stream().mapToLong(pool -> pool.getCollectionUsage().getUsed()).sum();
+        AtomicLong peak = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long live = heapPools.stream().mapToLong(pool -> pool.getCollectionUsage().getUsed()).sum();
+                peak.accumulateAndGet(live, Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        CountingOutputStream sink = new CountingOutputStream();
+        long start = System.nanoTime();
+        long rows;
+        try (OutputStream out = new GZIPOutputStream(sink, 64 * 1024)) {
+            rows = exportService.export(family.getId(), FamilyExportService.Dataset.FUEL_LOGS,
+                    FamilyExportService.Format.NDJSON, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+
+        assertEquals(ROWS, rows);
+        System.out.printf("Exported %d rows (%d KB gzip'd) in %.1f s (%.0f rows/s), live heap %d MB before, peak %d MB, %d MB max%n",
+                rows, sink.count >> 10, seconds, rows / seconds,
+                baseline >> 20, peak.get() >> 20, Runtime.getRuntime().maxMemory() >> 20);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FamilyReadCacheTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FamilyReadCache readCache;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Family family;
+    private User driver;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQ.incrementAndGet();
+        family = new Family();
+        family.setFamilyName("Read cache family " + n);
+        family = familyRepository.save(family);
+
+        User user = new User();
+        user.setUsername("read-cache-driver-" + n);
+        user.setEmail("read-cache-driver-" + n + "@example.com");
+        user.setPassword("password");
+        user.setRoles(List.of(Role.ROLE_USER));
+        driver = userService.createUser(family.getId(), user);
+    }
+
+    @Test
+    void listsAreServedFromTheCacheUntilAWriteCommits() {
+        Car car = carService.create(family.getId(), car("RC-" + SEQ.incrementAndGet()));
+        assertEquals(List.of(car.getId()), ids(carService.findSummariesByFamily(family.getId())));
+        long hits = readCache.stats().hitCount();
+        assertEquals(List.of(car.getId()), ids(carService.findSummariesByFamily(family.getId())));
+        assertEquals(hits + 1, readCache.stats().hitCount());
+
+        assertEquals(List.of(car.getId()), ids(carService.findUnassignedSummariesByFamily(family.getId())));
+        assertEquals(List.of(), ids(carService.findSummariesByUser(driver.getId())));
+        carService.assignToUser(car.getId(), driver.getId());
+        assertEquals(List.of(), ids(carService.findUnassignedSummariesByFamily(family.getId())));
+        assertEquals(List.of(car.getId()), ids(carService.findSummariesByUser(driver.getId())));
+        assertEquals(driver.getUsername(),
+                carService.findSummariesByFamily(family.getId()).get(0).assignedUser().username());
+
+        // the assigned user's name is on the car lists
+        User rename = new User();
+        rename.setUsername(driver.getUsername() + "-renamed");
+        userService.updateUser(driver.getId(), rename);
+        assertEquals(rename.getUsername(),
+                carService.findSummariesByUser(driver.getId()).get(0).assignedUser().username());
+        assertEquals(rename.getUsername(),
+                carService.findSummariesByFamily(family.getId()).get(0).assignedUser().username());
+
+        carService.delete(carService.create(family.getId(), car("RC-" + SEQ.incrementAndGet())).getId());
+        assertEquals(1, carService.findSummariesByFamily(family.getId()).size());
+    }
+
+    @Test
+    void membersAreCopiesAndFollowInvitesAndDeletes() {
+        List<User> members = userService.listByFamily(family.getId());
+        assertEquals(List.of(driver.getUsername()), members.stream().map(User::getUsername).toList());
+        members.get(0).setEmail("changed@example.com");
+        assertEquals(driver.getEmail(), userService.listByFamily(family.getId()).get(0).getEmail());
+
+        User invited = new User();
+        invited.setUsername("read-cache-invited-" + SEQ.incrementAndGet());
+        invited.setEmail(invited.getUsername() + "@example.com");
+        invited.setPassword("password");
+        invited = userService.createUser(family.getId(), invited);
+        assertEquals(2, userService.listByFamily(family.getId()).size());
+
+        userService.deleteUser(invited.getId());
+        assertEquals(1, userService.listByFamily(family.getId()).size());
+    }
+
+    @Test
+    void uncommittedWritesAreSeenByTheirTransactionButNeverCached() {
+        Car kept = carService.create(family.getId(), car("RC-" + SEQ.incrementAndGet()));
+        assertEquals(1, carService.findSummariesByFamily(family.getId()).size());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            carService.create(family.getId(), car("RC-" + SEQ.incrementAndGet()));
+            assertEquals(2, carService.findSummariesByFamily(family.getId()).size());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(kept.getId()), ids(carService.findSummariesByFamily(family.getId())));
+    }
+
+    @Test
+    void invalidationWaitsForALoadAlreadyRunning() throws Exception {
+        FamilyReadCache cache = new FamilyReadCache(new LocalInvalidationBus(), new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(10), Duration.ofSeconds(5));
+        CarSummary before = summary(1L, "BEFORE");
+        CarSummary after = summary(1L, "AFTER");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // the read took its snapshot before the write committed
+            Future<List<CarSummary>> read = executor.submit(() ->
+                    cache.cars(FamilyReadCache.Scope.FAMILY_CARS, 7L, () -> {
+                        loading.countDown();
+                        await(release);
+                        return List.of(before);
+                    }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<?> commit = executor.submit(() -> cache.evict(FamilyReadCache.Scope.FAMILY_CARS, 7L));
+            Thread.sleep(100);
+            assertFalse(commit.isDone(), "invalidation should wait for the running load");
+
+            release.countDown();
+            assertEquals(List.of(before), read.get(5, TimeUnit.SECONDS));
+            commit.get(5, TimeUnit.SECONDS);
+            assertEquals(List.of(after), cache.cars(FamilyReadCache.Scope.FAMILY_CARS, 7L, () -> List.of(after)));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentReadersNeverLeaveAStaleList() throws Exception {
+        Car car = carService.create(family.getId(), car("RC-" + SEQ.incrementAndGet()));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(readers.submit(() -> {
+                while (running.get()) {
+                    carService.findSummariesByFamily(family.getId());
+                    carService.findSummariesByUser(driver.getId());
+                    carService.findUnassignedSummariesByFamily(family.getId());
+                }
+            }));
+        }
+        try {
+            for (int round = 0; round < 30; round++) {
+                boolean assign = round % 2 == 0;
+                if (assign) {
+                    carService.assignToUser(car.getId(), driver.getId());
+                } else {
+                    carService.unassignFromUser(car.getId());
+                }
+                // every read after the commit returns, from any thread, sees it
+                Long expected = assign ? driver.getId() : null;
+                CarSummary summary = carService.findSummariesByFamily(family.getId()).get(0);
+                assertEquals(expected, summary.assignedUser() == null ? null : summary.assignedUser().id(),
+                        "round " + round);
+                assertEquals(assign ? 1 : 0, carService.findSummariesByUser(driver.getId()).size(), "round " + round);
+                assertEquals(assign ? 0 : 1, carService.findUnassignedSummariesByFamily(family.getId()).size(),
+                        "round " + round);
+            }
+        } finally {
+            running.set(false);
+            readers.shutdown();
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<Long> ids(List<CarSummary> cars) {
+        return cars.stream().map(CarSummary::id).toList();
+    }
+
+    private static Car car(String plate) {
+        Car car = new Car();
+        car.setLicensePlate(plate);
+        car.setBrand("Renault");
+        car.setModel("Clio");
+        return car;
+    }
+
+    private static CarSummary summary(Long id, String plate) {
+        return new CarSummary(id, plate, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.SegmentSketch;
+import org.example.carpulse_v1.dto.SegmentBenchmark;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.SegmentSketchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FleetBenchmarkServiceTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private FleetBenchmarkService benchmarkService;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private SegmentSketchRepository sketchRepository;
+
+    private Family family;
+    private String brand;
+
+    @BeforeEach
+    void setUp() {
+        family = new Family();
+        family.setFamilyName("Benchmark family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        brand = "Bench-" + SEQ.incrementAndGet();
+    }
+
+    @Test
+    void fillsLandInTheirCarsSegment() {
+        Long first = car(" " + brand + " ", "Civic", "Petrol");
+        Long second = car(brand.toUpperCase(), "CIVIC", "petrol");
+        Long diesel = car(brand, "Civic", "Diesel");
+        Long unnamed = car(null, "Civic", "Petrol");
+        // economy of the second and third fill: 8.0 and 6.0 L/100km
+        fuelLogService.create(first, fuelLog(10_000, "35.00", "7.00"));
+        fuelLogService.create(first, fuelLog(10_500, "40.00", "7.20"));
+        fuelLogService.create(first, fuelLog(11_000, "30.00", "7.40"));
+        // 9.0 L/100km
+        fuelLogService.create(second, fuelLog(20_000, "32.00", "7.10"));
+        fuelLogService.create(second, fuelLog(20_400, "36.00", "7.30"));
+        fuelLogService.create(diesel, fuelLog(5_000, "50.00", "6.50"));
+        fuelLogService.create(unnamed, fuelLog(1_000, "40.00", "7.00"));
+
+        SegmentBenchmark petrol = benchmarkService.findForSegment(brand, "civic", "PETROL");
+        assertEquals(brand.toLowerCase(), petrol.brand());
+        assertEquals("petrol", petrol.fuelType());
+        assertEquals(5, petrol.pricePerLiter().samples());
+        assertEquals(0, new BigDecimal("7.200").compareTo(petrol.pricePerLiter().p50()), petrol.toString());
+        assertEquals(3, petrol.litersPer100Km().samples());
+        assertEquals(0, new BigDecimal("8.00").compareTo(petrol.litersPer100Km().p50()), petrol.toString());
+        assertTrue(petrol.litersPer100Km().p10().compareTo(petrol.litersPer100Km().p90()) < 0);
+        assertEquals(petrol, benchmarkService.findForCar(second));
+
+        SegmentBenchmark dieselBenchmark = benchmarkService.findForCar(diesel);
+        assertEquals(1, dieselBenchmark.pricePerLiter().samples());
+        assertEquals(0, dieselBenchmark.litersPer100Km().samples());
+        assertNull(dieselBenchmark.litersPer100Km().p50());
+
+        assertEquals(0, benchmarkService.findForCar(unnamed).pricePerLiter().samples());
+        assertThrows(ResponseStatusException.class, () -> benchmarkService.findForSegment(" ", "civic", null));
+        assertThrows(ResourceNotFoundException.class, () -> benchmarkService.findForCar(-1L));
+
+        // a car moved to another segment samples into that one from then on
+        Car details = carService.findById(diesel);
+        details.setFuelType("Petrol");
+        carService.update(diesel, details);
+        fuelLogService.create(diesel, fuelLog(5_500, "40.00", "7.25"));
+        SegmentBenchmark after = benchmarkService.findForSegment(brand, "Civic", "Petrol");
+        assertEquals(6, after.pricePerLiter().samples());
+        assertEquals(4, after.litersPer100Km().samples());
+    }
+
+    @Test
+    void flushesMergeIntoTheStoredSketch() {
+        Long carId = car(brand, "Golf", null);
+        for (int i = 0; i < 10; i++) {
+            fuelLogService.create(carId, fuelLog(30_000 + 600 * i, "40.00", "7.0" + i));
+        }
+        assertTrue(benchmarkService.flush() >= 2);
+        SegmentSketch.Key priceKey = new SegmentSketch.Key(brand.toLowerCase(), "golf", "", SegmentSketch.Metric.PRICE);
+        assertEquals(10, sketchRepository.findById(priceKey).orElseThrow().getSamples());
+        assertEquals(0, benchmarkService.flush());
+
+        for (int i = 10; i < 15; i++) {
+            fuelLogService.create(carId, fuelLog(30_000 + 600 * i, "40.00", "7.10"));
+        }
+        benchmarkService.flush();
+        SegmentSketch stored = sketchRepository.findById(priceKey).orElseThrow();
+        assertEquals(15, stored.getSamples());
+        assertEquals(14, sketchRepository.findById(new SegmentSketch.Key(brand.toLowerCase(), "golf", "",
+                SegmentSketch.Metric.ECONOMY)).orElseThrow().getSamples());
+
+        // reloading what this instance wrote changes nothing
+        SegmentBenchmark before = benchmarkService.findForSegment(brand, "Golf", null);
+        benchmarkService.reload();
+        assertEquals(before, benchmarkService.findForSegment(brand, "Golf", null));
+        assertEquals(0, new BigDecimal("6.67").compareTo(before.litersPer100Km().p50()), before.toString());
+    }
+
+    @Test
+    void rebuildDropsEditedAndDeletedFills() {
+        Long carId = car(brand, "Polo", "Petrol");
+        FuelLog first = fuelLogService.create(carId, fuelLog(40_000, "40.00", "7.00"));
+        FuelLog second = fuelLogService.create(carId, fuelLog(40_500, "40.00", "7.00"));
+        fuelLogService.create(carId, fuelLog(41_000, "40.00", "7.00"));
+        fuelLogService.update(second.getId(), fuelLog(40_500, "40.00", "9.00"));
+        fuelLogService.delete(first.getId());
+        SegmentBenchmark incremental = benchmarkService.findForCar(carId);
+        assertEquals(3, incremental.pricePerLiter().samples());
+        assertEquals(0, new BigDecimal("7.000").compareTo(incremental.pricePerLiter().p90()));
+
+        benchmarkService.rebuild();
+        SegmentBenchmark rebuilt = benchmarkService.findForCar(carId);
+        assertEquals(2, rebuilt.pricePerLiter().samples());
+        assertTrue(rebuilt.pricePerLiter().p90().compareTo(new BigDecimal("7.000")) > 0, rebuilt.toString());
+        // 40 500 is the first remaining reading now
+        assertEquals(1, rebuilt.litersPer100Km().samples());
+        assertEquals(2, sketchRepository.findById(new SegmentSketch.Key(brand.toLowerCase(), "polo", "petrol",
+                SegmentSketch.Metric.PRICE)).orElseThrow().getSamples());
+        assertEquals(0, benchmarkService.flush());
+    }
+
+    private Long car(String carBrand, String model, String fuelType) {
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("BENCH-" + SEQ.incrementAndGet());
+        car.setBrand(carBrand);
+        car.setModel(model);
+        car.setFuelType(fuelType);
+        return carRepository.save(car).getId();
+    }
+
+    private static FuelLog fuelLog(int odometer, String liters, String price) {
+        FuelLog log = new FuelLog();
+        log.setDate(LocalDate.of(2024, 1, 1).plusDays(odometer / 100));
+        log.setOdometer(odometer);
+        log.setLitersFilled(new BigDecimal(liters));
+        log.setPricePerLiter(new BigDecimal(price));
+        log.setTotalCost(log.getLitersFilled().multiply(log.getPricePerLiter()));
+        return log;
+    }
+}
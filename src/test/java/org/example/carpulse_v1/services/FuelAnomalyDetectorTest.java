@@ -0,0 +1,160 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.dto.FuelAnomaly;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FuelAnomalyDetectorTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private FuelAnomalyDetector detector;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FuelColumnStore columnStore;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long carId;
+
+    @BeforeEach
+    void setUp() {
+        Family family = new Family();
+        family.setFamilyName("Anomaly family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("ODD-" + SEQ.incrementAndGet());
+        carId = carRepository.save(car).getId();
+    }
+
+    @Test
+    void impossibleLogsAreRejectedAndListed() {
+        FuelLog mismatch = log(LocalDate.of(2024, 1, 5), 10_000, "40.00", "7.00");
+        mismatch.setTotalCost(new BigDecimal("380.00"));
+        assertThrows(ResponseStatusException.class, () -> fuelLogService.create(carId, mismatch));
+        assertThrows(ResponseStatusException.class,
+                () -> fuelLogService.create(carId, log(LocalDate.of(2024, 1, 6), 10_100, "950.00", "7.00")));
+        assertTrue(fuelLogService.findAllByCar(carId).isEmpty());
+
+        // rounding and small discounts pass
+        FuelLog rounded = log(LocalDate.of(2024, 1, 7), 10_200, "33.33", "7.19");
+        rounded.setTotalCost(new BigDecimal("239.00"));
+        FuelLog saved = fuelLogService.create(carId, rounded);
+        FuelLog edit = log(LocalDate.of(2024, 1, 7), 10_200, "0", "7.19");
+        assertThrows(ResponseStatusException.class, () -> fuelLogService.update(saved.getId(), edit));
+        assertEquals(new BigDecimal("33.33"), fuelLogService.findById(saved.getId()).getLitersFilled());
+
+        List<FuelAnomaly> flagged = detector.findForCar(carId);
+        assertEquals(List.of(FuelAnomaly.Kind.VOLUME_OUT_OF_RANGE, FuelAnomaly.Kind.VOLUME_OUT_OF_RANGE,
+                FuelAnomaly.Kind.COST_MISMATCH), flagged.stream().map(FuelAnomaly::kind).toList());
+        assertTrue(flagged.stream().allMatch(FuelAnomaly::rejected));
+        assertEquals(saved.getId(), flagged.get(0).fuelLogId());
+        assertNull(flagged.get(2).fuelLogId());
+    }
+
+    @Test
+    void backwardsReadingsAndOutliersAreSavedButFlagged() {
+        for (int i = 0; i < 8; i++) {
+            fuelLogService.create(carId, log(LocalDate.of(2024, 2, 1 + 2 * i), 20_000 + 500 * i,
+                    i % 2 == 0 ? "38.00" : "42.00", i % 2 == 0 ? "7.05" : "7.15"));
+        }
+        assertTrue(detector.findForCar(carId).isEmpty());
+
+        FuelLog backwards = fuelLogService.create(carId, log(LocalDate.of(2024, 2, 20), 19_000, "40.00", "7.10"));
+        FuelLog pricey = fuelLogService.create(carId, log(LocalDate.of(2024, 2, 22), 24_000, "40.00", "9.90"));
+        FuelLog jerrycan = fuelLogService.create(carId, log(LocalDate.of(2024, 2, 24), 24_100, "5.00", "7.10"));
+        // a backfilled reading above a later one
+        FuelLog backfill = fuelLogService.create(carId, log(LocalDate.of(2024, 1, 20), 30_000, "40.00", "7.10"));
+
+        List<FuelAnomaly> flagged = detector.findForCar(carId);
+        assertEquals(List.of(FuelAnomaly.Kind.ODOMETER_BACKWARDS, FuelAnomaly.Kind.VOLUME_OUTLIER,
+                FuelAnomaly.Kind.PRICE_OUTLIER, FuelAnomaly.Kind.ODOMETER_BACKWARDS),
+                flagged.stream().map(FuelAnomaly::kind).toList());
+        assertEquals(List.of(backfill.getId(), jerrycan.getId(), pricey.getId(), backwards.getId()),
+                flagged.stream().map(FuelAnomaly::fuelLogId).toList());
+        assertFalse(flagged.get(0).rejected());
+        assertEquals(12, fuelLogService.findAllByCar(carId).size());
+
+        // fixed or removed entries drop off the list
+        fuelLogService.update(backwards.getId(), log(LocalDate.of(2024, 2, 20), 23_900, "40.00", "7.10"));
+        fuelLogService.delete(backfill.getId());
+        assertEquals(List.of(jerrycan.getId(), pricey.getId()),
+                detector.findForCar(carId).stream().map(FuelAnomaly::fuelLogId).toList());
+    }
+
+    @Test
+    void checksReadNoRows() {
+        fuelLogService.create(carId, log(LocalDate.of(2024, 3, 1), 5_000, "40.00", "7.10"));
+        FuelLog next = log(LocalDate.of(2024, 3, 5), 4_000, "40.00", "7.10");
+        next.setId(Long.MAX_VALUE);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        detector.inspect(carId, next, true);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(FuelAnomaly.Kind.ODOMETER_BACKWARDS, detector.findForCar(carId).get(0).kind());
+    }
+
+    @Test
+    void importedHistoryIsPickedUpFromLoadedColumns() throws Exception {
+        String csv = """
+                date,litersFilled,pricePerLiter,odometer
+                2024-04-01,40,7.10,40000
+                2024-04-08,40,7.10,40600
+                """;
+        importService.importForCar(carId, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                FuelLogImportService.Format.CSV);
+        columnStore.priceStats(carId, null, null);
+
+        fuelLogService.create(carId, log(LocalDate.of(2024, 4, 15), 40_300, "40.00", "7.10"));
+        assertEquals(List.of(FuelAnomaly.Kind.ODOMETER_BACKWARDS),
+                detector.findForCar(carId).stream().map(FuelAnomaly::kind).toList());
+    }
+
+    private static FuelLog log(LocalDate date, Integer odometer, String liters, String price) {
+        FuelLog log = new FuelLog();
+        log.setDate(date);
+        log.setOdometer(odometer);
+        log.setLitersFilled(new BigDecimal(liters));
+        log.setPricePerLiter(new BigDecimal(price));
+        log.setTotalCost(log.getLitersFilled().multiply(log.getPricePerLiter()));
+        return log;
+    }
+}
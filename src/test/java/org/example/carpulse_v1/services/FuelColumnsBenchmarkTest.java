@@ -0,0 +1,55 @@
+package org.example.carpulse_v1.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link FuelColumnsJmh} in a forked JVM with the GC profiler and prints time and bytes allocated per
+ * operation for the column and entity paths.
+ * Run with: mvn test -Dtest=FuelColumnsBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FuelColumnsBenchmarkTest {
+
+    @Test
+    void columnsAgainstEntities() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(FuelColumnsJmh.class.getName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        // benchmark + logs -> bytes allocated per call
+        Map<String, Double> allocated = new HashMap<>();
+        for (RunResult run : results) {
+            String name = run.getParams().getBenchmark();
+            String key = name.substring(name.lastIndexOf('.') + 1) + "@" + run.getParams().getParam("logs");
+            Result<?> alloc = run.getSecondaryResults().get("gc.alloc.rate.norm");
+            allocated.put(key, alloc.getScore());
+            System.out.printf("%-24s %8.1f us/op %12.0f B/op%n", key, run.getPrimaryResult().getScore(), alloc.getScore());
+        }
+        // the column scans allocate only the result, whatever the number of logs
+        for (String logs : new String[]{"2000", "20000"}) {
+            assertTrue(allocated.get("priceStatsColumns@" + logs) < allocated.get("priceStatsEntities@" + logs) / 10);
+            assertTrue(allocated.get("perMonthColumns@" + logs) < allocated.get("perMonthEntities@" + logs) / 2);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.dto.FuelPriceStats;
+import org.example.carpulse_v1.dto.MonthlyFuel;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: the chart statistics over {@link FuelColumns} against the same figures computed from {@code FuelLog}
+ * entities with {@code BigDecimal} arithmetic, as a service working off {@code findByCarId} would. Both sides
+ * start from data already in memory, so the comparison is the scan itself. Launched by {@link FuelColumnsBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuelColumnsJmh {
+
+    // about 10 years of fills at one every other day
+    @Param({"2000", "20000"})
+    public int logs;
+
+    private List<FuelLog> entities;
+    private FuelColumns columns;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        entities = new ArrayList<>(logs);
+        List<Object[]> rows = new ArrayList<>(logs);
+        LocalDate date = LocalDate.of(2015, 1, 1);
+        int odometer = 50_000;
+        for (long id = 1; id <= logs; id++) {
+            date = date.plusDays(1 + random.nextInt(2));
+            odometer += 300 + random.nextInt(400);
+            FuelLog log = new FuelLog();
+            log.setId(id);
+            log.setDate(date);
+            log.setOdometer(odometer);
+            log.setLitersFilled(BigDecimal.valueOf(2_000 + random.nextInt(4_000), 2));
+            log.setPricePerLiter(BigDecimal.valueOf(600 + random.nextInt(200), 2));
+            log.setTotalCost(log.getLitersFilled().multiply(log.getPricePerLiter()).setScale(2, RoundingMode.HALF_UP));
+            entities.add(log);
+            rows.add(new Object[]{id, date, odometer, log.getLitersFilled(), log.getPricePerLiter(), log.getTotalCost()});
+        }
+        columns = FuelColumns.of(rows);
+    }
+
+    @Benchmark
+    public FuelPriceStats priceStatsColumns() {
+        return FuelColumnStore.priceStats(1L, columns, null, null);
+    }
+
+    @Benchmark
+    public FuelPriceStats priceStatsEntities() {
+        int count = 0;
+        BigDecimal min = null;
+        BigDecimal max = null;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (FuelLog log : entities) {
+            BigDecimal price = log.getPricePerLiter();
+            if (log.getDate() == null || price == null) {
+                continue;
+            }
+            count++;
+            sum = sum.add(price);
+            min = min == null || price.compareTo(min) < 0 ? price : min;
+            max = max == null || price.compareTo(max) > 0 ? price : max;
+        }
+        return new FuelPriceStats(1L, null, null, count, min, max,
+                count == 0 ? null : sum.divide(BigDecimal.valueOf(count), 3, RoundingMode.HALF_UP));
+    }
+
+    @Benchmark
+    public List<MonthlyFuel> perMonthColumns() {
+        return FuelColumnStore.perMonth(columns, null, null);
+    }
+
+    @Benchmark
+    public List<MonthlyFuel> perMonthEntities() {
+        Map<YearMonth, MonthlyFuel> byMonth = new TreeMap<>();
+        for (FuelLog log : entities) {
+            if (log.getDate() == null) {
+                continue;
+            }
+            MonthlyFuel fill = new MonthlyFuel(YearMonth.from(log.getDate()), 1,
+                    orZero(log.getLitersFilled()), orZero(log.getTotalCost()));
+            byMonth.merge(fill.month(), fill, (a, b) -> new MonthlyFuel(a.month(), a.fills() + b.fills(),
+                    a.liters().add(b.liters()), a.cost().add(b.cost())));
+        }
+        List<MonthlyFuel> series = new ArrayList<>();
+        if (byMonth.isEmpty()) {
+            return series;
+        }
+        YearMonth last = ((TreeMap<YearMonth, MonthlyFuel>) byMonth).lastKey();
+        for (YearMonth month = ((TreeMap<YearMonth, MonthlyFuel>) byMonth).firstKey(); !month.isAfter(last); month = month.plusMonths(1)) {
+            series.add(byMonth.getOrDefault(month, new MonthlyFuel(month, 0, BigDecimal.ZERO, BigDecimal.ZERO)));
+        }
+        return series;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.carpulse_v1.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuelColumnsTest {
+
+    @Test
+    void monthIndexMatchesLocalDate() {
+        for (int day = -800_000; day <= 800_000; day += 7) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            assertEquals(date.getYear() * 12 + date.getMonthValue() - 1, FuelColumns.monthIndex(day), date::toString);
+        }
+    }
+
+    @Test
+    void writesKeepDateOrderAndReplaceById() {
+        Random random = new Random(7);
+        FuelColumns columns = FuelColumns.EMPTY;
+        List<long[]> expected = new ArrayList<>();     // (id, day)
+        for (long id = 1; id <= 300; id++) {
+            int day = 19_000 + random.nextInt(60);
+            columns = columns.with(id, LocalDate.ofEpochDay(day), null, BigDecimal.ONE, null, null);
+            expected.add(new long[]{id, day});
+        }
+        // move some, drop some, and apply one write twice
+        for (int i = 0; i < 100; i++) {
+            long[] entry = expected.get(random.nextInt(expected.size()));
+            if (i % 3 == 0) {
+                columns = columns.without(entry[0]);
+                expected.remove(entry);
+            } else {
+                entry[1] = 19_000 + random.nextInt(60);
+                columns = columns.with(entry[0], LocalDate.ofEpochDay(entry[1]), null, BigDecimal.ONE, null, null);
+                columns = columns.with(entry[0], LocalDate.ofEpochDay(entry[1]), null, BigDecimal.ONE, null, null);
+            }
+        }
+
+        expected.sort((a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[0], b[0]));
+        assertEquals(expected.size(), columns.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i)[0], columns.ids[i]);
+            assertEquals(expected.get(i)[1], columns.days[i]);
+        }
+        assertSame(columns, columns.without(-1));
+    }
+
+    @Test
+    void scansSkipMissingValues() {
+        List<Object[]> rows = List.of(
+                new Object[]{1L, null, 100, new BigDecimal("10"), new BigDecimal("7.00"), null},
+                new Object[]{2L, LocalDate.of(2024, 1, 31), 1_000, new BigDecimal("30.5"), new BigDecimal("7.25"), new BigDecimal("221.13")},
+                new Object[]{3L, LocalDate.of(2024, 2, 1), null, new BigDecimal("20"), null, null},
+                new Object[]{4L, LocalDate.of(2024, 3, 1), 1_900, null, new BigDecimal("6.75"), new BigDecimal("100")});
+        FuelColumns columns = FuelColumns.of(rows);
+        assertEquals(3, columns.size());
+
+        long[] stats = new long[4];
+        columns.priceStats(0, columns.size(), stats);
+        assertEquals(2, stats[FuelColumns.COUNT]);
+        assertEquals(6_750_000, stats[FuelColumns.MIN]);
+        assertEquals(7_250_000, stats[FuelColumns.MAX]);
+
+        int first = FuelColumns.monthIndex(columns.days[0]);
+        int[] fills = new int[3];
+        long[] liters = new long[3];
+        long[] costs = new long[3];
+        columns.perMonth(0, columns.size(), first, fills, liters, costs);
+        assertArrayEquals(new int[]{1, 1, 1}, fills);
+        assertArrayEquals(new long[]{30_500_000, 20_000_000, 0}, liters);
+        assertArrayEquals(new long[]{221_130_000, 0, 100_000_000}, costs);
+
+        int[] days = new int[2];
+        int[] odometers = new int[2];
+        assertEquals(2, columns.odometerCurve(0, columns.size(), days, odometers));
+        assertArrayEquals(new int[]{1_000, 1_900}, odometers);
+        assertEquals(columns.lowerBound((int) LocalDate.of(2024, 2, 1).toEpochDay()), 1);
+    }
+
+    @Test
+    void odometerCurveIsThinnedButKeepsTheLastReading() {
+        FuelColumns columns = FuelColumns.EMPTY;
+        for (int i = 0; i < 1_000; i++) {
+            columns = columns.with(i, LocalDate.of(2020, 1, 1).plusDays(i), i * 10, BigDecimal.ONE, null, null);
+        }
+        int[] days = new int[30];
+        int[] odometers = new int[30];
+        int n = columns.odometerCurve(0, columns.size(), days, odometers);
+        assertTrue(n <= 30 && n >= 25, "points: " + n);
+        assertEquals(0, odometers[0]);
+        assertEquals(9_990, odometers[n - 1]);
+        for (int i = 1; i < n; i++) {
+            assertTrue(odometers[i] > odometers[i - 1]);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.dto.FuelEconomy;
+import org.example.carpulse_v1.dto.FuelStatsCheck;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.FuelStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FuelEconomyServiceTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private FuelEconomyService fuelEconomyService;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FuelStatsRepository statsRepository;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private Long carId;
+
+    @BeforeEach
+    void setUp() {
+        Family family = new Family();
+        family.setFamilyName("Economy family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("ECO-" + SEQ.incrementAndGet());
+        carId = carRepository.save(car).getId();
+    }
+
+    @Test
+    void economyIsMeasuredFromTheFirstReadingToTheLast() {
+        // the first fill only marks the start; the liters after it cover the distance
+        fuelLogService.create(carId, log(10_000, "40.00", "280.00"));
+        fuelLogService.create(carId, log(10_500, "35.00", "245.00"));
+        fuelLogService.create(carId, log(11_000, "30.00", "210.00"));
+        fuelLogService.create(carId, log(null, "10.00", "70.00"));
+
+        FuelEconomy economy = fuelEconomyService.findForCar(carId, null);
+
+        assertEquals(4, economy.fills());
+        assertEquals(0, new BigDecimal("115").compareTo(economy.totalLiters()));
+        assertEquals(0, new BigDecimal("805").compareTo(economy.totalCost()));
+        assertEquals(11_000, economy.lastOdometer());
+        assertEquals(1_000, economy.distanceKm());
+        assertEquals(new BigDecimal("6.50"), economy.litersPer100Km());
+        assertEquals(new BigDecimal("0.455"), economy.costPerKm());
+
+        assertEquals(2, economy.series().size());
+        FuelEconomy.Segment last = economy.series().get(1);
+        assertEquals(500, last.distanceKm());
+        assertEquals(new BigDecimal("6.00"), last.litersPer100Km());
+        assertEquals(new BigDecimal("6.50"), last.rollingLitersPer100Km());
+        assertEquals(1, fuelEconomyService.findForCar(carId, 1).series().size());
+    }
+
+    @Test
+    void outOfOrderEditsStayConsistentWithAFullRecompute() {
+        Random random = new Random(42);
+        List<FuelLog> logs = new ArrayList<>();
+        for (int step = 0; step < 150; step++) {
+            int op = logs.size() < 3 ? 0 : random.nextInt(4);
+            if (op <= 1) {
+                logs.add(fuelLogService.create(carId, randomLog(random)));
+            } else if (op == 2) {
+                FuelLog target = logs.get(random.nextInt(logs.size()));
+                logs.set(logs.indexOf(target), fuelLogService.update(target.getId(), randomLog(random)));
+            } else {
+                FuelLog target = logs.remove(random.nextInt(logs.size()));
+                fuelLogService.delete(target.getId());
+            }
+            FuelStatsCheck check = fuelEconomyService.check(carId);
+            assertTrue(check.consistent(), "step " + step + ": " + check);
+        }
+        assertEquals(logs.size(), fuelEconomyService.findForCar(carId, 0).fills());
+    }
+
+    @Test
+    void importedLogsAreCountedAndAMissingRowIsRebuilt() throws Exception {
+        fuelLogService.create(carId, log(50_000, "40.00", "280.00"));
+        String csv = """
+                date,litersFilled,odometer,totalCost
+                2024-02-01,30,49000,210
+                2024-03-01,35,50600,245
+                2024-04-01,20,,140
+                """;
+        importService.importForCar(carId, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                FuelLogImportService.Format.CSV);
+
+        assertTrue(fuelEconomyService.check(carId).consistent());
+        FuelEconomy economy = fuelEconomyService.findForCar(carId, null);
+        assertEquals(4, economy.fills());
+        assertEquals(1_600, economy.distanceKm());
+
+        statsRepository.deleteById(carId);
+        assertNull(fuelEconomyService.check(carId).stored());
+        assertEquals(economy.litersPer100Km(), fuelEconomyService.findForCar(carId, null).litersPer100Km());
+        assertTrue(fuelEconomyService.check(carId).consistent());
+    }
+
+    @Test
+    void windowOutsideTheLimitsIsRejected() {
+        assertThrows(ResponseStatusException.class, () -> fuelEconomyService.findForCar(carId, -1));
+        assertThrows(ResponseStatusException.class, () -> fuelEconomyService.findForCar(carId, 10_000));
+    }
+
+    private static FuelLog randomLog(Random random) {
+        Integer odometer = random.nextInt(5) == 0 ? null : 20_000 + random.nextInt(40) * 100;
+        BigDecimal liters = BigDecimal.valueOf(2_000 + random.nextInt(3_000), 2);
+        return log(odometer, liters.toPlainString(), liters.multiply(new BigDecimal("7.25")).toPlainString());
+    }
+
+    private static FuelLog log(Integer odometer, String liters, String cost) {
+        FuelLog log = new FuelLog();
+        log.setDate(LocalDate.of(2024, 6, 1));
+        log.setOdometer(odometer);
+        log.setLitersFilled(new BigDecimal(liters));
+        log.setTotalCost(new BigDecimal(cost));
+        return log;
+    }
+}
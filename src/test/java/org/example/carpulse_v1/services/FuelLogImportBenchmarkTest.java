@@ -0,0 +1,146 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.dto.ImportReport;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Imports 1M generated CSV rows and reports throughput and the live heap after GC.
+ * The input is generated on the fly and the database is file-backed, so heap use reflects the importer only.
+ * Run with: mvn test -Dtest=FuelLogImportBenchmarkTest -Dbenchmark=true -DargLine=-Xmx256m
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:${java.io.tmpdir}/carpulse-import-bench;MODE=MySQL;NON_KEYWORDS=YEAR",
+        "spring.jpa.show-sql=false",
+        "spring.flyway.clean-disabled=false"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FuelLogImportBenchmarkTest {
+    private static final int ROWS = 1_000_000;
+
+    // the database file outlives the run; start every run from a freshly migrated schema
+    @TestConfiguration
+    static class FreshSchema {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Test
+    void importOneMillionRows() throws Exception {
+        Family family = new Family();
+        family.setFamilyName("Import benchmark");
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("BENCH-IMPORT");
+        car = carRepository.save(car);
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                .toList();
+        AtomicLong peak = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                // heap still in use right after the last collection, i.e. the live set
+                long live = heapPools.stream().mapToLong(pool -> pool.getCollectionUsage().getUsed()).sum();
+                peak.accumulateAndGet(live, Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        ImportReport report = importService.importForCar(car.getId(), new GeneratedCsv(ROWS), FuelLogImportService.Format.CSV);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+
+        assertEquals(ROWS, report.imported());
+        System.out.printf("Imported %d rows in %.1f s (%.0f rows/s), peak live heap %d MB of %d MB max%n",
+                report.imported(), seconds, report.imported() / seconds,
+                peak.get() >> 20, Runtime.getRuntime().maxMemory() >> 20);
+    }
+
+    /**
+     * CSV body produced row by row, never held in memory as a whole.
+     */
+    static final class GeneratedCsv extends InputStream {
+        private final int rows;
+        private int row = -1;
+        private byte[] current = "date,litersFilled,pricePerLiter,odometer,totalCost\n".getBytes(StandardCharsets.US_ASCII);
+        private int pos;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (pos == current.length && !advance()) {
+                return -1;
+            }
+            return current[pos++];
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos == current.length && !advance()) {
+                return -1;
+            }
+            int n = Math.min(len, current.length - pos);
+            System.arraycopy(current, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        private boolean advance() {
+            if (++row >= rows) {
+                return false;
+            }
+            String line = LocalDate.of(2000, 1, 1).plusDays(row / 3) + ",42.5,7.19," + (row * 20) + ",305.58\n";
+            current = line.getBytes(StandardCharsets.US_ASCII);
+            pos = 0;
+            return true;
+        }
+    }
+}
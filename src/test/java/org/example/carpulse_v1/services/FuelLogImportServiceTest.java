@@ -0,0 +1,150 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.dto.ImportReport;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.FuelLogRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FuelLogImportServiceTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FuelLogRepository fuelLogRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Family family;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        family = new Family();
+        family.setFamilyName("Import family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        car = car("IMP-" + SEQ.incrementAndGet());
+    }
+
+    @Test
+    void importsValidCsvRowsAndReportsInvalidOnes() throws Exception {
+        String csv = """
+                date,litersFilled,pricePerLiter,odometer,totalCost
+                2024-01-05,40.5,7.10,120000,287.55
+                2024-01-20,"38,0",7.20,120600,
+                not-a-date,40,7,121000,280
+                2024-02-03,-3,7,121200,
+
+                2024-02-10,41,7.05,121800,289.05
+                """;
+
+        ImportReport report = importService.importForCar(car.getId(), stream(csv), FuelLogImportService.Format.CSV);
+
+        assertEquals(2, report.imported());
+        assertEquals(3, report.rejected());
+        assertEquals(List.of(3L, 4L, 5L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        assertTrue(report.errors().get(1).message().contains("date"));
+        assertFalse(report.errorsTruncated());
+
+        List<FuelLog> logs = fuelLogRepository.findByCarId(car.getId());
+        logs.sort(Comparator.comparing(FuelLog::getDate));
+        assertEquals(LocalDate.of(2024, 1, 5), logs.get(0).getDate());
+        assertEquals(0, new BigDecimal("289.05").compareTo(logs.get(1).getTotalCost()));
+    }
+
+    @Test
+    void familyImportResolvesCarsByLicensePlate() throws Exception {
+        Car second = car("IMP-" + SEQ.incrementAndGet());
+        String ndjson = "{\"licensePlate\":\"" + car.getLicensePlate().toLowerCase() + "\",\"date\":\"2024-03-01\",\"litersFilled\":30}\n"
+                + "{\"carId\":" + second.getId() + ",\"date\":\"2024-03-02\",\"litersFilled\":31.5,\"odometer\":5000}\n"
+                + "{\"licensePlate\":\"NOPE-1\",\"date\":\"2024-03-03\",\"litersFilled\":20}\n"
+                + "{oops\n";
+
+        ImportReport report = importService.importForFamily(family.getId(), stream(ndjson), FuelLogImportService.Format.NDJSON);
+
+        assertEquals(2, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals(1, fuelLogRepository.findByCarId(car.getId()).size());
+        assertEquals(5000, fuelLogRepository.findByCarId(second.getId()).get(0).getOdometer());
+    }
+
+    @Test
+    void databaseRejectionOnlyDropsTheOffendingRow() throws Exception {
+        // passes validation but overflows the numeric column
+        String csv = """
+                date,litersFilled,totalCost
+                2024-04-01,10,
+                2024-04-02,10,1e40
+                2024-04-03,10,
+                """;
+
+        ImportReport report = importService.importForCar(car.getId(), stream(csv), FuelLogImportService.Format.CSV);
+
+        assertEquals(2, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(3L, report.errors().get(0).line());
+        assertEquals(2, fuelLogRepository.findByCarId(car.getId()).size());
+    }
+
+    @Test
+    void insertsAreBatched() throws Exception {
+        StringBuilder csv = new StringBuilder("date,litersFilled\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append(LocalDate.of(2023, 1, 1).plusDays(i)).append(",40\n");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ImportReport report = importService.importForCar(car.getId(), stream(csv.toString()), FuelLogImportService.Format.CSV);
+
+        assertEquals(500, report.imported());
+        // one statement per 50-row batch plus a sequence call per 50 ids, not one per row
+        assertTrue(statistics.getPrepareStatementCount() < 40,
+                "expected batched inserts, saw " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    private Car car(String plate) {
+        Car c = new Car();
+        c.setFamily(family);
+        c.setLicensePlate(plate);
+        c.setBrand("Skoda");
+        c.setModel("Octavia");
+        return carRepository.save(c);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
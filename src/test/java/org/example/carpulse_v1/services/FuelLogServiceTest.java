@@ -0,0 +1,70 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FuelLogServiceTest {
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void createAndListNeverLoadTheCar() {
+        Family family = new Family();
+        family.setFamilyName("Lean writes");
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("LEAN-1");
+        car.setImageUrl("data:image/png;base64,AAAA");
+        Long carId = carRepository.save(car).getId();
+        entityManagerFactory.getCache().evict(Car.class);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        FuelLog created = fuelLogService.create(carId, log());
+        fuelLogService.update(created.getId(), log());
+        assertEquals(1, fuelLogService.findAllByCar(carId).size());
+
+        assertEquals(0, statistics.getEntityStatistics(Car.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void createForMissingCarIsRejected() {
+        assertThrows(ResourceNotFoundException.class, () -> fuelLogService.create(-1L, log()));
+    }
+
+    private static FuelLog log() {
+        FuelLog log = new FuelLog();
+        log.setDate(LocalDate.of(2024, 6, 1));
+        log.setLitersFilled(new BigDecimal("35.00"));
+        return log;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.carpulse_v1.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    private ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStore = new ImageStore(root, DataSize.ofBytes(1024));
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws Exception {
+        byte[] bytes = "png bytes".getBytes();
+
+        String first = imageStore.store(new ByteArrayInputStream(bytes), "image/png");
+        String second = imageStore.store(new ByteArrayInputStream(bytes), "image/png");
+
+        assertEquals(first, second);
+        assertTrue(first.matches("[0-9a-f]{64}\\.png"));
+        Path blob = imageStore.find(first).orElseThrow();
+        assertArrayEquals(bytes, Files.readAllBytes(blob));
+        try (var files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void oversizedUploadIsRejectedAndLeavesNoFiles() throws Exception {
+        byte[] bytes = new byte[2048];
+
+        assertThrows(ResponseStatusException.class,
+                () -> imageStore.store(new ByteArrayInputStream(bytes), "image/png"));
+        try (var files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void dataUrlIsDecodedIntoStore() throws Exception {
+        byte[] bytes = "jpeg bytes".getBytes();
+        String dataUrl = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes);
+
+        String key = imageStore.storeDataUrl(dataUrl);
+
+        assertTrue(key.endsWith(".jpg"));
+        assertArrayEquals(bytes, Files.readAllBytes(imageStore.find(key).orElseThrow()));
+        assertEquals("image/jpeg", imageStore.contentType(key));
+    }
+
+    @Test
+    void malformedKeysAreNotResolved() {
+        assertTrue(imageStore.find("../../etc/passwd").isEmpty());
+        assertTrue(imageStore.find("abc.png").isEmpty());
+    }
+}
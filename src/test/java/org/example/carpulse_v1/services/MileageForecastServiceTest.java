@@ -0,0 +1,178 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.dto.MileageForecast;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.MileageRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// background refits on: readingsAreRefittedAfterEachWrite waits for them
+@SpringBootTest(properties = "carpulse.forecast.enabled=true")
+@ActiveProfiles("test")
+public class MileageForecastServiceTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private MileageForecastService forecastService;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private MileageRateRepository rateRepository;
+
+    private Family family;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        family = new Family();
+        family.setFamilyName("Forecast family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        today = LocalDate.now();
+    }
+
+    @Test
+    void mistypedReadingsDoNotBendTheRate() {
+        Long carId = car(null);
+        // 50 km a day over the last 100 days, plus one reading with a digit too many
+        for (int i = 0; i <= 10; i++) {
+            fuelLogService.create(carId, fuelLog(today.minusDays(100 - 10 * i), 10_000 + 500 * i));
+        }
+        fuelLogService.create(carId, fuelLog(today.minusDays(45), 127_500));
+        maintenanceService.create(carId, service(MaintenanceRecord.Type.OIL_CHANGE, today.minusDays(200), 5_000));
+        maintenanceService.create(carId, service(MaintenanceRecord.Type.OIL_CHANGE, today.minusDays(60), 12_000));
+        maintenanceService.create(carId, service(MaintenanceRecord.Type.TIRES, today.minusDays(20), 14_000));
+        maintenanceService.create(carId, service(MaintenanceRecord.Type.OTHER, today.minusDays(10), 14_500));
+
+        MileageForecast forecast = forecastService.refresh(carId);
+
+        assertEquals(0, new BigDecimal("50").compareTo(forecast.kmPerDay()), forecast.toString());
+        assertEquals(15_000, forecast.estimatedOdometer());
+        // the services count as readings too; OTHER has no interval and the first oil change is superseded
+        assertEquals(16, forecast.readings());
+        List<MileageForecast.DueService> services = forecast.services();
+        assertEquals(List.of(MaintenanceRecord.Type.OIL_CHANGE, MaintenanceRecord.Type.TIRES),
+                services.stream().map(MileageForecast.DueService::type).toList());
+        MileageForecast.DueService oil = services.get(0);
+        assertEquals(27_000, oil.dueMileage());
+        assertEquals(today.plusDays(240), oil.predictedDueDate());
+        assertEquals(today.plusDays(780), services.get(1).predictedDueDate());
+    }
+
+    @Test
+    void recordedMileageIsAFloorAndPassedServicesAreInThePast() {
+        Long carId = car(30_000);
+        for (int i = 0; i < 4; i++) {
+            fuelLogService.create(carId, fuelLog(today.minusDays(30 - 10 * i), 20_000 + 300 * i));
+        }
+        maintenanceService.create(carId, service(MaintenanceRecord.Type.OIL_CHANGE, today.minusDays(40), 12_000));
+
+        MileageForecast forecast = forecastService.refresh(carId);
+
+        assertEquals(30_000, forecast.estimatedOdometer());
+        // 27 000 was passed 3 000 km ago at 30 km a day
+        assertEquals(today.minusDays(100), forecast.services().get(0).predictedDueDate());
+    }
+
+    @Test
+    void carsWithTooFewReadingsHaveNoRate() {
+        Long fitted = car(null);
+        Long sparse = car(null);
+        for (int i = 0; i < 3; i++) {
+            fuelLogService.create(fitted, fuelLog(today.minusDays(60 - 20 * i), 1_000 + 1_000 * i));
+        }
+        FuelLog last = fuelLogService.create(sparse, fuelLog(today.minusDays(30), 1_000));
+        fuelLogService.create(sparse, fuelLog(today, 2_000));
+        maintenanceService.create(sparse, service(MaintenanceRecord.Type.BRAKES, today.minusDays(5), 1_800));
+
+        assertTrue(forecastService.refreshAll() >= 2);
+        assertTrue(rateRepository.existsById(fitted));
+        assertTrue(rateRepository.existsById(sparse));
+
+        fuelLogService.delete(last.getId());
+        MileageForecast forecast = forecastService.refresh(sparse);
+        assertNull(forecast.kmPerDay());
+        assertNull(forecast.services().get(0).predictedDueDate());
+        assertEquals(31_800, forecast.services().get(0).dueMileage());
+        assertFalse(rateRepository.existsById(sparse));
+
+        assertThrows(ResourceNotFoundException.class, () -> forecastService.findForCar(-1L));
+    }
+
+    @Test
+    void readingsAreRefittedAfterEachWrite() throws Exception {
+        Long carId = car(null);
+        for (int i = 0; i < 3; i++) {
+            fuelLogService.create(carId, fuelLog(today.minusDays(80 - 20 * i), 5_000 + 800 * i));
+        }
+        MileageForecast forecast = awaitReadings(carId, 3);
+        assertEquals(0, new BigDecimal("40").compareTo(forecast.kmPerDay()));
+
+        fuelLogService.create(carId, fuelLog(today.minusDays(20), 7_400));
+        fuelLogService.create(carId, fuelLog(today, 8_200));
+        assertEquals(8_200, awaitReadings(carId, 5).estimatedOdometer());
+    }
+
+    private MileageForecast awaitReadings(Long carId, int readings) throws InterruptedException {
+        MileageForecast forecast = null;
+        for (int attempt = 0; attempt < 100; attempt++) {
+            forecast = forecastService.findForCar(carId);
+            if (forecast.readings() != null && forecast.readings() == readings) {
+                return forecast;
+            }
+            Thread.sleep(50);
+        }
+        fail("rate not refitted: " + forecast);
+        return forecast;
+    }
+
+    private Long car(Integer mileage) {
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("FORECAST-" + SEQ.incrementAndGet());
+        car.setMileage(mileage);
+        return carRepository.save(car).getId();
+    }
+
+    private static FuelLog fuelLog(LocalDate date, int odometer) {
+        FuelLog log = new FuelLog();
+        log.setDate(date);
+        log.setOdometer(odometer);
+        log.setLitersFilled(new BigDecimal("40.00"));
+        return log;
+    }
+
+    private static MaintenanceRecord service(MaintenanceRecord.Type type, LocalDate date, int mileage) {
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setType(type);
+        rec.setDatePerformed(date);
+        rec.setMileageAtService(mileage);
+        return rec;
+    }
+}
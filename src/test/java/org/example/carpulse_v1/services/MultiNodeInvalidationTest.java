@@ -0,0 +1,204 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.CarpulseV1Application;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.dto.CarSummary;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application contexts on the one in-memory H2 database, standing in for two nodes: this test's context
+ * writes, a second context started here reads. The second one gets its own Hibernate cache manager (a distinct
+ * cache URI), as it would in its own JVM.
+ */
+@SpringBootTest(properties = {
+        "carpulse.invalidation.enabled=true",
+        "carpulse.invalidation.poll-interval=PT0.05S"
+})
+@ActiveProfiles("test")
+public class MultiNodeInvalidationTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+    private static final long LAG_MILLIS = 5_000;
+
+    private static ConfigurableApplicationContext other;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private InvalidationBus bus;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void startOtherNode() {
+        other = new SpringApplicationBuilder(CarpulseV1Application.class)
+                .profiles("test")
+                // arguments, so they win over application-test.properties
+                .run("--server.port=0",
+                        "--carpulse.invalidation.enabled=true",
+                        "--carpulse.invalidation.poll-interval=PT0.05S",
+                        "--spring.jpa.properties.hibernate.javax.cache.uri=classpath:hibernate-cache.conf");
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    void writesOnOneNodeReachTheOtherWithinABoundedLag() throws Exception {
+        int n = SEQ.incrementAndGet();
+        Family family = new Family();
+        family.setFamilyName("Two node family " + n);
+        family = familyRepository.save(family);
+        Long familyId = family.getId();
+        User driver = userService.createUser(familyId, user("two-node-driver-" + n));
+        Car car = carService.create(familyId, car("TWO-" + n + "-A"));
+
+        // the other node catches up with the setup, then caches what it reads
+        other.getBean(ChangeFeedInvalidationBus.class).poll();
+        CarService otherCars = other.getBean(CarService.class);
+        UserService otherUsers = other.getBean(UserService.class);
+        UserRepoUserDetailsService otherPrincipals = other.getBean(UserRepoUserDetailsService.class);
+        CarRepository otherCarRepository = other.getBean(CarRepository.class);
+        assertEquals(1, otherCars.findSummariesByFamily(familyId).size());
+        assertEquals("Skoda", otherCars.findById(car.getId()).getBrand());
+        assertEquals(1, otherUsers.listByFamily(familyId).size());
+        assertEquals(driver.getId(), otherPrincipals.loadUserByUsername(driver.getUsername()).getId());
+        long hits = other.getBean(FamilyReadCache.class).stats().hitCount();
+        assertEquals(1, otherCars.findSummariesByFamily(familyId).size());
+        assertEquals(hits + 1, other.getBean(FamilyReadCache.class).stats().hitCount());
+
+        long written = System.nanoTime();
+        Car details = car(car.getLicensePlate());
+        details.setBrand("Dacia");
+        carService.update(car.getId(), details);
+        carService.assignToUser(car.getId(), driver.getId());
+        User rename = new User();
+        rename.setUsername(driver.getUsername() + "-renamed");
+        userService.updateUser(driver.getId(), rename);
+        userService.createUser(familyId, user("two-node-invited-" + n));
+        Car second = carService.create(familyId, car("TWO-" + n + "-B"));
+
+        awaitOnOtherNode(() -> {
+            List<CarSummary> cars = otherCars.findSummariesByFamily(familyId);
+            return cars.size() == 2
+                    && "Dacia".equals(cars.get(0).brand())
+                    && cars.get(0).assignedUser() != null
+                    && rename.getUsername().equals(cars.get(0).assignedUser().username());
+        });
+        awaitOnOtherNode(() -> "Dacia".equals(otherCars.findById(car.getId()).getBrand()));
+        awaitOnOtherNode(() -> otherCars.findSummariesByUser(driver.getId()).size() == 1);
+        awaitOnOtherNode(() -> otherCars.findUnassignedSummariesByFamily(familyId).size() == 1);
+        awaitOnOtherNode(() -> otherUsers.listByFamily(familyId).size() == 2);
+        awaitOnOtherNode(() -> otherCarRepository.existsById(second.getId()));
+        awaitOnOtherNode(() -> {
+            try {
+                otherPrincipals.loadUserByUsername(driver.getUsername());
+                return false;
+            } catch (UsernameNotFoundException e) {
+                return true;
+            }
+        });
+        System.out.printf("other node up to date %d ms after the writes began%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - written));
+    }
+
+    @Test
+    void rowsCommittedOutOfIdOrderStillArrive() throws Exception {
+        Queue<String> received = new ConcurrentLinkedQueue<>();
+        other.getBean(InvalidationBus.class).subscribe("test", received::add);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            // takes the lower id but commits last
+            Future<?> slow = writer.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                bus.publish("test", "slow");
+                inserted.countDown();
+                try {
+                    assertTrue(commit.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(inserted.await(5, TimeUnit.SECONDS));
+            bus.publish("test", "fast");
+            awaitOnOtherNode(() -> received.contains("fast"));
+            assertFalse(received.contains("slow"));
+
+            commit.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+            awaitOnOtherNode(() -> received.contains("slow"));
+        } finally {
+            commit.countDown();
+            writer.shutdownNow();
+        }
+        // a node does not hear its own writes back
+        assertEquals(List.of("fast", "slow"), List.copyOf(received));
+    }
+
+    private static void awaitOnOtherNode(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LAG_MILLIS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("not seen on the other node within " + LAG_MILLIS + " ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setRoles(List.of(Role.ROLE_USER));
+        return user;
+    }
+
+    private static Car car(String plate) {
+        Car car = new Car();
+        car.setLicensePlate(plate);
+        car.setBrand("Skoda");
+        car.setModel("Octavia");
+        return car;
+    }
+}
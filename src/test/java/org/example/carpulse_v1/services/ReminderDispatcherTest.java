@@ -0,0 +1,76 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Reminder;
+import org.example.carpulse_v1.repositories.ComplianceRecordRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.example.carpulse_v1.repositories.ReminderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderDispatcherTest {
+
+    @Mock
+    private ReminderRepository reminderRepository;
+
+    @Mock
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Mock
+    private ComplianceRecordRepository complianceRepository;
+
+    @Mock
+    private ReminderNotifier notifier;
+
+    @Mock
+    private FamilyEventHub events;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReminderDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void aFailedDeliveryUpdateIsRetried() {
+        dispatcher = new ReminderDispatcher(reminderRepository, maintenanceRepository, complianceRepository,
+                notifier, events, transactionManager, Clock.systemDefaultZone(), 100, 5, Duration.ofMillis(50));
+        Reminder reminder = new Reminder();
+        reminder.setId(1L);
+        reminder.setSource(Reminder.Source.MAINTENANCE);
+        reminder.setRecordId(2L);
+        reminder.setCarId(3L);
+        reminder.setDueDate(LocalDate.now());
+        when(reminderRepository.findByDeliveredAtIsNullAndAttemptsLessThanOrderById(anyInt(), any(Limit.class)))
+                .thenReturn(List.of(reminder), List.of(reminder), List.of());
+        when(reminderRepository.save(reminder))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(reminder);
+
+        dispatcher.deliverPending();
+
+        // sent, not recorded, read again after the retry delay
+        verify(reminderRepository, timeout(2000).times(2)).save(reminder);
+        verify(reminderRepository, timeout(2000).atLeast(2))
+                .findByDeliveredAtIsNullAndAttemptsLessThanOrderById(anyInt(), any(Limit.class));
+    }
+}
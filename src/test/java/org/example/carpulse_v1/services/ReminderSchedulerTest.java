@@ -0,0 +1,226 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.*;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.MaintenanceRecordRepository;
+import org.example.carpulse_v1.repositories.ReminderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "carpulse.reminders.fire-time=00:00",
+        "carpulse.reminders.retry-delay=PT0.2S"
+})
+@ActiveProfiles("test")
+public class ReminderSchedulerTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @TestConfiguration
+    static class Notifier {
+        @Bean
+        @Primary
+        RecordingNotifier recordingNotifier() {
+            return new RecordingNotifier();
+        }
+    }
+
+    static class RecordingNotifier implements ReminderNotifier {
+        final BlockingQueue<Reminder> sent = new LinkedBlockingQueue<>();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public void send(Reminder reminder) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("channel down");
+            }
+            sent.add(reminder);
+        }
+
+        Reminder next() throws InterruptedException {
+            return sent.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Autowired
+    private RecordingNotifier notifier;
+
+    @Autowired
+    private ReminderScheduler scheduler;
+
+    @Autowired
+    private ReminderDispatcher dispatcher;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private ComplianceService complianceService;
+
+    @Autowired
+    private ReminderRepository reminderRepository;
+
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRepository;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        notifier.sent.clear();
+        notifier.failuresLeft.set(0);
+        Family family = new Family();
+        family.setFamilyName("Reminder family " + SEQ.incrementAndGet());
+        family = familyRepository.save(family);
+        car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("REM-" + SEQ.incrementAndGet());
+        car = carRepository.save(car);
+    }
+
+    @Test
+    void firesWhenTheDueDateIsReachedAndRecordsTheOutboxRow() throws Exception {
+        MaintenanceRecord rec = maintenance(today);
+
+        Reminder sent = notifier.next();
+        assertNotNull(sent, "reminder was not delivered");
+        assertEquals(Reminder.Source.MAINTENANCE, sent.getSource());
+        assertEquals(rec.getId(), sent.getRecordId());
+        assertEquals(car.getId(), sent.getCarId());
+
+        Reminder stored = awaitDelivered(sent.getId());
+        assertEquals(1, stored.getAttempts());
+    }
+
+    @Test
+    void datesThatPassedWhileTheNodeWasDownStillFire() throws Exception {
+        // written without the scheduler seeing it, as if the node had been down over its due date
+        MaintenanceRecord missed = new MaintenanceRecord();
+        missed.setCar(car);
+        missed.setType(MaintenanceRecord.Type.OIL_CHANGE);
+        missed.setDatePerformed(today.minusDays(180));
+        missed.setNextDueDate(today.minusDays(2));
+        missed = maintenanceRepository.save(missed);
+
+        scheduler.loadDueDates();
+
+        Reminder sent = notifier.next();
+        assertNotNull(sent, "missed reminder was not delivered");
+        assertEquals(missed.getId(), sent.getRecordId());
+        assertEquals(today.minusDays(2), sent.getDueDate());
+        awaitDelivered(sent.getId());
+
+        // loading again finds it already in the outbox
+        scheduler.loadDueDates();
+        assertNull(notifier.sent.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void datesOlderThanTheCatchUpWindowAreNotScheduled() {
+        int before = scheduler.pendingCount();
+        maintenance(today.minusDays(30));
+        assertEquals(before, scheduler.pendingCount());
+    }
+
+    @Test
+    void updatesAndDeletesRescheduleWithoutFiringStaleDates() throws Exception {
+        int before = scheduler.pendingCount();
+        ComplianceRecord moved = compliance(today.plusDays(3));
+        ComplianceRecord dropped = compliance(today.plusDays(4));
+        assertEquals(before + 2, scheduler.pendingCount());
+
+        complianceService.delete(dropped.getId());
+        ComplianceRecord detail = new ComplianceRecord();
+        detail.setType("ITP");
+        detail.setExpiryDate(today.plusDays(30));
+        detail.setReminderDate(today);
+        complianceService.update(moved.getId(), detail);
+
+        Reminder sent = notifier.next();
+        assertNotNull(sent, "rescheduled reminder was not delivered");
+        assertEquals(moved.getId(), sent.getRecordId());
+        assertEquals(today, sent.getDueDate());
+        assertEquals(before, scheduler.pendingCount());
+    }
+
+    @Test
+    void failedDeliveriesStayInTheOutboxAndAreRetried() throws Exception {
+        notifier.failuresLeft.set(2);
+        MaintenanceRecord rec = maintenance(today);
+
+        Reminder sent = notifier.next();
+        assertNotNull(sent, "reminder was not retried");
+        assertEquals(rec.getId(), sent.getRecordId());
+        Reminder stored = awaitDelivered(sent.getId());
+        assertEquals(3, stored.getAttempts());
+        assertNull(stored.getLastError());
+    }
+
+    @Test
+    void aReminderIsWrittenOnceHoweverOftenItFires() throws Exception {
+        MaintenanceRecord rec = maintenance(today);
+        assertNotNull(notifier.next());
+
+        dispatcher.fire(Reminder.Source.MAINTENANCE, rec.getId(), car.getId(), today);
+        dispatcher.fire(Reminder.Source.MAINTENANCE, rec.getId(), car.getId(), today);
+        // a date the record no longer has is ignored as well
+        dispatcher.fire(Reminder.Source.MAINTENANCE, rec.getId(), car.getId(), today.plusDays(1));
+
+        assertNull(notifier.sent.poll(300, TimeUnit.MILLISECONDS));
+        List<Reminder> rows = reminderRepository.findAll().stream()
+                .filter(r -> r.getSource() == Reminder.Source.MAINTENANCE && r.getRecordId().equals(rec.getId()))
+                .toList();
+        assertEquals(1, rows.size());
+    }
+
+    // the row is marked delivered just after the notifier returns
+    private Reminder awaitDelivered(Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Reminder stored = reminderRepository.findById(id).orElseThrow();
+            if (stored.getDeliveredAt() != null) {
+                return stored;
+            }
+            Thread.sleep(20);
+        }
+        return fail("reminder " + id + " never marked delivered");
+    }
+
+    private MaintenanceRecord maintenance(LocalDate nextDue) {
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setType(MaintenanceRecord.Type.OIL_CHANGE);
+        rec.setDatePerformed(today.minusDays(180));
+        rec.setNextDueDate(nextDue);
+        return maintenanceService.create(car.getId(), rec);
+    }
+
+    private ComplianceRecord compliance(LocalDate reminder) {
+        ComplianceRecord rec = new ComplianceRecord();
+        rec.setType("ITP");
+        rec.setExpiryDate(today.plusDays(30));
+        rec.setReminderDate(reminder);
+        return complianceService.create(car.getId(), rec);
+    }
+}
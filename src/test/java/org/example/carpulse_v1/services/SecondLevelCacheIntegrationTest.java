@@ -0,0 +1,147 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Repeat reads of families, users and cars must be served from the second-level cache,
+ * and only committed writes may become visible through it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheIntegrationTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Family family;
+    private User driver;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        int n = SEQ.incrementAndGet();
+        family = new Family();
+        family.setFamilyName("Cache family " + n);
+        family = familyRepository.save(family);
+
+        driver = new User();
+        driver.setUsername("cache-driver-" + n);
+        driver.setEmail("cache-driver-" + n + "@example.com");
+        driver.setPassword("password");
+        driver.setRoles(List.of(Role.ROLE_USER));
+        driver.setFamily(family);
+        driver = userRepository.save(driver);
+
+        car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("CACHE-" + n);
+        car.setBrand("Dacia");
+        car.setModel("Logan");
+        car = carRepository.save(car);
+    }
+
+    @Test
+    void repeatReadsHitNoSql() {
+        readEverything();
+
+        statistics.clear();
+        readEverything();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    void repeatAssignmentLoadsCarAndUserFromCache() {
+        carService.assignToUser(car.getId(), driver.getId());
+
+        statistics.clear();
+        Car assigned = carService.assignToUser(car.getId(), driver.getId());
+
+        assertEquals(driver.getId(), assigned.getAssignedUser().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void onlyCommittedChangesReachTheCache() {
+        carService.findById(car.getId());
+
+        Car details = carService.findById(car.getId());
+        details.setBrand("Renault");
+        carService.update(car.getId(), details);
+        assertEquals("Renault", carService.findById(car.getId()).getBrand());
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            carService.findById(car.getId()).setBrand("Rolled back");
+            carRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        statistics.clear();
+        assertEquals("Renault", carService.findById(car.getId()).getBrand());
+    }
+
+    @Test
+    void deletedFamilyNoLongerExists() {
+        Family other = new Family();
+        other.setFamilyName("Short-lived family " + SEQ.incrementAndGet());
+        other = familyRepository.save(other);
+        assertTrue(familyRepository.existsById(other.getId()));
+
+        familyRepository.deleteById(other.getId());
+
+        assertEquals(false, familyRepository.existsById(other.getId()));
+    }
+
+    private void readEverything() {
+        carService.findById(car.getId());
+        familyRepository.existsById(family.getId());
+        familyRepository.findById(family.getId());
+        userRepository.findById(driver.getId());
+        userRepository.findByUsername(driver.getUsername());
+        userRepository.existsById(driver.getId());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.carpulse_v1.services;
+
+import com.tdunning.math.stats.MergingDigest;
+import org.example.carpulse_v1.domain.SegmentSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentSketchesTest {
+    private static final SegmentSketch.Metric ECONOMY = SegmentSketch.Metric.ECONOMY;
+
+    @Test
+    void mergedQuantilesStayWithinOnePercentRankOfExact() {
+        Random random = new Random(11);
+        int n = 200_000;
+        double[] exact = new double[n];
+        // four instances flushing their share into one stored row every 10 000 fills
+        SegmentSketches[] instances = new SegmentSketches[4];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new SegmentSketches(100);
+        }
+        byte[] row = SegmentSketches.encode(new MergingDigest(100));
+        for (int i = 0; i < n; i++) {
+            // skewed and two-humped: most cars around 7 L/100km, a long tail of heavier ones
+            double value = random.nextDouble() < 0.8
+                    ? 7 + random.nextGaussian() * 0.8
+                    : Math.exp(2.3 + random.nextGaussian() * 0.3);
+            exact[i] = value;
+            instances[i % instances.length].add(ECONOMY, value);
+            if ((i + 1) % 10_000 == 0) {
+                for (SegmentSketches instance : instances) {
+                    row = flush(instance, row);
+                }
+            }
+        }
+        assertTrue(row.length <= 16_384, "sketch bytes: " + row.length);
+
+        Arrays.sort(exact);
+        SegmentSketches reader = new SegmentSketches(100);
+        reader.stored(ECONOMY, SegmentSketches.decode(row));
+        SegmentSketches.Snapshot snapshot = reader.snapshot(ECONOMY);
+        assertEquals(n, snapshot.samples());
+        assertRank(exact, 0.1, snapshot.p10());
+        assertRank(exact, 0.5, snapshot.p50());
+        assertRank(exact, 0.9, snapshot.p90());
+    }
+
+    @Test
+    void readsIncludeSamplesNotYetFlushed() {
+        SegmentSketches sketches = new SegmentSketches(100);
+        assertNull(sketches.takeDelta(ECONOMY));
+        assertEquals(0, sketches.snapshot(ECONOMY).samples());
+        assertTrue(Double.isNaN(sketches.snapshot(ECONOMY).p50()));
+
+        for (int i = 1; i <= 100; i++) {
+            sketches.add(ECONOMY, i);
+        }
+        MergingDigest taken = sketches.takeDelta(ECONOMY);
+        assertEquals(100, taken.size());
+        sketches.add(ECONOMY, 101);
+        // the flush failed: the taken samples go back to the next one
+        sketches.restore(ECONOMY, taken);
+        assertEquals(101, sketches.takeDelta(ECONOMY).size());
+
+        // another instance stored 1000 samples meanwhile; one more was added here after the flush
+        MergingDigest stored = new MergingDigest(100);
+        for (int i = 0; i < 1_000; i++) {
+            stored.add(1_000 + i);
+        }
+        sketches.add(ECONOMY, 5);
+        sketches.stored(ECONOMY, stored);
+        assertEquals(1_001, sketches.snapshot(ECONOMY).samples());
+        assertEquals(1, sketches.takeDelta(ECONOMY).size());
+        assertEquals(0, sketches.snapshot(SegmentSketch.Metric.PRICE).samples());
+    }
+
+    // what FleetBenchmarkService does under the row lock
+    private static byte[] flush(SegmentSketches instance, byte[] row) {
+        MergingDigest delta = instance.takeDelta(ECONOMY);
+        if (delta == null) {
+            return row;
+        }
+        MergingDigest stored = SegmentSketches.decode(row);
+        stored.add(delta);
+        return SegmentSketches.encode(stored);
+    }
+
+    private static void assertRank(double[] sorted, double q, double estimate) {
+        int below = 0;
+        while (below < sorted.length && sorted[below] <= estimate) {
+            below++;
+        }
+        double rank = (double) below / sorted.length;
+        assertEquals(q, rank, 0.01, "q" + q + " estimate " + estimate);
+    }
+}
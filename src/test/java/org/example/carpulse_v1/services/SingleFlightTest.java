@@ -0,0 +1,156 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> flights =
+            new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> flights.run("family-1", blockedLoad(() -> "cars"))));
+        }
+        awaitShared(7);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("cars", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        // done loads are not kept
+        assertEquals("again", flights.run("family-1", () -> "again"));
+    }
+
+    @Test
+    void differentKeysLoadSeparately() {
+        assertEquals("a", flights.run("a", () -> "a"));
+        assertEquals("b", flights.run("b", () -> "b"));
+        assertEquals(0, shared());
+    }
+
+    @Test
+    void aFailedLoadFailsEveryWaiterWithItsException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("database down");
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> flights.run("family-1", blockedLoad(() -> {
+                throw failure;
+            }))));
+        }
+        awaitShared(3);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, loads.get());
+        assertEquals("recovered", flights.run("family-1", () -> "recovered"));
+    }
+
+    @Test
+    void waitersGiveUpAfterTheTimeoutButTheLoadCompletes() throws Exception {
+        SingleFlight<String, String> quick = new SingleFlight<>("quick", Duration.ofMillis(50), meterRegistry);
+        Future<String> leader = callers.submit(() -> quick.run("family-1", blockedLoad(() -> "slow")));
+        while (loads.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> quick.run("family-1", () -> "never"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("carpulse.single-flight.timeouts", "name", "quick").count());
+
+        release.countDown();
+        assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void forgottenLoadsAreNotJoined() throws Exception {
+        Future<String> before = callers.submit(() -> flights.run("family-1", blockedLoad(() -> "old rows")));
+        while (loads.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        flights.forget("family-1");
+        assertEquals("new rows", flights.run("family-1", () -> "new rows"));
+
+        release.countDown();
+        assertEquals("old rows", before.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callersInATransactionLoadForThemselves() throws Exception {
+        Future<String> leader = callers.submit(() -> flights.run("family-1", blockedLoad(() -> "shared")));
+        while (loads.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals("own writes", flights.run("family-1", () -> "own writes"));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(0, shared());
+
+        release.countDown();
+        assertEquals("shared", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    // counts the load and holds it until release
+    private Supplier<String> blockedLoad(Supplier<String> result) {
+        return () -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private void awaitShared(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (shared() < waiters) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the running load");
+            Thread.sleep(5);
+        }
+    }
+
+    private double shared() {
+        return meterRegistry.counter("carpulse.single-flight.shared", "name", "test").count();
+    }
+}
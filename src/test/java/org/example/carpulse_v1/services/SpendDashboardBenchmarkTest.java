@@ -0,0 +1,102 @@
+package org.example.carpulse_v1.services;
+
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.dto.SpendDashboard;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times the family spend dashboard over ten years of data against the same figures summed from the raw
+ * fuel logs. The rollup read depends on months × cars, so its time stays flat as {@code -Drows} grows;
+ * the raw aggregate grows with it.
+ * Run with: mvn test -Dtest=SpendDashboardBenchmarkTest -Dbenchmark=true [-Drows=300000]
+ */
+@SpringBootTest(properties = {
+        // H2 would otherwise answer the repeated raw aggregate from its result cache
+        "spring.datasource.url=jdbc:h2:mem:spend-bench;DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=YEAR;QUERY_CACHE_SIZE=0",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SpendDashboardBenchmarkTest {
+    private static final int CALLS = 2_000;
+    private static final YearMonth FROM = YearMonth.of(2000, 1);
+    private static final YearMonth TO = YearMonth.of(2009, 12);
+
+    @Autowired
+    private SpendRollupService spendRollupService;
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void dashboardOverTenYears() throws Exception {
+        int rows = Integer.getInteger("rows", 300_000);
+        Family family = new Family();
+        family.setFamilyName("Spend benchmark");
+        family = familyRepository.save(family);
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("BENCH-SPEND");
+        car = carRepository.save(car);
+        // three fills a day from 2000-01-01
+        importService.importForCar(car.getId(), new FuelLogImportBenchmarkTest.GeneratedCsv(rows),
+                FuelLogImportService.Format.CSV);
+        Long familyId = family.getId();
+
+        long[] rollup = time(() -> spendRollupService.findForFamily(familyId, FROM, TO));
+        long[] raw = time(() -> jdbcTemplate.queryForList("select year(l.date), month(l.date), sum(l.total_cost) "
+                + "from fuel_logs l join cars c on c.id = l.car_id where c.family_id = ? "
+                + "and l.date between ? and ? group by year(l.date), month(l.date)",
+                familyId, FROM.atDay(1), TO.atEndOfMonth()));
+        System.out.printf("%d fuel logs, %d months: rollups median %.3f ms p99 %.3f ms, "
+                        + "raw aggregate median %.3f ms p99 %.3f ms%n",
+                rows, FROM.until(TO, java.time.temporal.ChronoUnit.MONTHS) + 1,
+                rollup[CALLS / 2] / 1e6, rollup[CALLS * 99 / 100] / 1e6,
+                raw[CALLS / 2] / 1e6, raw[CALLS * 99 / 100] / 1e6);
+
+        SpendDashboard dashboard = spendRollupService.findForFamily(familyId, FROM, TO);
+        BigDecimal fromLogs = jdbcTemplate.queryForObject("select sum(total_cost) from fuel_logs where car_id = ? "
+                + "and date between ? and ?", BigDecimal.class, car.getId(), FROM.atDay(1), TO.atEndOfMonth());
+        assertEquals(0, fromLogs.compareTo(dashboard.total().fuel()));
+        assertTrue(rollup[CALLS / 2] < 1_000_000, "median " + rollup[CALLS / 2] + " ns");
+    }
+
+    // sorted call times in ns, after a warm-up round
+    private static long[] time(Runnable call) {
+        for (int i = 0; i < CALLS / 4; i++) {
+            call.run();
+        }
+        long[] times = new long[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            long start = System.nanoTime();
+            call.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times;
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.carpulse_v1.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carpulse_v1.domain.Car;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.FuelLog;
+import org.example.carpulse_v1.domain.MaintenanceRecord;
+import org.example.carpulse_v1.dto.SpendDashboard;
+import org.example.carpulse_v1.exception.ResourceNotFoundException;
+import org.example.carpulse_v1.repositories.CarRepository;
+import org.example.carpulse_v1.repositories.FamilyRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SpendRollupServiceTest {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+    private static final YearMonth FROM = YearMonth.of(2024, 1);
+    private static final YearMonth TO = YearMonth.of(2024, 12);
+
+    @Autowired
+    private SpendRollupService spendRollupService;
+
+    @Autowired
+    private FuelLogService fuelLogService;
+
+    @Autowired
+    private MaintenanceService maintenanceService;
+
+    @Autowired
+    private FuelLogImportService importService;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long familyId;
+    private Long firstCar;
+    private Long secondCar;
+
+    @BeforeEach
+    void setUp() {
+        Family family = new Family();
+        family.setFamilyName("Spend family " + SEQ.incrementAndGet());
+        familyId = familyRepository.save(family).getId();
+        firstCar = car(family);
+        secondCar = car(family);
+    }
+
+    @Test
+    void writesKeepTheMonthlyRollupsCurrent() {
+        FuelLog january = fuelLogService.create(firstCar, fuelLog(LocalDate.of(2024, 1, 10), "100.00"));
+        fuelLogService.create(firstCar, fuelLog(LocalDate.of(2024, 1, 25), "50.00"));
+        fuelLogService.create(secondCar, fuelLog(LocalDate.of(2024, 2, 3), "80.00"));
+        fuelLogService.create(secondCar, fuelLog(LocalDate.of(2024, 2, 4), null));
+        MaintenanceRecord service = maintenanceService.create(firstCar, maintenance(LocalDate.of(2024, 2, 15), "300.00"));
+        MaintenanceRecord repair = maintenanceService.create(secondCar, maintenance(LocalDate.of(2024, 3, 1), "120.00"));
+
+        // moved to another month with a corrected cost, and one record gone
+        fuelLogService.update(january.getId(), fuelLog(LocalDate.of(2024, 3, 2), "110.00"));
+        maintenanceService.update(service.getId(), maintenance(LocalDate.of(2024, 2, 15), "320.00"));
+        maintenanceService.delete(repair.getId());
+
+        SpendDashboard dashboard = spendRollupService.findForFamily(familyId, FROM, TO);
+        assertSpend(dashboard.total(), "240", "320");
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3)),
+                dashboard.months().stream().map(SpendDashboard.MonthSpend::month).toList());
+        assertSpend(dashboard.months().get(0).spend(), "50", "0");
+        assertSpend(dashboard.months().get(1).spend(), "80", "320");
+        assertSpend(dashboard.months().get(2).spend(), "110", "0");
+        assertEquals(List.of(firstCar, secondCar), dashboard.cars().stream().map(SpendDashboard.CarSpend::carId).toList());
+        assertSpend(dashboard.cars().get(0).spend(), "160", "320");
+        assertSpend(dashboard.cars().get(1).spend(), "80", "0");
+
+        // the range is applied by month
+        SpendDashboard february = spendRollupService.findForFamily(familyId, YearMonth.of(2024, 2), YearMonth.of(2024, 2));
+        assertSpend(february.total(), "80", "320");
+        assertEquals(dashboard, rebuilt());
+    }
+
+    @Test
+    void rejectedImportRowsAreNotCounted() throws Exception {
+        fuelLogService.create(firstCar, fuelLog(LocalDate.of(2024, 5, 1), "10.00"));
+        // the middle row overflows total_cost, so its chunk is rolled back and replayed row by row
+        String csv = """
+                date,litersFilled,totalCost
+                2024-05-02,30,210
+                2024-05-03,30,1%s
+                2024-06-01,30,215.50
+                """.formatted("0".repeat(40));
+        importService.importForCar(firstCar, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                FuelLogImportService.Format.CSV);
+
+        SpendDashboard dashboard = spendRollupService.findForFamily(familyId, FROM, TO);
+        assertSpend(dashboard.total(), "435.50", "0");
+        assertEquals(dashboard, rebuilt());
+    }
+
+    @Test
+    void dashboardReadsOnlyTheRollups() {
+        for (int day = 1; day <= 20; day++) {
+            fuelLogService.create(firstCar, fuelLog(LocalDate.of(2024, 4, day), "10.00"));
+        }
+        spendRollupService.findForFamily(familyId, FROM, TO);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SpendDashboard dashboard = spendRollupService.findForFamily(familyId, FROM, TO);
+
+        assertSpend(dashboard.total(), "200", "0");
+        // existsById comes from the query cache; one range read of spend_rollups
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityStatistics(FuelLog.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void invalidRangesAndUnknownFamiliesAreRejected() {
+        assertThrows(ResponseStatusException.class, () -> spendRollupService.findForFamily(familyId, TO, FROM));
+        assertThrows(ResourceNotFoundException.class, () -> spendRollupService.findForFamily(-1L, FROM, TO));
+        assertThrows(ResourceNotFoundException.class, () -> spendRollupService.rebuild(-1L));
+    }
+
+    private SpendDashboard rebuilt() {
+        spendRollupService.rebuild(familyId);
+        return spendRollupService.findForFamily(familyId, FROM, TO);
+    }
+
+    // compareTo: 80 and 80.00 are the same amount
+    private static void assertSpend(SpendDashboard.Spend spend, String fuel, String maintenance) {
+        assertEquals(0, new BigDecimal(fuel).compareTo(spend.fuel()), "fuel " + spend);
+        assertEquals(0, new BigDecimal(maintenance).compareTo(spend.maintenance()), "maintenance " + spend);
+        assertEquals(0, new BigDecimal(fuel).add(new BigDecimal(maintenance)).compareTo(spend.total()), "total " + spend);
+    }
+
+    private Long car(Family family) {
+        Car car = new Car();
+        car.setFamily(family);
+        car.setLicensePlate("SPEND-" + SEQ.incrementAndGet());
+        return carRepository.save(car).getId();
+    }
+
+    private static FuelLog fuelLog(LocalDate date, String cost) {
+        FuelLog log = new FuelLog();
+        log.setDate(date);
+        log.setLitersFilled(new BigDecimal("30.00"));
+        log.setTotalCost(cost == null ? null : new BigDecimal(cost));
+        return log;
+    }
+
+    private static MaintenanceRecord maintenance(LocalDate date, String cost) {
+        MaintenanceRecord rec = new MaintenanceRecord();
+        rec.setType(MaintenanceRecord.Type.OIL_CHANGE);
+        rec.setDatePerformed(date);
+        rec.setEstimatedCost(new BigDecimal(cost));
+        return rec;
+    }
+}
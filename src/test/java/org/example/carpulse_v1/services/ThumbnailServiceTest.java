@@ -0,0 +1,123 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThumbnailServiceTest {
+
+    @TempDir
+    Path root;
+
+    private ImageStore imageStore;
+    private SimpleMeterRegistry meterRegistry;
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStore = new ImageStore(root, DataSize.ofMegabytes(10));
+        meterRegistry = new SimpleMeterRegistry();
+        thumbnailService = new ThumbnailService(imageStore, meterRegistry, 1, 10, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    void generatesSmallAndMediumRenditionsKeepingAspectRatio() throws Exception {
+        String key = storePng(2000, 1000);
+
+        thumbnailService.generate(key);
+
+        BufferedImage small = ImageIO.read(imageStore.findRendition(key, "small").orElseThrow().toFile());
+        BufferedImage medium = ImageIO.read(imageStore.findRendition(key, "medium").orElseThrow().toFile());
+        assertEquals(160, small.getWidth());
+        assertEquals(80, small.getHeight());
+        assertEquals(640, medium.getWidth());
+        assertEquals(320, medium.getHeight());
+        assertEquals(1, meterRegistry.get("carpulse.thumbnails.processing").timer().count());
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() throws Exception {
+        String key = storePng(100, 50);
+
+        thumbnailService.generate(key);
+
+        BufferedImage medium = ImageIO.read(imageStore.findRendition(key, "medium").orElseThrow().toFile());
+        assertEquals(100, medium.getWidth());
+    }
+
+    @Test
+    void missingRenditionIsScheduledAndEventuallyServed() throws Exception {
+        String key = storePng(800, 600);
+
+        assertTrue(thumbnailService.findOrSchedule(key, ThumbnailService.Rendition.SMALL).isEmpty());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thumbnailService.isPending(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(thumbnailService.findOrSchedule(key, ThumbnailService.Rendition.SMALL).isPresent());
+    }
+
+    @Test
+    void anImageWithoutAReaderIsNotScheduledAgain() throws Exception {
+        String key = imageStore.store(new ByteArrayInputStream("RIFF....WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)),
+                "image/webp");
+
+        assertTrue(thumbnailService.findOrSchedule(key, ThumbnailService.Rendition.SMALL).isEmpty());
+        awaitIdle(key);
+
+        assertTrue(thumbnailService.hasFailed(key));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(thumbnailService.findOrSchedule(key, ThumbnailService.Rendition.SMALL).isEmpty());
+            assertFalse(thumbnailService.isPending(key));
+        }
+        thumbnailService.submit(key);
+        assertFalse(thumbnailService.isPending(key));
+        assertEquals(1, meterRegistry.get("carpulse.thumbnails.processing").timer().count());
+    }
+
+    @Test
+    void aCorruptImageIsRememberedAsFailed() throws Exception {
+        byte[] png = pngBytes(400, 300);
+        byte[] truncated = Arrays.copyOf(png, 40);
+        String key = imageStore.store(new ByteArrayInputStream(truncated), "image/png");
+
+        thumbnailService.generate(key);
+
+        assertTrue(thumbnailService.hasFailed(key));
+        assertEquals(1.0, meterRegistry.get("carpulse.thumbnails.failures").counter().count());
+        assertTrue(thumbnailService.findOrSchedule(key, ThumbnailService.Rendition.MEDIUM).isEmpty());
+        assertFalse(thumbnailService.isPending(key));
+    }
+
+    private void awaitIdle(String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thumbnailService.isPending(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private String storePng(int width, int height) throws Exception {
+        return imageStore.store(new ByteArrayInputStream(pngBytes(width, height)), "image/png");
+    }
+
+    private static byte[] pngBytes(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.carpulse_v1.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carpulse_v1.domain.Family;
+import org.example.carpulse_v1.domain.Role;
+import org.example.carpulse_v1.domain.User;
+import org.example.carpulse_v1.repositories.UserRepository;
+import org.example.carpulse_v1.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserRepoUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserRepoUserDetailsService uds;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        uds = new UserRepoUserDetailsService(userRepository, new LocalInvalidationBus(), new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(5));
+
+        Family family = new Family();
+        family.setId(1L);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setPassword("hash");
+        testUser.setRoles(List.of(Role.ROLE_ADMIN));
+        testUser.setFamily(family);
+    }
+
+    @Test
+    void repeatedLoadsAreServedFromCache() {
+        when(userRepository.findByUsername("testuser")).thenReturn(testUser);
+
+        AuthenticatedUser first = uds.loadUserByUsername("testuser");
+        AuthenticatedUser second = uds.loadUserByUsername("testuser");
+
+        assertSame(first, second);
+        assertEquals(1L, first.getFamilyId());
+        assertTrue(first.isAdmin());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(1, uds.stats().hitCount());
+        assertEquals(1, uds.stats().missCount());
+    }
+
+    @Test
+    void evictForcesReload() {
+        when(userRepository.findByUsername("testuser")).thenReturn(testUser);
+
+        uds.loadUserByUsername("testuser");
+        uds.evict(1L, null);
+        uds.loadUserByUsername("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(null);
+
+        assertThrows(UsernameNotFoundException.class, () -> uds.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> uds.loadUserByUsername("ghost"));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+}